@@ -0,0 +1,95 @@
+package benchmark;
+
+import bwapi.TilePosition;
+import headless.GameSnapshot;
+import info.map.GameMap;
+import info.map.MapTile;
+import info.map.MapTileType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Synthetic, seeded fixtures shared by the benchmarks.
+ */
+final class Fixtures {
+
+    static final int MAP_SIZE = 128;
+    static final long SEED = 0x1A5EEDL;
+
+    private Fixtures() {}
+
+    /**
+     * Open map scattered with rectangular cliffs, roughly a fifth of the tiles end up unwalkable.
+     *
+     * @return walkable[x][y]
+     */
+    static boolean[][] walkableTiles(long seed) {
+        Random random = new Random(seed);
+        boolean[][] walkable = new boolean[MAP_SIZE][MAP_SIZE];
+        for (boolean[] column : walkable) {
+            Arrays.fill(column, true);
+        }
+
+        int blocked = 0;
+        while (blocked < MAP_SIZE * MAP_SIZE / 5) {
+            int w = 2 + random.nextInt(7);
+            int h = 2 + random.nextInt(7);
+            int x0 = random.nextInt(MAP_SIZE - w);
+            int y0 = random.nextInt(MAP_SIZE - h);
+            for (int x = x0; x < x0 + w; x++) {
+                for (int y = y0; y < y0 + h; y++) {
+                    if (walkable[x][y]) {
+                        walkable[x][y] = false;
+                        blocked++;
+                    }
+                }
+            }
+        }
+        return walkable;
+    }
+
+    static GameMap gameMap(boolean[][] walkable) {
+        GameMap gameMap = new GameMap(MAP_SIZE, MAP_SIZE);
+        for (int x = 0; x < MAP_SIZE; x++) {
+            for (int y = 0; y < MAP_SIZE; y++) {
+                MapTile tile = new MapTile(new TilePosition(x, y), walkable[x][y], walkable[x][y], MapTileType.NORMAL);
+                gameMap.addTile(tile, x, y, 0);
+            }
+        }
+        return gameMap;
+    }
+
+    /**
+     * Stand-in game over the given tiles, frames is appended verbatim in GameSnapshot's format.
+     */
+    static SnapshotGame snapshotGame(boolean[][] walkable, TilePosition start, String frames) throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append("map synthetic ").append(MAP_SIZE).append(' ').append(MAP_SIZE).append('\n');
+        for (int y = 0; y < MAP_SIZE; y++) {
+            for (int x = 0; x < MAP_SIZE; x++) {
+                text.append(walkable[x][y] ? '.' : '#');
+            }
+            text.append('\n');
+        }
+        text.append("start ").append(start.getX()).append(' ').append(start.getY()).append('\n');
+        text.append(frames);
+        return new SnapshotGame(GameSnapshot.read(new BufferedReader(new StringReader(text.toString()))));
+    }
+
+    /**
+     * @return a uniformly random walkable tile
+     */
+    static TilePosition randomWalkableTile(boolean[][] walkable, Random random) {
+        while (true) {
+            int x = random.nextInt(MAP_SIZE);
+            int y = random.nextInt(MAP_SIZE);
+            if (walkable[x][y]) {
+                return new TilePosition(x, y);
+            }
+        }
+    }
+}
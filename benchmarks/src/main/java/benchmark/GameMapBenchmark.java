@@ -0,0 +1,90 @@
+package benchmark;
+
+import bwapi.Position;
+import bwapi.TilePosition;
+import info.exception.NoWalkablePathException;
+import info.map.GameMap;
+import info.map.GroundPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ground path-finding over a synthetic 128x128 tile map.
+ *
+ * Each invocation answers the next query from a fixed, seeded list so every run sees the same mix of
+ * short and long paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameMapBenchmark {
+
+    private static final int QUERIES = 256;
+    private static final int TARGETS = 8;
+
+    private GameMap gameMap;
+    private final List<TilePosition[]> pathQueries = new ArrayList<>();
+    private final List<TilePosition> nearestQueries = new ArrayList<>();
+    private final Map<TilePosition, Position> targets = new HashMap<>();
+    private final Set<TilePosition> blocked = Collections.emptySet();
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        boolean[][] walkable = Fixtures.walkableTiles(Fixtures.SEED);
+        gameMap = Fixtures.gameMap(walkable);
+        Random random = new Random(Fixtures.SEED);
+
+        // Only keep connected pairs so every query measures a full search
+        while (pathQueries.size() < QUERIES) {
+            TilePosition start = Fixtures.randomWalkableTile(walkable, random);
+            TilePosition end = Fixtures.randomWalkableTile(walkable, random);
+            try {
+                gameMap.aStarSearch(start, end);
+                pathQueries.add(new TilePosition[] {start, end});
+            } catch (NoWalkablePathException e) {
+                // Disconnected pair, draw another
+            }
+        }
+
+        while (targets.size() < TARGETS) {
+            TilePosition tile = Fixtures.randomWalkableTile(walkable, random);
+            targets.put(tile, tile.toPosition());
+        }
+        while (nearestQueries.size() < QUERIES) {
+            nearestQueries.add(Fixtures.randomWalkableTile(walkable, random));
+        }
+    }
+
+    @Benchmark
+    public GroundPath aStarSearch() throws NoWalkablePathException {
+        TilePosition[] query = pathQueries.get(next++ & (QUERIES - 1));
+        return gameMap.aStarSearch(query[0], query[1]);
+    }
+
+    @Benchmark
+    public Position findNearestByGround() {
+        TilePosition start = nearestQueries.get(next++ & (QUERIES - 1));
+        return gameMap.findNearestByGround(start, targets, blocked);
+    }
+}
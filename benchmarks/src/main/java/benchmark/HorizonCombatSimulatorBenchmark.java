@@ -0,0 +1,145 @@
+package benchmark;
+
+import bwapi.Game;
+import bwapi.TilePosition;
+import bwapi.Unit;
+import bwapi.UnitType;
+import config.Config;
+import info.GameState;
+import info.TechProgression;
+import info.map.GameMap;
+import info.tracking.ObservedUnitTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import unit.managed.ManagedUnit;
+import unit.managed.UnitRole;
+import unit.squad.CombatSimulator.CombatResult;
+import unit.squad.Squad;
+import unit.squad.horizon.EnemySnapshot;
+import unit.squad.horizon.HorizonCombatSimulator;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates one squad engagement against a tracker holding a late-game sized enemy army.
+ *
+ * A third of the enemies stand near the squad, the rest are spread across the map.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HorizonCombatSimulatorBenchmark {
+
+    private static final UnitType[] SQUAD_TYPES = {UnitType.Zerg_Zergling, UnitType.Zerg_Hydralisk};
+    private static final UnitType[] ENEMY_TYPES = {
+        UnitType.Terran_Marine, UnitType.Terran_Medic, UnitType.Terran_Siege_Tank_Siege_Mode,
+        UnitType.Terran_Vulture, UnitType.Terran_Goliath, UnitType.Terran_Bunker, UnitType.Terran_Missile_Turret
+    };
+    private static final int SQUAD_SIZE = 36;
+    private static final int SQUADS_PER_FRAME = 12;
+    private static final int SQUAD_X = 2000;
+    private static final int SQUAD_Y = 2000;
+
+    @Param({"60", "240"})
+    private int enemies;
+
+    private HorizonCombatSimulator simulator;
+    private Squad squad;
+    private GameState gameState;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(Fixtures.SEED);
+        boolean[][] walkable = Fixtures.walkableTiles(Fixtures.SEED);
+
+        StringBuilder frames = new StringBuilder("frame 8000\n");
+        for (int i = 0; i < SQUAD_SIZE; i++) {
+            appendUnit(frames, i, "self", SQUAD_TYPES[i % SQUAD_TYPES.length], SQUAD_X, SQUAD_Y, 160, random);
+        }
+        for (int i = 0; i < enemies; i++) {
+            UnitType type = ENEMY_TYPES[random.nextInt(ENEMY_TYPES.length)];
+            if (i % 3 == 0) {
+                appendUnit(frames, SQUAD_SIZE + i, "enemy", type, SQUAD_X + 300, SQUAD_Y, 256, random);
+            } else {
+                int x = random.nextInt(Fixtures.MAP_SIZE * 32);
+                int y = random.nextInt(Fixtures.MAP_SIZE * 32);
+                appendUnit(frames, SQUAD_SIZE + i, "enemy", type, x, y, 0, random);
+            }
+        }
+
+        SnapshotGame snapshot = Fixtures.snapshotGame(walkable, new TilePosition(8, 8), frames.toString());
+        Game game = snapshot.getGame();
+        GameMap gameMap = Fixtures.gameMap(walkable);
+
+        ObservedUnitTracker tracker = new ObservedUnitTracker();
+        for (Unit enemy : game.enemy().getUnits()) {
+            tracker.onUnitShow(enemy, game.getFrameCount(), false);
+        }
+        tracker.onFrame(game.getFrameCount());
+
+        squad = new Squad();
+        for (Unit unit : game.self().getUnits()) {
+            squad.addUnit(new ManagedUnit(game, unit, UnitRole.FIGHT, gameMap));
+        }
+
+        TechProgression techProgression = new TechProgression();
+        Config config = new Config();
+        gameState = StandIns.create(GameState.class, (method, args) -> {
+            switch (method) {
+                case "getGame":
+                    return game;
+                case "getObservedUnitTracker":
+                    return tracker;
+                case "getTechProgression":
+                    return techProgression;
+                case "getConfig":
+                    return config;
+                default:
+                    return null;
+            }
+        });
+
+        simulator = new HorizonCombatSimulator();
+    }
+
+    private static void appendUnit(StringBuilder frames, int id, String owner, UnitType type, int x, int y, int spread, Random random) {
+        int dx = spread == 0 ? 0 : random.nextInt(2 * spread) - spread;
+        int dy = spread == 0 ? 0 : random.nextInt(2 * spread) - spread;
+        frames.append("unit ").append(id).append(' ').append(owner).append(' ').append(type)
+                .append(' ').append(x + dx).append(' ').append(y + dy)
+                .append(' ').append(type.maxHitPoints()).append(' ').append(type.maxShields())
+                .append(" true\n");
+    }
+
+    @Benchmark
+    public CombatResult evaluate() {
+        return simulator.evaluate(squad, Collections.emptyMap(), gameState);
+    }
+
+    /**
+     * A frame's worth of squads scored against one shared enemy snapshot, as SquadManager does.
+     */
+    @Benchmark
+    public void evaluateFrame(Blackhole blackhole) {
+        EnemySnapshot enemies = new EnemySnapshot(gameState.getObservedUnitTracker(), gameState.getGame().getFrameCount());
+        for (int i = 0; i < SQUADS_PER_FRAME; i++) {
+            blackhole.consume(simulator.evaluate(squad, Collections.emptyMap(), gameState, enemies));
+        }
+    }
+}
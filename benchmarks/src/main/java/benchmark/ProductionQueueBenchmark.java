@@ -0,0 +1,90 @@
+package benchmark;
+
+import bwapi.UnitType;
+import macro.ProductionQueue;
+import macro.plan.Plan;
+import macro.plan.PlanType;
+import macro.plan.UnitPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame ProductionQueue operations on a queue holding a mix of unit plans.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductionQueueBenchmark {
+
+    private static final UnitType[] TYPES = {
+        UnitType.Zerg_Drone, UnitType.Zerg_Zergling, UnitType.Zerg_Hydralisk, UnitType.Zerg_Overlord, UnitType.Zerg_Mutalisk
+    };
+
+    @Param({"16", "128"})
+    private int plans;
+
+    private ProductionQueue queue;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        random = new Random(Fixtures.SEED);
+        queue = new ProductionQueue();
+        for (int i = 0; i < plans; i++) {
+            queue.add(new UnitPlan(TYPES[i % TYPES.length], random.nextInt(10)));
+        }
+    }
+
+    @Benchmark
+    public Plan pollAndAdd() {
+        Plan plan = queue.poll();
+        plan.setPriority(random.nextInt(10));
+        queue.add(plan);
+        return plan;
+    }
+
+    @Benchmark
+    public int minPriority() {
+        return queue.minPriority();
+    }
+
+    @Benchmark
+    public List<Plan> toSortedList() {
+        return queue.toSortedList();
+    }
+
+    @Benchmark
+    public int setPriorityWhere() {
+        UnitType type = TYPES[random.nextInt(TYPES.length)];
+        queue.setPriorityWhere(plan -> plan.getPlannedUnit() == type, random.nextInt(10));
+        return queue.size();
+    }
+
+    @Benchmark
+    public int setPriorityWhereIndexed() {
+        UnitType type = TYPES[random.nextInt(TYPES.length)];
+        queue.setPriorityWhere(PlanType.UNIT, type, random.nextInt(10));
+        return queue.size();
+    }
+
+    @Benchmark
+    public boolean isPlanned() {
+        return queue.isPlanned(PlanType.UNIT, TYPES[random.nextInt(TYPES.length)]);
+    }
+}
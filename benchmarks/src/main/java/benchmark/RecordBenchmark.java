@@ -0,0 +1,65 @@
+package benchmark;
+
+import learning.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * D-UCB index of a strategy record, which discounts every stored game on each call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int games;
+
+    private Record record;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(Fixtures.SEED);
+        List<Long> winTimestamps = new ArrayList<>();
+        List<Long> lossTimestamps = new ArrayList<>();
+        long timestamp = 1_600_000_000_000L;
+        for (int i = 0; i < games; i++) {
+            timestamp += 60_000 + random.nextInt(3_600_000);
+            if (random.nextBoolean()) {
+                winTimestamps.add(timestamp);
+            } else {
+                lossTimestamps.add(timestamp);
+            }
+        }
+
+        record = Record.builder()
+                .opener("12Hatch")
+                .wins(winTimestamps.size())
+                .losses(lossTimestamps.size())
+                .winTimestamps(winTimestamps)
+                .lossTimestamps(lossTimestamps)
+                .build();
+    }
+
+    @Benchmark
+    public double index() {
+        return record.index(games * 4);
+    }
+}
@@ -0,0 +1,187 @@
+package benchmark;
+
+import bwapi.Game;
+import bwapi.Player;
+import bwapi.PlayerType;
+import bwapi.Position;
+import bwapi.TilePosition;
+import bwapi.Unit;
+import bwapi.WalkPosition;
+import headless.GameSnapshot;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Game, Player and Unit stand-ins for the first frame of a GameSnapshot.
+ *
+ * Answers the same surface as the test sources' HeadlessGame, but through StandIns instead of Mockito,
+ * so a unit read costs nanoseconds rather than microseconds. Frames after the first are ignored.
+ */
+final class SnapshotGame {
+
+    private final GameSnapshot snapshot;
+    private final GameSnapshot.Frame frame;
+    private final Map<GameSnapshot.Owner, Player> players = new EnumMap<>(GameSnapshot.Owner.class);
+    private final Map<GameSnapshot.Owner, List<Unit>> ownedUnits = new EnumMap<>(GameSnapshot.Owner.class);
+    private final Map<Integer, Unit> units = new HashMap<>();
+    private final List<Unit> allUnits = new ArrayList<>();
+    private final Game game;
+
+    SnapshotGame(GameSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.frame = snapshot.getFrames().get(0);
+
+        for (GameSnapshot.Owner owner : GameSnapshot.Owner.values()) {
+            players.put(owner, StandIns.create(Player.class, (method, args) -> answerPlayer(owner, method, args)));
+            ownedUnits.put(owner, new ArrayList<>());
+        }
+        for (GameSnapshot.UnitRecord record : frame.getUnits()) {
+            Unit unit = StandIns.create(Unit.class, (method, args) -> answerUnit(record, method, args));
+            units.put(record.getId(), unit);
+            allUnits.add(unit);
+            ownedUnits.get(record.getOwner()).add(unit);
+        }
+        this.game = StandIns.create(Game.class, this::answerGame);
+    }
+
+    Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return unit with the snapshot id, or null if the first frame does not list it
+     */
+    Unit getUnit(int id) {
+        return units.get(id);
+    }
+
+    private Object answerGame(String method, Object[] args) {
+        switch (method) {
+            case "mapName":
+                return snapshot.getMapName();
+            case "mapWidth":
+                return snapshot.getWidth();
+            case "mapHeight":
+                return snapshot.getHeight();
+            case "getFrameCount":
+                return frame.getFrameCount();
+            case "getStartLocations":
+                return snapshot.getStartLocations();
+            case "isWalkable":
+                if (args.length == 1) {
+                    WalkPosition wp = (WalkPosition) args[0];
+                    return snapshot.isWalkableTile(wp.getX() / 4, wp.getY() / 4);
+                }
+                return snapshot.isWalkableTile((int) args[0] / 4, (int) args[1] / 4);
+            case "isBuildable":
+                if (args[0] instanceof TilePosition) {
+                    TilePosition tp = (TilePosition) args[0];
+                    return snapshot.isBuildableTile(tp.getX(), tp.getY());
+                }
+                return snapshot.isBuildableTile((int) args[0], (int) args[1]);
+            case "self":
+                return players.get(GameSnapshot.Owner.SELF);
+            case "enemy":
+                return players.get(GameSnapshot.Owner.ENEMY);
+            case "neutral":
+                return players.get(GameSnapshot.Owner.NEUTRAL);
+            case "getAllUnits":
+                return allUnits;
+            case "getNeutralUnits":
+            case "getStaticNeutralUnits":
+                return ownedUnits.get(GameSnapshot.Owner.NEUTRAL);
+            default:
+                return null;
+        }
+    }
+
+    private Object answerPlayer(GameSnapshot.Owner owner, String method, Object[] args) {
+        switch (method) {
+            case "getType":
+                return owner == GameSnapshot.Owner.NEUTRAL ? PlayerType.Neutral : PlayerType.Player;
+            case "getName":
+                return owner.name().toLowerCase();
+            case "getRace":
+                return snapshot.getRace(owner);
+            case "getUnits":
+                return ownedUnits.get(owner);
+            case "isEnemy":
+                Player neutral = players.get(GameSnapshot.Owner.NEUTRAL);
+                return owner != GameSnapshot.Owner.NEUTRAL && args[0] != neutral && args[0] != players.get(owner);
+            default:
+                return null;
+        }
+    }
+
+    private Object answerUnit(GameSnapshot.UnitRecord record, String method, Object[] args) {
+        switch (method) {
+            case "getID":
+                return record.getId();
+            case "getPlayer":
+                return players.get(record.getOwner());
+            case "getType":
+            case "getInitialType":
+                return record.getType();
+            case "exists":
+            case "isVisible":
+                return true;
+            case "isCompleted":
+                return record.isCompleted();
+            case "getHitPoints":
+                return record.getHitPoints();
+            case "getShields":
+                return record.getShields();
+            case "getX":
+                return record.getX();
+            case "getY":
+                return record.getY();
+            case "getPosition":
+                return record.getPosition();
+            case "getTilePosition":
+                return record.getPosition().toTilePosition();
+            case "getLeft":
+                return left(record);
+            case "getTop":
+                return top(record);
+            case "getRight":
+                return right(record);
+            case "getBottom":
+                return bottom(record);
+            case "getDistance":
+                return args[0] instanceof Position ? distance(record, (Position) args[0]) : null;
+            case "compareTo":
+                return Integer.compare(record.getId(), ((Unit) args[0]).getID());
+            default:
+                return null;
+        }
+    }
+
+    private static int left(GameSnapshot.UnitRecord record) {
+        return record.getX() - record.getType().dimensionLeft();
+    }
+
+    private static int top(GameSnapshot.UnitRecord record) {
+        return record.getY() - record.getType().dimensionUp();
+    }
+
+    private static int right(GameSnapshot.UnitRecord record) {
+        return record.getX() + record.getType().dimensionRight();
+    }
+
+    private static int bottom(GameSnapshot.UnitRecord record) {
+        return record.getY() + record.getType().dimensionDown();
+    }
+
+    /**
+     * Distance from the edge of the unit's bounds to the point, as Unit.getDistance(Position) measures it.
+     */
+    private static int distance(GameSnapshot.UnitRecord record, Position target) {
+        int dx = Math.max(0, Math.max(left(record) - target.getX(), target.getX() - right(record)));
+        int dy = Math.max(0, Math.max(top(record) - target.getY(), target.getY() - bottom(record)));
+        return (int) Math.round(Math.sqrt(dx * dx + dy * dy));
+    }
+}
@@ -0,0 +1,50 @@
+package benchmark;
+
+import bwapi.Position;
+import bwapi.TilePosition;
+import bwapi.Unit;
+import bwapi.UnitType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one read through a stand-in Unit, the floor under every unit read in the other benchmarks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StandInBenchmark {
+
+    private Unit unit;
+
+    @Setup
+    public void setUp() throws IOException {
+        boolean[][] walkable = Fixtures.walkableTiles(Fixtures.SEED);
+        String frames = "frame 0\nunit 1 enemy " + UnitType.Zerg_Zergling + " 320 320 35 0 true\n";
+        unit = Fixtures.snapshotGame(walkable, new TilePosition(8, 8), frames).getUnit(1);
+    }
+
+    @Benchmark
+    public Position getPosition() {
+        return unit.getPosition();
+    }
+
+    @Benchmark
+    public UnitType getType() {
+        return unit.getType();
+    }
+}
@@ -0,0 +1,156 @@
+package benchmark;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.ByteBuddyAgent;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.dynamic.loading.ClassReloadingStrategy;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
+import static net.bytebuddy.matcher.ElementMatchers.isMethod;
+import static net.bytebuddy.matcher.ElementMatchers.isNative;
+import static net.bytebuddy.matcher.ElementMatchers.isStatic;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+import static net.bytebuddy.matcher.ElementMatchers.returns;
+
+/**
+ * Plain stand-ins for final JBWAPI classes such as Game and Unit, answered by Java code rather than
+ * through Mockito.
+ *
+ * The classes cannot be subclassed, so the first stand-in of a class redefines its instance methods in
+ * place to consult the answers registered for the receiver before running their own body. Instances
+ * without answers behave as before. A call costs an identity lookup and a switch, where a Mockito mock
+ * records an invocation and its call site, so the benchmarks time the code under test instead of the
+ * stand-in.
+ */
+public final class StandIns {
+
+    /**
+     * Answers calls on one stand-in. Returning null answers with the return type's default instead:
+     * zero or false for primitives, an empty List, Collection, Set or Map, and null for anything else.
+     * equals and hashCode are always answered by identity.
+     */
+    interface Answers {
+        Object answer(String method, Object[] args);
+    }
+
+    private static final Objenesis OBJENESIS = new ObjenesisStd();
+    private static final Map<Object, Answers> ANSWERS = new IdentityHashMap<>();
+    private static final Set<Class<?>> INSTALLED = new HashSet<>();
+
+    private StandIns() {}
+
+    /**
+     * @return instance of type, created without running a constructor, answering calls with answers
+     */
+    static synchronized <T> T create(Class<T> type, Answers answers) {
+        if (INSTALLED.add(type)) {
+            install(type);
+        }
+        T instance = OBJENESIS.newInstance(type);
+        ANSWERS.put(instance, answers);
+        return instance;
+    }
+
+    private static void install(Class<?> type) {
+        ByteBuddyAgent.install();
+        new ByteBuddy()
+                .redefine(type)
+                .visit(Advice.to(ValueAdvice.class).on(isMethod().and(not(isStatic())).and(not(isAbstract()))
+                        .and(not(isNative())).and(not(returns(void.class)))))
+                .visit(Advice.to(VoidAdvice.class).on(isMethod().and(not(isStatic())).and(not(isAbstract()))
+                        .and(not(isNative())).and(returns(void.class))))
+                .make()
+                .load(type.getClassLoader(), ClassReloadingStrategy.fromInstalledAgent());
+    }
+
+    /**
+     * Called from the redefined methods, public so they can link against it from their own package.
+     *
+     * @return the answer wrapped in a one element array, or null to run the original method
+     */
+    public static Object[] answer(Object self, String method, String returnType, Object[] args) {
+        Answers answers = ANSWERS.get(self);
+        if (answers == null) {
+            return null;
+        }
+        Object value;
+        switch (method) {
+            case "equals":
+                value = self == args[0];
+                break;
+            case "hashCode":
+                value = System.identityHashCode(self);
+                break;
+            default:
+                value = answers.answer(method, args);
+        }
+        return new Object[] {value != null ? value : defaultValue(returnType)};
+    }
+
+    private static Object defaultValue(String returnType) {
+        switch (returnType) {
+            case "boolean":
+                return false;
+            case "byte":
+                return (byte) 0;
+            case "short":
+                return (short) 0;
+            case "char":
+                return (char) 0;
+            case "int":
+                return 0;
+            case "long":
+                return 0L;
+            case "float":
+                return 0f;
+            case "double":
+                return 0d;
+            case "java.util.List":
+            case "java.util.Collection":
+                return Collections.emptyList();
+            case "java.util.Set":
+                return Collections.emptySet();
+            case "java.util.Map":
+                return Collections.emptyMap();
+            default:
+                return null;
+        }
+    }
+
+    public static final class ValueAdvice {
+        private ValueAdvice() {}
+
+        @Advice.OnMethodEnter(skipOn = Advice.OnNonDefaultValue.class)
+        public static Object[] enter(@Advice.This Object self, @Advice.Origin("#m") String method,
+                                     @Advice.Origin("#r") String returnType, @Advice.AllArguments Object[] args) {
+            return StandIns.answer(self, method, returnType, args);
+        }
+
+        @Advice.OnMethodExit
+        public static void exit(@Advice.Enter Object[] answer,
+                                @Advice.Return(readOnly = false, typing = Assigner.Typing.DYNAMIC) Object returned) {
+            if (answer != null) {
+                returned = answer[0];
+            }
+        }
+    }
+
+    public static final class VoidAdvice {
+        private VoidAdvice() {}
+
+        @Advice.OnMethodEnter(skipOn = Advice.OnNonDefaultValue.class)
+        public static boolean enter(@Advice.This Object self, @Advice.Origin("#m") String method,
+                                    @Advice.AllArguments Object[] args) {
+            return StandIns.answer(self, method, "void", args) != null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import bwapi.Game;
+import bwapi.Race;
+import bwapi.TilePosition;
+import bwapi.Unit;
+import bwapi.UnitType;
+import info.BaseData;
+import info.map.GameMap;
+import info.tracking.ObservedUnitTracker;
+import info.tracking.StrategyTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy detection over a tracker holding a mixed enemy army early in the game.
+ *
+ * Detected strategies stop being evaluated, so every invocation starts from a fresh StrategyTracker
+ * with all strategies still possible.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyTrackerBenchmark {
+
+    private static final UnitType[] ENEMY_TYPES = {
+        UnitType.Protoss_Probe, UnitType.Protoss_Zealot, UnitType.Protoss_Dragoon, UnitType.Protoss_Gateway,
+        UnitType.Protoss_Pylon, UnitType.Protoss_Forge, UnitType.Protoss_Photon_Cannon, UnitType.Protoss_Nexus,
+        UnitType.Terran_SCV, UnitType.Terran_Marine, UnitType.Terran_Barracks, UnitType.Terran_Academy,
+        UnitType.Zerg_Drone, UnitType.Zerg_Hydralisk, UnitType.Zerg_Hydralisk_Den
+    };
+
+    @Param({"30", "200"})
+    private int enemies;
+
+    private Game game;
+    private ObservedUnitTracker tracker;
+    private BaseData baseData;
+    private GameMap gameMap;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(Fixtures.SEED);
+        boolean[][] walkable = Fixtures.walkableTiles(Fixtures.SEED);
+
+        StringBuilder frames = new StringBuilder("frame 4000\n");
+        for (int i = 0; i < enemies; i++) {
+            UnitType type = ENEMY_TYPES[random.nextInt(ENEMY_TYPES.length)];
+            frames.append("unit ").append(i).append(" enemy ").append(type)
+                    .append(' ').append(random.nextInt(Fixtures.MAP_SIZE * 32))
+                    .append(' ').append(random.nextInt(Fixtures.MAP_SIZE * 32))
+                    .append(' ').append(type.maxHitPoints()).append(' ').append(type.maxShields())
+                    .append(" true\n");
+        }
+
+        SnapshotGame snapshot = Fixtures.snapshotGame(walkable, new TilePosition(8, 8), frames.toString());
+        game = snapshot.getGame();
+        tracker = new ObservedUnitTracker();
+        for (Unit enemy : game.enemy().getUnits()) {
+            tracker.onUnitShow(enemy, game.getFrameCount(), random.nextInt(10) == 0);
+        }
+        tracker.onFrame(game.getFrameCount());
+
+        baseData = new BaseData(Collections.emptyList());
+        gameMap = Fixtures.gameMap(walkable);
+    }
+
+    @Benchmark
+    public StrategyTracker onFrame() {
+        StrategyTracker strategyTracker = new StrategyTracker(game, Race.Unknown, tracker, baseData, gameMap);
+        strategyTracker.onFrame();
+        return strategyTracker;
+    }
+}
@@ -0,0 +1,77 @@
+package benchmark;
+
+import bwapi.TilePosition;
+import info.map.WalkGrid;
+import info.map.WalkPositionFloodFill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup flood fill of accessible walk positions over a synthetic 128x128 tile map.
+ *
+ * fill isolates the search over a prebuilt passability grid. calculateAccessibleWalkPositions also
+ * samples walkability and neutral barriers through the stand-in Game, whose calls cost a few
+ * nanoseconds more than the real client's, so compare it against itself rather than against fill.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalkPositionFloodFillBenchmark {
+
+    private static final int MINERAL_FIELDS = 64;
+
+    private TilePosition start;
+    private WalkGrid passable;
+    private WalkPositionFloodFill floodFill;
+
+    @Setup
+    public void setUp() throws IOException {
+        boolean[][] walkable = Fixtures.walkableTiles(Fixtures.SEED);
+        Random random = new Random(Fixtures.SEED);
+        start = Fixtures.randomWalkableTile(walkable, random);
+
+        StringBuilder frames = new StringBuilder("frame 0\n");
+        for (int i = 0; i < MINERAL_FIELDS; i++) {
+            TilePosition tile = Fixtures.randomWalkableTile(walkable, random);
+            frames.append("unit ").append(i).append(" neutral Resource_Mineral_Field ")
+                    .append(tile.getX() * 32 + 32).append(' ').append(tile.getY() * 32 + 16)
+                    .append(" 1500 0 true\n");
+        }
+        SnapshotGame snapshot = Fixtures.snapshotGame(walkable, start, frames.toString());
+        floodFill = new WalkPositionFloodFill(snapshot.getGame());
+
+        passable = new WalkGrid(Fixtures.MAP_SIZE * 4, Fixtures.MAP_SIZE * 4);
+        for (int x = 0; x < passable.getWidth(); x++) {
+            for (int y = 0; y < passable.getHeight(); y++) {
+                if (walkable[x / 4][y / 4]) {
+                    passable.set(x, y);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public WalkGrid fill() {
+        return WalkPositionFloodFill.fill(passable, start.toWalkPosition());
+    }
+
+    @Benchmark
+    public WalkGrid calculateAccessibleWalkPositions() {
+        return floodFill.calculateAccessibleWalkPositions(start);
+    }
+}
@@ -13,6 +13,7 @@ import learning.OpponentRecord;
 import macro.ProductionManager;
 import macro.plan.PlanManager;
 import unit.UnitManager;
+import util.FrameProfiler;
 
 /**
  * Execution flow:
@@ -70,12 +71,17 @@ public class Bot extends DefaultBWListener {
 
     @Override
     public void onFrame() {
-        informationManager.onFrame();
-        productionManager.onFrame();
-        planManager.onFrame();
-        unitManager.onFrame();
-        debugMap.onFrame();
-        autoObserver.onFrame();
+        FrameProfiler profiler = gameState.getFrameProfiler();
+        profiler.startFrame();
+        profiler.time("frameUnits", gameState::refreshFrameUnits);
+        profiler.time("information", informationManager::onFrame);
+        profiler.time("production", productionManager::onFrame);
+        profiler.time("plan", planManager::onFrame);
+        profiler.time("unit", unitManager::onFrame);
+        // Drawing and camera control are the first to go when a frame runs long
+        profiler.timeDeferrable("debug", debugMap::onFrame);
+        profiler.timeDeferrable("autoObserver", autoObserver::onFrame);
+        profiler.endFrame();
     }
 
     @Override
@@ -135,6 +141,7 @@ public class Bot extends DefaultBWListener {
     @Override
     public void onEnd(boolean isWinner) {
         learningManager.onEnd(isWinner);
+        gameState.onEnd();
     }
 
     public static void main(String[] args) {
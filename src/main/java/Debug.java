@@ -15,8 +15,10 @@ import info.ResourceCount;
 import info.ScoutData;
 import info.UnitTypeCount;
 import info.map.BuildingPlanner;
+import info.map.CoverageGrid;
 import info.map.GroundPath;
 import info.map.MapTile;
+import info.map.WalkGrid;
 import info.tracking.ObservedBullet;
 import info.tracking.ObservedUnitTracker;
 import info.tracking.PsiStormTracker;
@@ -33,6 +35,7 @@ import unit.squad.horizon.HorizonCombatSimulator.DebugSnapshot;
 import unit.squad.horizon.HorizonCombatSimulator.UnitDebugEntry;
 import unit.managed.UnitRole;
 import util.Arc;
+import util.FrameProfiler;
 import macro.plan.Plan;
 
 import java.util.HashMap;
@@ -81,6 +84,9 @@ public class Debug {
         if (config.debugUnitCount) {
             drawUnitCount();
         }
+        if (config.debugFrameProfiler) {
+            drawFrameProfiler();
+        }
         if (config.debugGameMap) {
             debugGameMap();
         }
@@ -283,6 +289,30 @@ public class Debug {
         }
     }
 
+    private void drawFrameProfiler() {
+        FrameProfiler profiler = gameState.getFrameProfiler();
+        int x = 400;
+        int y = 8;
+        game.drawTextScreen(x, y, String.format("Frame ms >55: %d/320 >1s: %d/10 >10s: %d/1",
+                profiler.getFramesOver55ms(), profiler.getFramesOver1s(), profiler.getFramesOver10s()), Text.White);
+
+        y += 8;
+        game.drawTextScreen(x, y, "phase p50 p95 max");
+        y += 8;
+        drawPhaseStats(x, y, profiler.getFrameStats());
+        for (FrameProfiler.PhaseStats stats : profiler.getPhases().values()) {
+            y += 8;
+            drawPhaseStats(x, y, stats);
+        }
+    }
+
+    private void drawPhaseStats(int x, int y, FrameProfiler.PhaseStats stats) {
+        Text color = stats.getMax() > FrameProfiler.FRAME_LIMIT_55MS ? Text.Red : Text.Green;
+        String deferred = stats.getDeferred() > 0 ? " deferred " + stats.getDeferred() : "";
+        game.drawTextScreen(x, y, String.format("%s %.2f %.2f %.2f%s",
+                stats.getName(), stats.getP50() / 1e6, stats.getP95() / 1e6, stats.getMax() / 1e6, deferred), color);
+    }
+
     private String getOpenerRecord() {
         Record openerRecord = opponentRecord.getOpenerRecord().get(opener.getName());
         return String.format("%s_%s", openerRecord.getWins(), openerRecord.getLosses());
@@ -326,7 +356,7 @@ public class Debug {
     }
 
     private void debugGameMap() {
-        for (MapTile mapTile : gameState.getGameMap().getHeatMap()) {
+        for (MapTile mapTile : gameState.getGameMap().getTiles()) {
             if (mapTile.isBuildable()) {
                 game.drawBoxMap(
                         mapTile.getTile().toPosition(),
@@ -337,8 +367,14 @@ public class Debug {
     }
 
     private void debugStaticDefenseCoverage() {
-        for (Position p: gameState.getStaticDefenseCoverage()) {
-            game.drawCircleMap(p, 1, Color.Red);
+        CoverageGrid coverage = gameState.getStaticDefenseCoverage();
+        if (coverage.isEmpty()) return;
+        for (int x = 0; x < coverage.getWidth(); x++) {
+            for (int y = 0; y < coverage.getHeight(); y++) {
+                if (coverage.depth(x, y) > 0) {
+                    game.drawCircleMap(x * 8, y * 8, 1, Color.Red);
+                }
+            }
         }
     }
 
@@ -363,9 +399,12 @@ public class Debug {
     private void debugAccessibleWalkPositions() {
         try {
             if (gameState.getGameMap() != null && gameState.getGameMap().getAccessibleWalkPositions() != null) {
-                for (WalkPosition wp : gameState.getGameMap().getAccessibleWalkPositions()) {
-                    if (Math.random() < 0.01) {
-                        game.drawDotMap(wp.toPosition(), Color.Green);
+                WalkGrid accessible = gameState.getGameMap().getAccessibleWalkPositions();
+                for (int x = 0; x < accessible.getWidth(); x++) {
+                    for (int y = 0; y < accessible.getHeight(); y++) {
+                        if (accessible.get(x, y) && Math.random() < 0.01) {
+                            game.drawDotMap(new WalkPosition(x, y).toPosition(), Color.Green);
+                        }
                     }
                 }
             }
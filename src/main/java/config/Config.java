@@ -12,11 +12,13 @@ public final class Config {
     public boolean enabledAutoObserver = false;
     public String strategyOverride;
     public String openerOverride;
+    public boolean learningCsvExport = false;
     
     // Debug drawing flags
     // HUD and general info
     public boolean debugHud = false;
     public boolean debugUnitCount = false;
+    public boolean debugFrameProfiler = false;
     
     // Map and pathfinding
     public boolean debugGameMap = false;
@@ -58,8 +60,10 @@ public final class Config {
         this.enabledAutoObserver = Boolean.parseBoolean(dotenv.get("IA_ENABLE_AUTO_OBSERVER"));
         this.strategyOverride = dotenv.get("IA_STRATEGY_OVERRIDE");
         this.openerOverride = dotenv.get("IA_OPENER_OVERRIDE");
+        this.learningCsvExport = Boolean.parseBoolean(dotenv.get("IA_LEARNING_CSV_EXPORT"));
         this.debugHud = Boolean.parseBoolean(dotenv.get("IA_DEBUG_HUD"));
         this.debugUnitCount = Boolean.parseBoolean(dotenv.get("IA_DEBUG_UNIT_COUNT"));
+        this.debugFrameProfiler = Boolean.parseBoolean(dotenv.get("IA_DEBUG_FRAME_PROFILER"));
         this.debugGameMap = Boolean.parseBoolean(dotenv.get("IA_DEBUG_GAME_MAP"));
         this.debugBasePaths = Boolean.parseBoolean(dotenv.get("IA_DEBUG_BASE_PATHS"));
         this.debugAccessibleWalkPositions = Boolean.parseBoolean(dotenv.get("IA_DEBUG_ACCESSIBLE_WALK_POSITIONS"));
@@ -60,6 +60,9 @@ public class BaseData {
     private HashMap<Base, StartingLocationPaths> startingLocationPaths = new HashMap<>();
     @Getter
     private Base enemyNaturalBase;
+    // Incremented whenever enemyBases, the enemy main or the enemy natural change
+    @Getter
+    private int enemyBaseRevision = 0;
     @Getter @Setter
     private boolean allowSunkenAtMain = false;
 
@@ -527,6 +530,7 @@ public class BaseData {
      */
     public void addEnemyBase(Base base) {
         if (enemyBases.add(base)) {
+            enemyBaseRevision += 1;
             availableBases.remove(base);
             reservedBases.remove(base);
             // Automatically set as main enemy base if it's a starting location and not already set
@@ -547,6 +551,7 @@ public class BaseData {
      */
     public void removeEnemyBase(Base base) {
         if (enemyBases.remove(base)) {
+            enemyBaseRevision += 1;
             if (base == mainEnemyBase) {
                 mainEnemyBase = null;
                 enemyNaturalBase = null;
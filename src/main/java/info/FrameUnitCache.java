@@ -0,0 +1,101 @@
+package info;
+
+import bwapi.Game;
+import bwapi.Player;
+import bwapi.Position;
+import bwapi.Unit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every accessible unit sorted once at the start of a frame into visible enemies, our own units and
+ * neutral units, each bucketed into a uniform grid for radius and rectangle queries. Managers and
+ * managed units share it instead of copying tracker sets or calling Game.getUnitsInRadius, which walks
+ * every unit in the game on each call.
+ *
+ * Lists returned here are read only views owned by the cache. A query result is replaced by the next
+ * query against the same group, copy it if it has to outlive that.
+ */
+public class FrameUnitCache {
+
+    private final List<Unit> visibleEnemies = new ArrayList<>();
+    private final List<Unit> ownUnits = new ArrayList<>();
+    private final List<Unit> neutralUnits = new ArrayList<>();
+    private final List<Unit> visibleEnemiesView = Collections.unmodifiableList(visibleEnemies);
+    private final List<Unit> ownUnitsView = Collections.unmodifiableList(ownUnits);
+    private final List<Unit> neutralUnitsView = Collections.unmodifiableList(neutralUnits);
+
+    private UnitGrid enemyGrid;
+    private UnitGrid ownGrid;
+    private UnitGrid neutralGrid;
+
+    public void refresh(Game game) {
+        if (enemyGrid == null) {
+            final int width = game.mapWidth() * 32;
+            final int height = game.mapHeight() * 32;
+            enemyGrid = new UnitGrid(width, height);
+            ownGrid = new UnitGrid(width, height);
+            neutralGrid = new UnitGrid(width, height);
+        }
+        visibleEnemies.clear();
+        ownUnits.clear();
+        neutralUnits.clear();
+        enemyGrid.clear();
+        ownGrid.clear();
+        neutralGrid.clear();
+
+        final Player self = game.self();
+        final Player neutral = game.neutral();
+        for (Unit unit : game.getAllUnits()) {
+            final Player player = unit.getPlayer();
+            if (player == self) {
+                ownUnits.add(unit);
+                ownGrid.add(unit);
+            } else if (player == neutral) {
+                neutralUnits.add(unit);
+                neutralGrid.add(unit);
+            } else if (player.isEnemy(self) && unit.isVisible()) {
+                visibleEnemies.add(unit);
+                enemyGrid.add(unit);
+            }
+        }
+    }
+
+    public List<Unit> getVisibleEnemies() {
+        return visibleEnemiesView;
+    }
+
+    public List<Unit> getOwnUnits() {
+        return ownUnitsView;
+    }
+
+    public List<Unit> getNeutralUnits() {
+        return neutralUnitsView;
+    }
+
+    public List<Unit> enemiesInRadius(Position center, int radius) {
+        return enemyGrid.inRadius(center.getX(), center.getY(), radius);
+    }
+
+    public List<Unit> enemiesInRadius(int x, int y, int radius) {
+        return enemyGrid.inRadius(x, y, radius);
+    }
+
+    public List<Unit> enemiesInRectangle(int left, int top, int right, int bottom) {
+        return enemyGrid.inRectangle(left, top, right, bottom);
+    }
+
+    public List<Unit> ownInRadius(Position center, int radius) {
+        return ownGrid.inRadius(center.getX(), center.getY(), radius);
+    }
+
+    public List<Unit> ownInRectangle(int left, int top, int right, int bottom) {
+        return ownGrid.inRectangle(left, top, right, bottom);
+    }
+
+    public List<Unit> neutralInRadius(Position center, int radius) {
+        return neutralGrid.inRadius(center.getX(), center.getY(), radius);
+    }
+}
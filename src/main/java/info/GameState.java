@@ -11,17 +11,22 @@ import bwapi.TilePosition;
 import bwapi.Unit;
 import bwapi.UnitType;
 import bwapi.UpgradeType;
-import bwapi.WalkPosition;
 import bwem.BWEM;
 import bwem.Base;
 import bwem.Mineral;
 import config.Config;
 import info.map.BuildingPlanner;
+import info.map.CoverageGrid;
 import info.map.GameMap;
+import info.map.MapAnalysisCache;
+import info.map.MapAnalysisWorker;
 import info.map.MapTile;
+import info.map.WalkGrid;
 import info.tracking.ObservedBulletTracker;
 import info.tracking.ObservedUnitTracker;
+import info.tracking.PathThreats;
 import info.tracking.PsiStormTracker;
+import info.tracking.StaticDefenseCoverage;
 import info.tracking.StrategyTracker;
 import learning.Decisions;
 import lombok.Data;
@@ -33,16 +38,17 @@ import macro.plan.PlanState;
 import strategy.buildorder.BuildOrder;
 import unit.managed.ManagedUnit;
 import unit.managed.UnitRole;
-import util.Distance;
+import util.FrameProfiler;
 import util.Time;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -114,6 +120,10 @@ public class GameState {
     private ObservedBulletTracker observedBulletTracker = new ObservedBulletTracker();
     private PsiStormTracker psiStormTracker = new PsiStormTracker(observedBulletTracker);
     private StrategyTracker strategyTracker;
+    private StaticDefenseCoverage staticDefenseCoverage;
+    private PathThreats pathThreats;
+    private FrameProfiler frameProfiler = new FrameProfiler();
+    private FrameUnitCache frameUnitCache = new FrameUnitCache();
 
     // Initialized in InformationManager
     private GameMap gameMap;
@@ -132,18 +142,44 @@ public class GameState {
     public void onStart(Decisions decisions, Race opponentRace) {
         this.activeBuildOrder = decisions.getOpener();
         this.opponentRace = opponentRace;
-        this.gameMap = new GameMap(game.mapWidth(), game.mapHeight());
+        MapAnalysisCache analysisCache = MapAnalysisCache.load(game.mapHash(), game.mapWidth(), game.mapHeight());
+        this.gameMap = new GameMap(game.mapWidth(), game.mapHeight(), analysisCache, MapAnalysisWorker.background());
         this.strategyTracker = new StrategyTracker(game, opponentRace, this.observedUnitTracker, this.baseData, this.gameMap);
+        this.staticDefenseCoverage = new StaticDefenseCoverage(opponentRace, game.mapWidth(), game.mapHeight());
+        this.pathThreats = new PathThreats(gameMap.getGroundThreats(), gameMap.getAirThreats());
+    }
+
+    /**
+     * Rebuilds the shared unit cache, called before any manager runs this frame.
+     */
+    public void refreshFrameUnits() {
+        frameUnitCache.refresh(game);
     }
 
     public void onFrame() {
+        gameMap.publishCompletedAnalysis();
         observedUnitTracker.onFrame(game.getFrameCount());
+        staticDefenseCoverage.onFrame(observedUnitTracker);
+        pathThreats.onFrame(game.getFrameCount(), observedUnitTracker, staticDefenseCoverage, psiStormTracker);
         updateObservedUnitGroundHeights();
         updateBunkerGarrisonCounts();
         strategyTracker.onFrame();
         clearVisibleEnemyWorkerLocations();
     }
 
+    /**
+     * Stops background map analysis and saves whatever analysis was computed this game.
+     */
+    public void onEnd() {
+        gameMap.publishCompletedAnalysis();
+        gameMap.getAnalysisWorker().shutdown();
+        try {
+            gameMap.getAnalysisCache().save();
+        } catch (IOException e) {
+            // The analysis is recomputed next game
+        }
+    }
+
     private void updateBunkerGarrisonCounts() {
         int currentFrame = game.getFrameCount();
 
@@ -327,13 +363,12 @@ public class GameState {
 
         UnitType[] foundMorphType = {null};
 
-        productionQueue.removeWhere(
-                p -> isColonyMorphAtPosition(p, tp),
-                p -> {
-                    foundMorphType[0] = p.getPlannedUnit();
-                    setImpossiblePlan(p);
-                }
-        );
+        Consumer<Plan> onRemoved = p -> {
+            foundMorphType[0] = p.getPlannedUnit();
+            setImpossiblePlan(p);
+        };
+        productionQueue.removeWhere(PlanType.BUILDING, UnitType.Zerg_Sunken_Colony, p -> tp.equals(p.getBuildPosition()), onRemoved);
+        productionQueue.removeWhere(PlanType.BUILDING, UnitType.Zerg_Spore_Colony, p -> tp.equals(p.getBuildPosition()), onRemoved);
 
         if (foundMorphType[0] == null) {
             for (Plan p : plansScheduled) {
@@ -617,6 +652,7 @@ public class GameState {
     public void updateRace(Race race) {
         opponentRace = race;
         strategyTracker.updateRace(race);
+        staticDefenseCoverage.updateRace(race);
     }
 
     public Time getGameTime() {
@@ -797,47 +833,8 @@ public class GameState {
         }
     }
 
-    public Set<Position> getAerielStaticDefenseCoverage() {
-        Set<Position> coveredPositions = new HashSet<>();
-
-        Map<UnitType, Integer> staticDefenseRanges = new HashMap<>();
-        switch (opponentRace) {
-            case Terran:
-                staticDefenseRanges.put(UnitType.Terran_Missile_Turret, UnitType.Terran_Missile_Turret.airWeapon().maxRange() + 32);
-                staticDefenseRanges.put(UnitType.Terran_Bunker, UnitType.Terran_Marine.groundWeapon().maxRange() + 64);
-                break;
-            case Protoss:
-                staticDefenseRanges.put(UnitType.Protoss_Photon_Cannon, UnitType.Protoss_Photon_Cannon.groundWeapon().maxRange() + 32);
-                break;
-            case Zerg:
-                staticDefenseRanges.put(UnitType.Zerg_Spore_Colony, UnitType.Zerg_Spore_Colony.airWeapon().maxRange() + 32);
-                break;
-            default:
-                return coveredPositions;
-        }
-
-        for (Map.Entry<UnitType, Integer> entry : staticDefenseRanges.entrySet()) {
-            UnitType defenseType = entry.getKey();
-            int range = entry.getValue();
-
-            Set<Position> defensePositions = observedUnitTracker.getLastKnownPositionsOfLivingUnits(defenseType);
-
-            for (Position defensePos : defensePositions) {
-                if (defensePos != null) {
-                    for (int x = defensePos.getX() - range; x <= defensePos.getX() + range; x += 8) {
-                        for (int y = defensePos.getY() - range; y <= defensePos.getY() + range; y += 8) {
-                            Position testPos = new Position(x, y);
-
-                            if (Distance.isWithinRange(x, y, defensePos.getX(), defensePos.getY(), range)) {
-                                coveredPositions.add(testPos);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return coveredPositions;
+    public CoverageGrid getAerielStaticDefenseCoverage() {
+        return staticDefenseCoverage.getAir();
     }
 
     public Set<Position> getActiveStormPositions() {
@@ -849,52 +846,12 @@ public class GameState {
     }
 
     /**
-     * Gets all positions that are within range of enemy static defense structures.
+     * Gets the walk positions that are within range of enemy static defense structures.
      *
-     * @return Set of positions that are covered by static defense
+     * @return Coverage grid of positions covered by static defense
      */
-    public Set<Position> getStaticDefenseCoverage() {
-        Set<Position> coveredPositions = new HashSet<>();
-
-        Map<UnitType, Integer> staticDefenseRanges = new HashMap<>();
-        switch (opponentRace) {
-            case Terran:
-                staticDefenseRanges.put(UnitType.Terran_Missile_Turret, UnitType.Terran_Missile_Turret.airWeapon().maxRange());
-                staticDefenseRanges.put(UnitType.Terran_Bunker, UnitType.Terran_Marine.groundWeapon().maxRange() + 32);
-                break;
-            case Protoss:
-                staticDefenseRanges.put(UnitType.Protoss_Photon_Cannon, UnitType.Protoss_Photon_Cannon.groundWeapon().maxRange());
-                break;
-            case Zerg:
-                staticDefenseRanges.put(UnitType.Zerg_Spore_Colony, UnitType.Zerg_Spore_Colony.airWeapon().maxRange());
-                staticDefenseRanges.put(UnitType.Zerg_Sunken_Colony, UnitType.Zerg_Sunken_Colony.groundWeapon().maxRange());
-                break;
-            default:
-                return coveredPositions;
-        }
-
-        for (Map.Entry<UnitType, Integer> entry : staticDefenseRanges.entrySet()) {
-            UnitType defenseType = entry.getKey();
-            int range = entry.getValue();
-
-            Set<Position> defensePositions = observedUnitTracker.getLastKnownPositionsOfLivingUnits(defenseType);
-
-            for (Position defensePos : defensePositions) {
-                if (defensePos != null) {
-                    for (int x = defensePos.getX() - range; x <= defensePos.getX() + range; x += 8) {
-                        for (int y = defensePos.getY() - range; y <= defensePos.getY() + range; y += 8) {
-                            Position testPos = new Position(x, y);
-
-                            if (Distance.isWithinRange(x, y, defensePos.getX(), defensePos.getY(), range)) {
-                                coveredPositions.add(testPos);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return coveredPositions;
+    public CoverageGrid getStaticDefenseCoverage() {
+        return staticDefenseCoverage.getGround();
     }
 
     public Set<Position> getLastKnownLocationOfEnemyWorkers() {
@@ -975,7 +932,7 @@ public class GameState {
         }
     }
 
-    public Set<WalkPosition> getAccessibleWalkPositions() {
+    public WalkGrid getAccessibleWalkPositions() {
         return gameMap.getAccessibleWalkPositions();
     }
 
@@ -1014,10 +971,9 @@ public class GameState {
 
     @Nullable
     private TilePosition getHotScoutTile() {
-        ArrayList<MapTile> heatMap = gameMap.getHeatMap();
-        if (!heatMap.isEmpty()) {
-            MapTile scoutTile = heatMap.get(0);
-            scoutTile.setScoutImportance(0);
+        MapTile scoutTile = gameMap.getHeatMap().hottest();
+        if (scoutTile != null) {
+            gameMap.resetScoutImportance(scoutTile);
             gameMap.ageHeatMap();
             return scoutTile.getTile();
         }
@@ -19,6 +19,7 @@ import info.map.BuildingPlanner;
 import info.map.GameMap;
 import info.map.MapTile;
 import info.map.MapTileType;
+import info.map.WalkGrid;
 import info.tracking.ObservedBulletTracker;
 import static util.Distance.manhattanTileDistance;
 import info.tracking.ObservedUnitTracker;
@@ -26,6 +27,7 @@ import learning.LearningManager;
 import macro.plan.Plan;
 import macro.plan.PlanType;
 import strategy.buildorder.BuildOrder;
+import util.FrameProfiler;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -44,6 +46,8 @@ public class InformationManager {
 
     private BaseManager baseManager;
     private LearningManager learningManager;
+    // Rebuilt at the start of every onFrame
+    private UnitClassification frameUnits;
 
     // TODO: Move to GameState
     private HashSet<Base> startingBasesSet = new HashSet<>();
@@ -71,18 +75,22 @@ public class InformationManager {
     }
 
     public void onFrame() {
-        gameState.onFrame();
+        FrameProfiler profiler = gameState.getFrameProfiler();
+        profiler.time("information.gameState", gameState::onFrame);
         updateUpgradeCompletion();
-        ageHeatMap();
+        profiler.time("information.heatMap", this::ageHeatMap);
 
-        trackEnemyUnits();
-        trackEnemyBuildings();
+        frameUnits = new UnitClassification(game);
+        profiler.time("information.trackEnemyUnits", this::trackEnemyUnits);
+        profiler.time("information.trackEnemyBuildings", this::trackEnemyBuildings);
         checkEnemyBases();
         checkEnemyBuildingPositions();
         debugEnemyTargets();
         checkScoutTargets();
-        checkIfEnemyUnitsStillThreatenBase();
-        checkBaseThreats();
+        profiler.time("information.baseThreats", () -> {
+            checkIfEnemyUnitsStillThreatenBase();
+            checkBaseThreats();
+        });
 
         BuildOrder active = gameState.getActiveBuildOrder();
         if (active.shouldTransition(gameState)) {
@@ -253,6 +261,10 @@ public class InformationManager {
     }
 
     public void onUnitMorph(Unit unit) {
+        if (unit.getPlayer() != game.self()) {
+            gameState.getObservedUnitTracker().onUnitMorph(unit);
+        }
+
         HashMap<Unit, Plan> assignedPlannedItems = gameState.getAssignedPlannedItems();
         Plan assignedPlan = assignedPlannedItems.get(unit);
         
@@ -451,27 +463,9 @@ public class InformationManager {
         observedBulletTracker.onFrame(game, game.getFrameCount());
         boolean sawEnemyUnit = false;
 
-        for (Unit unit: game.getAllUnits()) {
-            UnitType unitType = unit.getType();
-
-            // Check if the unit should be ignored: own unit, resource, powerup, special/unknown
-            if (unit.getPlayer() == game.self()
-                    || unitType.isResourceContainer()
-                    || unitType.isMineralField()
-                    || unitType.isNeutral()
-                    || unitType == UnitType.Zerg_Lurker_Egg // Hack for neutral eggs
-                    || unitType.isSpecialBuilding()
-                    || unitType.isBuilding()
-                    || unit.isMorphing()) {
-                continue;
-            }
-
-            if (tracker.getVisibleEnemyUnits().size() > 0 && unitType == UnitType.Zerg_Larva) {
-                continue;
-            }
-
+        for (Unit unit: frameUnits.getMobileUnits()) {
             // Track if we see any non-building enemy unit
-            if (unit.isVisible() && unit.getPlayer() == game.enemy() && !unitType.isBuilding()) {
+            if (unit.isVisible() && unit.getPlayer() == game.enemy()) {
                 sawEnemyUnit = true;
             }
 
@@ -480,6 +474,16 @@ public class InformationManager {
             tracker.onUnitShow(unit, game.getFrameCount(), isProxied);
         }
 
+        // Larva are only tracked while nothing else of the enemy's is visible
+        if (!tracker.hasVisibleEnemyUnits()) {
+            for (Unit unit: frameUnits.getLarva()) {
+                if (unit.isVisible() && unit.getPlayer() == game.enemy()) {
+                    sawEnemyUnit = true;
+                }
+                tracker.onUnitShow(unit, game.getFrameCount(), isProxiedBuilding(unit));
+            }
+        }
+
         if (sawEnemyUnit) {
             gameState.setLastEnemyUnitSeenFrame(game.getFrameCount());
         }
@@ -509,36 +513,30 @@ public class InformationManager {
         ScoutData scoutData = gameState.getScoutData();
         ObservedUnitTracker tracker = gameState.getObservedUnitTracker();
 
-        for (Unit unit: game.getAllUnits()) {
-            if (unit.getPlayer() != game.enemy()) {
-                continue;
-            }
+        for (Unit unit: frameUnits.getVisibleEnemyBuildings()) {
             UnitType unitType = unit.getType();
             TilePosition tp = unit.getTilePosition();
 
+            // Idempotently track enemy building - only calls onUnitShow if not already tracked
+            boolean isProxied = isProxiedBuilding(unit);
+            tracker.onUnitShow(unit, game.getFrameCount(), isProxied);
 
-            if (unit.isVisible() && unitType.isBuilding()) {
-                // Idempotently track enemy building - only calls onUnitShow if not already tracked
-                boolean isProxied = isProxiedBuilding(unit);
-                tracker.onUnitShow(unit, game.getFrameCount(), isProxied);
-
-                scoutData.addEnemyBuildingLocation(tp);
+            scoutData.addEnemyBuildingLocation(tp);
 
-                // If enemyBase is unknown and this is our first time encountering an enemyUnit, set enemyBase
-                if (baseData.getMainEnemyBase() == null) {
-                    Base enemyMainCandidate = closestBaseToUnit(unit, new ArrayList<>(startingBasesSet));
-                    // If enemy main is unknown and closest main is ours, probably a cheese
-                    // TODO: Handle cheese, detect proxy
-                    if (enemyMainCandidate == baseData.getMainBase()) {
-                        continue;
-                    }
-                    baseData.addEnemyBase(enemyMainCandidate);
+            // If enemyBase is unknown and this is our first time encountering an enemyUnit, set enemyBase
+            if (baseData.getMainEnemyBase() == null) {
+                Base enemyMainCandidate = closestBaseToUnit(unit, new ArrayList<>(startingBasesSet));
+                // If enemy main is unknown and closest main is ours, probably a cheese
+                // TODO: Handle cheese, detect proxy
+                if (enemyMainCandidate == baseData.getMainBase()) {
+                    continue;
                 }
+                baseData.addEnemyBase(enemyMainCandidate);
+            }
 
-                if (unitType.isResourceDepot() && baseData.isBaseTilePosition(tp)) {
-                    Base enemyBaseCandidate = baseData.baseAtTilePosition(tp);
-                    baseData.addEnemyBase(enemyBaseCandidate);
-                }
+            if (unitType.isResourceDepot() && baseData.isBaseTilePosition(tp)) {
+                Base enemyBaseCandidate = baseData.baseAtTilePosition(tp);
+                baseData.addEnemyBase(enemyBaseCandidate);
             }
         }
     }
@@ -578,9 +576,7 @@ public class InformationManager {
             if (!game.isVisible(base.getLocation())) {
                 continue;
             }
-            boolean hasEnemyBuildings = game.getUnitsInRadius(base.getCenter(), 256).stream()
-                    .anyMatch(u -> u.getPlayer() == game.enemy() && u.getType().isBuilding());
-            if (!hasEnemyBuildings) {
+            if (!hasVisibleEnemyBuildingNear(base.getCenter(), 256)) {
                 basesToRemove.add(base);
             }
         }
@@ -589,6 +585,15 @@ public class InformationManager {
         }
     }
 
+    private boolean hasVisibleEnemyBuildingNear(Position position, int radius) {
+        for (Unit building : frameUnits.getVisibleEnemyBuildings()) {
+            if (building.getDistance(position) <= radius) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void ensureScoutTargets() {
         ScoutData scoutData = gameState.getScoutData();
         // Always try to add new targets if we have few available or none at all
@@ -596,18 +601,9 @@ public class InformationManager {
             return;
         }
         // Round robin assign SCOUTs to bases
-        int curImportance = 0;
-        for (MapTile mapTile : gameState.getGameMap().getHeatMap()) {
+        // Only add highest importance tiles, we add in the event of ties
+        for (MapTile mapTile : gameState.getGameMap().getHeatMap().hottestTiles()) {
             TilePosition tile = mapTile.getTile();
-            int importance = mapTile.getScoutImportance();
-            if (curImportance == 0) {
-                curImportance = importance;
-            }
-            // Only add highest importance tiles, then break
-            // We add in the event of ties
-            if (importance < curImportance) {
-                break;
-            }
             if (!scoutData.hasScoutTarget(tile) && mapTile.isBuildable()) {
                 scoutData.addScoutTarget(tile);
             }
@@ -687,24 +683,46 @@ public class InformationManager {
         }
 
         GameMap gameMap = gameState.getGameMap();
+        WalkGrid[] tileFlags = gameMap.getAnalysisCache().get("tileFlags", in -> new WalkGrid[]{
+            WalkGrid.read(in, game.mapWidth(), game.mapHeight()),
+            WalkGrid.read(in, game.mapWidth(), game.mapHeight())
+        });
+        if (tileFlags == null) {
+            tileFlags = sampleTileFlags();
+            final WalkGrid walkable = tileFlags[0];
+            final WalkGrid buildable = tileFlags[1];
+            gameMap.getAnalysisCache().put("tileFlags", out -> {
+                walkable.write(out);
+                buildable.write(out);
+            });
+        }
+        final WalkGrid walkableTiles = tileFlags[0];
+        final WalkGrid buildableTiles = tileFlags[1];
 
         for (int x = 0; x < game.mapWidth(); x++) {
             for (int y = 0; y < game.mapHeight(); y++) {
                 TilePosition tp = new TilePosition(x,y);
                 MapTile mapTile;
+                int scoutImportance = 0;
                 if (startingPositions.contains(tp)) {
-                    mapTile = new MapTile(tp, 2, true, true, MapTileType.BASE_START);
+                    mapTile = new MapTile(tp, true, true, MapTileType.BASE_START);
+                    scoutImportance = 2;
                 } else if (expansionPositions.contains(tp)) {
-                    mapTile = new MapTile(tp, 1, true, true, MapTileType.BASE_EXPANSION);
+                    mapTile = new MapTile(tp, true, true, MapTileType.BASE_EXPANSION);
+                    scoutImportance = 1;
                 } else if (resourcePositions.contains(tp)) {
-                    mapTile = new MapTile(tp, 0, false, false, MapTileType.NORMAL);
+                    mapTile = new MapTile(tp, false, false, MapTileType.NORMAL);
                 } else {
-                    mapTile = new MapTile(tp, 0, this.isBuildable(tp), this.isWalkable(tp), MapTileType.NORMAL);
+                    mapTile = new MapTile(tp, buildableTiles.get(x, y), walkableTiles.get(x, y), MapTileType.NORMAL);
                 }
-                gameMap.addTile(mapTile, x, y);
+                gameMap.addTile(mapTile, x, y, scoutImportance);
             }
         }
 
+        // Both run in the background when they are not cached
+        gameMap.calculateGroundDistances(bwem);
+        gameMap.prefetchScoutPerimeters(startingPositions);
+
         // Calculate accessible WalkPositions from a main base using flood fill
         if (!startingPositions.isEmpty()) {
             TilePosition mainBasePosition = startingPositions.iterator().next();
@@ -727,6 +745,28 @@ public class InformationManager {
         }
     }
 
+    /**
+     * Samples tile walkability and buildability, indexed by tile rather than walk position.
+     *
+     * @return walkable tiles followed by buildable tiles
+     */
+    private WalkGrid[] sampleTileFlags() {
+        WalkGrid walkable = new WalkGrid(game.mapWidth(), game.mapHeight());
+        WalkGrid buildable = new WalkGrid(game.mapWidth(), game.mapHeight());
+        for (int x = 0; x < game.mapWidth(); x++) {
+            for (int y = 0; y < game.mapHeight(); y++) {
+                TilePosition tp = new TilePosition(x, y);
+                if (isWalkable(tp)) {
+                    walkable.set(x, y);
+                    if (game.isBuildable(tp)) {
+                        buildable.set(x, y);
+                    }
+                }
+            }
+        }
+        return new WalkGrid[]{walkable, buildable};
+    }
+
     private boolean isWalkable(TilePosition tp) {
         WalkPosition wp = tp.toWalkPosition();
         for (int x = 0; x < 4; x++) {
@@ -740,21 +780,13 @@ public class InformationManager {
         return true;
     }
 
-    // Iterates over all walk positions in a tile
-    private boolean isBuildable(TilePosition tp) {
-        if (!this.isWalkable(tp)) {
-            return false;
-        }
-        return game.isBuildable(tp);
-    }
-
     private void ageHeatMap() {
         ScoutData scoutData = gameState.getScoutData();
         GameMap gameMap = gameState.getGameMap();
-        for (MapTile mapTile : gameMap.getHeatMap()) {
+        for (MapTile mapTile : gameMap.getTiles()) {
             final TilePosition mapTp = mapTile.getTile();
             if (game.isVisible(mapTp)) {
-                mapTile.setScoutImportance(0);
+                gameMap.resetScoutImportance(mapTile);
                 scoutData.removeScoutTarget(mapTp);
             }
         }
@@ -805,7 +837,7 @@ public class InformationManager {
     }
 
     private void checkBaseThreats() {
-        Set<Unit> visibleUnits = gameState.getDetectedEnemyUnits();
+        List<Unit> visibleUnits = frameUnits.getDetectedUnits(gameState.getObservedUnitTracker());
 
         Set<Base> bases = new HashSet<>(gameState.getGatherersAssignedToBase().keySet());
         HashMap<Base, HashSet<Unit>> baseThreats = gameState.getBaseToThreatLookup();
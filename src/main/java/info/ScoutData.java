@@ -6,6 +6,7 @@ import bwapi.Unit;
 import bwem.Base;
 import lombok.Getter;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
@@ -55,7 +56,7 @@ public class ScoutData {
     /**
      * Determines if overlords should continue scouting based on if specific enemy units/buildings are detected.
      */
-    public boolean shouldOverlordsContinueScouting(Race enemyRace, Set<Unit> enemies) {
+    public boolean shouldOverlordsContinueScouting(Race enemyRace, Collection<Unit> enemies) {
         switch (enemyRace) {
             case Terran:
                 return !hasTerranScoutingConditions(enemies);
@@ -70,7 +71,7 @@ public class ScoutData {
         }
     }
 
-    private boolean hasTerranScoutingConditions(Set<Unit> enemies) {
+    private boolean hasTerranScoutingConditions(Collection<Unit> enemies) {
         for (Unit unit : enemies) {
             if (unit.getType() == bwapi.UnitType.Terran_Marine) {
                 return true;
@@ -82,7 +83,7 @@ public class ScoutData {
         return false;
     }
 
-    private boolean hasProtossScoutingConditions(Set<Unit> enemies) {
+    private boolean hasProtossScoutingConditions(Collection<Unit> enemies) {
         for (Unit unit : enemies) {
             if (unit.getType() == bwapi.UnitType.Protoss_Dragoon) {
                 return true;
@@ -103,7 +104,7 @@ public class ScoutData {
         return false;
     }
 
-    private boolean hasZergScoutingConditions(Set<Unit> enemies) {
+    private boolean hasZergScoutingConditions(Collection<Unit> enemies) {
         for (Unit unit : enemies) {
             if (unit.getType() == bwapi.UnitType.Zerg_Spire) {
                 return true;
@@ -0,0 +1,92 @@
+package info;
+
+import bwapi.Game;
+import bwapi.Player;
+import bwapi.Unit;
+import bwapi.UnitType;
+import info.tracking.ObservedUnitTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every accessible unit sorted once per frame into the groups InformationManager's tracking steps need,
+ * so none of them has to walk game.getAllUnits() again.
+ */
+class UnitClassification {
+
+    // Units other than ours, in getAllUnits() order
+    private final List<Unit> foreignUnits = new ArrayList<>();
+    // Non building units that are not ours and are not resources, neutral critters or morphing
+    private final List<Unit> mobileUnits = new ArrayList<>();
+    private final List<Unit> larva = new ArrayList<>();
+    private final List<Unit> visibleEnemyBuildings = new ArrayList<>();
+    private List<Unit> detectedUnits;
+
+    UnitClassification(Game game) {
+        final Player self = game.self();
+        final Player enemy = game.enemy();
+        for (Unit unit : game.getAllUnits()) {
+            final Player player = unit.getPlayer();
+            if (player == self) {
+                continue;
+            }
+            foreignUnits.add(unit);
+
+            final UnitType unitType = unit.getType();
+            if (unitType.isBuilding()) {
+                if (player == enemy && unit.isVisible()) {
+                    visibleEnemyBuildings.add(unit);
+                }
+                continue;
+            }
+            if (isIgnored(unitType) || unit.isMorphing()) {
+                continue;
+            }
+            if (unitType == UnitType.Zerg_Larva) {
+                larva.add(unit);
+            } else {
+                mobileUnits.add(unit);
+            }
+        }
+    }
+
+    List<Unit> getMobileUnits() {
+        return mobileUnits;
+    }
+
+    List<Unit> getLarva() {
+        return larva;
+    }
+
+    List<Unit> getVisibleEnemyBuildings() {
+        return visibleEnemyBuildings;
+    }
+
+    /**
+     * Tracked units that are currently detected, the same units as ObservedUnitTracker.getDetectedUnits().
+     * Built on first use, so call it after this frame's units have been tracked.
+     */
+    List<Unit> getDetectedUnits(ObservedUnitTracker tracker) {
+        if (detectedUnits == null) {
+            detectedUnits = new ArrayList<>();
+            for (Unit unit : foreignUnits) {
+                if (unit.isDetected() && tracker.isObserved(unit)) {
+                    detectedUnits.add(unit);
+                }
+            }
+        }
+        return detectedUnits;
+    }
+
+    /**
+     * Resources, powerups, critters and other neutral or special units are never tracked.
+     */
+    private static boolean isIgnored(UnitType unitType) {
+        return unitType.isResourceContainer()
+                || unitType.isMineralField()
+                || unitType.isNeutral()
+                || unitType == UnitType.Zerg_Lurker_Egg // Hack for neutral eggs
+                || unitType.isSpecialBuilding();
+    }
+}
@@ -0,0 +1,109 @@
+package info;
+
+import bwapi.Position;
+import bwapi.Unit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Uniform grid over the map bucketing units by their position, cleared and refilled every frame.
+ *
+ * Query results are collected into a list owned by the grid and returned as a read only view, so a
+ * result is only valid until the next query on the same grid.
+ */
+class UnitGrid {
+
+    private static final int CELL_SIZE = 128;
+    // Units are bucketed by their center, queries widen by the largest half extent of any unit type
+    private static final int MAX_HALF_EXTENT = 96;
+
+    private final int columns;
+    private final int rows;
+    private final List<List<Unit>> cells;
+    private final List<List<Unit>> occupiedCells = new ArrayList<>();
+    private final List<Unit> result = new ArrayList<>();
+    private final List<Unit> view = Collections.unmodifiableList(result);
+
+    UnitGrid(int pixelWidth, int pixelHeight) {
+        this.columns = Math.max(1, (pixelWidth + CELL_SIZE - 1) / CELL_SIZE);
+        this.rows = Math.max(1, (pixelHeight + CELL_SIZE - 1) / CELL_SIZE);
+        this.cells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<>());
+        }
+    }
+
+    void clear() {
+        for (List<Unit> cell : occupiedCells) {
+            cell.clear();
+        }
+        occupiedCells.clear();
+        result.clear();
+    }
+
+    void add(Unit unit) {
+        List<Unit> cell = cells.get(cellIndex(column(unit.getX()), row(unit.getY())));
+        if (cell.isEmpty()) {
+            occupiedCells.add(cell);
+        }
+        cell.add(unit);
+    }
+
+    /**
+     * Units within radius of (x, y), measured from the unit's edge like Game.getUnitsInRadius.
+     */
+    List<Unit> inRadius(int x, int y, int radius) {
+        result.clear();
+        final Position center = new Position(x, y);
+        final int minColumn = column(x - radius - MAX_HALF_EXTENT);
+        final int maxColumn = column(x + radius + MAX_HALF_EXTENT);
+        final int minRow = row(y - radius - MAX_HALF_EXTENT);
+        final int maxRow = row(y + radius + MAX_HALF_EXTENT);
+        for (int cx = minColumn; cx <= maxColumn; cx++) {
+            for (int cy = minRow; cy <= maxRow; cy++) {
+                for (Unit unit : cells.get(cellIndex(cx, cy))) {
+                    if (unit.getDistance(center) <= radius) {
+                        result.add(unit);
+                    }
+                }
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Units whose bounds overlap the rectangle, like Game.getUnitsInRectangle.
+     */
+    List<Unit> inRectangle(int left, int top, int right, int bottom) {
+        result.clear();
+        final int minColumn = column(left - MAX_HALF_EXTENT);
+        final int maxColumn = column(right + MAX_HALF_EXTENT);
+        final int minRow = row(top - MAX_HALF_EXTENT);
+        final int maxRow = row(bottom + MAX_HALF_EXTENT);
+        for (int cx = minColumn; cx <= maxColumn; cx++) {
+            for (int cy = minRow; cy <= maxRow; cy++) {
+                for (Unit unit : cells.get(cellIndex(cx, cy))) {
+                    if (left <= unit.getRight() && top <= unit.getBottom()
+                            && right >= unit.getLeft() && bottom >= unit.getTop()) {
+                        result.add(unit);
+                    }
+                }
+            }
+        }
+        return view;
+    }
+
+    private int column(int pixelX) {
+        return Math.max(0, Math.min(columns - 1, pixelX / CELL_SIZE));
+    }
+
+    private int row(int pixelY) {
+        return Math.max(0, Math.min(rows - 1, pixelY / CELL_SIZE));
+    }
+
+    private int cellIndex(int column, int row) {
+        return row * columns + column;
+    }
+}
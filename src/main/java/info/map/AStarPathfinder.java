@@ -0,0 +1,180 @@
+package info.map;
+
+import info.exception.NoWalkablePathException;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Tile-indexed A* engine backing GameMap path-finding.
+ *
+ * All search state lives in primitive arrays indexed by x * height + y that are allocated once
+ * and reused across searches. A generation stamp marks which entries belong to the current
+ * search, so nothing needs to be cleared between calls. A tile that was touched but is no longer
+ * in the open set has been closed.
+ *
+ * Mirrors the original GameMap search: the open set is ordered by the heuristic alone, every step
+ * costs the truncated euclidean distance between adjacent tiles, and a tile popped from the open set
+ * is reopened if a cheaper route to it is found later.
+ *
+ * Not thread safe, each thread must own its own instance.
+ */
+public class AStarPathfinder {
+
+    // (int) of the euclidean distance between adjacent tiles, diagonals truncate to 1 as well
+    private static final int STEP_COST = 1;
+
+    private final MapTile[][] mapTiles;
+    private final int width;
+    private final int height;
+
+    private final int[] gScore;
+    private final int[] cameFrom;
+    private final int[] touchedStamp;
+    private final int[] openStamp;
+    private int generation = 0;
+
+    // Binary min-heap of tile indices keyed by heuristic
+    private final int[] heapNodes;
+    private final int[] heapKeys;
+    private int heapSize = 0;
+
+    private final int[] neighbors = new int[8];
+
+    public AStarPathfinder(MapTile[][] mapTiles, int width, int height) {
+        this.mapTiles = mapTiles;
+        this.width = width;
+        this.height = height;
+
+        final int size = width * height;
+        this.gScore = new int[size];
+        this.cameFrom = new int[size];
+        this.touchedStamp = new int[size];
+        this.openStamp = new int[size];
+        // A tile is only pushed while absent from the open set, so the heap never exceeds the tile count
+        this.heapNodes = new int[size];
+        this.heapKeys = new int[size];
+    }
+
+    /**
+     * A* search to find a walkable path between start and end tiles.
+     *
+     * @param start origin MapTile
+     * @param end destination MapTile
+     * @return GroundPath from start to end, inclusive
+     * @throws NoWalkablePathException if no walkable path exists
+     */
+    public GroundPath search(MapTile start, MapTile end) throws NoWalkablePathException {
+        nextGeneration();
+
+        final int startIndex = index(start.getX(), start.getY());
+        final int endIndex = index(end.getX(), end.getY());
+        final int endX = end.getX();
+        final int endY = end.getY();
+
+        touch(startIndex, 0, -1);
+        push(startIndex, heuristic(start.getX(), start.getY(), endX, endY));
+
+        while (heapSize > 0) {
+            final int current = pop();
+            if (current == endIndex) {
+                return reconstructPath(current);
+            }
+
+            final int currentG = gScore[current];
+            final int count = TileNeighbors.collect(mapTiles, width, height, current, neighbors);
+            for (int i = 0; i < count; i++) {
+                final int n = neighbors[i];
+                final int tentativeGScore = currentG + STEP_COST;
+                final int neighborG = touchedStamp[n] == generation ? gScore[n] : Integer.MAX_VALUE;
+
+                if (tentativeGScore < neighborG) {
+                    touch(n, tentativeGScore, current);
+                    if (openStamp[n] != generation) {
+                        push(n, heuristic(n / height, n % height, endX, endY));
+                    }
+                }
+            }
+        }
+
+        throw new NoWalkablePathException("no walkable path exists");
+    }
+
+    private void nextGeneration() {
+        heapSize = 0;
+        generation += 1;
+        // Stamps would alias after wrapping, reset them on overflow
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(touchedStamp, 0);
+            Arrays.fill(openStamp, 0);
+            generation = 1;
+        }
+    }
+
+    private void touch(int node, int g, int parent) {
+        touchedStamp[node] = generation;
+        gScore[node] = g;
+        cameFrom[node] = parent;
+    }
+
+    private int index(int x, int y) {
+        return x * height + y;
+    }
+
+    private int heuristic(int x, int y, int endX, int endY) {
+        final int dx = endX - x;
+        final int dy = endY - y;
+        return (int) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private GroundPath reconstructPath(int current) {
+        ArrayDeque<MapTile> path = new ArrayDeque<>();
+        while (current != -1) {
+            path.addFirst(mapTiles[current / height][current % height]);
+            current = cameFrom[current];
+        }
+        return new GroundPath(path);
+    }
+
+    private void push(int node, int key) {
+        openStamp[node] = generation;
+        int i = heapSize++;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (heapKeys[parent] <= key) {
+                break;
+            }
+            heapNodes[i] = heapNodes[parent];
+            heapKeys[i] = heapKeys[parent];
+            i = parent;
+        }
+        heapNodes[i] = node;
+        heapKeys[i] = key;
+    }
+
+    private int pop() {
+        final int top = heapNodes[0];
+        openStamp[top] = 0;
+
+        heapSize -= 1;
+        final int lastNode = heapNodes[heapSize];
+        final int lastKey = heapKeys[heapSize];
+        int i = 0;
+        final int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child += 1;
+            }
+            if (lastKey <= heapKeys[child]) {
+                break;
+            }
+            heapNodes[i] = heapNodes[child];
+            heapKeys[i] = heapKeys[child];
+            i = child;
+        }
+        heapNodes[i] = lastNode;
+        heapKeys[i] = lastKey;
+        return top;
+    }
+}
@@ -13,16 +13,12 @@ import bwem.Geyser;
 import bwem.Mineral;
 import bwem.Neutral;
 import info.BaseData;
-import util.Distance;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * BuildingPlanner is responsible for finding the best, valid locations for buildings.
@@ -33,15 +29,46 @@ public class BuildingPlanner {
     private Game game;
     private BWEM bwem;
 
-    private HashSet<TilePosition> reservedTiles = new HashSet<>();
+    private WalkGrid reservedTiles;
+    private WalkGrid unbuildableTiles;
+    // Footprint checks against reservedTiles and unbuildableTiles, rebuilt lazily after reservations change
+    private TileSums reservedSums;
+    private TileSums blockedSums;
+    private boolean reservationsChanged = true;
+    private CreepMap creepMap;
+
+    private HashMap<Base, Position> closestChokes = new HashMap<>();
+    private HashMap<Base, List<TilePosition>> macroHatchCandidates = new HashMap<>();
 
     public BuildingPlanner(Game game, BWEM bwem) {
         this.game = game;
         this.bwem = bwem;
+        final int width = game.mapWidth();
+        final int height = game.mapHeight();
+        this.reservedTiles = new WalkGrid(width, height);
+        this.unbuildableTiles = new WalkGrid(width, height);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (!game.isBuildable(x, y)) {
+                    unbuildableTiles.set(x, y);
+                }
+            }
+        }
+        this.reservedSums = new TileSums(width, height);
+        this.blockedSums = new TileSums(width, height);
+        this.creepMap = new CreepMap(game, this::mineralBoundingBox, this::geyserBoundingBox);
     }
 
     public Set<TilePosition> getReservedTiles() {
-        return new HashSet<>(reservedTiles);
+        Set<TilePosition> tiles = new HashSet<>();
+        for (int x = 0; x < reservedTiles.getWidth(); x++) {
+            for (int y = 0; y < reservedTiles.getHeight(); y++) {
+                if (reservedTiles.get(x, y)) {
+                    tiles.add(new TilePosition(x, y));
+                }
+            }
+        }
+        return tiles;
     }
 
     public TilePosition getLocationForBuilding(Base base, UnitType unitType) {
@@ -55,73 +82,78 @@ public class BuildingPlanner {
         return position;
     }
 
+    /**
+     * The creep footprint farthest from the base's closest choke that is not reserved.
+     */
     public TilePosition getLocationForTechBuilding(Base base, UnitType unitType) {
         Position closestChoke = this.closestChokeToBase(base);
-        Set<TilePosition> creepTiles = this.findSurroundingCreepTiles(base, true, true);
         TilePosition tileSize = unitType.tileSize();
-
-        List<TilePosition> farthestFromChoke = new ArrayList<>(creepTiles);
-        farthestFromChoke.sort(Distance.closestTo(closestChoke.toTilePosition()));
-
-        TilePosition best = null;
-        for (TilePosition northWestCandidate: creepTiles) {
-            TilePosition southEastCandidate = northWestCandidate.add(tileSize);
-            if (!creepTiles.contains(southEastCandidate)) {
-                continue;
-            }
-
-            if (!isValidBuildingLocation(northWestCandidate, tileSize, creepTiles)) {
-                continue;
-            }
-
-            if (best == null) {
-                best = northWestCandidate;
-            }
-
-            if (northWestCandidate.getDistance(closestChoke.toTilePosition()) > best.getDistance(closestChoke.toTilePosition())) {
-                best = northWestCandidate;
-            }
-        }
-        return best;
+        List<TilePosition> farthestFromChoke = creepMap.rankedFootprints(base, true, true, tileSize, closestChoke.toTilePosition(), true);
+        return firstUnreserved(farthestFromChoke, tileSize);
     }
 
     // reserveBuildingTiles is called when the building begins morphing/building
     public void reserveBuildingTiles(Unit unit) {
         TilePosition candidate = unit.getTilePosition();
         TilePosition tileSize = unit.getType().tileSize();
-        for (int dx = 0; dx < tileSize.getX(); dx++) {
-            for (int dy = 0; dy < tileSize.getY(); dy++) {
-                TilePosition currentTile = candidate.add(new TilePosition(dx, dy));
-                reservedTiles.add(currentTile);
-            }
+        if (unit.getType().producesCreep()) {
+            creepMap.markProducer(candidate, tileSize);
         }
+        setReserved(candidate, tileSize, true);
     }
 
     // removeBuildingTiles is called when the building is destroyed
     public void removeBuildingTiles(Unit unit) {
         TilePosition candidate = unit.getTilePosition();
         TilePosition tileSize = unit.getType().tileSize();
-        for (int dx = 0; dx < tileSize.getX(); dx++) {
-            for (int dy = 0; dy < tileSize.getY(); dy++) {
-                TilePosition currentTile = candidate.add(new TilePosition(dx, dy));
-                reservedTiles.remove(currentTile);
-            }
+        if (unit.getType().producesCreep()) {
+            creepMap.markProducer(candidate, tileSize);
         }
+        setReserved(candidate, tileSize, false);
     }
 
-    private boolean isValidBuildingLocation(TilePosition candidate, TilePosition tileSize, Set<TilePosition> creepTiles) {
-        for (int dx = 0; dx < tileSize.getX(); dx++) {
-            for (int dy = 0; dy < tileSize.getY(); dy++) {
-                TilePosition currentTile = candidate.add(new TilePosition(dx, dy));
-                if (!creepTiles.contains(currentTile) || reservedTiles.contains(currentTile)) {
-                    return false;
+    private void setReserved(TilePosition topLeft, TilePosition tileSize, boolean reserved) {
+        final int right = Math.min(reservedTiles.getWidth(), topLeft.getX() + tileSize.getX());
+        final int bottom = Math.min(reservedTiles.getHeight(), topLeft.getY() + tileSize.getY());
+        for (int x = Math.max(0, topLeft.getX()); x < right; x++) {
+            for (int y = Math.max(0, topLeft.getY()); y < bottom; y++) {
+                if (reserved) {
+                    reservedTiles.set(x, y);
+                } else {
+                    reservedTiles.clear(x, y);
                 }
             }
         }
-        return true;
+        reservationsChanged = true;
+    }
+
+    private void refreshFootprintSums() {
+        if (reservationsChanged) {
+            reservedSums.build(reservedTiles);
+            blockedSums.build(reservedTiles, unbuildableTiles);
+            reservationsChanged = false;
+        }
+    }
+
+    private boolean isUnreserved(TilePosition candidate, TilePosition tileSize) {
+        refreshFootprintSums();
+        return reservedSums.isClear(candidate, tileSize);
+    }
+
+    private TilePosition firstUnreserved(List<TilePosition> candidates, TilePosition tileSize) {
+        for (TilePosition candidate : candidates) {
+            if (isUnreserved(candidate, tileSize)) {
+                return candidate;
+            }
+        }
+        return null;
     }
 
     public Position closestChokeToBase(Base base) {
+        return closestChokes.computeIfAbsent(base, this::findClosestChokeToBase);
+    }
+
+    private Position findClosestChokeToBase(Base base) {
         Position closestChoke = null;
         for (ChokePoint cp: bwem.getMap().getChokePoints()) {
             Position cpp = cp.getCenter().toPosition();
@@ -213,55 +245,12 @@ public class BuildingPlanner {
         return boundingTiles;
     }
 
+    /**
+     * Creep tiles connected to the base's hatchery, served from the creep map which only re-reads creep near our
+     * creep producers. The returned set is read only and shared with later calls.
+     */
     public Set<TilePosition> findSurroundingCreepTiles(Base base, boolean excludeGeyserTiles, boolean excludeMineralTiles) {
-        Set<TilePosition> creepTiles = new HashSet<>();
-        HashSet<TilePosition> checked = new HashSet<>();
-        HashSet<TilePosition> mineralExcluded = mineralBoundingBox(base);
-        Set<TilePosition> geyserExcluded = excludeGeyserTiles ? geyserBoundingBox(base) : Collections.emptySet();
-        Queue<TilePosition> candidates = new LinkedList<>();
-        TilePosition tileSize = new TilePosition(6, 5);
-        TilePosition baseLocation = base.getLocation();
-        for (int x = -1; x < tileSize.getX(); x++) {
-            for (int y = -1; y < tileSize.getX(); y++) {
-                candidates.add(baseLocation.add(new TilePosition(x, y)));
-            }
-        }
-
-        while (!candidates.isEmpty()) {
-            TilePosition current = candidates.poll();
-
-            if (checked.contains(current)) {
-                continue;
-            }
-            checked.add(current);
-
-            if (game.hasCreep(current)) {
-                creepTiles.add(current);
-
-                for (int dx = -1; dx <= 1; dx++) {
-                    for (int dy = -1; dy <= 1; dy++) {
-                        if (dx == 0 && dy == 0) {
-                            continue;
-                        }
-                        int newX = current.getX() + dx;
-                        int newY = current.getY() + dy;
-
-                        if (newX >= 0 && newX < game.mapWidth() && newY >= 0 && newY < game.mapHeight()) {
-                            TilePosition neighbor = new TilePosition(newX, newY);
-                            if (!checked.contains(neighbor)) {
-                                candidates.add(neighbor);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        creepTiles = creepTiles.stream()
-                .filter(t -> (!excludeMineralTiles || !mineralExcluded.contains(t)) && !geyserExcluded.contains(t))
-                .collect(Collectors.toSet());
-
-        return creepTiles;
+        return creepMap.creepTiles(base, excludeGeyserTiles, excludeMineralTiles);
     }
 
     /**
@@ -271,12 +260,15 @@ public class BuildingPlanner {
     public TilePosition getLocationForCreepColony(Base base, Race opponentRace) {
         boolean excludeGeyserTiles = opponentRace != Race.Zerg;
         Set<TilePosition> creepTiles = findSurroundingCreepTiles(base, excludeGeyserTiles, true);
-        TilePosition colonySize = UnitType.Zerg_Creep_Colony.tileSize();
-
-        List<TilePosition> candidates = findValidColonyCandidates(creepTiles, colonySize);
+        TilePosition sortTarget = creepColonySortTarget(base, opponentRace);
+        List<TilePosition> candidates = findValidColonyCandidates(base, excludeGeyserTiles, true, sortTarget);
 
-        Set<TilePosition> existing = new HashSet<>(reservedTiles);
-        existing.retainAll(creepTiles);
+        List<TilePosition> existing = new ArrayList<>();
+        for (TilePosition tile : creepTiles) {
+            if (reservedTiles.get(tile.getX(), tile.getY())) {
+                existing.add(tile);
+            }
+        }
 
         if (!existing.isEmpty()) {
             List<TilePosition> adjacent = new ArrayList<>();
@@ -293,39 +285,32 @@ public class BuildingPlanner {
             }
         }
 
-        TilePosition sortTarget = creepColonySortTarget(base, opponentRace);
-        candidates.sort(Distance.closestTo(sortTarget));
         return candidates.isEmpty() ? null : candidates.get(0);
     }
 
     public TilePosition getLocationForSporeColony(Base base) {
         TilePosition colonySize = UnitType.Zerg_Creep_Colony.tileSize();
-
-        Set<TilePosition> creepTilesWithMinerals = findSurroundingCreepTiles(base, true, false);
-        List<TilePosition> candidates = findValidColonyCandidates(creepTilesWithMinerals, colonySize);
-        if (!candidates.isEmpty()) {
-            TilePosition sortTarget = mineralHatcheryMidpoint(base);
-            candidates.sort(Distance.closestTo(sortTarget));
-            return candidates.get(0);
+        List<TilePosition> nearMinerals = creepMap.rankedFootprints(base, true, false, colonySize, mineralHatcheryMidpoint(base), false);
+        TilePosition location = firstUnreserved(nearMinerals, colonySize);
+        if (location != null) {
+            return location;
         }
 
-        Set<TilePosition> standardCreepTiles = findSurroundingCreepTiles(base, true, true);
-        candidates = findValidColonyCandidates(standardCreepTiles, colonySize);
-        if (!candidates.isEmpty()) {
-            candidates.sort(Distance.closestTo(base.getLocation()));
-            return candidates.get(0);
-        }
-
-        return null;
+        List<TilePosition> nearHatchery = creepMap.rankedFootprints(base, true, true, colonySize, base.getLocation(), false);
+        return firstUnreserved(nearHatchery, colonySize);
     }
 
-    private List<TilePosition> findValidColonyCandidates(Set<TilePosition> creepTiles, TilePosition colonySize) {
+    /**
+     * Unreserved creep colony footprints on the base's creep, nearest to sortTarget first.
+     */
+    private List<TilePosition> findValidColonyCandidates(Base base, boolean excludeGeyserTiles, boolean excludeMineralTiles,
+                                                         TilePosition sortTarget) {
+        TilePosition colonySize = UnitType.Zerg_Creep_Colony.tileSize();
         List<TilePosition> candidates = new ArrayList<>();
-        for (TilePosition tp : creepTiles) {
-            TilePosition southEastCandidate = tp.add(colonySize);
-            if (!creepTiles.contains(southEastCandidate)) continue;
-            if (!isValidBuildingLocation(tp, colonySize, creepTiles)) continue;
-            candidates.add(tp);
+        for (TilePosition tp : creepMap.rankedFootprints(base, excludeGeyserTiles, excludeMineralTiles, colonySize, sortTarget, false)) {
+            if (isUnreserved(tp, colonySize)) {
+                candidates.add(tp);
+            }
         }
         return candidates;
     }
@@ -461,10 +446,26 @@ public class BuildingPlanner {
      * Finds a buildable location near the target base for the specified building type.
      */
     private TilePosition findBuildableLocationNearBase(Base base) {
+        TilePosition buildingSize = UnitType.Zerg_Hatchery.tileSize();
+        refreshFootprintSums();
+        for (TilePosition candidate : macroHatchCandidates.computeIfAbsent(base, this::findMacroHatchCandidates)) {
+            if (blockedSums.isClear(candidate, buildingSize)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Macro hatchery locations around the base in search order, expanding rings around the base location,
+     * keeping only those whose distance to the map edge, base hatchery and resources is valid. These never
+     * change, so buildability and reservations are left to the footprint check at lookup.
+     */
+    private List<TilePosition> findMacroHatchCandidates(Base base) {
         TilePosition baseLocation = base.getLocation();
         TilePosition buildingSize = UnitType.Zerg_Hatchery.tileSize();
+        List<TilePosition> candidates = new ArrayList<>();
 
-        // Search in expanding circles around the base location
         for (int radius = 1; radius <= 10; radius++) {
             for (int dx = -radius; dx <= radius; dx++) {
                 for (int dy = -radius; dy <= radius; dy++) {
@@ -475,17 +476,17 @@ public class BuildingPlanner {
                     TilePosition candidate = baseLocation.add(new TilePosition(dx, dy));
 
                     if (isValidMacroHatchLocation(candidate, buildingSize, base)) {
-                        return candidate;
+                        candidates.add(candidate);
                     }
                 }
             }
         }
 
-        return null;
+        return candidates;
     }
 
     /**
-     * Checks if a location is valid for placing a macro hatchery.
+     * Checks if a location keeps a macro hatchery on the map and clear of the base hatchery and resources.
      */
     private boolean isValidMacroHatchLocation(TilePosition location, TilePosition buildingSize, Base base) {
         if (location.getX() < 0 || location.getY() < 0 ||
@@ -494,16 +495,6 @@ public class BuildingPlanner {
             return false;
         }
 
-        for (int dx = 0; dx < buildingSize.getX(); dx++) {
-            for (int dy = 0; dy < buildingSize.getY(); dy++) {
-                TilePosition currentTile = location.add(new TilePosition(dx, dy));
-
-                if (!game.isBuildable(currentTile) || reservedTiles.contains(currentTile)) {
-                    return false;
-                }
-            }
-        }
-
         if (!isValidDistanceFromBaseHatchery(location, buildingSize, base)) {
             return false;
         }
@@ -596,13 +587,7 @@ public class BuildingPlanner {
             return;
         }
 
-        TilePosition tileSize = unitType.tileSize();
-        for (int dx = 0; dx < tileSize.getX(); dx++) {
-            for (int dy = 0; dy < tileSize.getY(); dy++) {
-                TilePosition currentTile = buildPosition.add(new TilePosition(dx, dy));
-                reservedTiles.add(currentTile);
-            }
-        }
+        setReserved(buildPosition, unitType.tileSize(), true);
     }
 
     /**
@@ -617,12 +602,6 @@ public class BuildingPlanner {
             return;
         }
 
-        TilePosition tileSize = unitType.tileSize();
-        for (int dx = 0; dx < tileSize.getX(); dx++) {
-            for (int dy = 0; dy < tileSize.getY(); dy++) {
-                TilePosition currentTile = buildPosition.add(new TilePosition(dx, dy));
-                reservedTiles.remove(currentTile);
-            }
-        }
+        setReserved(buildPosition, unitType.tileSize(), false);
     }
 }
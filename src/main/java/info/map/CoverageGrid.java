@@ -0,0 +1,79 @@
+package info.map;
+
+import bwapi.Position;
+import lombok.Getter;
+
+/**
+ * Count of overlapping circles per walk position, one cell per 8x8 pixels.
+ *
+ * A cell is covered by a circle when its top left pixel is within range of the circle's center.
+ * Circles are stamped and unstamped individually, so the grid is kept up to date without rebuilding it.
+ */
+public class CoverageGrid {
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    private final short[] depth;
+    private int circles = 0;
+
+    public CoverageGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.depth = new short[width * height];
+    }
+
+    public void add(Position center, int range) {
+        stamp(center, range, 1);
+        circles += 1;
+    }
+
+    public void remove(Position center, int range) {
+        stamp(center, range, -1);
+        circles -= 1;
+    }
+
+    public boolean isCovered(Position position) {
+        return depth(position) > 0;
+    }
+
+    /**
+     * @return number of circles covering the walk position containing position
+     */
+    public int depth(Position position) {
+        return depth(position.getX() / 8, position.getY() / 8);
+    }
+
+    public int depth(int walkX, int walkY) {
+        if (walkX < 0 || walkY < 0 || walkX >= width || walkY >= height) {
+            return 0;
+        }
+        return depth[walkY * width + walkX];
+    }
+
+    public boolean isEmpty() {
+        return circles == 0;
+    }
+
+    private void stamp(Position center, int range, int delta) {
+        final int cx = center.getX();
+        final int cy = center.getY();
+        final long rangeSquared = (long) range * range;
+        final int minX = Math.max(0, Math.floorDiv(cx - range + 7, 8));
+        final int maxX = Math.min(width - 1, Math.floorDiv(cx + range, 8));
+        final int minY = Math.max(0, Math.floorDiv(cy - range + 7, 8));
+        final int maxY = Math.min(height - 1, Math.floorDiv(cy + range, 8));
+
+        for (int y = minY; y <= maxY; y++) {
+            final long dy = y * 8L - cy;
+            final int row = y * width;
+            for (int x = minX; x <= maxX; x++) {
+                final long dx = x * 8L - cx;
+                if (dx * dx + dy * dy <= rangeSquared) {
+                    depth[row + x] += delta;
+                }
+            }
+        }
+    }
+}
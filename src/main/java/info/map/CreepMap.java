@@ -0,0 +1,320 @@
+package info.map;
+
+import bwapi.Game;
+import bwapi.TilePosition;
+import bwem.Base;
+import util.Distance;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Creep around our bases, read from the game once per tile and afterwards only re-read in the regions
+ * around creep producing buildings while their creep may still be spreading or receding.
+ *
+ * Each base keeps the creep tiles connected to its hatchery and the footprints that fit on them, rebuilt
+ * only after a rescan changed a tile touching them. Reserved tiles are not considered here, callers check
+ * them when they place a building. Returned collections are read only and shared between calls.
+ */
+class CreepMap {
+
+    // Hatchery creep reaches about 10 tiles past the building, colonies less
+    private static final int PRODUCER_RADIUS = 12;
+    // Covers a hatchery morph followed by its full creep spread, or creep receding after a loss
+    private static final int CHANGE_WINDOW_FRAMES = 24 * 180;
+    private static final int RESCAN_INTERVAL_FRAMES = 24;
+
+    private final Game game;
+    private final Function<Base, Set<TilePosition>> mineralExclusion;
+    private final Function<Base, Set<TilePosition>> geyserExclusion;
+    private final int width;
+    private final int height;
+    // Tiles whose creep has been read from the game at least once
+    private final WalkGrid known;
+    private final WalkGrid creep;
+    private final List<Region> regions = new ArrayList<>();
+    private final Map<Base, BaseCreep> bases = new HashMap<>();
+
+    CreepMap(Game game, Function<Base, Set<TilePosition>> mineralExclusion, Function<Base, Set<TilePosition>> geyserExclusion) {
+        this.game = game;
+        this.mineralExclusion = mineralExclusion;
+        this.geyserExclusion = geyserExclusion;
+        this.width = game.mapWidth();
+        this.height = game.mapHeight();
+        this.known = new WalkGrid(width, height);
+        this.creep = new WalkGrid(width, height);
+    }
+
+    /**
+     * A creep producer started, finished or died at this footprint, so creep around it is re-read on the next
+     * query and then periodically until the change window has passed.
+     */
+    void markProducer(TilePosition topLeft, TilePosition tileSize) {
+        final int left = Math.max(0, topLeft.getX() - PRODUCER_RADIUS);
+        final int top = Math.max(0, topLeft.getY() - PRODUCER_RADIUS);
+        final int right = Math.min(width - 1, topLeft.getX() + tileSize.getX() - 1 + PRODUCER_RADIUS);
+        final int bottom = Math.min(height - 1, topLeft.getY() + tileSize.getY() - 1 + PRODUCER_RADIUS);
+        final int expiresAt = game.getFrameCount() + CHANGE_WINDOW_FRAMES;
+        for (Region region : regions) {
+            if (region.left == left && region.top == top && region.right == right && region.bottom == bottom) {
+                region.expiresAt = expiresAt;
+                region.lastScan = -1;
+                return;
+            }
+        }
+        regions.add(new Region(left, top, right, bottom, expiresAt));
+    }
+
+    Set<TilePosition> creepTiles(Base base, boolean excludeGeyserTiles, boolean excludeMineralTiles) {
+        return baseCreep(base).filtered(excludeGeyserTiles, excludeMineralTiles).tiles;
+    }
+
+    /**
+     * North west corners of every footprint of this size that lies on the base's creep, ignoring reservations.
+     */
+    List<TilePosition> footprints(Base base, boolean excludeGeyserTiles, boolean excludeMineralTiles, TilePosition tileSize) {
+        Filtered filtered = baseCreep(base).filtered(excludeGeyserTiles, excludeMineralTiles);
+        return filtered.footprints.computeIfAbsent(tileSize, size -> {
+            List<TilePosition> candidates = new ArrayList<>();
+            for (TilePosition tp : filtered.tiles) {
+                if (covers(filtered.tiles, tp, size)) {
+                    candidates.add(tp);
+                }
+            }
+            return Collections.unmodifiableList(candidates);
+        });
+    }
+
+    /**
+     * The same footprints ordered by distance to target, nearest first unless farthestFirst is set.
+     */
+    List<TilePosition> rankedFootprints(Base base, boolean excludeGeyserTiles, boolean excludeMineralTiles, TilePosition tileSize,
+                                        TilePosition target, boolean farthestFirst) {
+        List<TilePosition> footprints = footprints(base, excludeGeyserTiles, excludeMineralTiles, tileSize);
+        Filtered filtered = baseCreep(base).filtered(excludeGeyserTiles, excludeMineralTiles);
+        return filtered.ranked.computeIfAbsent(Arrays.asList(tileSize, target, farthestFirst), key -> {
+            List<TilePosition> ranked = new ArrayList<>(footprints);
+            Comparator<TilePosition> byDistance = Distance.closestTo(target);
+            ranked.sort(farthestFirst ? byDistance.reversed() : byDistance);
+            return Collections.unmodifiableList(ranked);
+        });
+    }
+
+    /**
+     * Whether the footprint and the tile diagonally past its south east corner are all in tiles.
+     */
+    static boolean covers(Set<TilePosition> tiles, TilePosition northWest, TilePosition tileSize) {
+        if (!tiles.contains(northWest.add(tileSize))) {
+            return false;
+        }
+        for (int dx = 0; dx < tileSize.getX(); dx++) {
+            for (int dy = 0; dy < tileSize.getY(); dy++) {
+                if (!tiles.contains(northWest.add(new TilePosition(dx, dy)))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private BaseCreep baseCreep(Base base) {
+        rescanRegions();
+        BaseCreep baseCreep = bases.computeIfAbsent(base, b -> new BaseCreep());
+        if (baseCreep.stale) {
+            rebuild(base, baseCreep);
+        }
+        return baseCreep;
+    }
+
+    private void rescanRegions() {
+        final int frame = game.getFrameCount();
+        for (Iterator<Region> it = regions.iterator(); it.hasNext();) {
+            Region region = it.next();
+            if (region.lastScan < 0 || frame - region.lastScan >= RESCAN_INTERVAL_FRAMES) {
+                scan(region);
+                region.lastScan = frame;
+            }
+            if (frame > region.expiresAt) {
+                it.remove();
+            }
+        }
+    }
+
+    private void scan(Region region) {
+        for (int x = region.left; x <= region.right; x++) {
+            for (int y = region.top; y <= region.bottom; y++) {
+                final boolean hasCreep = game.hasCreep(x, y);
+                if (known.get(x, y) && creep.get(x, y) == hasCreep) {
+                    continue;
+                }
+                known.set(x, y);
+                if (hasCreep) {
+                    creep.set(x, y);
+                } else {
+                    creep.clear(x, y);
+                }
+                invalidateAround(x, y);
+            }
+        }
+    }
+
+    private void invalidateAround(int x, int y) {
+        for (BaseCreep baseCreep : bases.values()) {
+            if (!baseCreep.stale && baseCreep.touches(x, y)) {
+                baseCreep.stale = true;
+            }
+        }
+    }
+
+    private boolean hasCreep(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        if (!known.get(x, y)) {
+            known.set(x, y);
+            if (game.hasCreep(x, y)) {
+                creep.set(x, y);
+            }
+        }
+        return creep.get(x, y);
+    }
+
+    /**
+     * Flood fills creep outward from the tiles around the base location, the same walk findSurroundingCreepTiles
+     * did against the game, and records the tiles it looked at so later creep changes can be matched to it.
+     */
+    private void rebuild(Base base, BaseCreep baseCreep) {
+        Set<TilePosition> creepTiles = new HashSet<>();
+        Set<TilePosition> checked = new HashSet<>();
+        Queue<TilePosition> candidates = new ArrayDeque<>();
+        TilePosition tileSize = new TilePosition(6, 5);
+        TilePosition baseLocation = base.getLocation();
+        for (int x = -1; x < tileSize.getX(); x++) {
+            for (int y = -1; y < tileSize.getX(); y++) {
+                candidates.add(baseLocation.add(new TilePosition(x, y)));
+            }
+        }
+
+        baseCreep.resetBounds();
+        while (!candidates.isEmpty()) {
+            TilePosition current = candidates.poll();
+            if (!checked.add(current)) {
+                continue;
+            }
+            baseCreep.extendBounds(current);
+
+            if (!hasCreep(current.getX(), current.getY())) {
+                continue;
+            }
+            creepTiles.add(current);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if (dx == 0 && dy == 0) {
+                        continue;
+                    }
+                    int newX = current.getX() + dx;
+                    int newY = current.getY() + dy;
+                    if (newX >= 0 && newX < width && newY >= 0 && newY < height) {
+                        TilePosition neighbor = new TilePosition(newX, newY);
+                        if (!checked.contains(neighbor)) {
+                            candidates.add(neighbor);
+                        }
+                    }
+                }
+            }
+        }
+
+        baseCreep.tiles = creepTiles;
+        baseCreep.mineralExcluded = mineralExclusion.apply(base);
+        baseCreep.geyserExcluded = geyserExclusion.apply(base);
+        baseCreep.filtered.clear();
+        baseCreep.stale = false;
+    }
+
+    private static class Region {
+        final int left;
+        final int top;
+        final int right;
+        final int bottom;
+        int expiresAt;
+        int lastScan = -1;
+
+        Region(int left, int top, int right, int bottom, int expiresAt) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class Filtered {
+        final Set<TilePosition> tiles;
+        final Map<TilePosition, List<TilePosition>> footprints = new HashMap<>();
+        // Keyed by footprint size, sort target and direction
+        final Map<List<Object>, List<TilePosition>> ranked = new HashMap<>();
+
+        Filtered(Set<TilePosition> tiles) {
+            this.tiles = tiles;
+        }
+    }
+
+    private static class BaseCreep {
+        boolean stale = true;
+        Set<TilePosition> tiles;
+        Set<TilePosition> mineralExcluded;
+        Set<TilePosition> geyserExcluded;
+        // Keyed by exclusion flags, geyser in bit 0 and minerals in bit 1
+        final Map<Integer, Filtered> filtered = new HashMap<>();
+        int left;
+        int top;
+        int right;
+        int bottom;
+
+        Filtered filtered(boolean excludeGeyserTiles, boolean excludeMineralTiles) {
+            final int key = (excludeGeyserTiles ? 1 : 0) | (excludeMineralTiles ? 2 : 0);
+            return filtered.computeIfAbsent(key, k -> {
+                Set<TilePosition> result = new HashSet<>();
+                for (TilePosition t : tiles) {
+                    if ((!excludeMineralTiles || !mineralExcluded.contains(t)) && (!excludeGeyserTiles || !geyserExcluded.contains(t))) {
+                        result.add(t);
+                    }
+                }
+                return new Filtered(Collections.unmodifiableSet(result));
+            });
+        }
+
+        void resetBounds() {
+            left = Integer.MAX_VALUE;
+            top = Integer.MAX_VALUE;
+            right = Integer.MIN_VALUE;
+            bottom = Integer.MIN_VALUE;
+        }
+
+        void extendBounds(TilePosition tile) {
+            left = Math.min(left, tile.getX());
+            top = Math.min(top, tile.getY());
+            right = Math.max(right, tile.getX());
+            bottom = Math.max(bottom, tile.getY());
+        }
+
+        /**
+         * Bounds cover every checked tile, which includes the ring of non creep tiles around the fill, so any
+         * tile whose change could grow or shrink this base's creep is inside them.
+         */
+        boolean touches(int x, int y) {
+            return x >= left && x <= right && y >= top && y <= bottom;
+        }
+    }
+}
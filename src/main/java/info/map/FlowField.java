@@ -0,0 +1,108 @@
+package info.map;
+
+import bwapi.Position;
+
+import java.util.Arrays;
+
+/**
+ * Ground step count from every tile to a destination block of tiles, built once with a breadth-first
+ * search over walkable tiles using the same neighbor rules and uniform step cost as the A* search.
+ *
+ * Any unit on a reachable tile finds its way to the destination by repeatedly stepping to the neighbor
+ * with the fewest remaining steps, no search needed per unit.
+ */
+public class FlowField {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final MapTile[][] mapTiles;
+    private final int width;
+    private final int height;
+    private final int[] steps;
+    private final int[] neighbors = new int[8];
+
+    /**
+     * Builds the field toward every walkable tile in the blockSize square whose top left tile is (left, top).
+     */
+    FlowField(MapTile[][] mapTiles, int width, int height, int left, int top, int blockSize) {
+        this.mapTiles = mapTiles;
+        this.width = width;
+        this.height = height;
+        this.steps = new int[width * height];
+        Arrays.fill(steps, UNREACHABLE);
+
+        final int[] queue = new int[width * height];
+        int head = 0;
+        int tail = 0;
+        for (int x = left; x < left + blockSize; x++) {
+            for (int y = top; y < top + blockSize; y++) {
+                if (TileNeighbors.isWalkable(mapTiles, width, height, x, y)) {
+                    steps[x * height + y] = 0;
+                    queue[tail++] = x * height + y;
+                }
+            }
+        }
+
+        while (head < tail) {
+            final int current = queue[head++];
+            final int next = steps[current] + 1;
+            final int count = TileNeighbors.collect(mapTiles, width, height, current, neighbors);
+            for (int i = 0; i < count; i++) {
+                final int n = neighbors[i];
+                if (steps[n] == UNREACHABLE) {
+                    steps[n] = next;
+                    queue[tail++] = n;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether any tile of the destination block was walkable
+     */
+    boolean hasDestination(int left, int top, int blockSize) {
+        for (int x = Math.max(0, left); x < Math.min(width, left + blockSize); x++) {
+            for (int y = Math.max(0, top); y < Math.min(height, top + blockSize); y++) {
+                if (steps[x * height + y] == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int steps(int tileX, int tileY) {
+        if (tileX < 0 || tileY < 0 || tileX >= width || tileY >= height) {
+            return UNREACHABLE;
+        }
+        return steps[tileX * height + tileY];
+    }
+
+    /**
+     * Walks up to lookahead tiles down the field from position.
+     *
+     * @return center of the tile reached, null if position is unreachable or already in the destination block
+     */
+    public Position waypoint(Position position, int lookahead) {
+        final int x = position.getX() / 32;
+        final int y = position.getY() / 32;
+        if (steps(x, y) == UNREACHABLE || steps(x, y) == 0) {
+            return null;
+        }
+        int node = x * height + y;
+        for (int i = 0; i < lookahead && steps[node] > 0; i++) {
+            int best = node;
+            final int count = TileNeighbors.collect(mapTiles, width, height, node, neighbors);
+            for (int j = 0; j < count; j++) {
+                if (steps[neighbors[j]] < steps[best]) {
+                    best = neighbors[j];
+                }
+            }
+            if (best == node) {
+                break;
+            }
+            node = best;
+        }
+        return new Position((node / height) * 32 + 16, (node % height) * 32 + 16);
+    }
+}
@@ -0,0 +1,90 @@
+package info.map;
+
+import bwapi.Position;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Flow fields toward movement destinations, shared by every ground unit heading to the same place.
+ *
+ * Destinations are snapped to BLOCK_SIZE square blocks of tiles so a target drifting by a few tiles, such as
+ * a moving fight target, keeps using the same field. Fields only depend on terrain, so they never go stale,
+ * the least recently used one is dropped once CAPACITY are cached. At most MAX_BUILDS_PER_FRAME new fields
+ * are built in a frame, callers move straight to their destination while their field is not available.
+ */
+public class FlowFields {
+
+    private static final int BLOCK_SIZE = 4;
+    private static final int CAPACITY = 16;
+    private static final int MAX_BUILDS_PER_FRAME = 2;
+    // Within this many pixels of the destination, units move to it directly
+    private static final int DIRECT_DISTANCE = 256;
+    private static final int LOOKAHEAD_TILES = 8;
+
+    private final MapTile[][] mapTiles;
+    private final int width;
+    private final int height;
+    private final Map<Integer, FlowField> fields = new LinkedHashMap<Integer, FlowField>(CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, FlowField> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private int buildFrame = -1;
+    private int buildsThisFrame = 0;
+
+    public FlowFields(MapTile[][] mapTiles, int width, int height) {
+        this.mapTiles = mapTiles;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Next position a ground unit at from should move to on its way to destination.
+     *
+     * @return a waypoint up to LOOKAHEAD_TILES tiles along the field, null to move to destination directly
+     */
+    public Position nextWaypoint(int frame, Position from, Position destination) {
+        if (from.getDistance(destination) <= DIRECT_DISTANCE) {
+            return null;
+        }
+        FlowField field = fieldToward(frame, destination.getX() / 32, destination.getY() / 32);
+        return field == null ? null : field.waypoint(from, LOOKAHEAD_TILES);
+    }
+
+    /**
+     * Field toward the block containing the tile, built if there is build budget left this frame.
+     *
+     * @return null if the block has no walkable tile or the field could not be built yet
+     */
+    FlowField fieldToward(int frame, int tileX, int tileY) {
+        if (tileX < 0 || tileY < 0 || tileX >= width || tileY >= height) {
+            return null;
+        }
+        final int left = tileX / BLOCK_SIZE * BLOCK_SIZE;
+        final int top = tileY / BLOCK_SIZE * BLOCK_SIZE;
+        final int key = left * height + top;
+        FlowField field = fields.get(key);
+        if (field != null || fields.containsKey(key)) {
+            return field;
+        }
+
+        if (frame != buildFrame) {
+            buildFrame = frame;
+            buildsThisFrame = 0;
+        }
+        if (buildsThisFrame >= MAX_BUILDS_PER_FRAME) {
+            return null;
+        }
+        buildsThisFrame += 1;
+
+        field = new FlowField(mapTiles, width, height, left, top, BLOCK_SIZE);
+        if (!field.hasDestination(left, top, BLOCK_SIZE)) {
+            // Remembered as null so blocks without walkable tiles are not searched again
+            field = null;
+        }
+        fields.put(key, field);
+        return field;
+    }
+}
@@ -4,18 +4,20 @@ import bwapi.Game;
 import bwapi.Position;
 import bwapi.TilePosition;
 import bwapi.Unit;
-import bwapi.WalkPosition;
+import bwem.BWEM;
+import bwem.Base;
 import info.exception.NoWalkablePathException;
 import lombok.Getter;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -27,25 +29,64 @@ public class GameMap {
     private int x;
     private int y;
     @Getter
-    private ArrayList<MapTile> heatMap = new ArrayList<>();
+    private ArrayList<MapTile> tiles = new ArrayList<>();
     @Getter
-    private Set<WalkPosition> accessibleWalkPositions = new HashSet<>();
+    private ScoutHeatMap heatMap;
+    @Getter
+    private ThreatField threatField;
+    @Getter
+    private FlowFields flowFields;
+    // Path costs of known enemy threat, restamped by GameState
+    @Getter
+    private ThreatGrid groundThreats;
+    @Getter
+    private ThreatGrid airThreats;
+    @Getter
+    private WalkGrid accessibleWalkPositions = new WalkGrid(0, 0);
     @Getter
     private Set<Unit> blockingMinerals = new HashSet<>();
     @Getter
     private Set<TilePosition> mainBaseTiles = new HashSet<>();
 
+    // Null until the table has been built in the background and published
+    @Getter
+    private GroundDistanceTable groundDistanceTable;
+    private MapAnalysisWorker.Pending<GroundDistanceTable> pendingGroundDistances;
+    private BWEM bwem;
+    private final Map<TilePosition, MapAnalysisWorker.Pending<List<TilePosition>>> pendingScoutPerimeters = new HashMap<>();
+
+    @Getter
+    private final MapAnalysisCache analysisCache;
+    @Getter
+    private final MapAnalysisWorker analysisWorker;
+
     private MapTile[][] mapTiles;
+    private AStarPathfinder pathfinder;
+    private ThreatAwarePathfinder threatAwarePathfinder;
 
     public GameMap(int x, int y) {
+        this(x, y, MapAnalysisCache.disabled(), MapAnalysisWorker.inline());
+    }
+
+    public GameMap(int x, int y, MapAnalysisCache analysisCache, MapAnalysisWorker analysisWorker) {
+        this.analysisCache = analysisCache;
+        this.analysisWorker = analysisWorker;
         mapTiles = new MapTile[x][y];
         this.x = x;
         this.y = y;
+        this.pathfinder = new AStarPathfinder(mapTiles, x, y);
+        this.heatMap = new ScoutHeatMap(mapTiles, x, y);
+        this.threatField = new ThreatField(mapTiles, x, y);
+        this.flowFields = new FlowFields(mapTiles, x, y);
+        this.groundThreats = new ThreatGrid(x, y);
+        this.airThreats = new ThreatGrid(x, y);
+        this.threatAwarePathfinder = new ThreatAwarePathfinder(mapTiles, x, y);
     }
 
-    public void addTile(MapTile tile, int x, int y) {
+    public void addTile(MapTile tile, int x, int y, int scoutImportance) {
         mapTiles[x][y] = tile;
-        heatMap.add(tile);
+        tiles.add(tile);
+        heatMap.add(tile, scoutImportance);
     }
 
     public MapTile get(int x, int y) {
@@ -53,18 +94,11 @@ public class GameMap {
     }
 
     public void ageHeatMap() {
-        int weight = 1;
-        for (MapTile mapTile : heatMap) {
-            if (mapTile.getType() == MapTileType.BASE_START) {
-                weight = 3;
-            } else if (mapTile.getType() == MapTileType.BASE_EXPANSION) {
-                weight = 2;
-            } else if (mapTile.getType() == MapTileType.NORMAL) {
-                weight = 1;
-            }
-            mapTile.setScoutImportance(mapTile.getScoutImportance() + weight);
-        }
-        Collections.sort(heatMap, new MapTileScoutImportanceComparator());
+        heatMap.age();
+    }
+
+    public void resetScoutImportance(MapTile tile) {
+        heatMap.reset(tile);
     }
 
     /**
@@ -79,53 +113,93 @@ public class GameMap {
      * @throws NoWalkablePathException if no walkable path exists
      */
     public GroundPath aStarSearch(MapTile start, MapTile end) throws NoWalkablePathException {
-        Map<MapTile, MapTile> cameFrom = new HashMap<>();
-        Map<MapTile, Integer> gScore = new HashMap<>();
-        Map<MapTile, Integer> fScore = new HashMap<>();
+        return pathfinder.search(start, end);
+    }
 
-        gScore.put(start, 0);
-        fScore.put(start, this.calculateH(start, end));
+    public GroundPath aStarSearch(TilePosition start, TilePosition end) throws NoWalkablePathException {
+        final MapTile startTile = this.mapTiles[start.getX()][start.getY()];
+        final MapTile endTile = this.mapTiles[end.getX()][end.getY()];
+        return aStarSearch(startTile, endTile);
+    }
+
+    /**
+     * A* search that routes around known enemy threat, using the air threat grid for flying units and the
+     * ground threat grid otherwise.
+     *
+     * @param start origin TilePosition
+     * @param end destination TilePosition
+     * @param flying whether the path is for a flying unit, which may cross unwalkable tiles
+     * @return path from start to end, inclusive
+     * @throws NoWalkablePathException if no walkable path exists
+     */
+    public GroundPath threatAwareSearch(TilePosition start, TilePosition end, boolean flying) throws NoWalkablePathException {
+        final MapTile startTile = this.mapTiles[start.getX()][start.getY()];
+        final MapTile endTile = this.mapTiles[end.getX()][end.getY()];
+        return threatAwarePathfinder.search(startTile, endTile, flying ? airThreats : groundThreats, flying);
+    }
 
-        PriorityQueue<MapTile> openSet = new PriorityQueue<>(new MapTileFScoreComparator(fScore));
-        openSet.add(start);
+    /**
+     * Scout path around the perimeter of a base. While the perimeter is still being ordered in the
+     * background a provisional path through four points around the center is returned instead.
+     */
+    public ScoutPath computeScoutPerimeter(TilePosition center) {
+        final String key = scoutPerimeterKey(center);
+        List<TilePosition> cached = analysisCache.get(key, this::readTilePositions);
+        if (cached != null) {
+            return new ScoutPath(cached);
+        }
 
-        while (!openSet.isEmpty()) {
-            MapTile current = openSet.poll();
-            if (current == end) {
-                return reconstructPath(cameFrom, current);
-            }
+        MapAnalysisWorker.Pending<List<TilePosition>> pending = pendingScoutPerimeters.get(center);
+        if (pending != null && !pending.isDone()) {
+            return new ScoutPath(fallbackScoutPerimeter(center), true);
+        }
+        pendingScoutPerimeters.remove(center);
 
-            List<MapTile> neighbors = this.getNeighbors(current);
-            for (MapTile n: neighbors) {
-                int neighborG = Integer.MAX_VALUE;
-                final int currentG = gScore.get(current);
-                final int tentativeGScore = this.calculateG(current, n, currentG);
+        List<TilePosition> waypoints = pending != null ? pending.poll() : null;
+        if (waypoints == null) {
+            waypoints = calculateScoutPerimeter(mapTiles, x, y, center);
+        }
+        final List<TilePosition> result = waypoints;
+        analysisCache.put(key, out -> writeTilePositions(out, result));
+        return new ScoutPath(result);
+    }
 
-                if (gScore.containsKey(n)) {
-                    neighborG = gScore.get(n);
-                }
+    public boolean isScoutPerimeterPending(TilePosition center) {
+        MapAnalysisWorker.Pending<List<TilePosition>> pending = pendingScoutPerimeters.get(center);
+        return pending != null && !pending.isDone();
+    }
 
-                if (tentativeGScore < neighborG) {
-                    cameFrom.put(n, current);
-                    gScore.put(n, tentativeGScore);
-                    fScore.put(n, this.calculateH(n, end));
-                    if (!openSet.contains(n)) {
-                        openSet.add(n);
-                    }
-                }
+    /**
+     * Orders the scout perimeters of the given centers in the background, skipping cached ones.
+     * Must be called once all tiles have been added.
+     */
+    public void prefetchScoutPerimeters(Iterable<TilePosition> centers) {
+        final MapTile[][] snapshot = snapshotTiles();
+        final int width = x;
+        final int height = y;
+        for (TilePosition center : centers) {
+            if (pendingScoutPerimeters.containsKey(center) || analysisCache.contains(scoutPerimeterKey(center))) {
+                continue;
             }
+            pendingScoutPerimeters.put(center, analysisWorker.submit(() -> calculateScoutPerimeter(snapshot, width, height, center)));
         }
+    }
 
-        throw new NoWalkablePathException("no walkable path exists");
+    private static String scoutPerimeterKey(TilePosition center) {
+        return "scoutPerimeter:" + center.getX() + "," + center.getY();
     }
 
-    public GroundPath aStarSearch(TilePosition start, TilePosition end) throws NoWalkablePathException {
-        final MapTile startTile = this.mapTiles[start.getX()][start.getY()];
-        final MapTile endTile = this.mapTiles[end.getX()][end.getY()];
-        return aStarSearch(startTile, endTile);
+    private static List<TilePosition> fallbackScoutPerimeter(TilePosition center) {
+        final int MIN_RADIUS = 7;
+        List<TilePosition> fallback = new ArrayList<>();
+        fallback.add(center.add(new TilePosition(0, -MIN_RADIUS)));
+        fallback.add(center.add(new TilePosition(MIN_RADIUS, 0)));
+        fallback.add(center.add(new TilePosition(0, MIN_RADIUS)));
+        fallback.add(center.add(new TilePosition(-MIN_RADIUS, 0)));
+        return fallback;
     }
 
-    public ScoutPath computeScoutPerimeter(TilePosition center) {
+    private static List<TilePosition> calculateScoutPerimeter(MapTile[][] mapTiles, int x, int y, TilePosition center) {
         final int SCAN_RADIUS = 20;
         final int MIN_RADIUS = 7;
         final int WAYPOINT_MIN_SPACING = 100;
@@ -180,12 +254,7 @@ public class GameMap {
         }
 
         if (unsortedPositions.isEmpty()) {
-            List<TilePosition> fallback = new ArrayList<>();
-            fallback.add(center.add(new TilePosition(0, -MIN_RADIUS)));
-            fallback.add(center.add(new TilePosition(MIN_RADIUS, 0)));
-            fallback.add(center.add(new TilePosition(0, MIN_RADIUS)));
-            fallback.add(center.add(new TilePosition(-MIN_RADIUS, 0)));
-            return new ScoutPath(fallback);
+            return fallbackScoutPerimeter(center);
         }
 
         List<Position> orderedPositions = new ArrayList<>();
@@ -222,30 +291,9 @@ public class GameMap {
             }
         }
 
-        List<TilePosition> waypoints = simplifiedPositions.stream()
+        return simplifiedPositions.stream()
             .map(pos -> new TilePosition(pos))
             .collect(Collectors.toList());
-
-        return new ScoutPath(waypoints);
-    }
-
-    private int calculateG(MapTile current, MapTile target, int currentG) {
-        return currentG + (int) target.getTile().getDistance(current.getTile());
-    }
-
-    private int calculateH(MapTile current, MapTile destination) {
-        return (int) destination.getTile().getDistance(current.getTile());
-    }
-
-    private GroundPath reconstructPath(Map<MapTile, MapTile> cameFrom, MapTile current) {
-        ArrayDeque<MapTile> path = new ArrayDeque<>();
-        path.add(current);
-        while (cameFrom.containsKey(current)) {
-            current = cameFrom.get(current);
-            path.addFirst(current);
-        }
-
-        return new GroundPath(path);
     }
 
     /**
@@ -378,8 +426,85 @@ public class GameMap {
      * @param mainBasePosition The main base TilePosition
      */
     public void calculateAccessibleWalkPositions(Game game, TilePosition mainBasePosition) {
+        final String key = "accessibleWalkPositions:" + mainBasePosition.getX() + "," + mainBasePosition.getY();
+        WalkGrid cached = analysisCache.get(key, in -> WalkGrid.read(in, x * 4, y * 4));
+        if (cached != null) {
+            this.accessibleWalkPositions = cached;
+            return;
+        }
+
         WalkPositionFloodFill floodFill = new WalkPositionFloodFill(game);
         this.accessibleWalkPositions = floodFill.calculateAccessibleWalkPositions(mainBasePosition);
+        analysisCache.put(key, accessibleWalkPositions::write);
+    }
+
+    /**
+     * Precomputes ground distances and paths between all bases and chokepoints.
+     *
+     * Must be called once all tiles have been added.
+     *
+     * @param bwem analyzed BWEM map
+     */
+    public void calculateGroundDistances(BWEM bwem) {
+        GroundDistanceTable cached = analysisCache.get("groundDistances", in -> GroundDistanceTable.read(in, bwem, mapTiles, x, y));
+        if (cached != null) {
+            this.groundDistanceTable = cached;
+            return;
+        }
+
+        this.bwem = bwem;
+        final MapTile[][] snapshot = snapshotTiles();
+        final int width = x;
+        final int height = y;
+        this.pendingGroundDistances = analysisWorker.submit(() -> new GroundDistanceTable(bwem, snapshot, width, height));
+        publishCompletedAnalysis();
+    }
+
+    /**
+     * Publishes background analysis that has finished since the last call, on the calling thread.
+     * Called every frame so results only change between manager updates.
+     */
+    public void publishCompletedAnalysis() {
+        if (pendingGroundDistances == null || !pendingGroundDistances.isDone()) {
+            return;
+        }
+        GroundDistanceTable table = pendingGroundDistances.poll();
+        pendingGroundDistances = null;
+        if (table == null) {
+            table = new GroundDistanceTable(bwem, mapTiles, x, y);
+        }
+        this.groundDistanceTable = table;
+        analysisCache.put("groundDistances", table::write);
+    }
+
+    /**
+     * Ground paths from a base to every other base. Read from the ground distance table once it is
+     * published, until then a single search from the origin finds the same paths.
+     */
+    public Map<Base, GroundPath> pathsFrom(Base origin, Iterable<Base> allBases) {
+        if (groundDistanceTable == null) {
+            return GroundDistanceTable.pathsFrom(origin, allBases, mapTiles, x, y);
+        }
+        Map<Base, GroundPath> paths = new HashMap<>();
+        for (Base base : allBases) {
+            if (base == origin) continue;
+            GroundPath path = groundDistanceTable.getPath(origin, base);
+            if (path != null) {
+                paths.put(base, path);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Copy of the tile grid for background tasks. Tiles themselves are not modified once added.
+     */
+    private MapTile[][] snapshotTiles() {
+        MapTile[][] snapshot = new MapTile[x][];
+        for (int i = 0; i < x; i++) {
+            snapshot[i] = mapTiles[i].clone();
+        }
+        return snapshot;
     }
 
     /**
@@ -390,6 +515,13 @@ public class GameMap {
      * @param startPosition The main base TilePosition to start the flood fill from
      */
     public void calculateMainBaseTiles(TilePosition startPosition) {
+        final String key = "mainBaseTiles:" + startPosition.getX() + "," + startPosition.getY();
+        List<TilePosition> cached = analysisCache.get(key, this::readTilePositions);
+        if (cached != null) {
+            mainBaseTiles.addAll(cached);
+            return;
+        }
+
         Set<TilePosition> visited = new HashSet<>();
         ArrayDeque<TilePosition> queue = new ArrayDeque<>();
         queue.add(startPosition);
@@ -417,6 +549,36 @@ public class GameMap {
                 }
             }
         }
+
+        List<TilePosition> tiles = new ArrayList<>(mainBaseTiles);
+        analysisCache.put(key, out -> writeTilePositions(out, tiles));
+    }
+
+    /**
+     * @throws IOException if the count does not fit the map or the section, or a tile is off the map
+     */
+    private List<TilePosition> readTilePositions(DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        if (size < 0 || size > x * y || size * 4L > in.available()) {
+            throw new IOException("Corrupt tile position count " + size);
+        }
+        List<TilePosition> tiles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TilePosition tile = new TilePosition(in.readShort(), in.readShort());
+            if (!isValidTile(tile)) {
+                throw new IOException("Tile position off the map: " + tile);
+            }
+            tiles.add(tile);
+        }
+        return tiles;
+    }
+
+    private static void writeTilePositions(DataOutputStream out, List<TilePosition> tiles) throws IOException {
+        out.writeInt(tiles.size());
+        for (TilePosition tp : tiles) {
+            out.writeShort(tp.getX());
+            out.writeShort(tp.getY());
+        }
     }
 
     public void addBlockingMineral(Unit mineral) {
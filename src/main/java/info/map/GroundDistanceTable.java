@@ -0,0 +1,499 @@
+package info.map;
+
+import bwapi.Position;
+import bwapi.TilePosition;
+import bwem.BWEM;
+import bwem.Base;
+import bwem.CPPath;
+import bwem.ChokePoint;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed ground distances and paths between every pair of BWEM bases and chokepoints.
+ *
+ * Built once at game start with one breadth-first search per node over walkable tiles, using the
+ * same neighbor rules and step costs as GameMap's A* search. Chokepoint sequences between nodes are
+ * taken from BWEM once per pair, so later queries never ask BWEM for a path.
+ *
+ * Arbitrary positions are resolved to the node nearest to them by ground via a per-tile lookup.
+ *
+ * The table can be written to and read back from a {@link MapAnalysisCache}, skipping the searches
+ * when the same map is played again.
+ */
+public class GroundDistanceTable {
+
+    public static final int UNREACHABLE = -1;
+
+    private static final int ANCHOR_SNAP_RADIUS = 4;
+
+    private final int width;
+    private final int height;
+
+    private final List<Base> bases = new ArrayList<>();
+    private final List<ChokePoint> chokes = new ArrayList<>();
+    private final HashMap<Base, Integer> baseIndex = new HashMap<>();
+    private final HashMap<ChokePoint, Integer> chokeIndex = new HashMap<>();
+    private final int[] anchors;
+
+    // Node indices: bases first, then chokepoints
+    private final int[][] distance;
+    private final int[][] nextHop;
+    private final int[][] entryChoke;
+    private final GroundPath[][] basePaths;
+
+    // Nearest node by ground for every tile, and the ground distance to it
+    private final int[] nearestNode;
+    private final int[] nearestNodeDistance;
+
+    public GroundDistanceTable(BWEM bwem, MapTile[][] mapTiles, int width, int height) {
+        this(bwem, width, height);
+
+        for (int i = 0; i < anchors.length; i++) {
+            anchors[i] = snapToWalkable(mapTiles, width, height, anchorTile(i));
+        }
+
+        computeDistances(mapTiles);
+        computeNearestNodes(mapTiles);
+        computeChokeSequences(bwem);
+    }
+
+    private GroundDistanceTable(BWEM bwem, int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        for (Base base : bwem.getMap().getBases()) {
+            baseIndex.put(base, bases.size());
+            bases.add(base);
+        }
+        for (ChokePoint choke : bwem.getMap().getChokePoints()) {
+            chokeIndex.put(choke, bases.size() + chokes.size());
+            chokes.add(choke);
+        }
+
+        final int nodes = bases.size() + chokes.size();
+        this.anchors = new int[nodes];
+        this.distance = new int[nodes][nodes];
+        this.nextHop = new int[nodes][nodes];
+        this.entryChoke = new int[nodes][nodes];
+        this.basePaths = new GroundPath[bases.size()][bases.size()];
+        this.nearestNode = new int[width * height];
+        this.nearestNodeDistance = new int[width * height];
+    }
+
+    /**
+     * Reads a table written by {@link #write}. The cached nodes must line up with BWEM's bases and
+     * chokepoints for this map, otherwise the cache is rejected.
+     *
+     * @throws IOException if the cached table does not match this map
+     */
+    public static GroundDistanceTable read(DataInputStream in, BWEM bwem, MapTile[][] mapTiles, int width, int height) throws IOException {
+        GroundDistanceTable table = new GroundDistanceTable(bwem, width, height);
+        final int nodes = table.anchors.length;
+        if (in.readInt() != table.bases.size() || in.readInt() != table.chokes.size()) {
+            throw new IOException("Cached ground distances were built for a different set of nodes");
+        }
+        for (int i = 0; i < nodes; i++) {
+            if (in.readInt() != table.anchorTile(i)) {
+                throw new IOException("Cached ground distances were built for a different set of nodes");
+            }
+            table.anchors[i] = in.readInt();
+        }
+        for (int i = 0; i < nodes; i++) {
+            readInts(in, table.distance[i]);
+            readInts(in, table.nextHop[i]);
+            readInts(in, table.entryChoke[i]);
+        }
+        readInts(in, table.nearestNode);
+        readInts(in, table.nearestNodeDistance);
+
+        for (int i = 0; i < table.bases.size(); i++) {
+            for (int j = 0; j < table.bases.size(); j++) {
+                final int length = in.readInt();
+                if (length == 0) continue;
+                ArrayDeque<MapTile> path = new ArrayDeque<>();
+                for (int k = 0; k < length; k++) {
+                    final int tile = in.readInt();
+                    path.addLast(mapTiles[tile / height][tile % height]);
+                }
+                table.basePaths[i][j] = new GroundPath(path);
+            }
+        }
+        return table;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(bases.size());
+        out.writeInt(chokes.size());
+        for (int i = 0; i < anchors.length; i++) {
+            out.writeInt(anchorTile(i));
+            out.writeInt(anchors[i]);
+        }
+        for (int i = 0; i < anchors.length; i++) {
+            writeInts(out, distance[i]);
+            writeInts(out, nextHop[i]);
+            writeInts(out, entryChoke[i]);
+        }
+        writeInts(out, nearestNode);
+        writeInts(out, nearestNodeDistance);
+
+        for (GroundPath[] row : basePaths) {
+            for (GroundPath path : row) {
+                if (path == null) {
+                    out.writeInt(0);
+                    continue;
+                }
+                out.writeInt(path.getPath().size());
+                for (MapTile tile : path.getPath()) {
+                    out.writeInt(tileIndex(tile.getTile()));
+                }
+            }
+        }
+    }
+
+    private static void readInts(DataInputStream in, int[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * @return ground distance in tiles between two bases, or UNREACHABLE
+     */
+    public int getGroundDistance(Base from, Base to) {
+        Integer i = baseIndex.get(from);
+        Integer j = baseIndex.get(to);
+        if (i == null || j == null) {
+            return UNREACHABLE;
+        }
+        return distance[i][j];
+    }
+
+    public boolean isReachable(Base from, Base to) {
+        return getGroundDistance(from, to) != UNREACHABLE;
+    }
+
+    /**
+     * Ground path between two bases, or null if no walkable path exists.
+     */
+    public GroundPath getPath(Base from, Base to) {
+        Integer i = baseIndex.get(from);
+        Integer j = baseIndex.get(to);
+        if (i == null || j == null) {
+            return null;
+        }
+        return basePaths[i][j];
+    }
+
+    /**
+     * Estimated ground distance in tiles from a position to a base, routed through the node nearest
+     * to the position.
+     *
+     * @return estimated ground distance, or UNREACHABLE
+     */
+    public int getGroundDistance(Position from, Base to) {
+        Integer j = baseIndex.get(to);
+        int node = nodeAt(from);
+        if (j == null || node == UNREACHABLE || distance[node][j] == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+        return nearestNodeDistance[tileIndex(from.toTilePosition())] + distance[node][j];
+    }
+
+    /**
+     * Finds the base closest to a position by ground.
+     *
+     * @return closest reachable base, or null if none are reachable
+     */
+    public Base closestBase(Position from, Collection<Base> candidates) {
+        Base closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (Base base : candidates) {
+            int d = getGroundDistance(from, base);
+            if (d != UNREACHABLE && d < closestDistance) {
+                closestDistance = d;
+                closest = base;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * First chokepoint on the route from a position towards a base.
+     *
+     * @return center of the next chokepoint, or null if the base is reached without crossing one
+     */
+    public Position nextChoke(Position from, Base to) {
+        Integer j = baseIndex.get(to);
+        int node = nodeAt(from);
+        if (j == null || node == UNREACHABLE) {
+            return null;
+        }
+        return chokeCenter(nextHop[node][j]);
+    }
+
+    /**
+     * Last chokepoint on the route from a position into a base, the one to hold when containing it.
+     *
+     * @return center of the entry chokepoint, or null if no chokepoint separates the position from the base
+     */
+    public Position entryChoke(Position from, Base to) {
+        Integer j = baseIndex.get(to);
+        int node = nodeAt(from);
+        if (j == null || node == UNREACHABLE) {
+            return null;
+        }
+        return chokeCenter(entryChoke[node][j]);
+    }
+
+    private Position chokeCenter(int node) {
+        if (node < bases.size()) {
+            return null;
+        }
+        return chokes.get(node - bases.size()).getCenter().toPosition();
+    }
+
+    private int nodeAt(Position position) {
+        TilePosition tp = position.toTilePosition();
+        if (tp.getX() < 0 || tp.getX() >= width || tp.getY() < 0 || tp.getY() >= height) {
+            return UNREACHABLE;
+        }
+        return nearestNode[tileIndex(tp)];
+    }
+
+    private int tileIndex(TilePosition tp) {
+        return tileIndex(tp, height);
+    }
+
+    private static int tileIndex(TilePosition tp, int height) {
+        return tp.getX() * height + tp.getY();
+    }
+
+    private int anchorTile(int node) {
+        if (node < bases.size()) {
+            return tileIndex(bases.get(node).getLocation());
+        }
+        return tileIndex(chokes.get(node - bases.size()).getCenter().toTilePosition());
+    }
+
+    /**
+     * Chokepoint centers frequently fall on tiles that are only partially walkable, move the anchor
+     * to the closest fully walkable tile so the searches can reach it.
+     */
+    private static int snapToWalkable(MapTile[][] mapTiles, int width, int height, int tile) {
+        final int x = tile / height;
+        final int y = tile % height;
+        if (TileNeighbors.isWalkable(mapTiles, width, height, x, y)) {
+            return tile;
+        }
+        for (int r = 1; r <= ANCHOR_SNAP_RADIUS; r++) {
+            for (int dx = -r; dx <= r; dx++) {
+                for (int dy = -r; dy <= r; dy++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != r) continue;
+                    if (TileNeighbors.isWalkable(mapTiles, width, height, x + dx, y + dy)) {
+                        return (x + dx) * height + y + dy;
+                    }
+                }
+            }
+        }
+        return tile;
+    }
+
+    private void computeDistances(MapTile[][] mapTiles) {
+        final int size = width * height;
+        final int[] tileDistance = new int[size];
+        final int[] parent = new int[size];
+        final int[] queue = new int[size];
+
+        for (int source = 0; source < anchors.length; source++) {
+            search(mapTiles, width, height, anchors[source], tileDistance, parent, queue);
+
+            for (int target = 0; target < anchors.length; target++) {
+                distance[source][target] = tileDistance[anchors[target]];
+            }
+
+            if (source < bases.size()) {
+                for (int target = 0; target < bases.size(); target++) {
+                    if (target == source || distance[source][target] == UNREACHABLE) continue;
+                    basePaths[source][target] = reconstructPath(mapTiles, height, parent, anchors[target]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ground paths from one base to every other base with a single search, matching the paths the
+     * full table would hold. Used while the table itself is still being built.
+     *
+     * @return paths keyed by target base, unreachable bases are left out
+     */
+    public static Map<Base, GroundPath> pathsFrom(Base origin, Iterable<Base> targets, MapTile[][] mapTiles, int width, int height) {
+        final int size = width * height;
+        final int[] tileDistance = new int[size];
+        final int[] parent = new int[size];
+        final int[] queue = new int[size];
+        search(mapTiles, width, height, snapToWalkable(mapTiles, width, height, tileIndex(origin.getLocation(), height)),
+                tileDistance, parent, queue);
+
+        Map<Base, GroundPath> paths = new HashMap<>();
+        for (Base target : targets) {
+            if (target == origin) continue;
+            final int anchor = snapToWalkable(mapTiles, width, height, tileIndex(target.getLocation(), height));
+            if (tileDistance[anchor] == UNREACHABLE) continue;
+            paths.put(target, reconstructPath(mapTiles, height, parent, anchor));
+        }
+        return paths;
+    }
+
+    /**
+     * Breadth-first search over walkable tiles, filling in the distance and parent of every reached tile.
+     */
+    private static void search(MapTile[][] mapTiles, int width, int height, int source,
+                               int[] tileDistance, int[] parent, int[] queue) {
+        final int[] neighbors = new int[8];
+        Arrays.fill(tileDistance, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+        tileDistance[source] = 0;
+        parent[source] = -1;
+        queue[tail++] = source;
+
+        while (head < tail) {
+            final int current = queue[head++];
+            final int count = TileNeighbors.collect(mapTiles, width, height, current, neighbors);
+            for (int i = 0; i < count; i++) {
+                final int n = neighbors[i];
+                if (tileDistance[n] != UNREACHABLE) continue;
+                tileDistance[n] = tileDistance[current] + 1;
+                parent[n] = current;
+                queue[tail++] = n;
+            }
+        }
+    }
+
+    /**
+     * Parents point back towards the search source, so walking them from the target and prepending
+     * yields the path from the source to the target.
+     */
+    private static GroundPath reconstructPath(MapTile[][] mapTiles, int height, int[] parent, int target) {
+        ArrayDeque<MapTile> path = new ArrayDeque<>();
+        int current = target;
+        while (current != -1) {
+            path.addFirst(mapTiles[current / height][current % height]);
+            current = parent[current];
+        }
+        return new GroundPath(path);
+    }
+
+    /**
+     * Multi-source breadth-first search from every node, labelling each tile with the node it is
+     * closest to by ground.
+     */
+    private void computeNearestNodes(MapTile[][] mapTiles) {
+        final int[] queue = new int[width * height];
+        final int[] neighbors = new int[8];
+        Arrays.fill(nearestNode, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+
+        for (int node = 0; node < anchors.length; node++) {
+            if (nearestNode[anchors[node]] != UNREACHABLE) continue;
+            nearestNode[anchors[node]] = node;
+            nearestNodeDistance[anchors[node]] = 0;
+            queue[tail++] = anchors[node];
+        }
+
+        while (head < tail) {
+            final int current = queue[head++];
+            final int count = TileNeighbors.collect(mapTiles, width, height, current, neighbors);
+            for (int i = 0; i < count; i++) {
+                final int n = neighbors[i];
+                if (nearestNode[n] != UNREACHABLE) continue;
+                nearestNode[n] = nearestNode[current];
+                nearestNodeDistance[n] = nearestNodeDistance[current] + 1;
+                queue[tail++] = n;
+            }
+        }
+
+        // Positions on partially walkable tiles still need a node, spill labels into unwalkable tiles
+        head = 0;
+        while (head < tail) {
+            final int current = queue[head++];
+            final int x = current / height;
+            final int y = current % height;
+            tail = labelUnwalkable(current, x + 1, y, queue, tail);
+            tail = labelUnwalkable(current, x - 1, y, queue, tail);
+            tail = labelUnwalkable(current, x, y + 1, queue, tail);
+            tail = labelUnwalkable(current, x, y - 1, queue, tail);
+        }
+    }
+
+    private int labelUnwalkable(int from, int x, int y, int[] queue, int tail) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return tail;
+        }
+        final int n = x * height + y;
+        if (nearestNode[n] != UNREACHABLE) {
+            return tail;
+        }
+        nearestNode[n] = nearestNode[from];
+        nearestNodeDistance[n] = nearestNodeDistance[from] + 1;
+        queue[tail] = n;
+        return tail + 1;
+    }
+
+    private void computeChokeSequences(BWEM bwem) {
+        for (int i = 0; i < anchors.length; i++) {
+            Position from = nodePosition(i);
+            for (int j = 0; j < anchors.length; j++) {
+                if (i == j) {
+                    nextHop[i][j] = j;
+                    entryChoke[i][j] = UNREACHABLE;
+                    continue;
+                }
+                CPPath path = bwem.getMap().getPath(from, nodePosition(j));
+                nextHop[i][j] = firstChokeOtherThan(path, i, j);
+                if (!path.isEmpty()) {
+                    entryChoke[i][j] = chokeIndex.get(path.get(path.size() - 1));
+                } else if (i >= bases.size()) {
+                    // A chokepoint sharing an area with the target borders it, it is the entry itself
+                    entryChoke[i][j] = i;
+                } else {
+                    entryChoke[i][j] = UNREACHABLE;
+                }
+            }
+        }
+    }
+
+    private int firstChokeOtherThan(CPPath path, int self, int target) {
+        for (int k = 0; k < path.size(); k++) {
+            int node = chokeIndex.get(path.get(k));
+            if (node != self) {
+                return node;
+            }
+        }
+        return target;
+    }
+
+    private Position nodePosition(int node) {
+        if (node < bases.size()) {
+            return bases.get(node).getCenter();
+        }
+        return chokes.get(node - bases.size()).getCenter().toPosition();
+    }
+}
@@ -0,0 +1,190 @@
+package info.map;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Startup map analysis persisted across games, keyed by the map's hash.
+ *
+ * Each derived structure is stored as a named section and knows how to write and read itself. A
+ * section that is missing or fails to read is simply recomputed and replaced, so a stale or damaged
+ * cache only costs the analysis it would have saved. Bump VERSION whenever an analysis changes its
+ * output for the same map.
+ *
+ * The cache is read from the read directory, falling back to the write directory, and saved to the
+ * write directory when a game ends with new sections.
+ */
+public class MapAnalysisCache {
+
+    private static final String READ_DIR = "bwapi-data/read/";
+    private static final String WRITE_DIR = "bwapi-data/write/";
+    private static final int MAGIC = 0x49414D43; // "IAMC"
+    private static final int VERSION = 1;
+
+    private final String mapHash;
+    private final int width;
+    private final int height;
+    private final Path writeDir;
+    private final Map<String, byte[]> sections = new TreeMap<>();
+    private boolean dirty = false;
+
+    private MapAnalysisCache(String mapHash, int width, int height, Path writeDir) {
+        this.mapHash = mapHash;
+        this.width = width;
+        this.height = height;
+        this.writeDir = writeDir;
+    }
+
+    /**
+     * Cache that never loads or saves, every structure is computed.
+     */
+    public static MapAnalysisCache disabled() {
+        return new MapAnalysisCache(null, 0, 0, null);
+    }
+
+    public static MapAnalysisCache load(String mapHash, int width, int height) {
+        return load(Paths.get(READ_DIR), Paths.get(WRITE_DIR), mapHash, width, height);
+    }
+
+    static MapAnalysisCache load(Path readDir, Path writeDir, String mapHash, int width, int height) {
+        if (mapHash == null || mapHash.isEmpty()) {
+            return disabled();
+        }
+        MapAnalysisCache cache = new MapAnalysisCache(mapHash, width, height, writeDir);
+        if (!cache.readFrom(readDir.resolve(cache.fileName()))) {
+            cache.readFrom(writeDir.resolve(cache.fileName()));
+        }
+        return cache;
+    }
+
+    public boolean isEnabled() {
+        return mapHash != null;
+    }
+
+    public boolean contains(String key) {
+        return sections.containsKey(key);
+    }
+
+    /**
+     * @return the section read back with reader, or null if it is not cached or could not be read
+     */
+    public <T> T get(String key, SectionReader<T> reader) {
+        byte[] section = sections.get(key);
+        if (section == null) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(section))) {
+            return reader.read(in);
+        } catch (IOException | RuntimeException e) {
+            sections.remove(key);
+            return null;
+        }
+    }
+
+    public void put(String key, SectionWriter writer) {
+        if (!isEnabled()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            return;
+        }
+        sections.put(key, bytes.toByteArray());
+        dirty = true;
+    }
+
+    /**
+     * Writes the cache to the write directory if any section was added since it was loaded.
+     * The file is fully written to a temporary file before being moved into place.
+     */
+    public void save() throws IOException {
+        if (!isEnabled() || !dirty) {
+            return;
+        }
+
+        Path path = writeDir.resolve(fileName());
+        Path temp = writeDir.resolve(fileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeUTF(mapHash);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(sections.size());
+            for (Map.Entry<String, byte[]> section : sections.entrySet()) {
+                out.writeUTF(section.getKey());
+                out.writeInt(section.getValue().length);
+                out.write(section.getValue());
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        dirty = false;
+    }
+
+    private String fileName() {
+        return "map_" + mapHash + ".cache";
+    }
+
+    /**
+     * @return true if a cache for this map and version was read
+     */
+    private boolean readFrom(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        Map<String, byte[]> read = new TreeMap<>();
+        // Read whole so stored lengths can be checked against the bytes actually left
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() != VERSION || !mapHash.equals(in.readUTF())) {
+                return false;
+            }
+            if (in.readInt() != width || in.readInt() != height) {
+                return false;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                int length = in.readInt();
+                if (length < 0 || length > in.available()) {
+                    throw new IOException("Corrupt section length " + length + ": " + path);
+                }
+                byte[] section = new byte[length];
+                in.readFully(section);
+                read.put(key, section);
+            }
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+        sections.putAll(read);
+        return true;
+    }
+
+    public interface SectionReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    public interface SectionWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
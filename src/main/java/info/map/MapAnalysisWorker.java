@@ -0,0 +1,89 @@
+package info.map;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs static terrain analysis off the main thread.
+ *
+ * Tasks must only read data that is no longer modified once they are submitted, such as a snapshot of
+ * the map tiles or the analyzed BWEM map, and must never call Game. Results are collected on the main
+ * thread with {@link Pending#poll}, so they are only ever published to the rest of the bot between
+ * manager updates.
+ */
+public class MapAnalysisWorker {
+
+    private final ExecutorService executor;
+
+    private MapAnalysisWorker(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Worker backed by a single low priority daemon thread.
+     */
+    public static MapAnalysisWorker background() {
+        return new MapAnalysisWorker(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "map-analysis");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }));
+    }
+
+    /**
+     * Worker that runs each task to completion when it is submitted.
+     */
+    public static MapAnalysisWorker inline() {
+        return new MapAnalysisWorker(null);
+    }
+
+    public <T> Pending<T> submit(Callable<T> task) {
+        if (executor == null) {
+            FutureTask<T> future = new FutureTask<>(task);
+            future.run();
+            return new Pending<>(future);
+        }
+        return new Pending<>(executor.submit(task));
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public static class Pending<T> {
+        private final Future<T> future;
+
+        private Pending(Future<T> future) {
+            this.future = future;
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        /**
+         * @return the result if the task has finished, null while it is running or if it failed
+         */
+        public T poll() {
+            if (!future.isDone()) {
+                return null;
+            }
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | CancellationException e) {
+                return null;
+            }
+        }
+    }
+}
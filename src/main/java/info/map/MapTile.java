@@ -9,15 +9,13 @@ import lombok.NonNull;
 public class MapTile {
     @NonNull
     private TilePosition tile;
-    private int scoutImportance;
     private boolean isBuildable;
     private boolean isWalkable;
     @NonNull
     private MapTileType type;
 
-    public MapTile(TilePosition tile, int scoutImportance, boolean isBuildable, boolean isWalkable, MapTileType type) {
+    public MapTile(TilePosition tile, boolean isBuildable, boolean isWalkable, MapTileType type) {
         this.tile = tile;
-        this.scoutImportance = scoutImportance;
         this.isBuildable = isBuildable;
         this.isWalkable = isWalkable;
         this.type = type;
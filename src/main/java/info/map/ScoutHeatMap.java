@@ -0,0 +1,158 @@
+package info.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tracks how long each tile has gone unscouted without touching every tile when the map ages.
+ *
+ * Every tile gains a per-type weight each time the map ages, so within a MapTileType all tiles age
+ * at the same rate. A global age counter stands in for the per-tile increments: a tile stores
+ * importance - weight * age, and its current importance is recovered on read.
+ *
+ * Each type keeps its tiles in a doubly linked list ordered by importance, hottest first. A reset
+ * tile has the lowest importance of its type, so it simply moves to the tail. Aging, resets and
+ * finding the hottest tile are all O(1).
+ */
+public class ScoutHeatMap {
+
+    private static final int NONE = -1;
+    private static final int TYPES = MapTileType.values().length;
+
+    private final MapTile[][] mapTiles;
+    private final int height;
+
+    private int age = 0;
+
+    private final int[] key;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] head = new int[TYPES];
+    private final int[] tail = new int[TYPES];
+
+    public ScoutHeatMap(MapTile[][] mapTiles, int width, int height) {
+        this.mapTiles = mapTiles;
+        this.height = height;
+
+        final int size = width * height;
+        this.key = new int[size];
+        this.prev = new int[size];
+        this.next = new int[size];
+        Arrays.fill(head, NONE);
+        Arrays.fill(tail, NONE);
+    }
+
+    /**
+     * Registers a tile with its starting importance. Tiles of a type must be added in descending
+     * order of starting importance.
+     */
+    public void add(MapTile tile, int scoutImportance) {
+        final int i = index(tile);
+        key[i] = scoutImportance - weight(tile.getType()) * age;
+        append(tile.getType().ordinal(), i);
+    }
+
+    /**
+     * Ages every tile by its type weight.
+     */
+    public void age() {
+        age += 1;
+    }
+
+    /**
+     * Marks a tile as freshly scouted.
+     */
+    public void reset(MapTile tile) {
+        final int i = index(tile);
+        final int type = tile.getType().ordinal();
+        unlink(type, i);
+        key[i] = -weight(tile.getType()) * age;
+        append(type, i);
+    }
+
+    public int getScoutImportance(MapTile tile) {
+        return key[index(tile)] + weight(tile.getType()) * age;
+    }
+
+    /**
+     * @return tile with the highest scout importance, or null if no tiles were added
+     */
+    public MapTile hottest() {
+        int best = NONE;
+        int bestImportance = Integer.MIN_VALUE;
+        for (MapTileType type : MapTileType.values()) {
+            final int i = head[type.ordinal()];
+            if (i == NONE) continue;
+            final int importance = key[i] + weight(type) * age;
+            if (importance > bestImportance) {
+                bestImportance = importance;
+                best = i;
+            }
+        }
+        return best == NONE ? null : tileAt(best);
+    }
+
+    /**
+     * @return all tiles tied for the highest scout importance
+     */
+    public List<MapTile> hottestTiles() {
+        List<MapTile> tiles = new ArrayList<>();
+        MapTile hottest = hottest();
+        if (hottest == null) {
+            return tiles;
+        }
+
+        final int importance = getScoutImportance(hottest);
+        for (MapTileType type : MapTileType.values()) {
+            for (int i = head[type.ordinal()]; i != NONE; i = next[i]) {
+                if (key[i] + weight(type) * age != importance) break;
+                tiles.add(tileAt(i));
+            }
+        }
+        return tiles;
+    }
+
+    private int weight(MapTileType type) {
+        switch (type) {
+            case BASE_START:
+                return 3;
+            case BASE_EXPANSION:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    private int index(MapTile tile) {
+        return tile.getX() * height + tile.getY();
+    }
+
+    private MapTile tileAt(int i) {
+        return mapTiles[i / height][i % height];
+    }
+
+    private void append(int type, int i) {
+        prev[i] = tail[type];
+        next[i] = NONE;
+        if (tail[type] == NONE) {
+            head[type] = i;
+        } else {
+            next[tail[type]] = i;
+        }
+        tail[type] = i;
+    }
+
+    private void unlink(int type, int i) {
+        if (prev[i] == NONE) {
+            head[type] = next[i];
+        } else {
+            next[prev[i]] = next[i];
+        }
+        if (next[i] == NONE) {
+            tail[type] = prev[i];
+        } else {
+            prev[next[i]] = prev[i];
+        }
+    }
+}
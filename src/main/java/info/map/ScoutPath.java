@@ -1,6 +1,7 @@
 package info.map;
 
 import bwapi.TilePosition;
+import lombok.Getter;
 
 import java.util.List;
 
@@ -8,9 +9,17 @@ public class ScoutPath {
 
     private List<TilePosition> points;
     private int current = 0;
+    // Stand-in used until the real perimeter is available
+    @Getter
+    private final boolean provisional;
 
     public ScoutPath(List<TilePosition> points) {
+        this(points, false);
+    }
+
+    public ScoutPath(List<TilePosition> points, boolean provisional) {
         this.points = points;
+        this.provisional = provisional;
     }
 
     public TilePosition next() {
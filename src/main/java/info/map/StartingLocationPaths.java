@@ -1,7 +1,6 @@
 package info.map;
 
 import bwem.Base;
-import info.exception.NoWalkablePathException;
 import lombok.Getter;
 
 import java.util.HashMap;
@@ -17,11 +16,13 @@ public class StartingLocationPaths {
     private final Base naturalExpansion;
 
     public StartingLocationPaths(Base origin, Iterable<Base> allBases, GameMap map) {
+        Map<Base, GroundPath> groundPaths = map.pathsFrom(origin, allBases);
         for (Base b : allBases) {
             if (b == origin) continue;
-            try {
-                paths.put(b, map.aStarSearch(origin.getLocation(), b.getLocation()));
-            } catch (NoWalkablePathException e) {
+            GroundPath path = groundPaths.get(b);
+            if (path != null) {
+                paths.put(b, path);
+            } else {
                 islands.add(b);
             }
         }
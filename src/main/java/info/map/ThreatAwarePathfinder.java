@@ -0,0 +1,144 @@
+package info.map;
+
+import info.exception.NoWalkablePathException;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Tile-indexed A* that prices known enemy threat into every step, for units that should go around
+ * static defense, armies and storms instead of through them.
+ *
+ * Entering a tile costs one step plus the tile's threat cost. Every step costs at least one and moves at
+ * most one tile along each axis, so the Chebyshev distance to the goal never overestimates and the open set
+ * can be ordered by g + h. The heuristic is also consistent, so a closed tile is never reopened.
+ *
+ * Ground searches use the same neighbor rules as AStarPathfinder. Air searches may step to any of the eight
+ * neighbors on the map. Search state lives in reused primitive arrays stamped per search, like
+ * AStarPathfinder. Not thread safe.
+ */
+public class ThreatAwarePathfinder {
+
+    private static final int STEP_COST = 1;
+
+    private final MapTile[][] mapTiles;
+    private final int width;
+    private final int height;
+
+    private final int[] gScore;
+    private final int[] cameFrom;
+    private final int[] touchedStamp;
+    private final int[] closedStamp;
+    private int generation = 0;
+
+    private final TileHeap open;
+    private final int[] neighbors = new int[8];
+
+    public ThreatAwarePathfinder(MapTile[][] mapTiles, int width, int height) {
+        this.mapTiles = mapTiles;
+        this.width = width;
+        this.height = height;
+
+        final int size = width * height;
+        this.gScore = new int[size];
+        this.cameFrom = new int[size];
+        this.touchedStamp = new int[size];
+        this.closedStamp = new int[size];
+        this.open = new TileHeap(size);
+    }
+
+    /**
+     * Cheapest path from start to end when entering threatened tiles costs extra.
+     *
+     * @param flying whether the path may cross unwalkable tiles
+     * @return path from start to end, inclusive
+     * @throws NoWalkablePathException if no ground path exists
+     */
+    public GroundPath search(MapTile start, MapTile end, ThreatGrid threats, boolean flying) throws NoWalkablePathException {
+        nextGeneration();
+
+        final int startIndex = index(start.getX(), start.getY());
+        final int endIndex = index(end.getX(), end.getY());
+        final int endX = end.getX();
+        final int endY = end.getY();
+
+        touch(startIndex, 0, -1);
+        open.push(startIndex, heuristic(startIndex, endX, endY));
+
+        while (!open.isEmpty()) {
+            final int current = open.pop();
+            if (current == endIndex) {
+                return reconstructPath(current);
+            }
+            closedStamp[current] = generation;
+
+            final int currentG = gScore[current];
+            final int count = flying
+                    ? collectAir(current)
+                    : TileNeighbors.collect(mapTiles, width, height, current, neighbors);
+            for (int i = 0; i < count; i++) {
+                final int n = neighbors[i];
+                if (closedStamp[n] == generation) {
+                    continue;
+                }
+                final int tentativeGScore = currentG + STEP_COST + threats.cost(n);
+                if (touchedStamp[n] != generation || tentativeGScore < gScore[n]) {
+                    touch(n, tentativeGScore, current);
+                    open.push(n, tentativeGScore + heuristic(n, endX, endY));
+                }
+            }
+        }
+
+        throw new NoWalkablePathException("no walkable path exists");
+    }
+
+    private int collectAir(int node) {
+        final int x = node / height;
+        final int y = node % height;
+        int count = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                final int nx = x + dx;
+                final int ny = y + dy;
+                if ((dx != 0 || dy != 0) && nx >= 0 && ny >= 0 && nx < width && ny < height) {
+                    neighbors[count++] = index(nx, ny);
+                }
+            }
+        }
+        return count;
+    }
+
+    private void nextGeneration() {
+        open.clear();
+        generation += 1;
+        // Stamps would alias after wrapping, reset them on overflow
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(touchedStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 1;
+        }
+    }
+
+    private void touch(int node, int g, int parent) {
+        touchedStamp[node] = generation;
+        gScore[node] = g;
+        cameFrom[node] = parent;
+    }
+
+    private int index(int x, int y) {
+        return x * height + y;
+    }
+
+    private int heuristic(int node, int endX, int endY) {
+        return STEP_COST * Math.max(Math.abs(node / height - endX), Math.abs(node % height - endY));
+    }
+
+    private GroundPath reconstructPath(int current) {
+        ArrayDeque<MapTile> path = new ArrayDeque<>();
+        while (current != -1) {
+            path.addFirst(mapTiles[current / height][current % height]);
+            current = cameFrom[current];
+        }
+        return new GroundPath(path);
+    }
+}
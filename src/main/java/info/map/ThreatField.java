@@ -0,0 +1,169 @@
+package info.map;
+
+import bwapi.Position;
+import bwapi.Unit;
+import util.Filter;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Ground threat margin per tile, rebuilt at most once per frame from the visible enemies.
+ *
+ * A tile's margin is the ground distance in pixels to the nearest enemy minus that enemy's ground threat
+ * range from Filter.groundThreatRange, so tiles within some enemy's reach are negative and the margin grows
+ * moving away from every enemy. Enemies that cannot hit ground units are left out. The field is built with
+ * one multi-source Dijkstra over walkable tiles, using the same neighbor rules as the A* search, and stops
+ * expanding HORIZON pixels past the threat ranges. Tiles beyond that are SAFE.
+ *
+ * Retreating ground units climb the margin from their own tile, so a mass retreat costs one build plus a
+ * handful of neighbor lookups per unit.
+ */
+public class ThreatField {
+
+    public static final int SAFE = Integer.MAX_VALUE;
+
+    private static final int HORIZON = 256;
+    private static final int CARDINAL_COST = 32;
+    private static final int DIAGONAL_COST = 45;
+
+    private final MapTile[][] mapTiles;
+    private final int width;
+    private final int height;
+
+    private final int[] margin;
+    private final int[] stamp;
+    private int generation = 0;
+    private int builtFrame = -1;
+
+    private final TileHeap open;
+
+    private final int[] neighbors = new int[8];
+
+    public ThreatField(MapTile[][] mapTiles, int width, int height) {
+        this.mapTiles = mapTiles;
+        this.width = width;
+        this.height = height;
+
+        final int size = width * height;
+        this.margin = new int[size];
+        this.stamp = new int[size];
+        this.open = new TileHeap(size);
+    }
+
+    /**
+     * Rebuilds the field from these enemies unless it was already built this frame.
+     */
+    public void update(int frame, Collection<Unit> enemies) {
+        if (frame == builtFrame) {
+            return;
+        }
+        builtFrame = frame;
+        nextGeneration();
+
+        for (Unit enemy : enemies) {
+            final int range = Filter.groundThreatRange(enemy.getType());
+            if (range < 0) {
+                continue;
+            }
+            final int x = enemy.getX() / 32;
+            final int y = enemy.getY() / 32;
+            if (x < 0 || y < 0 || x >= width || y >= height) {
+                continue;
+            }
+            relax(x * height + y, -range);
+        }
+
+        while (!open.isEmpty()) {
+            final int current = open.pop();
+            final int currentMargin = margin[current];
+            if (currentMargin > HORIZON) {
+                continue;
+            }
+            final int count = TileNeighbors.collect(mapTiles, width, height, current, neighbors);
+            for (int i = 0; i < count; i++) {
+                final int n = neighbors[i];
+                relax(n, currentMargin + stepCost(current, n));
+            }
+        }
+    }
+
+    /**
+     * @return margin of the tile containing position, SAFE if no enemy threatens it
+     */
+    public int margin(Position position) {
+        final int x = position.getX() / 32;
+        final int y = position.getY() / 32;
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return SAFE;
+        }
+        return margin(x * height + y);
+    }
+
+    /**
+     * Follows the steepest margin increase from position for up to distance pixels of ground travel.
+     *
+     * @return center of the tile reached, null if position is not threatened or no neighbor is safer
+     */
+    public Position retreatPosition(Position position, int distance) {
+        final int x = position.getX() / 32;
+        final int y = position.getY() / 32;
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return null;
+        }
+        final int start = x * height + y;
+        int node = start;
+        int nodeMargin = margin(node);
+        int travelled = 0;
+        while (nodeMargin != SAFE && travelled < distance) {
+            int best = -1;
+            int bestMargin = nodeMargin;
+            final int count = TileNeighbors.collect(mapTiles, width, height, node, neighbors);
+            for (int i = 0; i < count; i++) {
+                final int m = margin(neighbors[i]);
+                if (m > bestMargin) {
+                    best = neighbors[i];
+                    bestMargin = m;
+                }
+            }
+            if (best == -1) {
+                break;
+            }
+            travelled += stepCost(node, best);
+            node = best;
+            nodeMargin = bestMargin;
+        }
+        if (node == start) {
+            return null;
+        }
+        return new Position((node / height) * 32 + 16, (node % height) * 32 + 16);
+    }
+
+    private int margin(int node) {
+        return stamp[node] == generation ? margin[node] : SAFE;
+    }
+
+    private int stepCost(int from, int to) {
+        final int delta = Math.abs(to - from);
+        return delta == 1 || delta == height ? CARDINAL_COST : DIAGONAL_COST;
+    }
+
+    private void nextGeneration() {
+        open.clear();
+        generation += 1;
+        // Stamps would alias after wrapping, reset them on overflow
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    private void relax(int node, int value) {
+        if (stamp[node] == generation && margin[node] <= value) {
+            return;
+        }
+        stamp[node] = generation;
+        margin[node] = value;
+        open.push(node, value);
+    }
+}
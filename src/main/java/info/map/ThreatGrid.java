@@ -0,0 +1,84 @@
+package info.map;
+
+import bwapi.Position;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Extra path cost per tile for entering known enemy threat, indexed x * height + y like the tile searches.
+ *
+ * The grid is cleared and restamped as a whole. The revision changes on every clear, so cached paths can
+ * tell whether they were found against the current threats.
+ */
+public class ThreatGrid {
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    private final int[] cost;
+    @Getter
+    private int revision = 0;
+
+    public ThreatGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.cost = new int[width * height];
+    }
+
+    public void clear() {
+        Arrays.fill(cost, 0);
+        revision += 1;
+    }
+
+    /**
+     * Adds amount to every tile whose center is within radius of center.
+     */
+    public void addCircle(Position center, int radius, int amount) {
+        final int cx = center.getX();
+        final int cy = center.getY();
+        final long radiusSquared = (long) radius * radius;
+        final int minX = Math.max(0, (cx - radius) / 32);
+        final int maxX = Math.min(width - 1, (cx + radius) / 32);
+        final int minY = Math.max(0, (cy - radius) / 32);
+        final int maxY = Math.min(height - 1, (cy + radius) / 32);
+        for (int x = minX; x <= maxX; x++) {
+            final long dx = x * 32L + 16 - cx;
+            for (int y = minY; y <= maxY; y++) {
+                final long dy = y * 32L + 16 - cy;
+                if (dx * dx + dy * dy <= radiusSquared) {
+                    cost[x * height + y] += amount;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds amount per covering circle at each tile's center walk position.
+     */
+    public void addCoverage(CoverageGrid coverage, int amount) {
+        if (coverage.isEmpty()) {
+            return;
+        }
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                final int depth = coverage.depth(x * 4 + 2, y * 4 + 2);
+                if (depth > 0) {
+                    cost[x * height + y] += depth * amount;
+                }
+            }
+        }
+    }
+
+    public int cost(int tileX, int tileY) {
+        if (tileX < 0 || tileY < 0 || tileX >= width || tileY >= height) {
+            return 0;
+        }
+        return cost[tileX * height + tileY];
+    }
+
+    int cost(int node) {
+        return cost[node];
+    }
+}
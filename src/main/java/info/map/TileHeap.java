@@ -0,0 +1,87 @@
+package info.map;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of tile indices with decrease-key, for the searches whose keys improve while a tile is open.
+ *
+ * Each tile is in the heap at most once, so capacity never exceeds the tile count.
+ */
+final class TileHeap {
+
+    private final int[] nodes;
+    private final int[] keys;
+    // Slot of each open tile, -1 when the tile is not in the heap
+    private final int[] slots;
+    private int size = 0;
+
+    TileHeap(int capacity) {
+        this.nodes = new int[capacity];
+        this.keys = new int[capacity];
+        this.slots = new int[capacity];
+        Arrays.fill(slots, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            slots[nodes[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Adds node with key, or lowers its key if it is already open.
+     */
+    void push(int node, int key) {
+        siftUp(slots[node] >= 0 ? slots[node] : size++, node, key);
+    }
+
+    int pop() {
+        final int top = nodes[0];
+        slots[top] = -1;
+
+        size -= 1;
+        if (size == 0) {
+            return top;
+        }
+        final int lastNode = nodes[size];
+        final int lastKey = keys[size];
+        int i = 0;
+        final int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child += 1;
+            }
+            if (lastKey <= keys[child]) {
+                break;
+            }
+            place(i, nodes[child], keys[child]);
+            i = child;
+        }
+        place(i, lastNode, lastKey);
+        return top;
+    }
+
+    private void siftUp(int i, int node, int key) {
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            place(i, nodes[parent], keys[parent]);
+            i = parent;
+        }
+        place(i, node, key);
+    }
+
+    private void place(int i, int node, int key) {
+        nodes[i] = node;
+        keys[i] = key;
+        slots[node] = i;
+    }
+}
@@ -0,0 +1,44 @@
+package info.map;
+
+/**
+ * Ground neighbor expansion over tile indices (x * height + y), shared by the array based searches.
+ *
+ * Matches GameMap.getNeighbors: cardinals first, then diagonals that have at least one adjacent
+ * walkable cardinal tile.
+ */
+final class TileNeighbors {
+
+    private TileNeighbors() {}
+
+    static boolean isWalkable(MapTile[][] mapTiles, int width, int height, int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && mapTiles[x][y].isWalkable();
+    }
+
+    /**
+     * Writes the walkable neighbors of node into out.
+     *
+     * @return number of neighbors written
+     */
+    static int collect(MapTile[][] mapTiles, int width, int height, int node, int[] out) {
+        final int x = node / height;
+        final int y = node % height;
+        int count = 0;
+
+        final boolean north = isWalkable(mapTiles, width, height, x, y + 1);
+        final boolean south = isWalkable(mapTiles, width, height, x, y - 1);
+        final boolean west = isWalkable(mapTiles, width, height, x - 1, y);
+        final boolean east = isWalkable(mapTiles, width, height, x + 1, y);
+
+        if (north) out[count++] = node + 1;
+        if (south) out[count++] = node - 1;
+        if (west) out[count++] = node - height;
+        if (east) out[count++] = node + height;
+
+        if ((north || east) && isWalkable(mapTiles, width, height, x + 1, y + 1)) out[count++] = node + height + 1;
+        if ((north || west) && isWalkable(mapTiles, width, height, x - 1, y + 1)) out[count++] = node - height + 1;
+        if ((south || east) && isWalkable(mapTiles, width, height, x + 1, y - 1)) out[count++] = node + height - 1;
+        if ((south || west) && isWalkable(mapTiles, width, height, x - 1, y - 1)) out[count++] = node - height - 1;
+
+        return count;
+    }
+}
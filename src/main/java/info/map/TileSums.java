@@ -0,0 +1,63 @@
+package info.map;
+
+import bwapi.TilePosition;
+
+/**
+ * Summed-area table over a tile bitmap, answering how many set tiles a rectangle holds in constant time.
+ *
+ * The table is a snapshot, rebuild it after the bitmap changes. Parts of a rectangle outside the map count
+ * as set, so a footprint hanging off the map edge never fits.
+ */
+class TileSums {
+
+    private final int width;
+    private final int height;
+    // sums[(y + 1) * (width + 1) + (x + 1)] holds the set tiles in [0, x] x [0, y]
+    private final int[] sums;
+
+    TileSums(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.sums = new int[(width + 1) * (height + 1)];
+    }
+
+    void build(WalkGrid... grids) {
+        final int stride = width + 1;
+        for (int y = 0; y < height; y++) {
+            int row = 0;
+            for (int x = 0; x < width; x++) {
+                if (isSet(grids, x, y)) {
+                    row += 1;
+                }
+                sums[(y + 1) * stride + x + 1] = sums[y * stride + x + 1] + row;
+            }
+        }
+    }
+
+    private static boolean isSet(WalkGrid[] grids, int x, int y) {
+        for (WalkGrid grid : grids) {
+            if (grid.get(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int count(int left, int top, int w, int h) {
+        final int right = Math.min(width, left + w);
+        final int bottom = Math.min(height, top + h);
+        final int clippedLeft = Math.max(0, left);
+        final int clippedTop = Math.max(0, top);
+        final int outside = w * h - Math.max(0, right - clippedLeft) * Math.max(0, bottom - clippedTop);
+        if (right <= clippedLeft || bottom <= clippedTop) {
+            return outside;
+        }
+        final int stride = width + 1;
+        return sums[bottom * stride + right] - sums[clippedTop * stride + right]
+                - sums[bottom * stride + clippedLeft] + sums[clippedTop * stride + clippedLeft] + outside;
+    }
+
+    boolean isClear(TilePosition topLeft, TilePosition tileSize) {
+        return count(topLeft.getX(), topLeft.getY(), tileSize.getX(), tileSize.getY()) == 0;
+    }
+}
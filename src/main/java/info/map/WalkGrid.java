@@ -0,0 +1,98 @@
+package info.map;
+
+import bwapi.WalkPosition;
+import lombok.Getter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Packed bitset over walk positions, one bit per 8x8 pixel cell.
+ *
+ * Bits are stored row-major at y * width + x. Positions outside the grid are never contained.
+ */
+public class WalkGrid {
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    private final long[] bits;
+    private int size = 0;
+
+    public WalkGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(width * height + 63) >>> 6];
+    }
+
+    public boolean contains(WalkPosition walkPosition) {
+        return get(walkPosition.getX(), walkPosition.getY());
+    }
+
+    public boolean get(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        final int i = y * width + x;
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public void set(int x, int y) {
+        final int i = y * width + x;
+        final long mask = 1L << i;
+        if ((bits[i >>> 6] & mask) == 0) {
+            bits[i >>> 6] |= mask;
+            size += 1;
+        }
+    }
+
+    public void clear(int x, int y) {
+        final int i = y * width + x;
+        final long mask = 1L << i;
+        if ((bits[i >>> 6] & mask) != 0) {
+            bits[i >>> 6] &= ~mask;
+            size -= 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(height);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Reads a grid written by write, checking its stored dimensions before anything is allocated.
+     *
+     * @throws IOException if the grid is not width by height, or its words run past the input
+     */
+    public static WalkGrid read(DataInputStream in, int width, int height) throws IOException {
+        final int storedWidth = in.readInt();
+        final int storedHeight = in.readInt();
+        if (storedWidth != width || storedHeight != height) {
+            throw new IOException("Walk grid is " + storedWidth + "x" + storedHeight + ", expected " + width + "x" + height);
+        }
+        final long words = ((long) width * height + 63) >>> 6;
+        if (words * Long.BYTES > in.available()) {
+            throw new IOException("Walk grid of " + words + " words runs past the section");
+        }
+        WalkGrid grid = new WalkGrid(width, height);
+        for (int i = 0; i < grid.bits.length; i++) {
+            grid.bits[i] = in.readLong();
+            grid.size += Long.bitCount(grid.bits[i]);
+        }
+        return grid;
+    }
+}
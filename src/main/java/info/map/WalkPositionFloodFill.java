@@ -6,96 +6,109 @@ import bwapi.Unit;
 import bwapi.UnitType;
 import bwapi.WalkPosition;
 
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Set;
-
 /**
  * Flood fill algorithm to calculate all accessible WalkPositions from a starting position.
  * Uses breadth-first search to explore all connected walkable areas.
  * Considers neutral structures and resources as barriers to movement.
+ *
+ * Walkability and neutral barriers are sampled once into a packed grid before the search, the
+ * search itself only touches primitive arrays.
  */
 public class WalkPositionFloodFill {
-    
+
+    private static final int[] DX = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DY = {-1, 0, 1, -1, 1, -1, 0, 1};
+
     private final Game game;
-    
+    private final int width;
+    private final int height;
+
     public WalkPositionFloodFill(Game game) {
         this.game = game;
+        this.width = game.mapWidth() * 4;
+        this.height = game.mapHeight() * 4;
     }
-    
+
     /**
      * Performs flood fill from the main base to find all accessible WalkPositions.
-     * 
+     *
      * @param mainBaseTilePosition The starting TilePosition (main base location)
-     * @return Set of all accessible WalkPositions
+     * @return Grid of all accessible WalkPositions
      */
-    public Set<WalkPosition> calculateAccessibleWalkPositions(TilePosition mainBaseTilePosition) {
-        Set<WalkPosition> accessiblePositions = new HashSet<>();
-        Queue<WalkPosition> queue = new LinkedList<>();
-        Set<WalkPosition> visited = new HashSet<>();
-        
-        WalkPosition startPosition = mainBaseTilePosition.toWalkPosition();
-        
-        queue.add(startPosition);
-        visited.add(startPosition);
-        
-        int[] dx = {-1, -1, -1, 0, 0, 1, 1, 1};
-        int[] dy = {-1, 0, 1, -1, 1, -1, 0, 1};
-        
-        while (!queue.isEmpty()) {
-            WalkPosition current = queue.poll();
-            accessiblePositions.add(current);
-            
+    public WalkGrid calculateAccessibleWalkPositions(TilePosition mainBaseTilePosition) {
+        return fill(buildPassableGrid(), mainBaseTilePosition.toWalkPosition());
+    }
+
+    /**
+     * Flood fills a prebuilt passability grid, the start position is always included.
+     *
+     * @param passable walk positions that may be entered
+     * @param startPosition position to fill from
+     * @return Grid of all WalkPositions connected to the start
+     */
+    public static WalkGrid fill(WalkGrid passable, WalkPosition startPosition) {
+        final int width = passable.getWidth();
+        final int height = passable.getHeight();
+        WalkGrid accessible = new WalkGrid(width, height);
+
+        if (startPosition.getX() < 0 || startPosition.getY() < 0 || startPosition.getX() >= width || startPosition.getY() >= height) {
+            return accessible;
+        }
+
+        // Every walk position is enqueued at most once, so the queue never needs to wrap
+        final int[] queue = new int[width * height];
+        int head = 0;
+        int tail = 0;
+
+        accessible.set(startPosition.getX(), startPosition.getY());
+        queue[tail++] = startPosition.getY() * width + startPosition.getX();
+
+        while (head < tail) {
+            final int current = queue[head++];
+            final int x = current % width;
+            final int y = current / width;
+
             for (int i = 0; i < 8; i++) {
-                int newX = current.getX() + dx[i];
-                int newY = current.getY() + dy[i];
-                
-                if (newX < 0 || newY < 0 || newX >= game.mapWidth() * 4 || newY >= game.mapHeight() * 4) {
-                    continue;
-                }
-                
-                WalkPosition neighbor = new WalkPosition(newX, newY);
-                
-                if (visited.contains(neighbor)) {
+                final int newX = x + DX[i];
+                final int newY = y + DY[i];
+
+                if (!passable.get(newX, newY) || accessible.get(newX, newY)) {
                     continue;
                 }
-                
-                if (isAccessibleWalkPosition(neighbor)) {
-                    visited.add(neighbor);
-                    queue.add(neighbor);
-                }
+
+                accessible.set(newX, newY);
+                queue[tail++] = newY * width + newX;
             }
         }
-        
-        return accessiblePositions;
+
+        return accessible;
     }
-    
+
     /**
-     * Checks if a WalkPosition is accessible, considering neutral structures and resources as barriers.
-     * 
-     * @param walkPosition The WalkPosition to check
-     * @return true if the position is accessible, false if blocked by neutral structures/resources
+     * Samples static walkability once and masks out the footprints of neutral barriers.
      */
-    private boolean isAccessibleWalkPosition(WalkPosition walkPosition) {
-        if (!game.isWalkable(walkPosition)) {
-            return false;
+    private WalkGrid buildPassableGrid() {
+        WalkGrid passable = new WalkGrid(width, height);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (game.isWalkable(x, y)) {
+                    passable.set(x, y);
+                }
+            }
         }
-        
-        for (Unit unit : game.getUnitsInRadius(walkPosition.toPosition(), 8)) {
+
+        for (Unit unit : game.getNeutralUnits()) {
             if (isNeutralBarrier(unit)) {
-                if (unitBlocksWalkPosition(unit, walkPosition)) {
-                    return false;
-                }
+                maskFootprint(passable, unit);
             }
         }
-        
-        return true;
+
+        return passable;
     }
-    
+
     /**
      * Determines if a unit is a neutral structure or resource that should act as a barrier.
-     * 
+     *
      * @param unit The unit to check
      * @return true if the unit is a neutral barrier, false otherwise
      */
@@ -103,45 +116,40 @@ public class WalkPositionFloodFill {
         if (unit.getPlayer() != game.neutral()) {
             return false;
         }
-        
+
         UnitType unitType = unit.getType();
-        
+
         if (unitType.isBuilding()) {
             return true;
         }
-        
+
         if (unitType.isResourceContainer() || unitType.isMineralField()) {
             return true;
         }
-        
+
         if (unitType.isSpecialBuilding()) {
             return true;
         }
-        
+
         return false;
     }
-    
+
     /**
-     * Checks if a unit actually blocks a specific WalkPosition.
-     * 
-     * @param unit The unit to check
-     * @param walkPosition The WalkPosition to check
-     * @return true if the unit blocks this WalkPosition, false otherwise
+     * Clears every WalkPosition overlapped by the unit's bounding box.
+     *
+     * @param passable grid to mask
+     * @param unit The neutral barrier
      */
-    private boolean unitBlocksWalkPosition(Unit unit, WalkPosition walkPosition) {
-        WalkPosition unitWalkPos = unit.getPosition().toWalkPosition();
-        
-        int unitWidth = unit.getType().tileWidth() * 4;
-        int unitHeight = unit.getType().tileHeight() * 4;
-        
-        int unitLeft = unitWalkPos.getX();
-        int unitRight = unitLeft + unitWidth;
-        int unitTop = unitWalkPos.getY();
-        int unitBottom = unitTop + unitHeight;
-        
-        int wpX = walkPosition.getX();
-        int wpY = walkPosition.getY();
-        
-        return wpX >= unitLeft && wpX < unitRight && wpY >= unitTop && wpY < unitBottom;
+    private void maskFootprint(WalkGrid passable, Unit unit) {
+        final int left = Math.max(0, unit.getLeft() / 8);
+        final int right = Math.min(width - 1, unit.getRight() / 8);
+        final int top = Math.max(0, unit.getTop() / 8);
+        final int bottom = Math.min(height - 1, unit.getBottom() / 8);
+
+        for (int x = left; x <= right; x++) {
+            for (int y = top; y <= bottom; y++) {
+                passable.clear(x, y);
+            }
+        }
     }
 }
@@ -1,9 +1,16 @@
 package info.tracking;
 
 import bwapi.Race;
+import bwapi.UnitType;
 import util.Time;
 
+import java.util.Collections;
+import java.util.Set;
+
 public abstract class ObservedStrategy {
+    private static final Time START = new Time(0);
+    private static final Time NEVER = new Time(59, 59);
+
     private final String name;
 
     protected ObservedStrategy(String name) {
@@ -19,8 +26,32 @@ public abstract class ObservedStrategy {
      */
     public abstract boolean isDetected(StrategyDetectionContext context);
 
+    /**
+     * Time after which the strategy can no longer be detected. StrategyTracker stops evaluating it then.
+     */
     public Time lockAfter() {
-        return new Time(59, 59);
+        return NEVER;
+    }
+
+    /**
+     * The strategy cannot be detected at or before this time, whatever has been observed.
+     */
+    public Time detectableAfter() {
+        return START;
+    }
+
+    /**
+     * Enemy unit types whose sighting, death, morph or movement can change the result of isDetected.
+     */
+    public Set<UnitType> getTriggerUnitTypes() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * True if a change to the known enemy bases can change the result of isDetected.
+     */
+    public boolean isTriggeredByEnemyBases() {
+        return false;
     }
 
     public Race getRace() { 
@@ -1,6 +1,7 @@
 package info.tracking;
 
 import bwapi.Position;
+import bwapi.TilePosition;
 import bwapi.Unit;
 import bwapi.UnitType;
 import lombok.Data;
@@ -12,6 +13,7 @@ public class ObservedUnit {
     private Time lastObservedFrame;
     private Time destroyedFrame;
     private Position lastKnownLocation;
+    private TilePosition lastKnownTile;
     private final Unit unit;
     private UnitType unitType;
     private boolean proxied;
@@ -0,0 +1,81 @@
+package info.tracking;
+
+import bwapi.Position;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Uniform grid over the largest possible map, bucketing observed units by their last known position.
+ *
+ * Cells are coarse enough that a radius query only touches a handful of them. Callers still apply
+ * their own exact distance check to the returned candidates.
+ */
+class ObservedUnitGrid {
+
+    private static final int CELL_SIZE = 256;
+    // Maps are at most 256 x 256 build tiles
+    private static final int CELLS_PER_SIDE = (256 * 32) / CELL_SIZE;
+
+    private final List<Set<ObservedUnit>> cells = new ArrayList<>(CELLS_PER_SIDE * CELLS_PER_SIDE);
+    private final HashMap<ObservedUnit, Integer> cellOf = new HashMap<>();
+
+    ObservedUnitGrid() {
+        for (int i = 0; i < CELLS_PER_SIDE * CELLS_PER_SIDE; i++) {
+            cells.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Moves a unit to the cell containing position, removing it from the grid if position is null.
+     */
+    void update(ObservedUnit ou, Position position) {
+        if (position == null) {
+            remove(ou);
+            return;
+        }
+
+        final int cell = cellIndex(cellCoordinate(position.getX()), cellCoordinate(position.getY()));
+        Integer previous = cellOf.put(ou, cell);
+        if (previous != null) {
+            if (previous == cell) {
+                return;
+            }
+            cells.get(previous).remove(ou);
+        }
+        cells.get(cell).add(ou);
+    }
+
+    void remove(ObservedUnit ou) {
+        Integer previous = cellOf.remove(ou);
+        if (previous != null) {
+            cells.get(previous).remove(ou);
+        }
+    }
+
+    /**
+     * Adds every unit in a cell overlapping the square of the given radius around center to out.
+     */
+    void collectNear(Position center, int radius, Set<ObservedUnit> out) {
+        final int minX = cellCoordinate(center.getX() - radius);
+        final int maxX = cellCoordinate(center.getX() + radius);
+        final int minY = cellCoordinate(center.getY() - radius);
+        final int maxY = cellCoordinate(center.getY() + radius);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                out.addAll(cells.get(cellIndex(x, y)));
+            }
+        }
+    }
+
+    private int cellCoordinate(int pixel) {
+        return Math.max(0, Math.min(CELLS_PER_SIDE - 1, pixel / CELL_SIZE));
+    }
+
+    private int cellIndex(int x, int y) {
+        return x * CELLS_PER_SIDE + y;
+    }
+}
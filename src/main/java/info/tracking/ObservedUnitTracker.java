@@ -9,25 +9,44 @@ import util.Distance;
 import util.Filter;
 import util.Time;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Tracks every enemy unit we have observed.
+ *
+ * Living units are indexed by type, by status and spatially by last known position. The indexes are
+ * maintained on unit events so queries never scan the full unit history. Destroyed units are archived
+ * by type and only consulted for historical counts.
+ */
 public class ObservedUnitTracker {
     private static final int MARINE_COOLDOWN = 15;
 
     private final HashMap<Unit, ObservedUnit> observedUnits = new HashMap<>();
+    private final EnumMap<UnitType, Set<ObservedUnit>> livingByType = new EnumMap<>(UnitType.class);
+    private final Set<ObservedUnit> livingBuildings = new HashSet<>();
+    private final Set<ObservedUnit> visibleUnits = new HashSet<>();
+    private final ObservedUnitGrid grid = new ObservedUnitGrid();
+    private final Set<UnitType> changedTypes = EnumSet.noneOf(UnitType.class);
+
+    private final EnumMap<UnitType, List<ObservedUnit>> archivedByType = new EnumMap<>(UnitType.class);
+    private int archivedCount = 0;
 
     public ObservedUnitTracker() {
 
     }
 
     public void onFrame(int currentFrame) {
-        for (ObservedUnit ou : observedUnits.values()) {
-            if (ou.getDestroyedFrame() != null) {
-                continue;
-            }
+        for (ObservedUnit ou : visibleUnits) {
             Unit unit = ou.getUnit();
             if (unit.isVisible()) {
                 if (!ou.isCompleted() && unit.isCompleted()) {
@@ -38,77 +57,143 @@ public class ObservedUnitTracker {
                 if (ou.getUnitType() == UnitType.Terran_Bunker && ou.isCompleted()) {
                     ou.setLastLoadedCheckFrame(currentFrame);
                 }
+                final Position position = unit.getPosition();
+                grid.update(ou, position);
+                updateKnownTile(ou, position);
             }
         }
     }
 
     public void onUnitShow(Unit unit, int currentFrame, boolean isProxied) {
         Time t = new Time(currentFrame);
-        if (!observedUnits.containsKey(unit)) {
-            ObservedUnit ou = new ObservedUnit(unit, t, isProxied);
+        ObservedUnit ou = observedUnits.get(unit);
+        if (ou == null) {
+            ou = new ObservedUnit(unit, t, isProxied);
             ou.setCompleted(unit.isCompleted());
             observedUnits.put(unit, ou);
+            index(ou);
         } else {
-            ObservedUnit u = observedUnits.get(unit);
-            u.setLastObservedFrame(t);
-            u.setLastKnownLocation(unit.getPosition());
-            u.setCompleted(unit.isCompleted());
+            ou.setLastObservedFrame(t);
+            ou.setLastKnownLocation(unit.getPosition());
+            ou.setCompleted(unit.isCompleted());
             updateUnitTypeChange(unit);
         }
+        visibleUnits.add(ou);
+        grid.update(ou, unit.getPosition());
+        updateKnownTile(ou, unit.getPosition());
     }
 
     public void onUnitHide(Unit unit, int currentFrame) {
         Time t = new Time(currentFrame);
+        ObservedUnit ou = observedUnits.get(unit);
+        if (ou != null) {
+            ou.setLastObservedFrame(t);
+            ou.setLastKnownLocation(unit.getPosition());
+            visibleUnits.remove(ou);
+            grid.update(ou, ou.getLastKnownLocation());
+            updateKnownTile(ou, ou.getLastKnownLocation());
+        }
+    }
+
+    public void onUnitMorph(Unit unit) {
         if (observedUnits.containsKey(unit)) {
-            ObservedUnit u = observedUnits.get(unit);
-            u.setLastObservedFrame(t);
-            u.setLastKnownLocation(unit.getPosition());
+            updateUnitTypeChange(unit);
         }
     }
 
+    /**
+     * Moves a destroyed unit out of the living indexes into the archive.
+     */
     public void onUnitDestroy(Unit unit, int currentFrame) {
         Time t = new Time(currentFrame);
-        if (observedUnits.containsKey(unit)) {
-            ObservedUnit u = observedUnits.get(unit);
-            u.setDestroyedFrame(t);
-            u.setLastKnownLocation(null);
+        ObservedUnit ou = observedUnits.remove(unit);
+        if (ou == null) {
+            return;
         }
+        ou.setDestroyedFrame(t);
+        ou.setLastKnownLocation(null);
+        unindex(ou);
+        visibleUnits.remove(ou);
+        grid.remove(ou);
+        archivedByType.computeIfAbsent(ou.getUnitType(), k -> new ArrayList<>()).add(ou);
+        archivedCount += 1;
+    }
+
+    private void index(ObservedUnit ou) {
+        changedTypes.add(ou.getUnitType());
+        livingByType.computeIfAbsent(ou.getUnitType(), k -> new HashSet<>()).add(ou);
+        if (ou.getUnitType().isBuilding()) {
+            livingBuildings.add(ou);
+        }
+    }
+
+    private void unindex(ObservedUnit ou) {
+        changedTypes.add(ou.getUnitType());
+        Set<ObservedUnit> ofType = livingByType.get(ou.getUnitType());
+        if (ofType != null) {
+            ofType.remove(ou);
+        }
+        livingBuildings.remove(ou);
+    }
+
+    private void updateKnownTile(ObservedUnit ou, Position position) {
+        final TilePosition tile = position == null ? null : position.toTilePosition();
+        if (tile == null ? ou.getLastKnownTile() != null : !tile.equals(ou.getLastKnownTile())) {
+            ou.setLastKnownTile(tile);
+            changedTypes.add(ou.getUnitType());
+        }
+    }
+
+    /**
+     * Unit types with a living unit that appeared, died, changed type or moved to another tile since
+     * the last call to clearChangedUnitTypes().
+     */
+    public Set<UnitType> getChangedUnitTypes() {
+        return Collections.unmodifiableSet(changedTypes);
+    }
+
+    public void clearChangedUnitTypes() {
+        changedTypes.clear();
+    }
+
+    private Set<ObservedUnit> living(UnitType unitType) {
+        return livingByType.getOrDefault(unitType, Collections.emptySet());
+    }
+
+    private Position knownPosition(ObservedUnit ou) {
+        return ou.getUnit().isVisible() ? ou.getUnit().getPosition() : ou.getLastKnownLocation();
     }
 
     public int getUnitTypeCountBeforeTime(UnitType type, Time t) {
-        return (int) observedUnits.values()
-                .stream()
-                .filter(ou -> ou.getUnitType() == type)
-                .filter(ou -> ou.getFirstObservedFrame().lessThanOrEqual(t))
-                .count();
+        int count = 0;
+        for (ObservedUnit ou : living(type)) {
+            if (ou.getFirstObservedFrame().lessThanOrEqual(t)) count++;
+        }
+        for (ObservedUnit ou : archivedByType.getOrDefault(type, Collections.emptyList())) {
+            if (ou.getFirstObservedFrame().lessThanOrEqual(t)) count++;
+        }
+        return count;
     }
 
     public int size() {
-        return observedUnits.size();
+        return observedUnits.size() + archivedCount;
     }
 
     public int getCountOfLivingUnits(UnitType unitType) {
-        return (int) observedUnits.values()
-                .stream()
-                .filter(ou -> ou.getUnitType() == unitType)
-                .filter(ou -> ou.getDestroyedFrame() == null)
-                .count();
+        return living(unitType).size();
     }
 
     public int getCountOfLivingUnits(UnitType... unitTypes) {
         final Set<UnitType> typeSet = Arrays.stream(unitTypes).collect(Collectors.toSet());
-        return (int) observedUnits.values()
-                .stream()
-                .filter(ou -> typeSet.contains(ou.getUnitType()))
-                .filter(ou -> ou.getDestroyedFrame() == null)
-                .count();
+        int count = 0;
+        for (UnitType unitType : typeSet) {
+            count += living(unitType).size();
+        }
+        return count;
     }
 
     public int getCountOfAllEnemyUnits() {
-        return (int) observedUnits.values()
-                .stream()
-                .filter(ou -> ou.getDestroyedFrame() == null)
-                .count();
+        return observedUnits.size();
     }
 
     public void updateBunkerGarrison(Unit bunker, int bulletsThisFrame, int currentFrame) {
@@ -145,128 +230,122 @@ public class ObservedUnitTracker {
         UnitType trackedType = observedUnit.getUnitType();
         UnitType unitType = unit.getType();
         if (unitType != trackedType) {
+            unindex(observedUnit);
             observedUnit.setUnitType(unit.getType());
+            index(observedUnit);
         }
     }
 
     public Set<Position> getLastKnownPositionsOfLivingUnits(UnitType unitType) {
-        return observedUnits.values()
+        return living(unitType)
                 .stream()
-                .filter(ou -> ou.getUnitType()  == unitType)
-                .filter(ou -> ou.getDestroyedFrame() == null)
-                .map(ou -> {
-                    if (ou.getUnit().isVisible()) {
-                        return ou.getUnit().getPosition();
-                    } else {
-                        return ou.getLastKnownLocation();
-                    }
-                })
+                .map(this::knownPosition)
                 .filter(ou -> ou != null)
                 .collect(Collectors.toSet());
     }
 
     public Set<Position> getLastKnownPositionsOfLivingUnits(UnitType... unitTypes) {
         final Set<UnitType> typeSet = Arrays.stream(unitTypes).collect(Collectors.toSet());
-        return observedUnits.values()
-                .stream()
-                .filter(ou -> typeSet.contains(ou.getUnitType()))
-                .filter(ou -> ou.getDestroyedFrame() == null)
-                .map(ou -> {
-                    if (ou.getUnit().isVisible()) {
-                        return ou.getUnit().getPosition();
-                    } else {
-                        return ou.getLastKnownLocation();
-                    }
-                })
+        return typeSet.stream()
+                .flatMap(unitType -> living(unitType).stream())
+                .map(this::knownPosition)
                 .collect(Collectors.toSet());
     }
 
     public int getProxiedCountByTypeBeforeTime(UnitType unitType, Time detectedBy) {
-        return (int) observedUnits.values()
-                .stream()
-                .filter(ou -> ou.getUnitType() == unitType)
-                .filter(ObservedUnit::isProxied)
-                .filter(ou -> ou.getFirstObservedFrame().lessThanOrEqual(detectedBy))
-                .count();
+        int count = 0;
+        for (ObservedUnit ou : living(unitType)) {
+            if (ou.isProxied() && ou.getFirstObservedFrame().lessThanOrEqual(detectedBy)) count++;
+        }
+        for (ObservedUnit ou : archivedByType.getOrDefault(unitType, Collections.emptyList())) {
+            if (ou.isProxied() && ou.getFirstObservedFrame().lessThanOrEqual(detectedBy)) count++;
+        }
+        return count;
     }
 
     public Set<Unit> getDetectedUnits() {
         return observedUnits.values()
                 .stream()
                 .filter(ou -> ou.getUnit().isDetected())
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .map(ObservedUnit::getUnit)
                 .collect(Collectors.toSet());
     }
 
     public Set<Unit> getBuilding() {
-        return observedUnits.values()
+        return livingBuildings
                 .stream()
-                .filter(ou -> ou.getUnitType().isBuilding())
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .map(ObservedUnit::getUnit)
                 .collect(Collectors.toSet());
     }
 
     public Set<Unit> getCompletedBuildings() {
-        return observedUnits.values()
+        return livingBuildings
                 .stream()
-                .filter(ou -> ou.getUnitType().isBuilding())
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .filter(ObservedUnit::isCompleted)
                 .map(ObservedUnit::getUnit)
                 .collect(Collectors.toSet());
     }
 
     public Set<Position> getLastKnownPositionsOfBuildings() {
-        return observedUnits.values()
+        return livingBuildings
                 .stream()
-                .filter(ou -> ou.getUnitType().isBuilding())
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .map(ou -> ou.getLastKnownLocation())
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Same as !getVisibleEnemyUnits().isEmpty() without building the set.
+     */
+    public boolean hasVisibleEnemyUnits() {
+        for (ObservedUnit ou : visibleUnits) {
+            Unit unit = ou.getUnit();
+            if (unit.isVisible()
+                    && unit.getPlayer().getType() != PlayerType.None
+                    && unit.getPlayer().getType() != PlayerType.Neutral) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isObserved(Unit unit) {
+        return observedUnits.containsKey(unit);
+    }
+
     public Set<Unit> getVisibleEnemyUnits() {
-        return observedUnits.values()
+        return visibleUnits
                 .stream()
                 .filter(ou -> ou.getUnit().isVisible())
                 .filter(ou -> ou.getUnit().getPlayer().getType() != PlayerType.None)
                 .filter(ou -> ou.getUnit().getPlayer().getType() != PlayerType.Neutral)
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .map(ObservedUnit::getUnit)
                 .collect(Collectors.toSet());
     }
 
     public Set<Unit> getHostileToGroundBuildings() {
-        return observedUnits.values()
+        return livingBuildings
                 .stream()
-                .filter(ou -> ou.getUnitType().isBuilding())
                 .filter(ou -> Filter.isHostileBuildingToGround(ou.getUnitType()))
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .map(ObservedUnit::getUnit)
                 .collect(Collectors.toSet());
     }
 
     public int getCompletedBuildingCountNearPositions(UnitType type, Set<Position> positions, int distance) {
-        return (int) observedUnits.values().stream()
-                .filter(ou -> ou.getUnitType() == type)
-                .filter(ou -> ou.getDestroyedFrame() == null)
+        return (int) living(type).stream()
                 .filter(ObservedUnit::isCompleted)
                 .filter(ou -> isNearAnyPosition(ou, positions, distance))
                 .count();
     }
 
     public int getLivingBuildingCountNearPositions(Set<Position> positions, int distance) {
-        return (int) observedUnits.values().stream()
+        return (int) livingNear(positions, distance).stream()
                 .filter(ou -> ou.getUnitType().isBuilding())
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .filter(ou -> isNearAnyPosition(ou, positions, distance))
                 .count();
     }
 
     private boolean isNearAnyPosition(ObservedUnit ou, Set<Position> positions, int distance) {
-        Position unitPos = ou.getUnit().isVisible() ? ou.getUnit().getPosition() : ou.getLastKnownLocation();
+        Position unitPos = knownPosition(ou);
         if (unitPos == null) { 
             return false;
         }
@@ -278,21 +357,30 @@ public class ObservedUnitTracker {
         return false;
     }
 
+    /**
+     * Candidate living units from the spatial grid near any of the positions, callers must still check
+     * the exact distance.
+     */
+    private Set<ObservedUnit> livingNear(Set<Position> positions, int distance) {
+        Set<ObservedUnit> candidates = new HashSet<>();
+        for (Position pos : positions) {
+            grid.collectNear(pos, distance, candidates);
+        }
+        return candidates;
+    }
+
     public Set<Unit> getProxiedBuildings() {
-        return observedUnits.values()
+        return livingBuildings
                 .stream()
-                .filter(ou -> ou.getUnitType().isBuilding())
                 .filter(ObservedUnit::isProxied)
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .map(ObservedUnit::getUnit)
                 .collect(Collectors.toSet());
     }
 
     public Set<Unit> getWorkerUnitsNearPositions(Set<Position> positions, int distance) {
-        return observedUnits.values()
+        return livingNear(positions, distance)
                 .stream()
                 .filter(ou -> Filter.isWorkerType(ou.getUnitType()))
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .filter(ou -> isNearAnyPosition(ou, positions, distance))
                 .map(ObservedUnit::getUnit)
                 .collect(Collectors.toSet());
@@ -303,40 +391,49 @@ public class ObservedUnitTracker {
         if (ou == null) {
             return null;
         }
-        if (ou.getUnit().isVisible()) {
-            return ou.getUnit().getPosition();
-        }
-        return ou.getLastKnownLocation();
+        return knownPosition(ou);
     }
 
     public int getCountOfLivingUnitsOnTiles(UnitType unitType, Set<TilePosition> tiles) {
-        return (int) observedUnits.values()
+        return (int) living(unitType)
                 .stream()
-                .filter(ou -> ou.getUnitType() == unitType)
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .filter(ou -> {
-                    Position pos = ou.getUnit().isVisible() ? ou.getUnit().getPosition() : ou.getLastKnownLocation();
+                    Position pos = knownPosition(ou);
                     return pos != null && tiles.contains(pos.toTilePosition());
                 })
                 .count();
     }
 
     public boolean hasLivingUnitNearTile(UnitType unitType, TilePosition tile, int manhattanDistance) {
-        return observedUnits.values()
+        return living(unitType)
                 .stream()
-                .filter(ou -> ou.getUnitType() == unitType)
-                .filter(ou -> ou.getDestroyedFrame() == null)
                 .anyMatch(ou -> {
-                    Position pos = ou.getUnit().isVisible() ? ou.getUnit().getPosition() : ou.getLastKnownLocation();
+                    Position pos = knownPosition(ou);
                     return pos != null && Distance.manhattanTileDistance(pos.toTilePosition(), tile) <= manhattanDistance;
                 });
     }
 
-    public Set<ObservedUnit> getLivingObservedUnits() {
-        return observedUnits.values()
-                .stream()
-                .filter(ou -> ou.getDestroyedFrame() == null)
-                .collect(Collectors.toSet());
+    /**
+     * Every living observed unit, including those without a last known position.
+     */
+    public Collection<ObservedUnit> getLivingObservedUnits() {
+        return Collections.unmodifiableCollection(observedUnits.values());
+    }
+
+    /**
+     * Living units whose last known position is within distance of center.
+     */
+    public List<ObservedUnit> getLivingObservedUnitsNear(Position center, int distance) {
+        Set<ObservedUnit> candidates = new HashSet<>();
+        grid.collectNear(center, distance, candidates);
+        List<ObservedUnit> near = new ArrayList<>();
+        for (ObservedUnit ou : candidates) {
+            Position pos = knownPosition(ou);
+            if (pos != null && pos.getDistance(center) <= distance) {
+                near.add(ou);
+            }
+        }
+        return near;
     }
 
     public void clearLastKnownLocationsAt(Set<Position> visibleLocations) {
@@ -344,11 +441,14 @@ public class ObservedUnitTracker {
             return;
         }
 
-        observedUnits.values()
-                .stream()
-                .filter(ou -> ou.getDestroyedFrame() == null)
-                .filter(ou -> ou.getLastKnownLocation() != null)
-                .filter(ou -> visibleLocations.contains(ou.getLastKnownLocation()))
-                .forEach(ou -> ou.setLastKnownLocation(null));
+        Set<ObservedUnit> candidates = livingNear(visibleLocations, 0);
+        for (ObservedUnit ou : candidates) {
+            if (ou.getLastKnownLocation() != null && visibleLocations.contains(ou.getLastKnownLocation())) {
+                ou.setLastKnownLocation(null);
+                if (!ou.getUnit().isVisible()) {
+                    grid.remove(ou);
+                }
+            }
+        }
     }
 }
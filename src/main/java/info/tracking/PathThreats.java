@@ -0,0 +1,70 @@
+package info.tracking;
+
+import bwapi.Position;
+import bwapi.UnitType;
+import info.map.ThreatGrid;
+import util.Filter;
+
+/**
+ * Restamps the ground and air path threat grids from what we know about the enemy, once every
+ * REFRESH_FRAMES frames.
+ *
+ * Static defense, bunkers included, comes from the persistent coverage grids. Other armed units come from
+ * their last known position and threat range, as long as they were seen within SIGHTING_FRAMES. Active
+ * storms come from their target position. Workers are left out, they are rarely worth a detour.
+ */
+public class PathThreats {
+
+    private static final int REFRESH_FRAMES = 24;
+    // Extra step costs per tile, a detour of this many tiles is preferred over one tile of exposure
+    private static final int STATIC_DEFENSE_COST = 20;
+    private static final int UNIT_COST = 8;
+    private static final int STORM_COST = 40;
+    // Units move between sightings, pad their range by a tile
+    private static final int UNIT_RANGE_PADDING = 32;
+    // Units seen longer ago than this have likely moved on
+    private static final int SIGHTING_FRAMES = 24 * 10;
+
+    private final ThreatGrid ground;
+    private final ThreatGrid air;
+    private int lastRefreshFrame = -REFRESH_FRAMES;
+
+    public PathThreats(ThreatGrid ground, ThreatGrid air) {
+        this.ground = ground;
+        this.air = air;
+    }
+
+    public void onFrame(int frame, ObservedUnitTracker tracker, StaticDefenseCoverage coverage, PsiStormTracker storms) {
+        if (frame - lastRefreshFrame < REFRESH_FRAMES) {
+            return;
+        }
+        lastRefreshFrame = frame;
+
+        ground.clear();
+        air.clear();
+        ground.addCoverage(coverage.getGround(), STATIC_DEFENSE_COST);
+        air.addCoverage(coverage.getAir(), STATIC_DEFENSE_COST);
+
+        for (ObservedUnit observed : tracker.getLivingObservedUnits()) {
+            final UnitType type = observed.getUnitType();
+            final Position position = observed.getLastKnownLocation();
+            if (position == null || type.isBuilding() || type.isWorker()
+                    || frame - observed.getLastObservedFrame().getFrames() > SIGHTING_FRAMES) {
+                continue;
+            }
+            final int groundRange = Filter.groundThreatRange(type);
+            if (groundRange >= 0) {
+                ground.addCircle(position, groundRange + UNIT_RANGE_PADDING, UNIT_COST);
+            }
+            final int airRange = Filter.airThreatRange(type);
+            if (airRange >= 0) {
+                air.addCircle(position, airRange + UNIT_RANGE_PADDING, UNIT_COST);
+            }
+        }
+
+        for (Position storm : storms.getActiveStormPositions()) {
+            ground.addCircle(storm, PsiStormTracker.STORM_RADIUS, STORM_COST);
+            air.addCircle(storm, PsiStormTracker.STORM_RADIUS, STORM_COST);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package info.tracking;
+
+import bwapi.Position;
+import bwapi.Race;
+import bwapi.UnitType;
+import info.map.CoverageGrid;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Ground and air coverage of the enemy's known static defense, kept as persistent walk position grids.
+ *
+ * Each frame the last known positions of living static defense are compared against what is already
+ * stamped. Only defense that was newly observed, destroyed, morphed or lost its last known position
+ * touches the grids.
+ */
+public class StaticDefenseCoverage {
+
+    @Getter
+    private final CoverageGrid ground;
+    @Getter
+    private final CoverageGrid air;
+
+    private final Map<UnitType, Integer> groundRanges = new EnumMap<>(UnitType.class);
+    private final Map<UnitType, Integer> airRanges = new EnumMap<>(UnitType.class);
+    private final Map<Position, Integer> groundStamps = new HashMap<>();
+    private final Map<Position, Integer> airStamps = new HashMap<>();
+
+    public StaticDefenseCoverage(Race opponentRace, int mapWidth, int mapHeight) {
+        this.ground = new CoverageGrid(mapWidth * 4, mapHeight * 4);
+        this.air = new CoverageGrid(mapWidth * 4, mapHeight * 4);
+
+        registerRanges(opponentRace);
+    }
+
+    /**
+     * Narrows the covered static defense to the scouted race. Defense of other races is unstamped on
+     * the next frame.
+     */
+    public void updateRace(Race opponentRace) {
+        groundRanges.clear();
+        airRanges.clear();
+        registerRanges(opponentRace);
+    }
+
+    /**
+     * Static defense of every race is covered until the race is known, Random opponents start as Unknown.
+     */
+    private void registerRanges(Race opponentRace) {
+        switch (opponentRace) {
+            case Terran:
+                registerTerranRanges();
+                break;
+            case Protoss:
+                registerProtossRanges();
+                break;
+            case Zerg:
+                registerZergRanges();
+                break;
+            default:
+                registerTerranRanges();
+                registerProtossRanges();
+                registerZergRanges();
+                break;
+        }
+    }
+
+    private void registerTerranRanges() {
+        groundRanges.put(UnitType.Terran_Missile_Turret, UnitType.Terran_Missile_Turret.airWeapon().maxRange());
+        groundRanges.put(UnitType.Terran_Bunker, UnitType.Terran_Marine.groundWeapon().maxRange() + 32);
+        airRanges.put(UnitType.Terran_Missile_Turret, UnitType.Terran_Missile_Turret.airWeapon().maxRange() + 32);
+        airRanges.put(UnitType.Terran_Bunker, UnitType.Terran_Marine.groundWeapon().maxRange() + 64);
+    }
+
+    private void registerProtossRanges() {
+        groundRanges.put(UnitType.Protoss_Photon_Cannon, UnitType.Protoss_Photon_Cannon.groundWeapon().maxRange());
+        airRanges.put(UnitType.Protoss_Photon_Cannon, UnitType.Protoss_Photon_Cannon.groundWeapon().maxRange() + 32);
+    }
+
+    private void registerZergRanges() {
+        groundRanges.put(UnitType.Zerg_Spore_Colony, UnitType.Zerg_Spore_Colony.airWeapon().maxRange());
+        groundRanges.put(UnitType.Zerg_Sunken_Colony, UnitType.Zerg_Sunken_Colony.groundWeapon().maxRange());
+        airRanges.put(UnitType.Zerg_Spore_Colony, UnitType.Zerg_Spore_Colony.airWeapon().maxRange() + 32);
+    }
+
+    public void onFrame(ObservedUnitTracker tracker) {
+        reconcile(tracker, groundRanges, groundStamps, ground);
+        reconcile(tracker, airRanges, airStamps, air);
+    }
+
+    private void reconcile(ObservedUnitTracker tracker, Map<UnitType, Integer> ranges,
+                           Map<Position, Integer> stamps, CoverageGrid grid) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+
+        Map<Position, Integer> desired = new HashMap<>();
+        for (Map.Entry<UnitType, Integer> entry : ranges.entrySet()) {
+            for (Position position : tracker.getLastKnownPositionsOfLivingUnits(entry.getKey())) {
+                desired.merge(position, entry.getValue(), Math::max);
+            }
+        }
+
+        Iterator<Map.Entry<Position, Integer>> it = stamps.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Position, Integer> stamp = it.next();
+            if (!stamp.getValue().equals(desired.get(stamp.getKey()))) {
+                grid.remove(stamp.getKey(), stamp.getValue());
+                it.remove();
+            }
+        }
+
+        for (Map.Entry<Position, Integer> entry : desired.entrySet()) {
+            if (!stamps.containsKey(entry.getKey())) {
+                grid.add(entry.getKey(), entry.getValue());
+                stamps.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
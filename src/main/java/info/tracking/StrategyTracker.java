@@ -2,6 +2,7 @@ package info.tracking;
 
 import bwapi.Game;
 import bwapi.Race;
+import bwapi.UnitType;
 import info.BaseData;
 import info.map.GameMap;
 import info.tracking.any.OneBase;
@@ -15,65 +16,136 @@ import info.tracking.zerg.Hydralisk;
 import lombok.Getter;
 import util.Time;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Detects opponent strategies from what has been scouted.
+ *
+ * Each strategy declares the enemy unit types and events its detection depends on, and is only
+ * re-evaluated on frames where one of them changed. Strategies are retired once they are detected or
+ * their detection window has passed, so once nothing new is being scouted a frame costs only a check
+ * of the tracker's change set.
+ */
 public class StrategyTracker {
 
     @Getter
     private Set<ObservedStrategy> detectedStrategies = new HashSet<>();
-    private Set<ObservedStrategy> possibleStrategies = new HashSet<>();
+    private List<PendingStrategy> possibleStrategies = new ArrayList<>();
+    private final EnumMap<UnitType, List<PendingStrategy>> byTriggerType = new EnumMap<>(UnitType.class);
     private final Game game;
     private final ObservedUnitTracker tracker;
     private final BaseData baseData;
     private final GameMap gameMap;
+    private int lastEnemyBaseRevision;
 
     public StrategyTracker(Game game, Race opponentRace, ObservedUnitTracker tracker, BaseData baseData, GameMap gameMap) {
         this.game = game;
         this.tracker = tracker;
         this.baseData = baseData;
         this.gameMap = gameMap;
+        this.lastEnemyBaseRevision = baseData.getEnemyBaseRevision();
         this.init(opponentRace);
     }
 
     private void init(Race race) {
-        possibleStrategies.add(new OneBase());
+        List<ObservedStrategy> strategies = new ArrayList<>();
+        strategies.add(new OneBase());
         if (race == Race.Protoss || race == Race.Unknown) {
-            possibleStrategies.add(new FFE());
-            possibleStrategies.add(new OneGateCore());
-            possibleStrategies.add(new TwoGate());
-            possibleStrategies.add(new CannonRush());
+            strategies.add(new FFE());
+            strategies.add(new OneGateCore());
+            strategies.add(new TwoGate());
+            strategies.add(new CannonRush());
         }
         if (race == Race.Terran || race == Race.Unknown) {
-            possibleStrategies.add(new TwoRaxAcademy());
-            possibleStrategies.add(new SCVRush());
+            strategies.add(new TwoRaxAcademy());
+            strategies.add(new SCVRush());
         }
         if (race == Race.Zerg || race == Race.Unknown) {
-            possibleStrategies.add(new Hydralisk());
+            strategies.add(new Hydralisk());
         }
+        for (ObservedStrategy strategy : strategies) {
+            possibleStrategies.add(new PendingStrategy(strategy));
+        }
+        indexTriggers();
     }
 
     public void updateRace(Race opponentRace) {
-        possibleStrategies = possibleStrategies.stream()
-                .filter(s -> s.getRace() == opponentRace || s.getRace() == Race.Unknown)
-                .collect(Collectors.toSet());
+        possibleStrategies.removeIf(p -> p.strategy.getRace() != opponentRace && p.strategy.getRace() != Race.Unknown);
+        indexTriggers();
     }
 
     public void onFrame() {
+        if (possibleStrategies.isEmpty()) {
+            return;
+        }
+
+        markTriggered();
+
         Time currentTime = new Time(game.getFrameCount());
-        StrategyDetectionContext context = new StrategyDetectionContext(tracker, currentTime, baseData, gameMap);
+        StrategyDetectionContext context = null;
+        boolean retired = false;
+        for (PendingStrategy pending : possibleStrategies) {
+            ObservedStrategy strategy = pending.strategy;
+            if (pending.dirty && currentTime.greaterThan(strategy.detectableAfter())) {
+                if (context == null) {
+                    context = new StrategyDetectionContext(tracker, currentTime, baseData, gameMap);
+                }
+                pending.dirty = false;
+                if (strategy.isDetected(context)) {
+                    detectedStrategies.add(strategy);
+                    pending.retired = true;
+                }
+            }
+            // Anything observed before the window closed has been evaluated above
+            if (!pending.dirty && currentTime.greaterThan(strategy.lockAfter())) {
+                pending.retired = true;
+            }
+            retired |= pending.retired;
+        }
+
+        if (retired) {
+            possibleStrategies.removeIf(p -> p.retired);
+            indexTriggers();
+        }
+    }
 
-        Set<ObservedStrategy> newlyDetected = new HashSet<>();
-        for (ObservedStrategy strategy : possibleStrategies) {
-            if (strategy.isDetected(context)) {
-                newlyDetected.add(strategy);
+    /**
+     * Flags every strategy that depends on an enemy unit type or enemy base that changed since the last frame.
+     */
+    private void markTriggered() {
+        for (UnitType changed : tracker.getChangedUnitTypes()) {
+            List<PendingStrategy> triggered = byTriggerType.get(changed);
+            if (triggered != null) {
+                for (PendingStrategy pending : triggered) {
+                    pending.dirty = true;
+                }
             }
         }
+        tracker.clearChangedUnitTypes();
 
-        detectedStrategies.addAll(newlyDetected);
-        possibleStrategies.removeAll(newlyDetected);
+        final int enemyBaseRevision = baseData.getEnemyBaseRevision();
+        if (enemyBaseRevision != lastEnemyBaseRevision) {
+            lastEnemyBaseRevision = enemyBaseRevision;
+            for (PendingStrategy pending : possibleStrategies) {
+                if (pending.strategy.isTriggeredByEnemyBases()) {
+                    pending.dirty = true;
+                }
+            }
+        }
+    }
 
+    private void indexTriggers() {
+        byTriggerType.clear();
+        for (PendingStrategy pending : possibleStrategies) {
+            for (UnitType unitType : pending.strategy.getTriggerUnitTypes()) {
+                byTriggerType.computeIfAbsent(unitType, k -> new ArrayList<>()).add(pending);
+            }
+        }
     }
 
     public boolean isDetectedStrategy(String strategyName) {
@@ -90,4 +162,18 @@ public class StrategyTracker {
                 .map(ObservedStrategy::getName)
                 .collect(Collectors.joining(";"));
     }
+
+    /**
+     * A strategy that has not been detected yet. Starts dirty so every strategy is evaluated at least
+     * once after it becomes detectable.
+     */
+    private static class PendingStrategy {
+        private final ObservedStrategy strategy;
+        private boolean dirty = true;
+        private boolean retired = false;
+
+        PendingStrategy(ObservedStrategy strategy) {
+            this.strategy = strategy;
+        }
+    }
 }
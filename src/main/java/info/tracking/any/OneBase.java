@@ -13,6 +13,16 @@ public class OneBase extends ObservedStrategy {
         super("1Base");
     }
 
+    @Override
+    public Time detectableAfter() {
+        return FOUR_MINUTES;
+    }
+
+    @Override
+    public boolean isTriggeredByEnemyBases() {
+        return true;
+    }
+
     @Override
     public boolean isDetected(StrategyDetectionContext context) {
         Time time = context.getTime();
@@ -5,6 +5,9 @@ import info.tracking.ObservedUnitTracker;
 import info.tracking.StrategyDetectionContext;
 import util.Time;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Detects cannon rush strategy by identifying pylons or photon cannons
  * within 10 tiles (manhattan distance) of our bases.
@@ -14,17 +17,28 @@ import util.Time;
  */
 public class CannonRush extends ProtossBaseStrategy {
 
+    private static final Time DETECTED_BY = new Time(4, 30);
+    private static final Set<UnitType> TRIGGERS = EnumSet.of(UnitType.Protoss_Pylon, UnitType.Protoss_Photon_Cannon);
 
     public CannonRush() {
         super("CannonRush");
     }
 
+    @Override
+    public Time lockAfter() {
+        return DETECTED_BY;
+    }
+
+    @Override
+    public Set<UnitType> getTriggerUnitTypes() {
+        return TRIGGERS;
+    }
+
     @Override
     public boolean isDetected(StrategyDetectionContext context) {
         ObservedUnitTracker tracker = context.getTracker();
-        Time detectedBy = new Time(4, 30);
-        int pylons = tracker.getProxiedCountByTypeBeforeTime(UnitType.Protoss_Pylon, detectedBy);
-        int cannons = tracker.getProxiedCountByTypeBeforeTime(UnitType.Protoss_Photon_Cannon, detectedBy);
+        int pylons = tracker.getProxiedCountByTypeBeforeTime(UnitType.Protoss_Pylon, DETECTED_BY);
+        int cannons = tracker.getProxiedCountByTypeBeforeTime(UnitType.Protoss_Photon_Cannon, DETECTED_BY);
         return pylons + cannons > 0;
     }
 
@@ -8,6 +8,9 @@ import info.tracking.ObservedUnitTracker;
 import info.tracking.StrategyDetectionContext;
 import util.Time;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * https://liquipedia.net/starcraft/Forge_FE_(vs._Zerg)
  */
@@ -15,11 +18,27 @@ public class FFE extends ProtossBaseStrategy {
 
     private static final Time DETECTION_CUTOFF = new Time(4, 30);
     private static final int MANHATTAN_THRESHOLD = 8;
+    private static final Set<UnitType> TRIGGERS = EnumSet.of(UnitType.Protoss_Forge, UnitType.Protoss_Photon_Cannon);
 
     public FFE() {
         super("FFE");
     }
 
+    @Override
+    public Time lockAfter() {
+        return DETECTION_CUTOFF;
+    }
+
+    @Override
+    public Set<UnitType> getTriggerUnitTypes() {
+        return TRIGGERS;
+    }
+
+    @Override
+    public boolean isTriggeredByEnemyBases() {
+        return true;
+    }
+
     @Override
     public boolean isDetected(StrategyDetectionContext context) {
         if (context.getTime().greaterThan(DETECTION_CUTOFF)) {
@@ -5,14 +5,32 @@ import info.tracking.ObservedUnitTracker;
 import info.tracking.StrategyDetectionContext;
 import util.Time;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Not a standard ZvP opening in bot land, but could augur a DT rush.
  */
 public class OneGateCore extends ProtossBaseStrategy {
+
+    private static final Time LOCK_AFTER = new Time(4, 30);
+    private static final Set<UnitType> TRIGGERS = EnumSet.of(
+            UnitType.Protoss_Assimilator, UnitType.Protoss_Cybernetics_Core, UnitType.Protoss_Dragoon);
+
     public OneGateCore() {
         super("1GateCore");
     }
 
+    @Override
+    public Time lockAfter() {
+        return LOCK_AFTER;
+    }
+
+    @Override
+    public Set<UnitType> getTriggerUnitTypes() {
+        return TRIGGERS;
+    }
+
     @Override
     public boolean isDetected(StrategyDetectionContext context) {
         ObservedUnitTracker tracker = context.getTracker();
@@ -5,15 +5,31 @@ import info.tracking.ObservedUnitTracker;
 import info.tracking.StrategyDetectionContext;
 import util.Time;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * https://liquipedia.net/starcraft/2_Gateway_(vs._Zerg)
  */
 public class TwoGate extends ProtossBaseStrategy {
 
+    private static final Time LOCK_AFTER = new Time(4, 0);
+    private static final Set<UnitType> TRIGGERS = EnumSet.of(UnitType.Protoss_Zealot, UnitType.Protoss_Gateway);
+
     public TwoGate() {
         super("2Gate");
     }
 
+    @Override
+    public Time lockAfter() {
+        return LOCK_AFTER;
+    }
+
+    @Override
+    public Set<UnitType> getTriggerUnitTypes() {
+        return TRIGGERS;
+    }
+
     @Override
     public boolean isDetected(StrategyDetectionContext context) {
         ObservedUnitTracker tracker = context.getTracker();
@@ -5,16 +5,28 @@ import bwapi.UnitType;
 import info.tracking.StrategyDetectionContext;
 import util.Time;
 
+import java.util.EnumSet;
 import java.util.Set;
 
 public class SCVRush extends TerranBaseStrategy {
 
     private static final Time THREE_MINUTES_THIRTY = new Time(3, 30);
+    private static final Set<UnitType> TRIGGERS = EnumSet.of(UnitType.Terran_SCV);
 
     public SCVRush() {
         super("SCVRush");
     }
 
+    @Override
+    public Time lockAfter() {
+        return THREE_MINUTES_THIRTY;
+    }
+
+    @Override
+    public Set<UnitType> getTriggerUnitTypes() {
+        return TRIGGERS;
+    }
+
     @Override
     public boolean isDetected(StrategyDetectionContext context) {
         Set<TilePosition> mainBaseTiles = context.getGameMap().getMainBaseTiles();
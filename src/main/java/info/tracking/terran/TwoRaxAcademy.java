@@ -5,15 +5,32 @@ import info.tracking.ObservedUnitTracker;
 import info.tracking.StrategyDetectionContext;
 import util.Time;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * <a href="https://liquipedia.net/starcraft/2_Rax_Academy_(vs._Zerg)">Liquipedia Entry</a>
  */
 public class TwoRaxAcademy extends TerranBaseStrategy {
 
+    private static final Time LOCK_AFTER = new Time(5, 30);
+    private static final Set<UnitType> TRIGGERS = EnumSet.of(
+            UnitType.Terran_Academy, UnitType.Terran_Medic, UnitType.Terran_Firebat);
+
     public TwoRaxAcademy() { 
         super("2RaxAcademy"); 
     }
 
+    @Override
+    public Time lockAfter() {
+        return LOCK_AFTER;
+    }
+
+    @Override
+    public Set<UnitType> getTriggerUnitTypes() {
+        return TRIGGERS;
+    }
+
     @Override
     public boolean isDetected(StrategyDetectionContext context) {
         ObservedUnitTracker tracker = context.getTracker();
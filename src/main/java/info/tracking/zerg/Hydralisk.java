@@ -3,12 +3,23 @@ package info.tracking.zerg;
 import bwapi.UnitType;
 import info.tracking.StrategyDetectionContext;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public class Hydralisk extends ZergBaseStrategy {
 
+    private static final Set<UnitType> TRIGGERS = EnumSet.of(
+            UnitType.Zerg_Hydralisk_Den, UnitType.Zerg_Hydralisk, UnitType.Zerg_Lurker);
+
     public Hydralisk() {
         super("Hydralisk");
     }
 
+    @Override
+    public Set<UnitType> getTriggerUnitTypes() {
+        return TRIGGERS;
+    }
+
     @Override
     public boolean isDetected(StrategyDetectionContext context) {
         return context.getTracker()
@@ -0,0 +1,77 @@
+package learning;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running D-UCB sums over a strategy's game history.
+ *
+ * Weighting games newest-first by γ^age is the same as folding them oldest-first with
+ * sum = γ * sum + outcome, so appending a game newer than every other one is O(1). A game that
+ * arrives out of order, or history edited behind our back, falls back to a single sorted rebuild.
+ */
+class DiscountedOutcomes {
+    static final double GAMMA = 0.95;
+
+    private double discountedWins = 0;
+    private double discountedGames = 0;
+    private long latestTimestamp = Long.MIN_VALUE;
+    // Number of games folded into the sums, -1 forces a rebuild
+    private int size = 0;
+
+    double getDiscountedWins() {
+        return discountedWins;
+    }
+
+    double getDiscountedGames() {
+        return discountedGames;
+    }
+
+    /**
+     * Folds in a newly appended game, or marks the sums stale if it is older than the latest game.
+     */
+    void append(long timestamp, boolean win) {
+        if (size < 0 || timestamp < latestTimestamp) {
+            size = -1;
+            return;
+        }
+        fold(timestamp, win);
+    }
+
+    void invalidate() {
+        size = -1;
+    }
+
+    /**
+     * Rebuilds the sums if they do not cover exactly the given history.
+     */
+    void sync(List<Long> winTimestamps, List<Long> lossTimestamps) {
+        if (size == winTimestamps.size() + lossTimestamps.size()) {
+            return;
+        }
+
+        List<long[]> games = new ArrayList<>(winTimestamps.size() + lossTimestamps.size());
+        for (Long t : winTimestamps) {
+            games.add(new long[]{t, 1});
+        }
+        for (Long t : lossTimestamps) {
+            games.add(new long[]{t, 0});
+        }
+        games.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        discountedWins = 0;
+        discountedGames = 0;
+        latestTimestamp = Long.MIN_VALUE;
+        size = 0;
+        for (long[] game : games) {
+            fold(game[0], game[1] == 1);
+        }
+    }
+
+    private void fold(long timestamp, boolean win) {
+        discountedWins = GAMMA * discountedWins + (win ? 1 : 0);
+        discountedGames = GAMMA * discountedGames + 1;
+        latestTimestamp = timestamp;
+        size += 1;
+    }
+}
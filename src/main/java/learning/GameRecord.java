@@ -6,6 +6,9 @@ import lombok.Data;
 @Data
 @Builder
 public class GameRecord {
+    public static final String CSV_HEADER =
+        "timestamp,is_winner,num_starting_locations,map_name,opponent_name,opponent_race,opener,build_order,detected_strategies";
+
     private long timestamp;
     private int numStartingLocations;
     private String mapName;
@@ -8,10 +8,10 @@ import info.GameState;
 import strategy.BuildOrderFactory;
 import strategy.buildorder.BuildOrder;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -31,6 +31,8 @@ public class LearningManager {
     private Race opponentRace;
     private String opponentName;
     private String opponentFileName;
+    // Games read at startup, oldest first, used to seed the write directory's store
+    private final List<GameRecord> history = new ArrayList<>();
 
     private OpponentRecord opponentRecord;
     private Decisions decisions = new Decisions();
@@ -48,7 +50,7 @@ public class LearningManager {
         this.gameState = gameState;
         this.opponentRace = game.enemy().getRace();
         this.opponentName = game.enemy().getName();
-        this.opponentFileName = opponentName + "_" + opponentRace + ".csv";
+        this.opponentFileName = opponentName + "_" + opponentRace;
         this.opponentRecord = OpponentRecord.builder()
             .name(opponentName)
             .race(opponentRace.toString())
@@ -111,155 +113,136 @@ public class LearningManager {
         return this.opponentRecord;
     }
 
+    /**
+     * Streams the opponent's history from the binary store, falling back to a CSV history
+     * written before the binary store existed.
+     */
     private void readOpponentRecord() throws IOException {
-        File file = new File(READ_DIR + opponentFileName);
-        if (!file.exists()) {
-            opponentRecord.setName(opponentName);
-            opponentRecord.setRace(opponentRace.toString());
-            opponentRecord.ensureMapSpecificRecords();
-            return;
-        }
+        opponentRecord.setName(opponentName);
+        opponentRecord.setRace(opponentRace.toString());
+        opponentRecord.ensureMapSpecificRecords();
 
-        List<String> lines = Files.readAllLines(file.toPath());
-        if (lines.size() <= 1) {
-            opponentRecord.setName(opponentName);
-            opponentRecord.setRace(opponentRace.toString());
-            opponentRecord.ensureMapSpecificRecords();
-            return;
+        Path binary = Paths.get(READ_DIR, opponentFileName + ".bin");
+        Path csv = Paths.get(READ_DIR, opponentFileName + ".csv");
+        if (Files.isRegularFile(binary)) {
+            new LearningStore(binary, opponentName, opponentRace.toString()).read(this::readGameRecord);
+        } else if (Files.isRegularFile(csv)) {
+            LearningStore.importCsv(csv, this::readGameRecord);
         }
+    }
 
-        opponentRecord.ensureMapSpecificRecords();
-
-        for (int i = 1; i < lines.size(); i++) {
-            GameRecord record = GameRecord.fromCsvRow(lines.get(i));
-            if (record.isWinner()) {
-                opponentRecord.setWins(opponentRecord.getWins() + 1);
-            } else {
-                opponentRecord.setLosses(opponentRecord.getLosses() + 1);
-            }
-            
-            Map<String, Record> openerRecords = opponentRecord.getOpenerRecord();
-            if (openerRecords == null) {
-                openerRecords = new HashMap<>();
-                opponentRecord.setOpenerRecord(openerRecords);
+    private void readGameRecord(GameRecord record) {
+        history.add(record);
+        if (record.isWinner()) {
+            opponentRecord.setWins(opponentRecord.getWins() + 1);
+        } else {
+            opponentRecord.setLosses(opponentRecord.getLosses() + 1);
+        }
+        
+        Map<String, Record> openerRecords = opponentRecord.getOpenerRecord();
+        if (openerRecords == null) {
+            openerRecords = new HashMap<>();
+            opponentRecord.setOpenerRecord(openerRecords);
+        }
+        
+        Record openerRecord = openerRecords.get(record.getOpener());
+        if (openerRecord == null) {
+            openerRecord = Record.builder()
+                .opener(record.getOpener())
+                .wins(0)
+                .losses(0)
+                .build();
+            openerRecords.put(record.getOpener(), openerRecord);
+        }
+        
+        if (record.isWinner()) {
+            openerRecord.setWins(openerRecord.getWins() + 1);
+            openerRecord.addWinTimestamp(record.getTimestamp());
+        } else {
+            openerRecord.setLosses(openerRecord.getLosses() + 1);
+            openerRecord.addLossTimestamp(record.getTimestamp());
+        }
+        
+        String mapOpenerKey = WeightedUCBCalculator.createMapKey(record.getMapName(), record.getOpener());
+        MapAwareRecord mapOpenerRecord = opponentRecord.getMapSpecificOpenerRecord().get(mapOpenerKey);
+        if (mapOpenerRecord == null) {
+            mapOpenerRecord = MapAwareRecord.builder()
+                .strategy(record.getOpener())
+                .mapName(record.getMapName())
+                .opponentName(opponentName)
+                .opponentRace(opponentRace.toString())
+                .wins(0)
+                .losses(0)
+                .build();
+            opponentRecord.getMapSpecificOpenerRecord().put(mapOpenerKey, mapOpenerRecord);
+        }
+        
+        if (record.isWinner()) {
+            mapOpenerRecord.setWins(mapOpenerRecord.getWins() + 1);
+            mapOpenerRecord.addWinTimestamp(record.getTimestamp());
+        } else {
+            mapOpenerRecord.setLosses(mapOpenerRecord.getLosses() + 1);
+            mapOpenerRecord.addLossTimestamp(record.getTimestamp());
+        }
+        
+        if (record.getBuildOrder() != null && !record.getBuildOrder().equals(record.getOpener())) {
+            Map<String, Record> buildOrderRecords = opponentRecord.getBuildOrderRecord();
+            if (buildOrderRecords == null) {
+                buildOrderRecords = new HashMap<>();
+                opponentRecord.setBuildOrderRecord(buildOrderRecords);
             }
             
-            Record openerRecord = openerRecords.get(record.getOpener());
-            if (openerRecord == null) {
-                openerRecord = Record.builder()
-                    .opener(record.getOpener())
+            Record buildOrderRecord = buildOrderRecords.get(record.getBuildOrder());
+            if (buildOrderRecord == null) {
+                buildOrderRecord = Record.builder()
+                    .opener(record.getBuildOrder())
                     .wins(0)
                     .losses(0)
                     .build();
-                openerRecords.put(record.getOpener(), openerRecord);
+                buildOrderRecords.put(record.getBuildOrder(), buildOrderRecord);
             }
             
             if (record.isWinner()) {
-                openerRecord.setWins(openerRecord.getWins() + 1);
-                openerRecord.addWinTimestamp(record.getTimestamp());
+                buildOrderRecord.setWins(buildOrderRecord.getWins() + 1);
+                buildOrderRecord.addWinTimestamp(record.getTimestamp());
             } else {
-                openerRecord.setLosses(openerRecord.getLosses() + 1);
-                openerRecord.addLossTimestamp(record.getTimestamp());
+                buildOrderRecord.setLosses(buildOrderRecord.getLosses() + 1);
+                buildOrderRecord.addLossTimestamp(record.getTimestamp());
             }
             
-            String mapOpenerKey = WeightedUCBCalculator.createMapKey(record.getMapName(), record.getOpener());
-            MapAwareRecord mapOpenerRecord = opponentRecord.getMapSpecificOpenerRecord().get(mapOpenerKey);
-            if (mapOpenerRecord == null) {
-                mapOpenerRecord = MapAwareRecord.builder()
-                    .strategy(record.getOpener())
+            String mapBuildOrderKey = WeightedUCBCalculator.createMapKey(record.getMapName(), record.getBuildOrder());
+            MapAwareRecord mapBuildOrderRecord = opponentRecord.getMapSpecificBuildOrderRecord().get(mapBuildOrderKey);
+            if (mapBuildOrderRecord == null) {
+                mapBuildOrderRecord = MapAwareRecord.builder()
+                    .strategy(record.getBuildOrder())
                     .mapName(record.getMapName())
                     .opponentName(opponentName)
                     .opponentRace(opponentRace.toString())
                     .wins(0)
                     .losses(0)
                     .build();
-                opponentRecord.getMapSpecificOpenerRecord().put(mapOpenerKey, mapOpenerRecord);
+                opponentRecord.getMapSpecificBuildOrderRecord().put(mapBuildOrderKey, mapBuildOrderRecord);
             }
             
             if (record.isWinner()) {
-                mapOpenerRecord.setWins(mapOpenerRecord.getWins() + 1);
-                mapOpenerRecord.addWinTimestamp(record.getTimestamp());
+                mapBuildOrderRecord.setWins(mapBuildOrderRecord.getWins() + 1);
+                mapBuildOrderRecord.addWinTimestamp(record.getTimestamp());
             } else {
-                mapOpenerRecord.setLosses(mapOpenerRecord.getLosses() + 1);
-                mapOpenerRecord.addLossTimestamp(record.getTimestamp());
-            }
-            
-            if (record.getBuildOrder() != null && !record.getBuildOrder().equals(record.getOpener())) {
-                Map<String, Record> buildOrderRecords = opponentRecord.getBuildOrderRecord();
-                if (buildOrderRecords == null) {
-                    buildOrderRecords = new HashMap<>();
-                    opponentRecord.setBuildOrderRecord(buildOrderRecords);
-                }
-                
-                Record buildOrderRecord = buildOrderRecords.get(record.getBuildOrder());
-                if (buildOrderRecord == null) {
-                    buildOrderRecord = Record.builder()
-                        .opener(record.getBuildOrder())
-                        .wins(0)
-                        .losses(0)
-                        .build();
-                    buildOrderRecords.put(record.getBuildOrder(), buildOrderRecord);
-                }
-                
-                if (record.isWinner()) {
-                    buildOrderRecord.setWins(buildOrderRecord.getWins() + 1);
-                    buildOrderRecord.addWinTimestamp(record.getTimestamp());
-                } else {
-                    buildOrderRecord.setLosses(buildOrderRecord.getLosses() + 1);
-                    buildOrderRecord.addLossTimestamp(record.getTimestamp());
-                }
-                
-                String mapBuildOrderKey = WeightedUCBCalculator.createMapKey(record.getMapName(), record.getBuildOrder());
-                MapAwareRecord mapBuildOrderRecord = opponentRecord.getMapSpecificBuildOrderRecord().get(mapBuildOrderKey);
-                if (mapBuildOrderRecord == null) {
-                    mapBuildOrderRecord = MapAwareRecord.builder()
-                        .strategy(record.getBuildOrder())
-                        .mapName(record.getMapName())
-                        .opponentName(opponentName)
-                        .opponentRace(opponentRace.toString())
-                        .wins(0)
-                        .losses(0)
-                        .build();
-                    opponentRecord.getMapSpecificBuildOrderRecord().put(mapBuildOrderKey, mapBuildOrderRecord);
-                }
-                
-                if (record.isWinner()) {
-                    mapBuildOrderRecord.setWins(mapBuildOrderRecord.getWins() + 1);
-                    mapBuildOrderRecord.addWinTimestamp(record.getTimestamp());
-                } else {
-                    mapBuildOrderRecord.setLosses(mapBuildOrderRecord.getLosses() + 1);
-                    mapBuildOrderRecord.addLossTimestamp(record.getTimestamp());
-                }
+                mapBuildOrderRecord.setLosses(mapBuildOrderRecord.getLosses() + 1);
+                mapBuildOrderRecord.addLossTimestamp(record.getTimestamp());
             }
         }
 
-        GameRecord lastRecord = GameRecord.fromCsvRow(lines.get(lines.size() - 1));
-        lastGameDetectedStrategies = lastRecord.getDetectedStrategies();
-        lastGameOpener = lastRecord.getOpener() != null ? lastRecord.getOpener() : "";
+        lastGameDetectedStrategies = record.getDetectedStrategies() != null ? record.getDetectedStrategies() : "";
+        lastGameOpener = record.getOpener() != null ? record.getOpener() : "";
     }
 
+    /**
+     * Appends the game to the write directory's store. The first write of a session seeds the store
+     * with everything read at startup, mirroring how the CSV history used to be copied over.
+     */
     private void writeGameRecord(boolean isWinner) throws IOException {
-        File readFile = new File(READ_DIR + opponentFileName);
-        File writeFile = new File(WRITE_DIR + opponentFileName);
-        
-        if (!writeFile.exists()) {
-            writeFile.createNewFile();
-            String header = "timestamp,is_winner,num_starting_locations,map_name,opponent_name,opponent_race,opener,build_order,detected_strategies";
-            header += "\n";
-            Files.write(writeFile.toPath(), header.getBytes(), StandardOpenOption.APPEND);
-            
-            if (readFile.exists() && readFile.isFile()) {
-                List<String> readLines = Files.readAllLines(readFile.toPath());
-                for (int i = 1; i < readLines.size(); i++) {
-                    String dataRow = readLines.get(i) + "\n";
-                    Files.write(writeFile.toPath(), dataRow.getBytes(), StandardOpenOption.APPEND);
-                }
-            }
-        }
-        
-        if (!writeFile.isFile()) {
-            return;
-        }
+        Path writeFile = Paths.get(WRITE_DIR, opponentFileName + ".bin");
 
         GameRecord gameRecord = GameRecord.builder()
             .timestamp(System.currentTimeMillis())
@@ -274,8 +257,18 @@ public class LearningManager {
             .isWinner(isWinner)
             .build();
 
-        String csvRow = gameRecord.toCsvRow() + "\n";
-        Files.write(writeFile.toPath(), csvRow.getBytes(), StandardOpenOption.APPEND);
+        LearningStore store = new LearningStore(writeFile, opponentName, opponentRace.toString());
+        if (Files.exists(writeFile)) {
+            store.append(gameRecord);
+        } else {
+            List<GameRecord> games = new ArrayList<>(history);
+            games.add(gameRecord);
+            store.rewrite(games);
+        }
+
+        if (config.learningCsvExport) {
+            store.exportCsv(Paths.get(WRITE_DIR, opponentFileName + ".csv"));
+        }
     }
 
     private void ensureOpenersInOpponentRecord() {
@@ -0,0 +1,412 @@
+package learning;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Binary game history for a single opponent.
+ *
+ * <p>The file is a header followed by length prefixed blocks:
+ * <ul>
+ * <li>STRING interns a map, opener, build order or detected strategies value, ids are assigned in file order</li>
+ * <li>GAME is a single appended game referencing interned strings</li>
+ * <li>SUMMARY is written by compaction and packs the opponent's totals and every game up to that point</li>
+ * </ul>
+ *
+ * <p>Games are appended at the end of a game and synced to disk. A block cut short by a crash is ignored
+ * when reading and truncated before the next append. Once enough games have been appended the file is
+ * compacted into a single SUMMARY block, written to a temporary file and moved over the original.
+ */
+class LearningStore {
+    static final int MAGIC = 0x49414C53; // "IALS"
+    static final int VERSION = 1;
+    static final int COMPACTION_THRESHOLD = 64;
+
+    private static final byte STRING_BLOCK = 1;
+    private static final byte GAME_BLOCK = 2;
+    private static final byte SUMMARY_BLOCK = 3;
+    private static final int HEADER_PREFIX = 6;
+    private static final int BLOCK_PREFIX = 5;
+    // String ids are written as unsigned shorts
+    static final int MAX_STRINGS = 1 << 16;
+
+    private final Path path;
+    private final String opponentName;
+    private final String opponentRace;
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private long validLength = 0;
+    private int appendedGames = 0;
+    private boolean loaded = false;
+
+    LearningStore(Path path, String opponentName, String opponentRace) {
+        this.path = path;
+        this.opponentName = opponentName;
+        this.opponentRace = opponentRace;
+    }
+
+    int getAppendedGames() {
+        return appendedGames;
+    }
+
+    /**
+     * Streams every stored game, oldest first, to the consumer.
+     *
+     * @return number of games read
+     */
+    int read(Consumer<GameRecord> consumer) throws IOException {
+        resetIndex();
+        loaded = true;
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        int games = 0;
+        final long fileLength = Files.size(path);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            String fileOpponentName;
+            String fileOpponentRace;
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a learning store: " + path);
+                }
+                int version = in.readUnsignedShort();
+                if (version > VERSION) {
+                    throw new IOException("Unsupported learning store version " + version + ": " + path);
+                }
+                fileOpponentName = in.readUTF();
+                fileOpponentRace = in.readUTF();
+            } catch (EOFException e) {
+                // Header was never completely written, nothing to recover
+                return 0;
+            }
+            validLength = HEADER_PREFIX + utfLength(fileOpponentName) + utfLength(fileOpponentRace);
+
+            while (true) {
+                byte tag;
+                byte[] payload;
+                try {
+                    tag = in.readByte();
+                    payload = new byte[readBlockLength(in, fileLength - validLength - BLOCK_PREFIX)];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                validLength += BLOCK_PREFIX + payload.length;
+
+                DataInputStream block = new DataInputStream(new ByteArrayInputStream(payload));
+                switch (tag) {
+                    case STRING_BLOCK:
+                        intern(block.readUTF());
+                        break;
+                    case GAME_BLOCK:
+                        consumer.accept(readGame(block, fileOpponentName, fileOpponentRace));
+                        appendedGames += 1;
+                        games += 1;
+                        break;
+                    case SUMMARY_BLOCK:
+                        block.readInt(); // wins
+                        block.readInt(); // losses
+                        int count = block.readInt();
+                        for (int i = 0; i < count; i++) {
+                            consumer.accept(readGame(block, fileOpponentName, fileOpponentRace));
+                        }
+                        appendedGames = 0;
+                        games += count;
+                        break;
+                    default:
+                        // Unknown blocks come from a newer writer and are skipped
+                        break;
+                }
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Appends a game and syncs it to disk, compacting the file once enough games have been appended.
+     */
+    void append(GameRecord game) throws IOException {
+        if (!loaded) {
+            read(g -> { });
+        }
+        if (!Files.exists(path) || validLength == 0) {
+            rewrite(new ArrayList<>());
+        }
+
+        if (Files.size(path) > validLength) {
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.setLength(validLength);
+            }
+        }
+
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(blocks);
+        writeGameStrings(out, game);
+        writeBlock(out, GAME_BLOCK, payload -> writeGame(payload, game));
+        out.flush();
+
+        try (FileOutputStream file = new FileOutputStream(path.toFile(), true)) {
+            blocks.writeTo(file);
+            file.flush();
+            file.getFD().sync();
+        }
+        validLength += blocks.size();
+        appendedGames += 1;
+
+        if (appendedGames >= COMPACTION_THRESHOLD) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the file as a single SUMMARY block.
+     */
+    void compact() throws IOException {
+        List<GameRecord> games = new ArrayList<>();
+        read(games::add);
+        rewrite(games);
+    }
+
+    /**
+     * Replaces the file with the given games, oldest first, packed into a single SUMMARY block.
+     * The new file is fully written and synced before it is moved over the old one.
+     */
+    void rewrite(List<GameRecord> games) throws IOException {
+        Set<String> distinct = new HashSet<>();
+        for (GameRecord game : games) {
+            distinct.addAll(gameStrings(game));
+        }
+        checkStringCapacity(0, distinct.size());
+        resetIndex();
+        loaded = true;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeUTF(opponentName);
+        out.writeUTF(opponentRace);
+        if (!games.isEmpty()) {
+            for (GameRecord game : games) {
+                writeGameStrings(out, game);
+            }
+            writeBlock(out, SUMMARY_BLOCK, payload -> {
+                int wins = 0;
+                for (GameRecord game : games) {
+                    wins += game.isWinner() ? 1 : 0;
+                }
+                payload.writeInt(wins);
+                payload.writeInt(games.size() - wins);
+                payload.writeInt(games.size());
+                for (GameRecord game : games) {
+                    writeGame(payload, game);
+                }
+            });
+        }
+        out.flush();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            bytes.writeTo(file);
+            file.flush();
+            file.getFD().sync();
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        validLength = bytes.size();
+        appendedGames = 0;
+    }
+
+    /**
+     * Writes every stored game in the CSV format used before the binary store.
+     */
+    void exportCsv(Path csv) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write(GameRecord.CSV_HEADER);
+            writer.newLine();
+            IOException[] failure = new IOException[1];
+            read(game -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    writer.write(game.toCsvRow());
+                    writer.newLine();
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+    }
+
+    /**
+     * Streams the data rows of a CSV history to the consumer.
+     *
+     * @return number of games read
+     */
+    static int importCsv(Path csv, Consumer<GameRecord> consumer) throws IOException {
+        int games = 0;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line = reader.readLine(); // header
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                consumer.accept(GameRecord.fromCsvRow(line));
+                games += 1;
+            }
+        }
+        return games;
+    }
+
+    private void resetIndex() {
+        strings.clear();
+        stringIds.clear();
+        validLength = 0;
+        appendedGames = 0;
+    }
+
+    private int intern(String value) {
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            return id;
+        }
+        strings.add(value);
+        stringIds.put(value, strings.size() - 1);
+        return strings.size() - 1;
+    }
+
+    private static Set<String> gameStrings(GameRecord game) {
+        Set<String> values = new LinkedHashSet<>();
+        values.add(nullToEmpty(game.getMapName()));
+        values.add(nullToEmpty(game.getOpener()));
+        values.add(nullToEmpty(game.getBuildOrder()));
+        values.add(nullToEmpty(game.getDetectedStrategies()));
+        return values;
+    }
+
+    /**
+     * Interns the game's new strings, checking they all fit in the table before any is interned.
+     */
+    private void writeGameStrings(DataOutputStream out, GameRecord game) throws IOException {
+        Set<String> values = gameStrings(game);
+        values.removeIf(stringIds::containsKey);
+        checkStringCapacity(strings.size(), values.size());
+        for (String value : values) {
+            intern(value);
+            writeBlock(out, STRING_BLOCK, payload -> payload.writeUTF(value));
+        }
+    }
+
+    private void checkStringCapacity(int interned, int added) throws IOException {
+        if (interned + added > MAX_STRINGS) {
+            throw new IOException("String table of " + path + " would exceed " + MAX_STRINGS + " entries");
+        }
+    }
+
+    private void writeGame(DataOutputStream out, GameRecord game) throws IOException {
+        out.writeLong(game.getTimestamp());
+        out.writeBoolean(game.isWinner());
+        out.writeByte(game.getNumStartingLocations());
+        out.writeShort(stringIds.get(nullToEmpty(game.getMapName())));
+        out.writeShort(stringIds.get(nullToEmpty(game.getOpener())));
+        out.writeShort(stringIds.get(nullToEmpty(game.getBuildOrder())));
+        out.writeShort(stringIds.get(nullToEmpty(game.getDetectedStrategies())));
+    }
+
+    private GameRecord readGame(DataInputStream in, String fileOpponentName, String fileOpponentRace) throws IOException {
+        return GameRecord.builder()
+            .timestamp(in.readLong())
+            .isWinner(in.readBoolean())
+            .numStartingLocations(in.readUnsignedByte())
+            .mapName(readString(in))
+            .opener(readString(in))
+            .buildOrder(readString(in))
+            .detectedStrategies(readString(in))
+            .opponentName(fileOpponentName)
+            .opponentRace(fileOpponentRace)
+            .build();
+    }
+
+    /**
+     * @throws IOException if the id does not refer to a string interned earlier in the file
+     */
+    private String readString(DataInputStream in) throws IOException {
+        int id = in.readUnsignedShort();
+        if (id >= strings.size()) {
+            throw new IOException("Unknown string id " + id + " of " + strings.size() + ": " + path);
+        }
+        return strings.get(id);
+    }
+
+    private static void writeBlock(DataOutputStream out, byte tag, BlockWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        writer.write(payload);
+        payload.flush();
+        out.writeByte(tag);
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Reads a block length, checking it against the bytes left in the file before anything is allocated.
+     *
+     * @throws EOFException if the block runs past the end of the file, as a torn tail does
+     * @throws IOException if the length is negative
+     */
+    private int readBlockLength(DataInputStream in, long remaining) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt block length " + length + ": " + path);
+        }
+        if (length > remaining) {
+            throw new EOFException("Block of " + length + " bytes runs past the end of " + path);
+        }
+        return length;
+    }
+
+    private static int utfLength(String value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeUTF(value);
+        return bytes.size();
+    }
+
+    private interface BlockWriter {
+        void write(DataOutputStream payload) throws IOException;
+    }
+}
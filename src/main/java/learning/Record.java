@@ -1,8 +1,12 @@
 package learning;
 
+import lombok.AccessLevel;
 import lombok.Builder;
-import lombok.Builder.Default;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,18 +26,30 @@ import java.util.List;
  * 
  * <p>Historical games are stored with timestamps and weighted by γ^(age) where age
  * is the number of games since that observation (most recent = 0, next oldest = 1, etc.).
+ * The discounted sums are kept up to date as games are appended, see {@link DiscountedOutcomes}.
  */
-@Builder
 @Data
 public class Record implements UCBRecord {
-    private static final double GAMMA = 0.95;
     private String opener;
     private int wins;
     private int losses;
-    @Default
-    private List<Long> winTimestamps = new ArrayList<>();
-    @Default
-    private List<Long> lossTimestamps = new ArrayList<>();
+    private List<Long> winTimestamps;
+    private List<Long> lossTimestamps;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final DiscountedOutcomes outcomes = new DiscountedOutcomes();
+
+    @Builder
+    private Record(String opener, int wins, int losses, List<Long> winTimestamps, List<Long> lossTimestamps) {
+        this.opener = opener;
+        this.wins = wins;
+        this.losses = losses;
+        this.winTimestamps = winTimestamps != null ? winTimestamps : new ArrayList<>();
+        this.lossTimestamps = lossTimestamps != null ? lossTimestamps : new ArrayList<>();
+        outcomes.sync(this.winTimestamps, this.lossTimestamps);
+    }
 
     public int netWins() {
         return wins - losses;
@@ -53,10 +69,22 @@ public class Record implements UCBRecord {
     
     public void addWinTimestamp(long timestamp) {
         winTimestamps.add(timestamp);
+        outcomes.append(timestamp, true);
     }
     
     public void addLossTimestamp(long timestamp) {
         lossTimestamps.add(timestamp);
+        outcomes.append(timestamp, false);
+    }
+
+    public void setWinTimestamps(List<Long> winTimestamps) {
+        this.winTimestamps = winTimestamps;
+        outcomes.invalidate();
+    }
+
+    public void setLossTimestamps(List<Long> lossTimestamps) {
+        this.lossTimestamps = lossTimestamps;
+        outcomes.invalidate();
     }
 
     public double index(int totalGames) {
@@ -68,8 +96,9 @@ public class Record implements UCBRecord {
             return Math.sqrt(Math.log(totalGames)) + (Math.random() * 0.2 - 0.1);
         }
         
-        double discountedWins = calculateDiscountedWins();
-        double discountedGames = calculateDiscountedGames();
+        outcomes.sync(winTimestamps, lossTimestamps);
+        double discountedWins = outcomes.getDiscountedWins();
+        double discountedGames = outcomes.getDiscountedGames();
         
         if (discountedGames == 0) {
             return 1.0;
@@ -79,35 +108,4 @@ public class Record implements UCBRecord {
         double c = Math.sqrt(2 * Math.log(totalGames) / discountedGames);
         return sampleMean + c;
     }
-    
-    private double calculateDiscountedWins() {
-        // Combine all timestamps and sort by chronological order
-        List<Long> allTimestamps = new ArrayList<>();
-        allTimestamps.addAll(winTimestamps);
-        allTimestamps.addAll(lossTimestamps);
-        allTimestamps.sort((a, b) -> Long.compare(b, a));
-        
-        double discountedWins = 0.0;
-        for (int i = 0; i < allTimestamps.size(); i++) {
-            Long t = allTimestamps.get(i);
-            if (winTimestamps.contains(t)) {
-                double weight = Math.pow(GAMMA, i);
-                discountedWins += weight;
-            }
-        }
-        return discountedWins;
-    }
-    
-    private double calculateDiscountedGames() {
-        List<Long> allTimestamps = new ArrayList<>();
-        allTimestamps.addAll(winTimestamps);
-        allTimestamps.addAll(lossTimestamps);
-        
-        double discountedGames = 0.0;
-        for (int i = 0; i < allTimestamps.size(); i++) {
-            double weight = Math.pow(GAMMA, i);
-            discountedGames += weight;
-        }
-        return discountedGames;
-    }
 }
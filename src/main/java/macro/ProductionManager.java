@@ -119,9 +119,7 @@ public class ProductionManager {
             return;
         }
 
-        gameState.getProductionQueue().removeWhere(
-                p -> p.getType() == PlanType.BUILDING && p.getPlannedUnit() == UnitType.Zerg_Hatchery,
-                gameState::setImpossiblePlan);
+        gameState.getProductionQueue().removeWhere(PlanType.BUILDING, UnitType.Zerg_Hatchery, gameState::setImpossiblePlan);
 
         Set<Plan> scheduledPlansToCancel = gameState.getPlansScheduled()
                 .stream()
@@ -150,8 +148,7 @@ public class ProductionManager {
         }
 
         ResourceCount resourceCount = gameState.getResourceCount();
-        gameState.getProductionQueue().removeWhere(
-                p -> p.getType() == PlanType.UNIT && p.getPlannedUnit() == UnitType.Zerg_Overlord,
+        gameState.getProductionQueue().removeWhere(PlanType.UNIT, UnitType.Zerg_Overlord,
                 plan -> {
                     gameState.setImpossiblePlan(plan);
                     int plannedSupply = resourceCount.getPlannedSupply();
@@ -904,19 +901,15 @@ public class ProductionManager {
         Plan priorityHatcheryPlan = null;
         int highestPriority = Integer.MAX_VALUE;
 
-        for (Plan plan : gameState.getProductionQueue()) {
-            if (plan.getType() == PlanType.BUILDING && 
-                plan.getPlannedUnit() == UnitType.Zerg_Hatchery) {
-                
-                if (plan.getPriority() < highestPriority) {
-                    highestPriority = plan.getPriority();
-                    priorityHatcheryPlan = plan;
-                }
+        for (Plan plan : gameState.getProductionQueue().getPlans(UnitType.Zerg_Hatchery)) {
+            if (plan.getType() == PlanType.BUILDING && plan.getPriority() < highestPriority) {
+                highestPriority = plan.getPriority();
+                priorityHatcheryPlan = plan;
             }
         }
 
         if (priorityHatcheryPlan != null && highestPriority > 0) {
-            priorityHatcheryPlan.setPriority(0);
+            gameState.getProductionQueue().setPriority(priorityHatcheryPlan, 0);
         }
     }
 
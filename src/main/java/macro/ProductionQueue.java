@@ -1,96 +1,278 @@
 package macro;
 
+import bwapi.TechType;
+import bwapi.UnitType;
+import bwapi.UpgradeType;
 import macro.plan.Plan;
-import macro.plan.PlanComparator;
+import macro.plan.PlanType;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+/**
+ * Plans waiting to be scheduled, ordered by priority and then by insertion.
+ *
+ * Plans are kept in a tree keyed on the priority they were queued with, so removal and reprioritization
+ * are O(log n). Secondary indexes by PlanType and by planned unit, upgrade and tech answer
+ * "is X already planned" without scanning the queue, and let the keyed setPriorityWhere and removeWhere
+ * overloads only visit matching plans.
+ *
+ * A plan's priority must not be changed while it is queued, use {@link #setPriority} instead.
+ */
 public class ProductionQueue implements Iterable<Plan> {
 
-    private final PriorityQueue<Plan> queue = new PriorityQueue<>(new PlanComparator());
+    private final TreeMap<Key, Plan> ordered = new TreeMap<>();
+    private final Map<Plan, Key> keys = new HashMap<>();
+
+    private final EnumMap<PlanType, Set<Plan>> byType = new EnumMap<>(PlanType.class);
+    private final EnumMap<UnitType, Set<Plan>> byUnit = new EnumMap<>(UnitType.class);
+    private final EnumMap<UpgradeType, Set<Plan>> byUpgrade = new EnumMap<>(UpgradeType.class);
+    private final EnumMap<TechType, Set<Plan>> byTech = new EnumMap<>(TechType.class);
+
+    private long nextSequence = 0;
 
     public void add(Plan plan) {
-        queue.add(plan);
+        if (keys.containsKey(plan)) {
+            return;
+        }
+        Key key = new Key(plan, nextSequence++);
+        ordered.put(key, plan);
+        keys.put(plan, key);
+        index(byType, key.type, plan);
+        index(byUnit, key.unit, plan);
+        index(byUpgrade, key.upgrade, plan);
+        index(byTech, key.tech, plan);
     }
 
     public void addAll(List<Plan> plans) {
-        queue.addAll(plans);
+        for (Plan plan : plans) {
+            add(plan);
+        }
     }
 
     public Plan poll() {
-        return queue.poll();
+        Map.Entry<Key, Plan> first = ordered.firstEntry();
+        if (first == null) {
+            return null;
+        }
+        Plan plan = first.getValue();
+        remove(plan);
+        return plan;
     }
 
     public void remove(Plan plan) {
-        queue.remove(plan);
+        Key key = keys.remove(plan);
+        if (key == null) {
+            return;
+        }
+        ordered.remove(key);
+        unindex(byType, key.type, plan);
+        unindex(byUnit, key.unit, plan);
+        unindex(byUpgrade, key.upgrade, plan);
+        unindex(byTech, key.tech, plan);
+    }
+
+    public boolean contains(Plan plan) {
+        return keys.containsKey(plan);
     }
 
     public boolean isEmpty() {
-        return queue.isEmpty();
+        return ordered.isEmpty();
     }
 
     public int size() {
-        return queue.size();
+        return ordered.size();
     }
 
+    /**
+     * Iterates in priority order.
+     */
     @Override
     public Iterator<Plan> iterator() {
-        return queue.iterator();
+        return Collections.unmodifiableCollection(ordered.values()).iterator();
     }
 
     public int minPriority() {
-        int min = Integer.MAX_VALUE;
-        for (Plan plan : queue) {
-            if (plan.getPriority() < min) {
-                min = plan.getPriority();
-            }
-        }
-        return min;
+        return ordered.isEmpty() ? Integer.MAX_VALUE : ordered.firstKey().priority;
     }
 
     public List<Plan> toSortedList() {
-        List<Plan> sorted = new ArrayList<>(queue);
-        Collections.sort(sorted, new PlanComparator());
-        return sorted;
+        return new ArrayList<>(ordered.values());
     }
 
     /**
-     * Sets the priority of all plans matching the predicate.
-     * Removes and re-inserts each matched plan to preserve the heap invariant.
+     * Changes a plan's priority, re-keying it if it is queued.
      */
-    public void setPriorityWhere(Predicate<Plan> predicate, int priority) {
-        List<Plan> matched = new ArrayList<>();
-        for (Plan plan : queue) {
-            if (predicate.test(plan)) {
-                matched.add(plan);
+    public void setPriority(Plan plan, int priority) {
+        if (!keys.containsKey(plan)) {
+            plan.setPriority(priority);
+            return;
+        }
+        remove(plan);
+        plan.setPriority(priority);
+        add(plan);
+    }
+
+    public Collection<Plan> getPlans(PlanType type) {
+        return view(byType, type);
+    }
+
+    public Collection<Plan> getPlans(UnitType plannedUnit) {
+        return view(byUnit, plannedUnit);
+    }
+
+    public boolean isPlanned(PlanType type, UnitType plannedUnit) {
+        for (Plan plan : view(byUnit, plannedUnit)) {
+            if (plan.getType() == type) {
+                return true;
             }
         }
-        for (Plan plan : matched) {
-            queue.remove(plan);
-            plan.setPriority(priority);
-            queue.add(plan);
+        return false;
+    }
+
+    public int countPlanned(PlanType type, UnitType plannedUnit) {
+        int count = 0;
+        for (Plan plan : view(byUnit, plannedUnit)) {
+            if (plan.getType() == type) {
+                count += 1;
+            }
         }
+        return count;
+    }
+
+    public boolean isPlanned(UpgradeType plannedUpgrade) {
+        return !view(byUpgrade, plannedUpgrade).isEmpty();
+    }
+
+    public boolean isPlanned(TechType plannedTech) {
+        return !view(byTech, plannedTech).isEmpty();
+    }
+
+    /**
+     * Sets the priority of all plans matching the predicate.
+     * Scans the whole queue, prefer the keyed overloads when the planned type is known.
+     */
+    public void setPriorityWhere(Predicate<Plan> predicate, int priority) {
+        setPriority(matching(ordered.values(), predicate), priority);
+    }
+
+    /**
+     * Sets the priority of every queued plan of the given type for the planned unit.
+     */
+    public void setPriorityWhere(PlanType type, UnitType plannedUnit, int priority) {
+        setPriority(matching(view(byUnit, plannedUnit), p -> p.getType() == type), priority);
+    }
+
+    public void setPriorityWhere(UpgradeType plannedUpgrade, int priority) {
+        setPriority(new ArrayList<>(view(byUpgrade, plannedUpgrade)), priority);
     }
 
     /**
      * Removes all plans matching the predicate and invokes the callback on each removed plan.
+     * Scans the whole queue, prefer the keyed overloads when the planned type is known.
      */
     public void removeWhere(Predicate<Plan> predicate, Consumer<Plan> onRemoved) {
+        remove(matching(ordered.values(), predicate), onRemoved);
+    }
+
+    /**
+     * Removes every queued plan of the given type for the planned unit.
+     */
+    public void removeWhere(PlanType type, UnitType plannedUnit, Consumer<Plan> onRemoved) {
+        removeWhere(type, plannedUnit, p -> true, onRemoved);
+    }
+
+    /**
+     * Removes queued plans of the given type for the planned unit that also match the predicate.
+     */
+    public void removeWhere(PlanType type, UnitType plannedUnit, Predicate<Plan> predicate, Consumer<Plan> onRemoved) {
+        remove(matching(view(byUnit, plannedUnit), p -> p.getType() == type && predicate.test(p)), onRemoved);
+    }
+
+    private List<Plan> matching(Collection<Plan> candidates, Predicate<Plan> predicate) {
         List<Plan> matched = new ArrayList<>();
-        for (Plan plan : queue) {
+        for (Plan plan : candidates) {
             if (predicate.test(plan)) {
                 matched.add(plan);
             }
         }
-        for (Plan plan : matched) {
-            queue.remove(plan);
+        return matched;
+    }
+
+    private void setPriority(List<Plan> plans, int priority) {
+        for (Plan plan : plans) {
+            setPriority(plan, priority);
+        }
+    }
+
+    private void remove(List<Plan> plans, Consumer<Plan> onRemoved) {
+        for (Plan plan : plans) {
+            remove(plan);
             onRemoved.accept(plan);
         }
     }
+
+    private static <K extends Enum<K>> void index(EnumMap<K, Set<Plan>> index, K key, Plan plan) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(plan);
+        }
+    }
+
+    private static <K extends Enum<K>> void unindex(EnumMap<K, Set<Plan>> index, K key, Plan plan) {
+        if (key == null) {
+            return;
+        }
+        Set<Plan> plans = index.get(key);
+        if (plans != null) {
+            plans.remove(plan);
+        }
+    }
+
+    private static <K extends Enum<K>> Collection<Plan> view(EnumMap<K, Set<Plan>> index, K key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+        Set<Plan> plans = index.get(key);
+        return plans == null ? Collections.emptySet() : Collections.unmodifiableSet(plans);
+    }
+
+    /**
+     * Snapshot of the fields a plan was queued with, so it can always be found again.
+     */
+    private static final class Key implements Comparable<Key> {
+        private final int priority;
+        private final long sequence;
+        private final PlanType type;
+        private final UnitType unit;
+        private final UpgradeType upgrade;
+        private final TechType tech;
+
+        Key(Plan plan, long sequence) {
+            this.priority = plan.getPriority();
+            this.sequence = sequence;
+            this.type = plan.getType();
+            this.unit = plan.getPlannedUnit();
+            this.upgrade = plan.getPlannedUpgrade();
+            this.tech = plan.getPlannedTechType();
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
 }
@@ -30,21 +30,9 @@ import java.util.stream.Collectors;
  */
 public class Reactions {
 
-    private static final Predicate<Plan> IS_SPAWNING_POOL = p ->
-            p.getType() == PlanType.BUILDING && p.getPlannedUnit() == UnitType.Zerg_Spawning_Pool;
-
-    private static final Predicate<Plan> IS_HATCHERY = p ->
-            p.getType() == PlanType.BUILDING && p.getPlannedUnit() == UnitType.Zerg_Hatchery;
-
     private static final Predicate<Plan> IS_EXTRACTOR = p ->
             p.getType() == PlanType.BUILDING && p.getPlannedUnit() == UnitType.Zerg_Extractor;
 
-    private static final Predicate<Plan> IS_DRONE = p ->
-            p.getType() == PlanType.UNIT && p.getPlannedUnit() == UnitType.Zerg_Drone;
-
-    private static final Predicate<Plan> IS_CREEP_COLONY = p ->
-            p.getType() == PlanType.BUILDING && p.getPlannedUnit() == UnitType.Zerg_Creep_Colony;
-
     private GameState gameState;
 
     public Reactions(GameState gameState) {
@@ -76,12 +64,12 @@ public class Reactions {
 
         ProductionQueue productionQueue = gameState.getProductionQueue();
 
-        productionQueue.setPriorityWhere(IS_SPAWNING_POOL, 0);
-        productionQueue.removeWhere(IS_HATCHERY, gameState::setImpossiblePlan);
+        productionQueue.setPriorityWhere(PlanType.BUILDING, UnitType.Zerg_Spawning_Pool, 0);
+        productionQueue.removeWhere(PlanType.BUILDING, UnitType.Zerg_Hatchery, gameState::setImpossiblePlan);
 
         BaseData baseData = gameState.getBaseData();
 
-        productionQueue.removeWhere(IS_EXTRACTOR, plan -> {
+        productionQueue.removeWhere(PlanType.BUILDING, UnitType.Zerg_Extractor, plan -> {
             gameState.setImpossiblePlan(plan);
             if (plan.getBuildPosition() != null) {
                 baseData.unreserveExtractor(plan.getBuildPosition());
@@ -123,7 +111,7 @@ public class Reactions {
         }
 
         if (gameState.getTechProgression().isSpawningPool()) {
-            productionQueue.removeWhere(IS_DRONE, gameState::setImpossiblePlan);
+            productionQueue.removeWhere(PlanType.UNIT, UnitType.Zerg_Drone, gameState::setImpossiblePlan);
         }
 
         if (baseData.getMyBases().size() == 1) {
@@ -155,13 +143,13 @@ public class Reactions {
 
         ProductionQueue productionQueue = gameState.getProductionQueue();
 
-        productionQueue.setPriorityWhere(IS_SPAWNING_POOL, 0);
+        productionQueue.setPriorityWhere(PlanType.BUILDING, UnitType.Zerg_Spawning_Pool, 0);
 
         int droneCount = gameState.ourUnitCount(UnitType.Zerg_Drone);
         int zerglingCount = gameState.getUnitTypeCount().get(UnitType.Zerg_Zergling);
 
         if (droneCount >= 8 && zerglingCount < 8) {
-            productionQueue.removeWhere(IS_DRONE, gameState::setImpossiblePlan);
+            productionQueue.removeWhere(PlanType.UNIT, UnitType.Zerg_Drone, gameState::setImpossiblePlan);
         }
     }
 
@@ -181,10 +169,7 @@ public class Reactions {
 
         int zerglingCount = gameState.getUnitTypeCount().get(UnitType.Zerg_Zergling);
         if (zerglingCount > 6) {
-            productionQueue.setPriorityWhere(
-                    p -> p.getType() == PlanType.UPGRADE
-                            && ((UpgradePlan) p).getPlannedUpgrade() == UpgradeType.Metabolic_Boost,
-                    0);
+            productionQueue.setPriorityWhere(UpgradeType.Metabolic_Boost, 0);
         }
 
         BaseData baseData = gameState.getBaseData();
@@ -226,7 +211,8 @@ public class Reactions {
         ProductionQueue productionQueue = gameState.getProductionQueue();
         int minPriority = productionQueue.minPriority();
 
-        productionQueue.setPriorityWhere(IS_DRONE.or(IS_HATCHERY), minPriority);
+        productionQueue.setPriorityWhere(PlanType.UNIT, UnitType.Zerg_Drone, minPriority);
+        productionQueue.setPriorityWhere(PlanType.BUILDING, UnitType.Zerg_Hatchery, minPriority);
     }
 
     private void clearMainSunkenOnExpansion() {
@@ -249,10 +235,8 @@ public class Reactions {
             return pos != null && mainCreepTiles.contains(pos);
         };
 
-        Predicate<Plan> isMainCreepColony = IS_CREEP_COLONY.and(isAtMain);
-
         ProductionQueue productionQueue = gameState.getProductionQueue();
-        productionQueue.removeWhere(isMainCreepColony, plan -> {
+        productionQueue.removeWhere(PlanType.BUILDING, UnitType.Zerg_Creep_Colony, isAtMain, plan -> {
             gameState.setImpossiblePlan(plan);
             buildingPlanner.unreservePlannedBuildingTiles(plan.getBuildPosition(), UnitType.Zerg_Creep_Colony);
         });
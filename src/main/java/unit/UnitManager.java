@@ -15,6 +15,7 @@ import unit.managed.ManagedUnitFactory;
 import unit.managed.UnitRole;
 import unit.scout.ScoutManager;
 import unit.squad.SquadManager;
+import util.FrameProfiler;
 import util.Time;
 
 import java.util.ArrayList;
@@ -45,7 +46,7 @@ public class UnitManager {
         this.game = game;
 
         this.gameState = gameState;
-        this.factory = new ManagedUnitFactory(game, gameState.getGameMap());
+        this.factory = new ManagedUnitFactory(game, gameState.getGameMap(), gameState.getFrameUnitCache());
 
         this.informationManager = informationManager;
         this.workerManager = new WorkerManager(game, gameState);
@@ -92,10 +93,11 @@ public class UnitManager {
             checkAndAssignZerglingScouts();
         }
 
-        buildingManager.onFrame();
-        workerManager.onFrame();
+        FrameProfiler profiler = gameState.getFrameProfiler();
+        profiler.time("unit.building", buildingManager::onFrame);
+        profiler.time("unit.worker", workerManager::onFrame);
         squadManager.updateOverlordSquad();
-        squadManager.updateFightSquads();
+        profiler.time("unit.fightSquads", squadManager::updateFightSquads);
         if (gameState.isCannonRushed() && !gameState.isCannonRushDefend()) {
             for (Base base : new ArrayList<>(squadManager.getDefenseSquadBases())) {
                 List<ManagedUnit> freed = squadManager.disbandDefendSquad(base);
@@ -105,8 +107,8 @@ public class UnitManager {
                 }
             }
         }
-        squadManager.updateDefenseSquads();
-        scoutManager.onFrame();
+        profiler.time("unit.defenseSquads", squadManager::updateDefenseSquads);
+        profiler.time("unit.scout", scoutManager::onFrame);
 
         Set<ManagedUnit> disbandedSquadUnits = squadManager.getDisbandedUnits();
         if (!disbandedSquadUnits.isEmpty()) {
@@ -116,6 +118,10 @@ public class UnitManager {
             }
         }
 
+        profiler.time("unit.execute", this::executeManagedUnits);
+    }
+
+    private void executeManagedUnits() {
         for (ManagedUnit managedUnit: managedUnits) {
             // Check if unready units can be ready again
             if (!managedUnit.isReady() && game.getFrameCount() >= managedUnit.getUnreadyUntilFrame()) {
@@ -223,7 +229,7 @@ public class UnitManager {
                 squadManager.addManagedUnit(managedUnit);
                 scoutManager.removeScout(managedUnit);
             } else {
-                Set<Unit> enemies = new HashSet<>(gameState.getVisibleEnemyUnits());
+                List<Unit> enemies = gameState.getFrameUnitCache().getVisibleEnemies();
                 if (!scoutData.shouldOverlordsContinueScouting(game.enemy().getRace(), enemies)) {
                     squadManager.addManagedUnit(managedUnit);
                     scoutManager.removeScout(managedUnit);
@@ -364,7 +370,7 @@ public class UnitManager {
             boolean shouldStopScouting = false;
 
             if (managedUnit.getUnitType() == UnitType.Zerg_Overlord) {
-                Set<Unit> enemies = new HashSet<>(gameState.getVisibleEnemyUnits());
+                List<Unit> enemies = gameState.getFrameUnitCache().getVisibleEnemies();
                 shouldStopScouting = !scoutData.shouldOverlordsContinueScouting(game.enemy().getRace(), enemies);
             } else if (managedUnit.getUnitType() == UnitType.Zerg_Zergling) {
                 shouldStopScouting = scoutManager.endZerglingScout();
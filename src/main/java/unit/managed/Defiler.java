@@ -74,9 +74,8 @@ public class Defiler extends ManagedUnit {
     private boolean tryConsume() {
         if (!game.self().hasResearched(TechType.Consume)) return false;
 
-        List<Unit> candidates = game.getUnitsInRadius(unit.getPosition(), CONSUME_SEARCH_RANGE)
+        List<Unit> candidates = frameUnits.ownInRadius(unit.getPosition(), CONSUME_SEARCH_RANGE)
                 .stream()
-                .filter(u -> u.getPlayer() == game.self())
                 .filter(u -> u.getType() == UnitType.Zerg_Zergling)
                 .collect(Collectors.toList());
 
@@ -108,9 +107,8 @@ public class Defiler extends ManagedUnit {
     private boolean tryPlague() {
         if (!game.self().hasResearched(TechType.Plague)) return false;
 
-        List<Unit> enemies = game.getUnitsInRadius(unit.getPosition(), SPELL_RANGE)
+        List<Unit> enemies = frameUnits.enemiesInRadius(unit.getPosition(), SPELL_RANGE)
                 .stream()
-                .filter(u -> u.getPlayer().isEnemy(game.self()))
                 .filter(u -> u.isDetected() && !u.isPlagued())
                 .filter(u -> !u.getType().isBuilding() || util.Filter.isHostileBuilding(u.getType()))
                 .collect(Collectors.toList());
@@ -161,17 +159,15 @@ public class Defiler extends ManagedUnit {
     }
 
     private boolean tryDarkSwarm() {
-        List<Unit> friendlyMelee = game.getUnitsInRadius(unit.getPosition(), SPELL_RANGE)
+        List<Unit> friendlyMelee = frameUnits.ownInRadius(unit.getPosition(), SPELL_RANGE)
                 .stream()
-                .filter(u -> u.getPlayer() == game.self())
                 .filter(u -> isMeleeType(u.getType()))
                 .collect(Collectors.toList());
 
         if (friendlyMelee.isEmpty()) return false;
 
-        List<Unit> nearbyEnemies = game.getUnitsInRadius(unit.getPosition(), SPELL_RANGE)
+        List<Unit> nearbyEnemies = frameUnits.enemiesInRadius(unit.getPosition(), SPELL_RANGE)
                 .stream()
-                .filter(u -> u.getPlayer().isEnemy(game.self()))
                 .filter(u -> u.isDetected() && !u.isUnderDarkSwarm())
                 .collect(Collectors.toList());
 
@@ -184,7 +180,8 @@ public class Defiler extends ManagedUnit {
 
         Position castPosition = centroid(nearbyEnemies);
 
-        for (Unit existing : game.getUnitsInRadius(castPosition, DARK_SWARM_RADIUS)) {
+        // Dark Swarm belongs to the neutral player whoever cast it
+        for (Unit existing : frameUnits.neutralInRadius(castPosition, DARK_SWARM_RADIUS)) {
             if (existing.getType() == UnitType.Spell_Dark_Swarm) {
                 return false;
             }
@@ -224,7 +221,7 @@ public class Defiler extends ManagedUnit {
         }
 
         if (rallyPoint != null) {
-            unit.move(rallyPoint);
+            moveTowards(rallyPoint);
         }
     }
 }
@@ -58,9 +58,8 @@ public class Drone extends ManagedUnit {
 
     @Override
     protected List<Unit> getEnemiesInRadius(int currentX, int currentY) {
-        return game.getUnitsInRadius(currentX, currentY, 128)
+        return frameUnits.enemiesInRadius(currentX, currentY, 128)
                 .stream()
-                .filter(u -> u.getPlayer() != game.self())
                 .filter(u -> Filter.isGroundThreat(u.getType()))
                 .filter(u -> !Filter.isWorkerType(u.getType()) || u.isAttacking())
                 .collect(Collectors.toList());
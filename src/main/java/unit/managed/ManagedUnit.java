@@ -7,7 +7,13 @@ import bwapi.Unit;
 import bwapi.UnitType;
 import bwapi.WalkPosition;
 import bwapi.WeaponType;
+import info.FrameUnitCache;
+import info.exception.NoWalkablePathException;
 import info.map.GameMap;
+import info.map.MapTile;
+import info.map.ThreatField;
+import info.map.ThreatGrid;
+import info.map.WalkGrid;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -25,6 +31,8 @@ public class ManagedUnit {
     protected static int FIVE_SECONDS = 120;
     protected Game game;
     protected GameMap gameMap;
+    @Setter
+    protected FrameUnitCache frameUnits;
 
     @Getter
     protected final int unitID; // debug
@@ -49,6 +57,12 @@ public class ManagedUnit {
     private int framesStuck = 0;
     private int retreatStartFrame = 0;
 
+    // Threat aware path toward safePathDestination, found against safePathRevision of the threat grid
+    private List<MapTile> safePath;
+    private TilePosition safePathDestination;
+    private int safePathRevision = -1;
+    private int safePathIndex = 0;
+
     @Setter @Getter
     protected Unit defendTarget;
     public Unit fightTarget;
@@ -193,24 +207,29 @@ public class ManagedUnit {
         }
 
         int scanRadius = retreatScanRadius();
-        List<Unit> enemies = game.getUnitsInRadius(currentX, currentY, scanRadius)
-                .stream()
-                .filter(u -> u.getPlayer() != game.self())
-                .filter(u -> !u.getType().isBuilding() || Filter.isHostileBuilding(u.getType()))
-                .collect(Collectors.toList());
-
-        if (enemies.isEmpty()) {
-            return null;
-        }
-
         double sumDx = 0;
         double sumDy = 0;
-
-        for (Unit enemy : enemies) {
+        boolean hasEnemies = false;
+        for (Unit enemy : frameUnits.enemiesInRadius(currentX, currentY, scanRadius)) {
+            if (enemy.getType().isBuilding() && !Filter.isHostileBuilding(enemy.getType())) {
+                continue;
+            }
+            hasEnemies = true;
             sumDx += enemy.getX() - currentX;
             sumDy += enemy.getY() - currentY;
         }
 
+        if (!hasEnemies) {
+            return null;
+        }
+
+        if (!unit.isFlying()) {
+            Position uphill = groundThreats().retreatPosition(currentPos, retreatFleeDistance());
+            if (uphill != null) {
+                return uphill;
+            }
+        }
+
         Vec2 away = new Vec2(-sumDx, -sumDy);
         if (away.length() == 0) {
             return null;
@@ -229,6 +248,15 @@ public class ManagedUnit {
         return retreatPos;
     }
 
+    /**
+     * Shared ground threat field, built by the first unit that asks for it each frame.
+     */
+    private ThreatField groundThreats() {
+        ThreatField threatField = gameMap.getThreatField();
+        threatField.update(game.getFrameCount(), frameUnits.getVisibleEnemies());
+        return threatField;
+    }
+
     protected Position getSimpleRetreatPosition() {
         int currentX = unit.getX();
         int currentY = unit.getY();
@@ -254,15 +282,14 @@ public class ManagedUnit {
     }
 
     protected List<Unit> getEnemiesInRadius(int currentX, int currentY) {
-        List<Unit> enemies = game.getUnitsInRadius(currentX, currentY, 128)
+        return frameUnits.enemiesInRadius(currentX, currentY, 128)
                 .stream()
-                .filter(u -> u.getPlayer() != game.self())
                 .filter(u -> !u.getType().isBuilding() || Filter.isHostileBuilding(u.getType()))
                 .collect(Collectors.toList());
-        return enemies;
     }
 
     private static final int BORDER_REPULSION_DISTANCE = 64;
+    private static final int SAFE_PATH_LOOKAHEAD = 6;
 
     private Vec2 applyBorderRepulsion(Vec2 flee, int currentX, int currentY) {
         int mapWidth = game.mapWidth() * 32;
@@ -335,7 +362,7 @@ public class ManagedUnit {
 
         Vec2 normalized = dir.normalize();
 
-        Set<WalkPosition> accessibleWalkPositions = gameMap.getAccessibleWalkPositions();
+        WalkGrid accessibleWalkPositions = gameMap.getAccessibleWalkPositions();
         if (accessibleWalkPositions.isEmpty()) {
             return isBasicPathWalkable(currentPos, normalized, distance);
         }
@@ -373,9 +400,8 @@ public class ManagedUnit {
     }
     
     private Position findAlternativeRetreatPosition(Position currentPos, Position originalRetreat) {
-        List<Unit> enemies = game.getUnitsInRadius(currentPos.getX(), currentPos.getY(), 256)
+        List<Unit> enemies = frameUnits.enemiesInRadius(currentPos, 256)
                 .stream()
-                .filter(u -> u.getPlayer() != game.self())
                 .filter(u -> !u.getType().isBuilding() || Filter.isHostileBuilding(u.getType()))
                 .collect(Collectors.toList());
 
@@ -437,7 +463,22 @@ public class ManagedUnit {
         }
 
         setUnready();
-        unit.move(rallyPoint);
+        moveTowards(rallyPoint);
+    }
+
+    /**
+     * Ground units far from destination follow the shared flow field toward it, everything else moves
+     * there directly.
+     */
+    protected void moveTowards(Position destination) {
+        if (!unit.isFlying()) {
+            Position waypoint = gameMap.getFlowFields().nextWaypoint(game.getFrameCount(), unit.getPosition(), destination);
+            if (waypoint != null) {
+                unit.move(waypoint);
+                return;
+            }
+        }
+        unit.move(destination);
     }
 
     protected void contain() {
@@ -512,7 +553,7 @@ public class ManagedUnit {
         Position buildTarget = getBuilderMoveLocation(buildingType, plan.getBuildPosition());
         if (unit.getDistance(buildTarget) > 150 || unit.isGatheringMinerals()) {
             setUnready();
-            unit.move(buildTarget);
+            moveAvoidingThreats(buildTarget);
             return;
         }
 
@@ -601,7 +642,46 @@ public class ManagedUnit {
         }
 
         setUnready();
-        unit.move(movementTargetPosition.toPosition());
+        moveAvoidingThreats(movementTargetPosition.toPosition());
+    }
+
+    /**
+     * Moves toward destination along a path that prices in known enemy threat, searched again whenever the
+     * destination changes or the threat grid is restamped.
+     */
+    protected void moveAvoidingThreats(Position destination) {
+        final TilePosition destinationTile = destination.toTilePosition();
+        final ThreatGrid threats = unit.isFlying() ? gameMap.getAirThreats() : gameMap.getGroundThreats();
+        if (!destinationTile.equals(safePathDestination) || threats.getRevision() != safePathRevision) {
+            safePathDestination = destinationTile;
+            safePathRevision = threats.getRevision();
+            safePathIndex = 0;
+            try {
+                safePath = gameMap.threatAwareSearch(unit.getTilePosition(), destinationTile, unit.isFlying()).getPath();
+            } catch (NoWalkablePathException e) {
+                safePath = null;
+            }
+        }
+
+        if (safePath == null) {
+            unit.move(destination);
+            return;
+        }
+
+        final TilePosition current = unit.getTilePosition();
+        final int searchEnd = Math.min(safePath.size(), safePathIndex + 2 * SAFE_PATH_LOOKAHEAD);
+        for (int i = safePathIndex; i < searchEnd; i++) {
+            if (safePath.get(i).getTile().equals(current)) {
+                safePathIndex = i;
+            }
+        }
+        final int waypointIndex = safePathIndex + SAFE_PATH_LOOKAHEAD;
+        if (waypointIndex >= safePath.size() - 1) {
+            unit.move(destination);
+            return;
+        }
+        final TilePosition waypoint = safePath.get(waypointIndex).getTile();
+        unit.move(new Position(waypoint.getX() * 32 + 16, waypoint.getY() * 32 + 16));
     }
 
     private void updateState() {
@@ -662,7 +742,7 @@ public class ManagedUnit {
         }
 
         if (movementTargetPosition != null) {
-            unit.move(movementTargetPosition.toPosition());
+            moveTowards(movementTargetPosition.toPosition());
             return;
         }
 
@@ -828,7 +908,7 @@ public class ManagedUnit {
 
     protected void handleNoTarget() {
         if (movementTargetPosition != null && isValidTilePosition(movementTargetPosition)) {
-            unit.move(movementTargetPosition.toPosition());
+            moveTowards(movementTargetPosition.toPosition());
             return;
         }
         role = UnitRole.IDLE;
@@ -846,9 +926,9 @@ public class ManagedUnit {
         Unit closest = null;
         double closestDistance = Double.MAX_VALUE;
 
-        for (Unit enemy : game.getUnitsInRadius(unit.getPosition(), weaponRange(unit))) {
+        for (Unit enemy : frameUnits.enemiesInRadius(unit.getPosition(), weaponRange(unit))) {
             UnitType enemyType = enemy.getType();
-            if (enemy.getPlayer().isEnemy(game.self()) && enemy.isTargetable() &&
+            if (enemy.isTargetable() &&
                 !util.Filter.isLowPriorityCombatTarget(enemyType) &&
                 (!enemyType.isBuilding() || util.Filter.isHostileBuilding(enemyType))) {
                 double enemyDistance = unit.getDistance(enemy);
@@ -870,8 +950,8 @@ public class ManagedUnit {
     }
 
     protected Unit findThreateningEnemy() {
-        for (Unit enemy : game.getUnitsInRadius(unit.getPosition(), weaponRange(unit) + 64)) {
-            if (enemy.getPlayer().isEnemy(game.self()) && enemy.isTargetable() && canFightBack(enemy) &&
+        for (Unit enemy : frameUnits.enemiesInRadius(unit.getPosition(), weaponRange(unit) + 64)) {
+            if (enemy.isTargetable() && canFightBack(enemy) &&
                 !util.Filter.isLowPriorityCombatTarget(enemy.getType())) {
                 return enemy;
             }
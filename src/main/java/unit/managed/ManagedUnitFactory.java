@@ -2,20 +2,23 @@ package unit.managed;
 
 import bwapi.Game;
 import bwapi.Unit;
+import info.FrameUnitCache;
 import info.map.GameMap;
 
 public class ManagedUnitFactory {
 
     private Game game;
     private GameMap gameMap;
+    private FrameUnitCache frameUnits;
 
     public ManagedUnitFactory(Game game) {
         this.game = game;
     }
 
-    public ManagedUnitFactory(Game game, GameMap gameMap) {
+    public ManagedUnitFactory(Game game, GameMap gameMap, FrameUnitCache frameUnits) {
         this.game = game;
         this.gameMap = gameMap;
+        this.frameUnits = frameUnits;
     }
 
     public ManagedUnit create(Unit unit, UnitRole role) {
@@ -70,7 +73,8 @@ public class ManagedUnitFactory {
                 managedUnit = new ManagedUnit(game, unit, role, gameMap);
                 break;
         }
-        
+        managedUnit.setFrameUnits(frameUnits);
+
         return managedUnit;
     }
 }
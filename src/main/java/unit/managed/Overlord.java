@@ -19,9 +19,8 @@ public class Overlord extends ManagedUnit {
 
     @Override
     protected List<Unit> getEnemiesInRadius(int currentX, int currentY) {
-        return game.getUnitsInRadius(currentX, currentY, 192)
+        return frameUnits.enemiesInRadius(currentX, currentY, 192)
                 .stream()
-                .filter(u -> u.getPlayer() != game.self())
                 .filter(u -> Filter.isAirThreat(u.getType()))
                 .collect(Collectors.toList());
     }
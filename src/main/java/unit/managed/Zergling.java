@@ -30,7 +30,7 @@ public class Zergling extends ManagedUnit {
         }
 
         if (movementTargetPosition != null) {
-            unit.move(movementTargetPosition.toPosition());
+            moveTowards(movementTargetPosition.toPosition());
             return;
         }
 
@@ -39,9 +39,8 @@ public class Zergling extends ManagedUnit {
 
     @Override
     protected List<Unit> getEnemiesInRadius(int currentX, int currentY) {
-        return game.getUnitsInRadius(currentX, currentY, 128)
+        return frameUnits.enemiesInRadius(currentX, currentY, 128)
                 .stream()
-                .filter(u -> u.getPlayer() != game.self())
                 .filter(u -> Filter.isGroundThreat(u.getType()))
                 .collect(Collectors.toList());
     }
@@ -193,13 +193,17 @@ public class ScoutManager {
             return gameState.pollScoutTarget();
         }
         TilePosition enemyMainTp = enemyMain.getLocation();
-        if (enemyMainScoutPath == null) {
+        if (enemyMainScoutPath == null || isProvisionalPathReady(enemyMainTp)) {
             ensureEnemyMainMovePoints(enemyMainTp);
         }
 
         return enemyMainScoutPath.next();
     }
 
+    private boolean isProvisionalPathReady(TilePosition enemyMainTp) {
+        return enemyMainScoutPath.isProvisional() && !gameState.getGameMap().isScoutPerimeterPending(enemyMainTp);
+    }
+
     private void ensureEnemyMainMovePoints(TilePosition enemyMainTp) {
         GameMap gameMap = gameState.getGameMap();
 
@@ -12,6 +12,8 @@ import util.Distance;
 import util.Time;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -59,6 +61,8 @@ public class Squad implements Comparable<Squad> {
 
     private static final double SMOOTHING_ALPHA = 0.85;
     private static final int SPLIT_MERGE_COOLDOWN = 100;
+    private static final int MIN_CORE_NEIGHBOURS = 2;
+    private static final int UNASSIGNED = -1;
 
     @Getter
     private int splitFrame = 0;
@@ -182,21 +186,94 @@ public class Squad implements Comparable<Squad> {
         return Integer.compare(this.size(), o.size());
     }
 
-    public List<ManagedUnit> findOutliers(int maxDistance) {
-        Position c = getCenter();
-        if (c == null) return new ArrayList<>();
-        int cx = c.getX();
-        int cy = c.getY();
+    /**
+     * Members that are not density connected to the squad's largest cluster, found DBSCAN style.
+     *
+     * Members within linkDistance of each other are neighbours, a member with at least
+     * MIN_CORE_NEIGHBOURS neighbours is a core member and clusters grow outward from core members.
+     * Positions are bucketed into linkDistance cells so each neighbour query only looks at the
+     * surrounding 3x3 cells. A squad where no member is a core member has no main body and reports no
+     * outliers.
+     */
+    public List<ManagedUnit> findOutliers(int linkDistance) {
+        List<ManagedUnit> units = new ArrayList<>(members);
+        final int n = units.size();
+        final int[] xs = new int[n];
+        final int[] ys = new int[n];
+        Map<Long, List<Integer>> cells = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Position pos = units.get(i).getUnit().getPosition();
+            xs[i] = pos.getX();
+            ys[i] = pos.getY();
+            cells.computeIfAbsent(cellKey(xs[i] / linkDistance, ys[i] / linkDistance), k -> new ArrayList<>()).add(i);
+        }
+
+        List<List<Integer>> neighbours = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            List<Integer> near = new ArrayList<>();
+            final int cx = xs[i] / linkDistance;
+            final int cy = ys[i] / linkDistance;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int j : cells.getOrDefault(cellKey(cx + dx, cy + dy), Collections.emptyList())) {
+                        if (j != i && Distance.isWithinRange(xs[i], ys[i], xs[j], ys[j], linkDistance)) {
+                            near.add(j);
+                        }
+                    }
+                }
+            }
+            neighbours.add(near);
+        }
+
+        final int[] cluster = new int[n];
+        Arrays.fill(cluster, UNASSIGNED);
+        final int[] queue = new int[n];
+        int largest = UNASSIGNED;
+        int largestSize = 0;
+        int clusters = 0;
+        for (int seed = 0; seed < n; seed++) {
+            if (cluster[seed] != UNASSIGNED || neighbours.get(seed).size() < MIN_CORE_NEIGHBOURS) {
+                continue;
+            }
+            final int id = clusters++;
+            int head = 0;
+            int tail = 0;
+            cluster[seed] = id;
+            queue[tail++] = seed;
+            while (head < tail) {
+                final int i = queue[head++];
+                if (neighbours.get(i).size() < MIN_CORE_NEIGHBOURS) {
+                    continue;
+                }
+                for (int j : neighbours.get(i)) {
+                    if (cluster[j] == UNASSIGNED) {
+                        cluster[j] = id;
+                        queue[tail++] = j;
+                    }
+                }
+            }
+            if (tail > largestSize) {
+                largest = id;
+                largestSize = tail;
+            }
+        }
+
         List<ManagedUnit> outliers = new ArrayList<>();
-        for (ManagedUnit mu : members) {
-            Position pos = mu.getUnit().getPosition();
-            if (!Distance.isWithinRange(cx, cy, pos.getX(), pos.getY(), maxDistance)) {
-                outliers.add(mu);
+        if (largest == UNASSIGNED) {
+            return outliers;
+        }
+        for (int i = 0; i < n; i++) {
+            if (cluster[i] != largest) {
+                outliers.add(units.get(i));
             }
         }
         return outliers;
     }
 
+    private static long cellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
     public void inheritStateFrom(Squad source) {
         this.status = source.status;
         this.rallyPoint = source.rallyPoint;
@@ -0,0 +1,82 @@
+package unit.squad;
+
+import bwapi.Position;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Uniform grid of squad centers over the largest possible map, rebuilt whenever the squads it was built
+ * from may have moved.
+ *
+ * Queries return every squad in a cell overlapping the square around the query point, callers apply
+ * their own exact distance check. The returned list is reused by the next query.
+ */
+class SquadGrid {
+
+    // Maps are at most 256 x 256 build tiles
+    private static final int MAP_PIXELS = 256 * 32;
+
+    private final int cellSize;
+    private final int cellsPerSide;
+    private final List<List<Squad>> cells;
+    private final List<List<Squad>> occupiedCells = new ArrayList<>();
+    private final List<Squad> result = new ArrayList<>();
+    private int size = 0;
+
+    SquadGrid(int cellSize) {
+        this.cellSize = cellSize;
+        this.cellsPerSide = (MAP_PIXELS + cellSize - 1) / cellSize;
+        this.cells = new ArrayList<>(cellsPerSide * cellsPerSide);
+        for (int i = 0; i < cellsPerSide * cellsPerSide; i++) {
+            cells.add(new ArrayList<>());
+        }
+    }
+
+    void build(Collection<? extends Squad> squads) {
+        for (List<Squad> cell : occupiedCells) {
+            cell.clear();
+        }
+        occupiedCells.clear();
+        size = 0;
+        for (Squad squad : squads) {
+            Position center = squad.getCenter();
+            List<Squad> cell = cells.get(cellIndex(cellCoordinate(center.getX()), cellCoordinate(center.getY())));
+            if (cell.isEmpty()) {
+                occupiedCells.add(cell);
+            }
+            cell.add(squad);
+            size += 1;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Squads in every cell overlapping the square of the given radius around center.
+     */
+    List<Squad> near(Position center, int radius) {
+        result.clear();
+        final int minX = cellCoordinate(center.getX() - radius);
+        final int maxX = cellCoordinate(center.getX() + radius);
+        final int minY = cellCoordinate(center.getY() - radius);
+        final int maxY = cellCoordinate(center.getY() + radius);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                result.addAll(cells.get(cellIndex(x, y)));
+            }
+        }
+        return result;
+    }
+
+    private int cellCoordinate(int pixel) {
+        return Math.max(0, Math.min(cellsPerSide - 1, pixel / cellSize));
+    }
+
+    private int cellIndex(int x, int y) {
+        return x * cellsPerSide + y;
+    }
+}
@@ -7,10 +7,13 @@ import bwapi.TilePosition;
 import bwapi.Unit;
 import bwapi.UnitType;
 import bwapi.WalkPosition;
+import bwapi.WeaponType;
 import bwem.Base;
-import bwem.CPPath;
 import info.GameState;
 import info.ScoutData;
+import info.map.CoverageGrid;
+import info.map.GroundDistanceTable;
+import info.map.WalkGrid;
 import info.tracking.ObservedUnitTracker;
 import info.tracking.PsiStormTracker;
 import info.tracking.StrategyTracker;
@@ -19,6 +22,7 @@ import lombok.Getter;
 import org.bk.ass.sim.BWMirrorAgentFactory;
 import org.bk.ass.sim.Simulator;
 import unit.managed.ManagedUnit;
+import unit.squad.horizon.EnemySnapshot;
 import unit.squad.horizon.HorizonCombatSimulator;
 import unit.managed.UnitRole;
 import util.Arc;
@@ -59,6 +63,10 @@ public class SquadManager {
 
     private HashSet<ManagedUnit> disbanded = new HashSet<>();
     private HashSet<ManagedUnit> irradiatedUnits = new HashSet<>();
+    private EnemySnapshot enemySnapshot;
+    private final SquadGrid mergeGrid = new SquadGrid((int) SQUAD_MERGE_DISTANCE);
+    private final SquadGrid adjacencyGrid = new SquadGrid((int) REINFORCEMENT_RADIUS);
+    private int adjacencyGridFrame = -1;
 
     public static final double AIR_JOIN_DISTANCE = 128;
     public static final double SQUAD_MERGE_DISTANCE = 256.0;
@@ -97,6 +105,8 @@ public class SquadManager {
     private static final int TARGETING_RADIUS = 256;
     public static final int GROUND_SPLIT_DISTANCE = 256;
     public static final int AIR_SPLIT_DISTANCE = 768;
+    // Squad centers are smoothed every frame, so neighbour queries look a little past the radius
+    private static final int CENTER_DRIFT_MARGIN = 64;
 
     public SquadManager(Game game, GameState gameState) {
         this.game = game;
@@ -208,10 +218,8 @@ public class SquadManager {
 
     private void assignIrradiatedTarget(ManagedUnit managedUnit) {
         Unit unit = managedUnit.getUnit();
-        List<Unit> enemyUnits = new ArrayList<>(gameState.getVisibleEnemyUnits());
-
         List<Unit> filtered = new ArrayList<>();
-        for (Unit enemyUnit : enemyUnits) {
+        for (Unit enemyUnit : gameState.getFrameUnitCache().getVisibleEnemies()) {
             if (unit.getType() == UnitType.Zerg_Lurker && !enemyUnit.isFlying() && enemyUnit.isDetected()) {
                 filtered.add(enemyUnit);
                 continue;
@@ -427,33 +435,60 @@ public class SquadManager {
         }
     }
 
+    /**
+     * Merges every group of same-kind squads connected by centers closer than SQUAD_MERGE_DISTANCE.
+     * Squads are bucketed by center so each one is only compared against squads in nearby cells, and
+     * connected squads are joined with a union-find pass.
+     */
     private void mergeSquads() {
         if (game.getFrameCount() % MERGE_CHECK_INTERVAL != 0) {
             return;
         }
 
         int currentFrame = game.getFrameCount();
-        List<Set<Squad>> toMerge = new ArrayList<>();
-        Set<Squad> considered = new HashSet<>();
-        for (Squad squad1: fightSquads) {
-            for (Squad squad2: fightSquads) {
-                if (squad1 == squad2) continue;
-                if (considered.contains(squad1) || considered.contains(squad2)) continue;
-                if (!squad1.isMergeEligible(currentFrame) || !squad2.isMergeEligible(currentFrame)) continue;
-                boolean bothGround = squad1.isGroundSquad() && squad2.isGroundSquad();
-                boolean bothAir = squad1.isAirSquad() && squad2.isAirSquad();
-                if (!bothGround && !bothAir) continue;
+        List<Squad> eligible = new ArrayList<>();
+        for (Squad squad: fightSquads) {
+            if (squad.isMergeEligible(currentFrame) && (squad.isGroundSquad() || squad.isAirSquad())) {
+                eligible.add(squad);
+            }
+        }
+        if (eligible.size() < 2) {
+            return;
+        }
+
+        Map<Squad, Integer> indexOf = new HashMap<>();
+        for (int i = 0; i < eligible.size(); i++) {
+            indexOf.put(eligible.get(i), i);
+        }
+        int[] parent = new int[eligible.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        mergeGrid.build(eligible);
+        for (int i = 0; i < eligible.size(); i++) {
+            Squad squad1 = eligible.get(i);
+            for (Squad squad2: mergeGrid.near(squad1.getCenter(), (int) SQUAD_MERGE_DISTANCE)) {
+                int j = indexOf.get(squad2);
+                if (j <= i) continue;
+                if (squad1.isGroundSquad() != squad2.isGroundSquad()) continue;
                 if (squad1.distance(squad2) < SQUAD_MERGE_DISTANCE) {
-                    Set<Squad> mergeSet = new HashSet<>();
-                    mergeSet.add(squad1);
-                    mergeSet.add(squad2);
-                    considered.add(squad1);
-                    considered.add(squad2);
-                    toMerge.add(mergeSet);
+                    union(parent, i, j);
                 }
             }
         }
 
+        Map<Integer, Set<Squad>> groups = new HashMap<>();
+        for (int i = 0; i < eligible.size(); i++) {
+            groups.computeIfAbsent(find(parent, i), k -> new HashSet<>()).add(eligible.get(i));
+        }
+        List<Set<Squad>> toMerge = new ArrayList<>();
+        for (Set<Squad> group: groups.values()) {
+            if (group.size() > 1) {
+                toMerge.add(group);
+            }
+        }
+
         for (Set<Squad> mergeSet: toMerge) {
             Squad first = mergeSet.iterator().next();
             Squad newSquad;
@@ -474,6 +509,22 @@ public class SquadManager {
         }
     }
 
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int i, int j) {
+        int rootI = find(parent, i);
+        int rootJ = find(parent, j);
+        if (rootI != rootJ) {
+            parent[rootJ] = rootI;
+        }
+    }
+
     private void splitSquads() {
         if (game.getFrameCount() % MERGE_CHECK_INTERVAL != 0) {
             return;
@@ -488,8 +539,9 @@ public class SquadManager {
             if (squad.getStatus() == SquadStatus.RETREAT) continue;
             if (squad.size() < 4) continue;
 
+            // Members chained within half the split distance of each other stay together
             int threshold = squad.isAirSquad() ? AIR_SPLIT_DISTANCE : GROUND_SPLIT_DISTANCE;
-            List<ManagedUnit> outliers = squad.findOutliers(threshold);
+            List<ManagedUnit> outliers = squad.findOutliers(threshold / 2);
             if (outliers.isEmpty()) continue;
 
             Squad child = squad.createSibling();
@@ -507,12 +559,11 @@ public class SquadManager {
     }
 
     private List<Unit> enemyUnitsNearSquad(Squad squad) {
-        Set<Unit> enemyUnits = gameState.getVisibleEnemyUnits();
-
+        final Position center = squad.getCenter();
         List<Unit> enemies = new ArrayList<>();
 
-        for (Unit u: enemyUnits) {
-            final double d = u.getPosition().getDistance(squad.getCenter());
+        for (Unit u: gameState.getFrameUnitCache().enemiesInRadius(center, (int) ENEMY_DETECTION_RADIUS)) {
+            final double d = u.getPosition().getDistance(center);
             if (d > ENEMY_DETECTION_RADIUS) {
                 continue;
             }
@@ -758,8 +809,10 @@ public class SquadManager {
         boolean fightLocked = squad.isFightLocked(now);
 
         Map<Squad, Double> adjacentSquads = getAdjacentSquads(squad, REINFORCEMENT_RADIUS);
-        CombatSimulator.CombatResult result = squad.getCombatSimulator()
-                .evaluate(squad, adjacentSquads, gameState);
+        CombatSimulator sim = squad.getCombatSimulator();
+        CombatSimulator.CombatResult result = sim instanceof HorizonCombatSimulator
+                ? ((HorizonCombatSimulator) sim).evaluate(squad, adjacentSquads, gameState, getEnemySnapshot())
+                : sim.evaluate(squad, adjacentSquads, gameState);
 
         if (squad.getStatus() == SquadStatus.RETREAT && retreatLocked) {
             assignRetreatTargets(squad, managedFighters);
@@ -795,6 +848,17 @@ public class SquadManager {
         }
     }
 
+    /**
+     * Enemy snapshot shared by every squad evaluated this frame, built on first use.
+     */
+    private EnemySnapshot getEnemySnapshot() {
+        int frame = game.getFrameCount();
+        if (enemySnapshot == null || enemySnapshot.getFrame() != frame) {
+            enemySnapshot = new EnemySnapshot(gameState.getObservedUnitTracker(), frame);
+        }
+        return enemySnapshot;
+    }
+
     private void clearCombatSimSnapshot(Squad squad) {
         CombatSimulator sim = squad.getCombatSimulator();
         if (sim instanceof HorizonCombatSimulator) {
@@ -822,13 +886,17 @@ public class SquadManager {
     }
 
     private void assignFightTargets(Squad squad, HashSet<ManagedUnit> managedFighters, boolean clearRetreat) {
+        List<ManagedUnit> attackers = new ArrayList<>();
         for (ManagedUnit managedUnit : managedFighters) {
             managedUnit.setRole(UnitRole.FIGHT);
             if (clearRetreat) {
                 managedUnit.clearRetreatStart();
             }
-            assignEnemyTarget(managedUnit, squad);
+            if (!assignSupportTarget(managedUnit, squad)) {
+                attackers.add(managedUnit);
+            }
         }
+        assignEnemyTargets(squad, attackers);
     }
 
     private boolean enterContainment(Squad squad) {
@@ -917,7 +985,7 @@ public class SquadManager {
                 2 * chokePosition.getY() - enemyBasePosition.getY()
         );
 
-        Set<Position> coverage = gameState.getStaticDefenseCoverage();
+        CoverageGrid coverage = gameState.getStaticDefenseCoverage();
 
         int unitCount = squad.size();
         int numPoints = Math.max(unitCount, 4);
@@ -925,7 +993,7 @@ public class SquadManager {
         int mapPixelWidth = game.mapWidth() * 32;
         int mapPixelHeight = game.mapHeight() * 32;
         Arc arc = new Arc(chokePosition, faceTarget, ARC_RADIUS, ARC_DEGREES, numPoints);
-        Set<WalkPosition> accessiblePositions = gameState.getGameMap().getAccessibleWalkPositions();
+        WalkGrid accessiblePositions = gameState.getGameMap().getAccessibleWalkPositions();
         arc.compute(accessiblePositions, coverage, mapPixelWidth, mapPixelHeight);
 
         if (arc.isEmpty()) return;
@@ -942,16 +1010,10 @@ public class SquadManager {
     }
 
     private Base closestBaseTo(Position pos, Set<Base> bases) {
-        Map<TilePosition, Position> baseTiles = new HashMap<>();
-        for (Base base : bases) {
-            baseTiles.put(base.getLocation(), base.getCenter());
-        }
-        Position nearest = gameState.getGameMap().findNearestByGround(
-                pos.toTilePosition(), baseTiles, Collections.emptySet());
+        GroundDistanceTable distances = gameState.getGameMap().getGroundDistanceTable();
+        Base nearest = distances != null ? distances.closestBase(pos, bases) : null;
         if (nearest != null) {
-            for (Base base : bases) {
-                if (base.getCenter().equals(nearest)) return base;
-            }
+            return nearest;
         }
         Base closest = null;
         double minDist = Double.MAX_VALUE;
@@ -966,11 +1028,11 @@ public class SquadManager {
     }
 
     private Position findContainmentChoke(Position squadPos, Base base) {
-        CPPath path = gameState.getBwem().getMap().getPath(squadPos, base.getCenter());
-        if (!path.isEmpty()) {
-            return path.get(path.size() - 1).getCenter().toPosition();
+        GroundDistanceTable distances = gameState.getGameMap().getGroundDistanceTable();
+        if (distances == null) {
+            return null;
         }
-        return null;
+        return distances.entryChoke(squadPos, base);
     }
 
     private boolean isSquadNearFriendlySunken(Squad squad) {
@@ -1269,12 +1331,14 @@ public class SquadManager {
     }
 
     /**
-     * Assign target to a fighter and squad.
+     * Handles squad members that do not pick attack targets: overlords follow or leave the squad and
+     * defilers move toward the nearest enemy.
      *
      * @param managedUnit unit that needs a target
      * @param squad squad that passed fight simulation
+     * @return false if the unit is an attacker and still needs a target
      */
-    private void assignEnemyTarget(ManagedUnit managedUnit, Squad squad) {
+    private boolean assignSupportTarget(ManagedUnit managedUnit, Squad squad) {
         Unit unit = managedUnit.getUnit();
         if (managedUnit.getUnitType() == UnitType.Zerg_Overlord) {
             if (gameState.getTechProgression().isOverlordSpeed()) {
@@ -1285,13 +1349,12 @@ public class SquadManager {
                 overlords.addUnit(managedUnit);
                 managedUnit.setRole(UnitRole.IDLE);
             }
-            return;
+            return true;
         }
         if (managedUnit.getUnitType() == UnitType.Zerg_Defiler) {
-            Set<Unit> enemies = gameState.getVisibleEnemyUnits();
             Unit nearestEnemy = null;
             double nearestDistance = Double.MAX_VALUE;
-            for (Unit enemyUnit : enemies) {
+            for (Unit enemyUnit : gameState.getFrameUnitCache().getVisibleEnemies()) {
                 if (!enemyUnit.isDetected()) continue;
                 double d = unit.getDistance(enemyUnit);
                 if (d < nearestDistance) {
@@ -1306,43 +1369,125 @@ public class SquadManager {
                 managedUnit.setRallyPoint(squad.getCenter());
                 managedUnit.setRole(UnitRole.RALLY);
             }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Assigns targets to every attacker of a squad in one pass.
+     *
+     * Visible enemies within targeting range of the squad are scored once and filtered once per attacker
+     * type. Attackers then pick targets greedily, each adding its expected damage to its target so later
+     * attackers move on to targets that are not already dead on the next volley. Only when nothing is near
+     * the squad do attackers fall back to every visible enemy.
+     */
+    private void assignEnemyTargets(Squad squad, List<ManagedUnit> attackers) {
+        if (attackers.isEmpty()) {
             return;
         }
-        List<Unit> enemyUnits = new ArrayList<>(gameState.getVisibleEnemyUnits());
 
-        List<Unit> filtered = new ArrayList<>();
-        for (Unit enemyUnit: enemyUnits) {
-            if (unit.getType() == UnitType.Zerg_Lurker && !enemyUnit.isFlying() && enemyUnit.isDetected()) {
-                filtered.add(enemyUnit);
+        List<TargetScorer.Candidate> detected = new ArrayList<>();
+        Position center = squad.getCenter();
+        if (center != null) {
+            addDetected(detected, gameState.getFrameUnitCache().enemiesInRadius(center, squad.radius() + TARGETING_RADIUS));
+        }
+        // Nothing is within TARGETING_RADIUS of any attacker, so the proximity filter is skipped
+        final boolean distant = detected.isEmpty();
+        if (distant) {
+            addDetected(detected, gameState.getFrameUnitCache().getVisibleEnemies());
+        }
+        Set<Unit> proxied = gameState.isCannonRushed()
+                ? gameState.getObservedUnitTracker().getProxiedBuildings()
+                : Collections.emptySet();
+
+        Map<UnitType, List<TargetScorer.Candidate>> candidatesByType = new HashMap<>();
+        Map<Unit, Double> committedDamage = new HashMap<>();
+        for (ManagedUnit managedUnit: attackers) {
+            Unit unit = managedUnit.getUnit();
+            List<TargetScorer.Candidate> candidates = attackableBy(unit, distant,
+                    candidatesByType.computeIfAbsent(managedUnit.getUnitType(), type -> targetableByType(type, detected)));
+            if (candidates.isEmpty()) {
+                managedUnit.setMovementTargetPosition(gameState.pollScoutTarget());
                 continue;
             }
-            if (unit.canAttack(enemyUnit) && enemyUnit.isDetected() && 
-                !Filter.isLowPriorityCombatTarget(enemyUnit.getType())) {
-                filtered.add(enemyUnit);
+
+            if (!proxied.isEmpty()) {
+                List<TargetScorer.Candidate> proxiedTargets = candidates.stream()
+                        .filter(c -> proxied.contains(c.getUnit()))
+                        .collect(Collectors.toList());
+                if (!proxiedTargets.isEmpty()) {
+                    candidates = proxiedTargets;
+                }
+            }
+
+            TargetScorer.Candidate best = TargetScorer.selectCandidate(unit, candidates, managedUnit.fightTarget, committedDamage);
+            if (best != null) {
+                managedUnit.setFightTarget(best.getUnit());
+                committedDamage.merge(best.getUnit(), volleyDamage(unit.getType(), best.getUnit()), Double::sum);
             }
         }
+    }
 
-        if (filtered.isEmpty()) {
-            managedUnit.setMovementTargetPosition(gameState.pollScoutTarget());
-            return;
+    private static void addDetected(List<TargetScorer.Candidate> detected, List<Unit> enemies) {
+        for (Unit enemyUnit: enemies) {
+            if (enemyUnit.isDetected()) {
+                detected.add(TargetScorer.prescore(enemyUnit));
+            }
         }
+    }
 
-        filtered = filterByProximity(filtered, unit);
+    /**
+     * Candidates an attacker type has a weapon for. Lurkers take any ground unit, other attackers skip
+     * targets that are not worth fighting. Depends only on the type, so it is shared by a squad's attackers.
+     */
+    private static List<TargetScorer.Candidate> targetableByType(UnitType attackerType, List<TargetScorer.Candidate> detected) {
+        List<TargetScorer.Candidate> targetable = new ArrayList<>();
+        for (TargetScorer.Candidate candidate: detected) {
+            Unit enemyUnit = candidate.getUnit();
+            if (attackerType == UnitType.Zerg_Lurker) {
+                if (!enemyUnit.isFlying()) {
+                    targetable.add(candidate);
+                }
+                continue;
+            }
+            WeaponType weapon = enemyUnit.isFlying() ? attackerType.airWeapon() : attackerType.groundWeapon();
+            if (weapon != null && weapon != WeaponType.None && !Filter.isLowPriorityCombatTarget(enemyUnit.getType())) {
+                targetable.add(candidate);
+            }
+        }
+        return targetable;
+    }
 
-        if (gameState.isCannonRushed()) {
-            Set<Unit> proxied = gameState.getObservedUnitTracker().getProxiedBuildings();
-            List<Unit> proxiedTargets = filtered.stream()
-                    .filter(proxied::contains)
-                    .collect(Collectors.toList());
-            if (!proxiedTargets.isEmpty()) {
-                filtered = proxiedTargets;
+    /**
+     * Narrows the type's candidates to those this attacker can attack right now, preferring those within
+     * TARGETING_RADIUS. Lurkers are exempt from canAttack, which fails while they are unburrowed.
+     */
+    private static List<TargetScorer.Candidate> attackableBy(Unit attacker, boolean distant, List<TargetScorer.Candidate> targetable) {
+        final boolean isLurker = attacker.getType() == UnitType.Zerg_Lurker;
+        List<TargetScorer.Candidate> attackable = new ArrayList<>();
+        List<TargetScorer.Candidate> nearby = new ArrayList<>();
+        for (TargetScorer.Candidate candidate : targetable) {
+            if (!isLurker && !attacker.canAttack(candidate.getUnit())) {
+                continue;
+            }
+            attackable.add(candidate);
+            if (!distant && attacker.getDistance(candidate.getUnit()) <= TARGETING_RADIUS) {
+                nearby.add(candidate);
             }
         }
+        return nearby.isEmpty() ? attackable : nearby;
+    }
 
-        Unit bestTarget = TargetScorer.selectTarget(unit, filtered, managedUnit.fightTarget);
-        if (bestTarget != null) {
-            managedUnit.setFightTarget(bestTarget);
+    /**
+     * Damage one attack from the attacker type deals to the target, before armor.
+     */
+    private static double volleyDamage(UnitType attackerType, Unit target) {
+        WeaponType weapon = target.isFlying() ? attackerType.airWeapon() : attackerType.groundWeapon();
+        if (weapon == null || weapon == WeaponType.None) {
+            return 0;
         }
+        return weapon.damageAmount() * Math.max(1, weapon.damageFactor());
     }
 
     private List<Unit> filterByProximity(List<Unit> candidates, Unit attacker) {
@@ -1452,9 +1597,15 @@ public class SquadManager {
     }
 
     private Map<Squad, Double> getAdjacentSquads(Squad targetSquad, double maxRadius) {
+        int currentFrame = game.getFrameCount();
+        if (adjacencyGridFrame != currentFrame || adjacencyGrid.size() != fightSquads.size()) {
+            adjacencyGrid.build(fightSquads);
+            adjacencyGridFrame = currentFrame;
+        }
+
         Map<Squad, Double> result = new HashMap<>();
-        for (Squad squad : fightSquads) {
-            if (squad == targetSquad) continue;
+        for (Squad squad : adjacencyGrid.near(targetSquad.getCenter(), (int) maxRadius + CENTER_DRIFT_MARGIN)) {
+            if (squad == targetSquad || !fightSquads.contains(squad)) continue;
             double dist = targetSquad.distance(squad);
             if (dist <= maxRadius) {
                 result.put(squad, dist);
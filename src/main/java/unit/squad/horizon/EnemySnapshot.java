@@ -0,0 +1,202 @@
+package unit.squad.horizon;
+
+import bwapi.DamageType;
+import bwapi.Position;
+import bwapi.UnitType;
+import bwapi.WeaponType;
+import info.tracking.ObservedUnit;
+import info.tracking.ObservedUnitTracker;
+import lombok.Getter;
+import util.Time;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-frame view of every enemy that can contribute to a Horizon evaluation.
+ *
+ * Freshness, position and the squad independent part of each enemy's strength are resolved once when
+ * the snapshot is built. Entries are stored ordered by grid cell so each squad only visits the cells
+ * around its center, making a frame of evaluations roughly linear in squads plus enemies.
+ */
+public class EnemySnapshot {
+
+    private static final Time RECENTLY_SEEN_THRESHOLD = new Time(0, 5);
+    private static final Time BUILDING_SEEN_THRESHOLD = new Time(0, 45);
+    private static final double WORKER_STRENGTH_DIVISOR = 10.0;
+    private static final double HEIGHT_BONUS = 1.15;
+    private static final int BUNKER_TRUST_FRAMES = 48;
+    private static final int BUNKER_DECAY_FRAMES = 72;
+    private static final int BUNKER_MAX_GARRISON = 4;
+
+    private static final int CELL_SIZE = 256;
+    // Maps are at most 256 x 256 build tiles
+    private static final int CELLS_PER_SIDE = (256 * 32) / CELL_SIZE;
+
+    @Getter
+    private final int frame;
+    private final Entry[] entries;
+    private final int[] cellStart = new int[CELLS_PER_SIDE * CELLS_PER_SIDE + 1];
+    private final List<Entry> detectors = new ArrayList<>();
+
+    public EnemySnapshot(ObservedUnitTracker tracker, int currentFrame) {
+        this.frame = currentFrame;
+
+        List<Entry> fresh = new ArrayList<>();
+        for (ObservedUnit ou : tracker.getLivingObservedUnits()) {
+            UnitType type = ou.getUnitType();
+            boolean visible = ou.getUnit().isVisible();
+            if (!visible) {
+                int framesSinceObserved = currentFrame - ou.getLastObservedFrame().getFrames();
+                if (framesSinceObserved > freshnessThreshold(type)) continue;
+            }
+
+            Position pos = visible ? ou.getUnit().getPosition() : ou.getLastKnownLocation();
+            if (pos == null) continue;
+
+            Entry entry = new Entry(ou, type, pos, !visible, currentFrame);
+            if (type.isDetector()) {
+                detectors.add(entry);
+            }
+            if (type.isBuilding() && !ou.isCompleted()) continue;
+            fresh.add(entry);
+        }
+
+        // Counting sort by cell
+        for (Entry entry : fresh) {
+            cellStart[entry.cell + 1] += 1;
+        }
+        for (int i = 1; i < cellStart.length; i++) {
+            cellStart[i] += cellStart[i - 1];
+        }
+        int[] next = cellStart.clone();
+        entries = new Entry[fresh.size()];
+        for (Entry entry : fresh) {
+            entries[next[entry.cell]++] = entry;
+        }
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Adds every entry in a cell overlapping the square of the given radius around center to out.
+     * Callers apply their own per-type engagement radius to the candidates.
+     */
+    void collectNear(Position center, int radius, List<Entry> out) {
+        final int minX = cellCoordinate(center.getX() - radius);
+        final int maxX = cellCoordinate(center.getX() + radius);
+        final int minY = cellCoordinate(center.getY() - radius);
+        final int maxY = cellCoordinate(center.getY() + radius);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                final int cell = cellIndex(x, y);
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    out.add(entries[i]);
+                }
+            }
+        }
+    }
+
+    boolean hasDetectionNear(Position center) {
+        for (Entry detector : detectors) {
+            if (center.getDistance(detector.position) <= detector.engagementRadius) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int cellCoordinate(int pixel) {
+        return Math.max(0, Math.min(CELLS_PER_SIDE - 1, pixel / CELL_SIZE));
+    }
+
+    private static int cellIndex(int x, int y) {
+        return x * CELLS_PER_SIDE + y;
+    }
+
+    private static int freshnessThreshold(UnitType type) {
+        if (type.isBuilding()) return BUILDING_SEEN_THRESHOLD.getFrames();
+        if (HorizonCombatSimulator.isPositionalUnit(type)) return Integer.MAX_VALUE;
+        return RECENTLY_SEEN_THRESHOLD.getFrames();
+    }
+
+    private static boolean isRanged(UnitType type) {
+        if (type.groundWeapon() != null && type.groundWeapon().maxRange() > 32) return true;
+        return type.airWeapon() != null && type.airWeapon().maxRange() > 32;
+    }
+
+    private static double bunkerGarrisonModifier(ObservedUnit ou, int currentFrame) {
+        int loadedCount = ou.getLastKnownLoadedCount();
+        if (loadedCount < 0) return 1.0;
+        double baseModifier = (double) loadedCount / BUNKER_MAX_GARRISON;
+        int elapsed = currentFrame - ou.getLastLoadedCheckFrame();
+        if (elapsed <= BUNKER_TRUST_FRAMES) return baseModifier;
+        if (elapsed >= BUNKER_TRUST_FRAMES + BUNKER_DECAY_FRAMES) return 1.0;
+        double decayProgress = (double) (elapsed - BUNKER_TRUST_FRAMES) / BUNKER_DECAY_FRAMES;
+        return baseModifier + (1.0 - baseModifier) * decayProgress;
+    }
+
+    private static DamageType groundDamageType(UnitType type) {
+        if (type == UnitType.Zerg_Sunken_Colony) return DamageType.Explosive;
+        WeaponType weapon = type.groundWeapon();
+        if (weapon == null || weapon == WeaponType.None) return DamageType.Normal;
+        return weapon.damageType();
+    }
+
+    private static DamageType airDamageType(UnitType type) {
+        WeaponType weapon = type.airWeapon();
+        if (weapon == null || weapon == WeaponType.None) return DamageType.Normal;
+        return weapon.damageType();
+    }
+
+    /**
+     * Enemy strength before the squad dependent distance and size effectiveness weights are applied.
+     */
+    static class Entry {
+        final UnitType type;
+        final Position position;
+        final boolean fogOfWar;
+        final boolean building;
+        final double engagementRadius;
+        final double groundStrength;
+        final double antiAirStrength;
+        final DamageType groundDamageType;
+        final DamageType airDamageType;
+        final int cell;
+
+        Entry(ObservedUnit ou, UnitType type, Position position, boolean fogOfWar, int currentFrame) {
+            this.type = type;
+            this.position = position;
+            this.fogOfWar = fogOfWar;
+            this.building = type.isBuilding();
+            this.engagementRadius = HorizonCombatSimulator.engagementRadius(type);
+            this.groundDamageType = groundDamageType(type);
+            this.airDamageType = airDamageType(type);
+            this.cell = cellIndex(cellCoordinate(position.getX()), cellCoordinate(position.getY()));
+
+            double hpWeight = HorizonCombatSimulator.hpWeighting(ou.getLastKnownHitPoints(), ou.getLastKnownShields(),
+                    type.maxHitPoints(), type.maxShields());
+            double heightMod = 1.0;
+            if (!type.isFlyer() && isRanged(type) && ou.getLastKnownGroundHeight() > 0) {
+                heightMod = HEIGHT_BONUS;
+            }
+
+            double groundBase = UnitStrength.groundToGround(type) + UnitStrength.airToGround(type);
+            double antiAirBase = UnitStrength.antiAirStrength(type);
+            if (type == UnitType.Terran_Bunker) {
+                double garrisonMod = bunkerGarrisonModifier(ou, currentFrame);
+                groundBase *= garrisonMod;
+                antiAirBase *= garrisonMod;
+            }
+            if (type.isWorker()) {
+                groundBase /= WORKER_STRENGTH_DIVISOR;
+                antiAirBase /= WORKER_STRENGTH_DIVISOR;
+            }
+
+            this.groundStrength = groundBase * hpWeight * heightMod;
+            this.antiAirStrength = antiAirBase * hpWeight * heightMod;
+        }
+    }
+}
@@ -8,15 +8,14 @@ import bwapi.UnitType;
 import bwapi.WeaponType;
 import info.GameState;
 import info.TechProgression;
-import info.tracking.ObservedUnit;
-import info.tracking.ObservedUnitTracker;
 import lombok.Getter;
 import unit.managed.ManagedUnit;
 import unit.squad.CombatSimulator;
 import unit.squad.Squad;
-import util.Time;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,33 +28,42 @@ public class HorizonCombatSimulator implements CombatSimulator {
 
     private static final double MAX_ENGAGEMENT_RADIUS = 320;
     private static final double APPROACH_BUFFER = 64;
-    private static final double WORKER_STRENGTH_DIVISOR = 10.0;
-    private static final double HEIGHT_BONUS = 1.15;
-    private static final Time RECENTLY_SEEN_THRESHOLD = new Time(0, 5);
-    private static final Time BUILDING_SEEN_THRESHOLD = new Time(0, 45);
     private static final double ENGAGE_THRESHOLD = 1.0;
     private static final double RETREAT_THRESHOLD = 0.7;
     private static final double SPEED_UPGRADE_PENALTY = 0.75;
-    private static final int BUNKER_TRUST_FRAMES = 48;
-    private static final int BUNKER_DECAY_FRAMES = 72;
-    private static final int BUNKER_MAX_GARRISON = 4;
+    // Widest radius any enemy type can contribute from, bounds the spatial query against the tracker
+    static final int MAX_QUERY_RADIUS = (int) Math.ceil(Arrays.stream(UnitType.values())
+            .mapToDouble(HorizonCombatSimulator::engagementRadius)
+            .max()
+            .orElse(MAX_ENGAGEMENT_RADIUS));
 
     @Getter
     private final Map<String, DebugSnapshot> lastSnapshots = new HashMap<>();
 
     @Override
     public CombatResult evaluate(Squad squad, Map<Squad, Double> adjacentSquads, GameState gameState) {
+        EnemySnapshot enemies = new EnemySnapshot(gameState.getObservedUnitTracker(), gameState.getGame().getFrameCount());
+        return evaluate(squad, adjacentSquads, gameState, enemies);
+    }
+
+    /**
+     * Scores a squad against an enemy snapshot shared by every squad evaluated this frame.
+     * A DebugSnapshot is only captured while combat sim debug drawing is enabled.
+     */
+    public CombatResult evaluate(Squad squad, Map<Squad, Double> adjacentSquads, GameState gameState, EnemySnapshot enemies) {
         Position squadCenter = squad.getCenter();
         if (squadCenter == null) return CombatResult.RETREAT;
 
         boolean airSquad = squad.isAirSquad();
-        int currentFrame = gameState.getGame().getFrameCount();
-        ObservedUnitTracker tracker = gameState.getObservedUnitTracker();
-        boolean enemyHasDetection = enemyHasNearbyDetection(tracker, squadCenter, currentFrame);
+        int currentFrame = enemies.getFrame();
+        boolean enemyHasDetection = enemies.hasDetectionNear(squadCenter);
         TechProgression techProgression = gameState.getTechProgression();
-        DebugSnapshot snapshot = new DebugSnapshot();
-        snapshot.setCapturedFrame(currentFrame);
-        snapshot.setSquadCenter(squadCenter);
+        DebugSnapshot snapshot = null;
+        if (gameState.getConfig().debugCombatSim) {
+            snapshot = new DebugSnapshot();
+            snapshot.setCapturedFrame(currentFrame);
+            snapshot.setSquadCenter(squadCenter);
+        }
 
         double friendlyGroundStr = 0;
         double friendlyAirStr = 0;
@@ -63,7 +71,9 @@ public class HorizonCombatSimulator implements CombatSimulator {
         for (ManagedUnit mu : squad.getMembers()) {
             if (mu.getUnitType() == UnitType.Zerg_Overlord) continue;
             double str = computeFriendlyStrength(mu, squadCenter, enemyHasDetection, techProgression);
-            snapshot.getFriendlyUnits().add(new UnitDebugEntry(mu.getUnit().getPosition(), mu.getUnitType(), str, false, false));
+            if (snapshot != null) {
+                snapshot.getFriendlyUnits().add(new UnitDebugEntry(mu.getUnit().getPosition(), mu.getUnitType(), str, false, false));
+            }
             if (mu.getUnitType().isFlyer()) {
                 friendlyAirStr += str;
             } else {
@@ -79,7 +89,9 @@ public class HorizonCombatSimulator implements CombatSimulator {
                 for (ManagedUnit mu : adjSquad.getMembers()) {
                     if (mu.getUnitType() == UnitType.Zerg_Overlord) continue;
                     double str = computeFriendlyStrength(mu, squadCenter, enemyHasDetection, techProgression) * weight;
-                    snapshot.getFriendlyUnits().add(new UnitDebugEntry(mu.getUnit().getPosition(), mu.getUnitType(), str, true, false));
+                    if (snapshot != null) {
+                        snapshot.getFriendlyUnits().add(new UnitDebugEntry(mu.getUnit().getPosition(), mu.getUnitType(), str, true, false));
+                    }
                     if (mu.getUnitType().isFlyer()) {
                         friendlyAirStr += str;
                     } else {
@@ -93,83 +105,42 @@ public class HorizonCombatSimulator implements CombatSimulator {
         double enemyAntiAirStr = 0;
 
         Map<UnitSizeType, Double> friendlySizeProportions = sizeProportions(squad, adjacentSquads);
-
-        for (ObservedUnit ou : tracker.getLivingObservedUnits()) {
-            UnitType type = ou.getUnitType();
-            boolean visible = ou.getUnit().isVisible();
-            if (!visible) {
-                int framesSinceObserved = currentFrame - ou.getLastObservedFrame().getFrames();
-                if (framesSinceObserved > freshnessThreshold(type)) continue;
-            }
-
-            Position pos = visible ? ou.getUnit().getPosition() : ou.getLastKnownLocation();
-            if (pos == null) continue;
-            double dist = squadCenter.getDistance(pos);
-            if (dist > engagementRadius(type)) continue;
-
-            if (type.isBuilding() && !ou.isCompleted()) continue;
-            double hpWeight = hpWeighting(ou.getLastKnownHitPoints(), ou.getLastKnownShields(),
-                    type.maxHitPoints(), type.maxShields());
-            double distWeight = type.isBuilding() ? 1.0 : distanceWeight(dist);
-            double heightMod = 1.0;
-            if (!type.isFlyer() && isRanged(type) && ou.getLastKnownGroundHeight() > 0) {
-                heightMod = HEIGHT_BONUS;
-            }
-
-            double groundBase = UnitStrength.groundToGround(type) + UnitStrength.airToGround(type);
-            double antiAirBase = UnitStrength.antiAirStrength(type);
-            if (type == UnitType.Terran_Bunker) {
-                double garrisonMod = bunkerGarrisonModifier(ou, currentFrame);
-                groundBase *= garrisonMod;
-                antiAirBase *= garrisonMod;
-            }
-            if (type.isWorker()) {
-                groundBase /= WORKER_STRENGTH_DIVISOR;
-                antiAirBase /= WORKER_STRENGTH_DIVISOR;
-            }
-
-            groundBase *= weightedEffectiveness(groundDamageType(type), friendlySizeProportions);
-            antiAirBase *= weightedEffectiveness(airDamageType(type), friendlySizeProportions);
-
-            double groundEnemyStr = groundBase * hpWeight * distWeight * heightMod;
-            double aaEnemyStr = antiAirBase * hpWeight * distWeight * heightMod;
+        Map<DamageType, Double> effectiveness = new EnumMap<>(DamageType.class);
+
+        List<EnemySnapshot.Entry> candidates = new ArrayList<>();
+        enemies.collectNear(squadCenter, MAX_QUERY_RADIUS, candidates);
+        for (EnemySnapshot.Entry enemy : candidates) {
+            double dist = squadCenter.getDistance(enemy.position);
+            if (dist > enemy.engagementRadius) continue;
+
+            double distWeight = enemy.building ? 1.0 : distanceWeight(dist);
+            double groundEnemyStr = enemy.groundStrength * distWeight
+                    * effectiveness.computeIfAbsent(enemy.groundDamageType, t -> weightedEffectiveness(t, friendlySizeProportions));
+            double aaEnemyStr = enemy.antiAirStrength * distWeight
+                    * effectiveness.computeIfAbsent(enemy.airDamageType, t -> weightedEffectiveness(t, friendlySizeProportions));
             enemyGroundStr += groundEnemyStr;
             enemyAntiAirStr += aaEnemyStr;
 
-            double displayStr = airSquad ? aaEnemyStr : groundEnemyStr;
-            snapshot.getEnemyUnits().add(new UnitDebugEntry(pos, type, displayStr, false, !visible));
-        }
-
-        if (!snapshot.getEnemyUnits().isEmpty()) {
-            double ex = 0; 
-            double ey = 0;
-            for (UnitDebugEntry e : snapshot.getEnemyUnits()) {
-                ex += e.getPosition().getX();
-                ey += e.getPosition().getY();
+            if (snapshot != null) {
+                double displayStr = airSquad ? aaEnemyStr : groundEnemyStr;
+                snapshot.getEnemyUnits().add(new UnitDebugEntry(enemy.position, enemy.type, displayStr, false, enemy.fogOfWar));
             }
-            int count = snapshot.getEnemyUnits().size();
-            snapshot.setEnemyCenter(new Position((int)(ex / count), (int)(ey / count)));
         }
 
         double overallRatio;
+        double groundRatio = 0;
+        double combinedRatio;
         if (airSquad) {
             overallRatio = friendlyAirStr / Math.max(enemyAntiAirStr, 0.01);
-            snapshot.setGroundRatio(0);
-            snapshot.setCombinedRatio(overallRatio);
+            combinedRatio = overallRatio;
         } else {
-            double groundRatio = friendlyGroundStr / Math.max(enemyGroundStr, 0.01);
+            groundRatio = friendlyGroundStr / Math.max(enemyGroundStr, 0.01);
             double totalFriendly = friendlyGroundStr + friendlyAirStr;
             double totalEnemy = enemyGroundStr + enemyAntiAirStr;
-            double combinedRatio = totalFriendly / Math.max(totalEnemy, 0.01);
+            combinedRatio = totalFriendly / Math.max(totalEnemy, 0.01);
             overallRatio = Math.max(groundRatio, combinedRatio);
-            snapshot.setGroundRatio(groundRatio);
-            snapshot.setCombinedRatio(combinedRatio);
         }
 
-        snapshot.setFriendlyTotal(friendlyGroundStr + friendlyAirStr);
-        snapshot.setEnemyTotal(airSquad ? enemyAntiAirStr : enemyGroundStr);
-        snapshot.setOverallRatio(overallRatio);
-
         CombatResult result;
         if (overallRatio >= ENGAGE_THRESHOLD) {
             result = CombatResult.ENGAGE;
@@ -179,12 +150,32 @@ public class HorizonCombatSimulator implements CombatSimulator {
             result = CombatResult.RETREAT;
         }
 
-        snapshot.setResult(result);
-        lastSnapshots.put(squad.getId(), snapshot);
+        if (snapshot != null) {
+            snapshot.setEnemyCenter(enemyCenter(snapshot.getEnemyUnits()));
+            snapshot.setGroundRatio(groundRatio);
+            snapshot.setCombinedRatio(combinedRatio);
+            snapshot.setFriendlyTotal(friendlyGroundStr + friendlyAirStr);
+            snapshot.setEnemyTotal(airSquad ? enemyAntiAirStr : enemyGroundStr);
+            snapshot.setOverallRatio(overallRatio);
+            snapshot.setResult(result);
+            lastSnapshots.put(squad.getId(), snapshot);
+        }
 
         return result;
     }
 
+    private Position enemyCenter(List<UnitDebugEntry> enemyUnits) {
+        if (enemyUnits.isEmpty()) return null;
+        double ex = 0;
+        double ey = 0;
+        for (UnitDebugEntry e : enemyUnits) {
+            ex += e.getPosition().getX();
+            ey += e.getPosition().getY();
+        }
+        int count = enemyUnits.size();
+        return new Position((int) (ex / count), (int) (ey / count));
+    }
+
     private double computeFriendlyStrength(ManagedUnit mu, Position engagementCenter, boolean enemyHasDetection, TechProgression techProgression) {
         Unit unit = mu.getUnit();
         UnitType type = unit.getType();
@@ -261,35 +252,13 @@ public class HorizonCombatSimulator implements CombatSimulator {
         return 1.0 + armorBonus * 0.06;
     }
 
-    private boolean enemyHasNearbyDetection(ObservedUnitTracker tracker, Position center, int currentFrame) {
-        for (ObservedUnit ou : tracker.getLivingObservedUnits()) {
-            if (!ou.getUnitType().isDetector()) continue;
-            boolean visible = ou.getUnit().isVisible();
-            if (!visible) {
-                int framesSinceObserved = currentFrame - ou.getLastObservedFrame().getFrames();
-                if (framesSinceObserved > freshnessThreshold(ou.getUnitType())) continue;
-            }
-            Position pos = visible ? ou.getUnit().getPosition() : ou.getLastKnownLocation();
-            if (pos != null && center.getDistance(pos) <= engagementRadius(ou.getUnitType())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private int freshnessThreshold(UnitType type) {
-        if (type.isBuilding()) return BUILDING_SEEN_THRESHOLD.getFrames();
-        if (isPositionalUnit(type)) return Integer.MAX_VALUE;
-        return RECENTLY_SEEN_THRESHOLD.getFrames();
-    }
-
-    private boolean isPositionalUnit(UnitType type) {
+    static boolean isPositionalUnit(UnitType type) {
         return type.isBuilding()
                 || type == UnitType.Terran_Siege_Tank_Siege_Mode
                 || type == UnitType.Zerg_Lurker;
     }
 
-    private double engagementRadius(UnitType type) {
+    static double engagementRadius(UnitType type) {
         if (!isPositionalUnit(type)) return MAX_ENGAGEMENT_RADIUS;
         int groundRange = type.groundWeapon() != null && type.groundWeapon() != WeaponType.None
                 ? type.groundWeapon().maxRange() : 0;
@@ -298,7 +267,7 @@ public class HorizonCombatSimulator implements CombatSimulator {
         return Math.max(MAX_ENGAGEMENT_RADIUS, Math.max(groundRange, airRange) + APPROACH_BUFFER);
     }
 
-    private double hpWeighting(int hp, int shields, int maxHp, int maxShields) {
+    static double hpWeighting(int hp, int shields, int maxHp, int maxShields) {
         int denominator = 3 * maxHp + maxShields;
         if (denominator == 0) return 1.0;
         return (double) (3 * hp + shields) / denominator;
@@ -310,11 +279,6 @@ public class HorizonCombatSimulator implements CombatSimulator {
         return 0;
     }
 
-    private boolean isRanged(UnitType type) {
-        if (type.groundWeapon() != null && type.groundWeapon().maxRange() > 32) return true;
-        return type.airWeapon() != null && type.airWeapon().maxRange() > 32;
-    }
-
     private Map<UnitSizeType, Double> sizeProportions(Squad squad, Map<Squad, Double> adjacentSquads) {
         Map<UnitSizeType, Double> proportions = new HashMap<>();
         double total = addSquadSizes(squad, 1.0, proportions);
@@ -352,30 +316,6 @@ public class HorizonCombatSimulator implements CombatSimulator {
         return effectiveness;
     }
 
-    private DamageType groundDamageType(UnitType type) {
-        if (type == UnitType.Zerg_Sunken_Colony) return DamageType.Explosive;
-        WeaponType weapon = type.groundWeapon();
-        if (weapon == null || weapon == WeaponType.None) return DamageType.Normal;
-        return weapon.damageType();
-    }
-
-    private double bunkerGarrisonModifier(ObservedUnit ou, int currentFrame) {
-        int loadedCount = ou.getLastKnownLoadedCount();
-        if (loadedCount < 0) return 1.0;
-        double baseModifier = (double) loadedCount / BUNKER_MAX_GARRISON;
-        int elapsed = currentFrame - ou.getLastLoadedCheckFrame();
-        if (elapsed <= BUNKER_TRUST_FRAMES) return baseModifier;
-        if (elapsed >= BUNKER_TRUST_FRAMES + BUNKER_DECAY_FRAMES) return 1.0;
-        double decayProgress = (double) (elapsed - BUNKER_TRUST_FRAMES) / BUNKER_DECAY_FRAMES;
-        return baseModifier + (1.0 - baseModifier) * decayProgress;
-    }
-
-    private DamageType airDamageType(UnitType type) {
-        WeaponType weapon = type.airWeapon();
-        if (weapon == null || weapon == WeaponType.None) return DamageType.Normal;
-        return weapon.damageType();
-    }
-
     @Getter
     @lombok.RequiredArgsConstructor
     public static class UnitDebugEntry {
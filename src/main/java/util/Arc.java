@@ -2,6 +2,8 @@ package util;
 
 import bwapi.Position;
 import bwapi.WalkPosition;
+import info.map.CoverageGrid;
+import info.map.WalkGrid;
 import lombok.Getter;
 import unit.managed.ManagedUnit;
 
@@ -10,7 +12,6 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public class Arc {
     private static final int MIN_RADIUS = 32;
@@ -42,7 +43,7 @@ public class Arc {
         this.centerAngle = Math.atan2(dy, dx);
     }
 
-    public void compute(Set<WalkPosition> accessibleWalkPositions, Set<Position> staticDefenseCoverage,
+    public void compute(WalkGrid accessibleWalkPositions, CoverageGrid staticDefenseCoverage,
                         int mapPixelWidth, int mapPixelHeight) {
         this.mapPixelWidth = mapPixelWidth;
         this.mapPixelHeight = mapPixelHeight;
@@ -134,15 +135,12 @@ public class Arc {
         return new ArrayList<>(positions.subList(start, end));
     }
 
-    private boolean isInStaticDefenseCoverage(Position pos, Set<Position> coverage) {
-        if (coverage.isEmpty()) return false;
-        int snappedX = (pos.getX() / 8) * 8;
-        int snappedY = (pos.getY() / 8) * 8;
-        return coverage.contains(new Position(snappedX, snappedY));
+    private boolean isInStaticDefenseCoverage(Position pos, CoverageGrid coverage) {
+        return coverage.isCovered(pos);
     }
 
     private Position pushOutsideDefenseCoverage(double angle, Position original,
-                                                Set<WalkPosition> accessible, Set<Position> coverage) {
+                                                WalkGrid accessible, CoverageGrid coverage) {
         double baseDist = original.getDistance(center);
         for (int delta = DEFENSE_PUSH_STEP; delta <= DEFENSE_PUSH_MAX; delta += DEFENSE_PUSH_STEP) {
             double pushRadius = baseDist + delta;
@@ -156,7 +154,7 @@ public class Arc {
         return null;
     }
 
-    private Position findWalkableAlternative(double angle, Set<WalkPosition> accessible) {
+    private Position findWalkableAlternative(double angle, WalkGrid accessible) {
         for (int deltaR = -WALKABLE_SEARCH_STEP; deltaR >= -WALKABLE_SEARCH_MAX; deltaR -= WALKABLE_SEARCH_STEP) {
             int adjustedRadius = radius + deltaR;
             if (adjustedRadius < MIN_RADIUS) continue;
@@ -186,7 +184,7 @@ public class Arc {
         return null;
     }
 
-    private void selectLargestSegment(Set<WalkPosition> accessible) {
+    private void selectLargestSegment(WalkGrid accessible) {
         if (positions.size() <= 1) return;
 
         int bestStart = 0;
@@ -224,7 +222,7 @@ public class Arc {
         return Math.abs(midA - arcCenter) < Math.abs(midB - arcCenter);
     }
 
-    private boolean isSegmentWalkable(Position a, Position b, Set<WalkPosition> accessible) {
+    private boolean isSegmentWalkable(Position a, Position b, WalkGrid accessible) {
         if (accessible.isEmpty()) return true;
         double dx = b.getX() - a.getX();
         double dy = b.getY() - a.getY();
@@ -8,6 +8,10 @@ import java.util.List;
 
 public final class Filter {
 
+    // Reavers and carriers attack through scarabs and interceptors, neither has a weapon of its own
+    private static final int REAVER_RANGE = 8 * 32;
+    private static final int CARRIER_RANGE = 8 * 32;
+
     public static Unit closestUnit(Unit unit, List<Unit> unitList) {
         if (unitList.size() == 1) {
             return unitList.get(0);
@@ -84,6 +88,44 @@ public final class Filter {
         return groundWeapon != null && groundWeapon != WeaponType.None;
     }
 
+    /**
+     * Returns the pixel range at which the given type hits ground units, or -1 if it cannot. Bunkers are
+     * assumed loaded with marines.
+     */
+    public static int groundThreatRange(UnitType unitType) {
+        if (unitType == UnitType.Terran_Bunker) {
+            return UnitType.Terran_Marine.groundWeapon().maxRange() + 32;
+        }
+        if (unitType == UnitType.Protoss_Reaver) {
+            return REAVER_RANGE;
+        }
+        if (unitType == UnitType.Protoss_Carrier) {
+            return CARRIER_RANGE;
+        }
+        return weaponRange(unitType.groundWeapon());
+    }
+
+    /**
+     * Returns the pixel range at which the given type hits air units, or -1 if it cannot. Bunkers are
+     * assumed loaded with marines.
+     */
+    public static int airThreatRange(UnitType unitType) {
+        if (unitType == UnitType.Terran_Bunker) {
+            return UnitType.Terran_Marine.groundWeapon().maxRange() + 64;
+        }
+        if (unitType == UnitType.Protoss_Carrier) {
+            return CARRIER_RANGE;
+        }
+        return weaponRange(unitType.airWeapon());
+    }
+
+    private static int weaponRange(WeaponType weapon) {
+        if (weapon == null || weapon == WeaponType.None) {
+            return -1;
+        }
+        return weapon.maxRange();
+    }
+
     public static boolean isWorkerType(UnitType type) {
         return type == UnitType.Zerg_Drone || type == UnitType.Terran_SCV || type == UnitType.Protoss_Probe;
     }
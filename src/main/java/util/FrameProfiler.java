@@ -0,0 +1,174 @@
+package util;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wall clock profiler for Bot.onFrame.
+ *
+ * Every manager and any named sub-phase below it is timed in nanoseconds and kept in a rolling window
+ * so p50/p95 reflect recent play, the max is kept for the whole game. Whole frames are checked against
+ * the tournament timeout rules: 320 frames over 55ms, 10 frames over 1s or a single frame over 10s
+ * loses the game.
+ *
+ * Low priority phases are run through {@link #timeDeferrable} and skipped once the frame has spent
+ * its soft budget, so drawing and camera work never push a heavy frame over the limit.
+ */
+public class FrameProfiler {
+
+    public static final String FRAME = "frame";
+
+    public static final long FRAME_LIMIT_55MS = 55_000_000L;
+    public static final long FRAME_LIMIT_1S = 1_000_000_000L;
+    public static final long FRAME_LIMIT_10S = 10_000_000_000L;
+
+    // Leave headroom under 55ms for BWAPI and the JVM
+    private static final long SOFT_BUDGET_NANOS = 42_000_000L;
+    private static final int WINDOW = 256;
+
+    private final Map<String, PhaseStats> phases = new LinkedHashMap<>();
+    private final PhaseStats frameStats = new PhaseStats(FRAME);
+
+    private long frameStartNanos;
+
+    @Getter
+    private int framesOver55ms = 0;
+    @Getter
+    private int framesOver1s = 0;
+    @Getter
+    private int framesOver10s = 0;
+    @Getter
+    private int deferredThisFrame = 0;
+
+    public void startFrame() {
+        frameStartNanos = System.nanoTime();
+        deferredThisFrame = 0;
+    }
+
+    public void endFrame() {
+        final long elapsed = elapsedFrameNanos();
+        frameStats.record(elapsed);
+        if (elapsed > FRAME_LIMIT_55MS) {
+            framesOver55ms += 1;
+        }
+        if (elapsed > FRAME_LIMIT_1S) {
+            framesOver1s += 1;
+        }
+        if (elapsed > FRAME_LIMIT_10S) {
+            framesOver10s += 1;
+        }
+    }
+
+    /**
+     * Runs work and records its duration under phase.
+     */
+    public void time(String phase, Runnable work) {
+        final long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            stats(phase).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs work unless the frame has already spent its soft budget.
+     *
+     * @return true if work ran, false if it was deferred to a later frame
+     */
+    public boolean timeDeferrable(String phase, Runnable work) {
+        if (isOverBudget()) {
+            stats(phase).deferred += 1;
+            deferredThisFrame += 1;
+            return false;
+        }
+        time(phase, work);
+        return true;
+    }
+
+    public long elapsedFrameNanos() {
+        return System.nanoTime() - frameStartNanos;
+    }
+
+    public boolean isOverBudget() {
+        return elapsedFrameNanos() >= SOFT_BUDGET_NANOS;
+    }
+
+    public PhaseStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * @return stats for every phase timed so far, in first seen order
+     */
+    public Map<String, PhaseStats> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    private PhaseStats stats(String phase) {
+        PhaseStats stats = phases.get(phase);
+        if (stats == null) {
+            stats = new PhaseStats(phase);
+            phases.put(phase, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Rolling window of durations for a single phase.
+     */
+    public static class PhaseStats {
+        @Getter
+        private final String name;
+        private final long[] samples = new long[WINDOW];
+        private int next = 0;
+        private int size = 0;
+        @Getter
+        private long max = 0;
+        @Getter
+        private long count = 0;
+        @Getter
+        private int deferred = 0;
+
+        PhaseStats(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % WINDOW;
+            size = Math.min(size + 1, WINDOW);
+            max = Math.max(max, nanos);
+            count += 1;
+        }
+
+        public long getLast() {
+            return size == 0 ? 0 : samples[(next + WINDOW - 1) % WINDOW];
+        }
+
+        public long getP50() {
+            return percentile(0.50);
+        }
+
+        public long getP95() {
+            return percentile(0.95);
+        }
+
+        /**
+         * Nearest rank percentile over the current window, sorted on demand since it is only read for reporting.
+         */
+        public long percentile(double p) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            final int rank = (int) Math.ceil(p * size) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, rank))];
+        }
+    }
+}
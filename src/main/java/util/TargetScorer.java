@@ -4,7 +4,10 @@ import bwapi.Unit;
 import bwapi.UnitType;
 import bwapi.WeaponType;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public final class TargetScorer {
 
@@ -25,27 +28,69 @@ public final class TargetScorer {
             return candidates.get(0);
         }
 
+        List<Candidate> scored = new ArrayList<>(candidates.size());
+        for (Unit candidate : candidates) {
+            scored.add(prescore(candidate));
+        }
+        return selectCandidate(attacker, scored, currentTarget, Collections.emptyMap()).getUnit();
+    }
+
+    /**
+     * Scores the parts of a candidate that do not depend on the attacker, so a squad can share them.
+     */
+    public static Candidate prescore(Unit candidate) {
+        UnitType candidateType = candidate.getType();
+        int hitPoints = candidate.getHitPoints() + candidate.getShields();
+        double hpFraction = (double) hitPoints / (candidateType.maxHitPoints() + candidateType.maxShields());
+        return new Candidate(
+                candidate,
+                assignPriority(candidateType, false, candidate),
+                assignPriority(candidateType, true, candidate),
+                1.0 + 0.5 * (1.0 - hpFraction),
+                hitPoints);
+    }
+
+    /**
+     * Picks the best candidate for the attacker.
+     *
+     * Within a priority tier a candidate that committed damage is already enough to kill ranks below
+     * every candidate that still needs damage, so attackers spread out instead of overkilling one target.
+     *
+     * @param committedDamage damage per volley already assigned to each target
+     */
+    public static Candidate selectCandidate(Unit attacker, List<Candidate> candidates, Unit currentTarget,
+                                            Map<Unit, Double> committedDamage) {
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
         boolean attackerIsFlying = attacker.isFlying();
 
-        Unit bestTarget = null;
+        Candidate best = null;
         Priority bestPriority = null;
+        boolean bestCovered = false;
         double bestScore = -1;
 
-        for (Unit candidate : candidates) {
-            UnitType candidateType = candidate.getType();
-            Priority priority = assignPriority(candidateType, attackerIsFlying, candidate);
+        for (Candidate candidate : candidates) {
+            Priority priority = attackerIsFlying ? candidate.airPriority : candidate.groundPriority;
+            boolean covered = committedDamage.getOrDefault(candidate.unit, 0.0) >= candidate.hitPoints;
             double score = scoreWithinTier(attacker, candidate, currentTarget);
 
-            if (bestPriority == null
+            if (best == null
                     || priority.ordinal() > bestPriority.ordinal()
-                    || priority == bestPriority && score > bestScore) {
-                bestTarget = candidate;
+                    || priority == bestPriority && bestCovered && !covered
+                    || priority == bestPriority && covered == bestCovered && score > bestScore) {
+                best = candidate;
                 bestPriority = priority;
+                bestCovered = covered;
                 bestScore = score;
             }
         }
 
-        return bestTarget;
+        return best;
     }
 
     private static Priority assignPriority(UnitType candidateType, boolean attackerIsFlying, Unit candidate) {
@@ -68,20 +113,16 @@ public final class TargetScorer {
         return canHitMe ? Priority.CRITICAL : Priority.NORMAL;
     }
 
-    private static double scoreWithinTier(Unit attacker, Unit candidate, Unit currentTarget) {
-        int distance = attacker.getDistance(candidate);
+    private static double scoreWithinTier(Unit attacker, Candidate candidate, Unit currentTarget) {
+        int distance = attacker.getDistance(candidate.unit);
         if (distance <= 0) {
             distance = 1;
         }
 
-        double hpFraction = (double) (candidate.getHitPoints() + candidate.getShields())
-                / (candidate.getType().maxHitPoints() + candidate.getType().maxShields());
-        double injuryBonus = 1.0 + 0.5 * (1.0 - hpFraction);
-
-        double currentTargetBonus = (currentTarget != null && candidate.getID() == currentTarget.getID())
+        double currentTargetBonus = (currentTarget != null && candidate.unit.getID() == currentTarget.getID())
                 ? CURRENT_TARGET_BONUS : 1.0;
 
-        return injuryBonus * currentTargetBonus / distance;
+        return candidate.injuryBonus * currentTargetBonus / distance;
     }
 
     private static boolean canAttackType(UnitType unitType, boolean targetIsFlying) {
@@ -90,4 +131,34 @@ public final class TargetScorer {
         WeaponType weapon = targetIsFlying ? unitType.airWeapon() : unitType.groundWeapon();
         return weapon != null && weapon != WeaponType.None;
     }
+
+    /**
+     * A target candidate with its attacker independent score components.
+     */
+    public static final class Candidate {
+        private final Unit unit;
+        private final Priority groundPriority;
+        private final Priority airPriority;
+        private final double injuryBonus;
+        private final int hitPoints;
+
+        private Candidate(Unit unit, Priority groundPriority, Priority airPriority, double injuryBonus, int hitPoints) {
+            this.unit = unit;
+            this.groundPriority = groundPriority;
+            this.airPriority = airPriority;
+            this.injuryBonus = injuryBonus;
+            this.hitPoints = hitPoints;
+        }
+
+        public Unit getUnit() {
+            return unit;
+        }
+
+        /**
+         * Hit points plus shields.
+         */
+        public int getHitPoints() {
+            return hitPoints;
+        }
+    }
 }
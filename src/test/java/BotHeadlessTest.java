@@ -0,0 +1,50 @@
+import bwapi.BWClient;
+import bwapi.Position;
+import bwapi.Unit;
+import bwem.BWEM;
+import bwem.BWMap;
+import headless.GameSnapshot;
+import headless.HeadlessGame;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+
+/**
+ * Plays the whole bot through a headless snapshot, from onStart through every recorded frame.
+ *
+ * The BWEM the bot constructs is swapped for the snapshot's stand-in, since real terrain analysis needs a
+ * real map. This is a smoke test: it checks that Bot.onFrame runs frame after frame without a client and
+ * reaches the unit commands, not what the bot decides.
+ */
+public class BotHeadlessTest {
+
+    @Test
+    void testBotPlaysThroughSnapshot() throws Exception {
+        HeadlessGame headless = new HeadlessGame(GameSnapshot.load("headless/main_base.snapshot"));
+        BWClient client = mock(BWClient.class);
+        when(client.getGame()).thenReturn(headless.getGame());
+
+        Bot bot = new Bot();
+        // Bot.main hands the client over the same way, there is no other way in
+        Field bwClient = Bot.class.getDeclaredField("bwClient");
+        bwClient.setAccessible(true);
+        bwClient.set(bot, client);
+
+        BWMap map = headless.getBwem().getMap();
+        try (MockedConstruction<BWEM> bwem = mockConstruction(BWEM.class, (mock, context) -> when(mock.getMap()).thenReturn(map))) {
+            assertEquals(8, headless.play(bot));
+        }
+
+        // Drones are sent mining and the overlord goes scouting
+        verify(headless.getUnit(2), atLeastOnce()).gather(any(Unit.class));
+        verify(headless.getUnit(6), atLeastOnce()).move(any(Position.class));
+    }
+}
@@ -0,0 +1,182 @@
+package headless;
+
+import bwapi.Position;
+import bwapi.Race;
+import bwapi.TilePosition;
+import bwapi.UnitType;
+import lombok.Getter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialized map and per-frame unit snapshots that drive a HeadlessGame.
+ *
+ * Snapshots are plain text, one directive per line. Blank lines and lines starting with # are ignored.
+ *
+ * <pre>
+ * map &lt;name&gt; &lt;widthTiles&gt; &lt;heightTiles&gt;
+ * &lt;heightTiles rows of widthTiles characters&gt;
+ * start &lt;tileX&gt; &lt;tileY&gt;
+ * race &lt;self|enemy&gt; &lt;Race&gt;
+ * frame &lt;frameCount&gt;
+ * unit &lt;id&gt; &lt;self|enemy|neutral&gt; &lt;UnitType&gt; &lt;x&gt; &lt;y&gt; &lt;hitPoints&gt; &lt;shields&gt; &lt;completed&gt;
+ * </pre>
+ *
+ * Map rows use '.' for walkable and buildable tiles, ',' for walkable only tiles and '#' for unwalkable tiles.
+ * Every frame lists the units visible on it, units missing from a frame are treated as hidden. Players
+ * without a race directive play Zerg.
+ */
+@Getter
+public class GameSnapshot {
+
+    public enum Owner { SELF, ENEMY, NEUTRAL }
+
+    @Getter
+    public static class UnitRecord {
+        private final int id;
+        private final Owner owner;
+        private final UnitType type;
+        private final int x;
+        private final int y;
+        private final int hitPoints;
+        private final int shields;
+        private final boolean completed;
+        private final Position position;
+
+        UnitRecord(int id, Owner owner, UnitType type, int x, int y, int hitPoints, int shields, boolean completed) {
+            this.id = id;
+            this.owner = owner;
+            this.type = type;
+            this.x = x;
+            this.y = y;
+            this.hitPoints = hitPoints;
+            this.shields = shields;
+            this.completed = completed;
+            this.position = new Position(x, y);
+        }
+    }
+
+    @Getter
+    public static class Frame {
+        private final int frameCount;
+        private final List<UnitRecord> units = new ArrayList<>();
+
+        Frame(int frameCount) {
+            this.frameCount = frameCount;
+        }
+    }
+
+    private String mapName;
+    private int width;
+    private int height;
+    private char[][] tiles;
+    private final List<TilePosition> startLocations = new ArrayList<>();
+    private final Map<Owner, Race> races = new EnumMap<>(Owner.class);
+    private final List<Frame> frames = new ArrayList<>();
+
+    public boolean isWalkableTile(int tileX, int tileY) {
+        return inBounds(tileX, tileY) && tiles[tileY][tileX] != '#';
+    }
+
+    public boolean isBuildableTile(int tileX, int tileY) {
+        return inBounds(tileX, tileY) && tiles[tileY][tileX] == '.';
+    }
+
+    public Race getRace(Owner owner) {
+        if (owner == Owner.NEUTRAL) {
+            return Race.None;
+        }
+        return races.getOrDefault(owner, Race.Zerg);
+    }
+
+    private boolean inBounds(int tileX, int tileY) {
+        return tileX >= 0 && tileY >= 0 && tileX < width && tileY < height;
+    }
+
+    /**
+     * Loads a snapshot from the test classpath.
+     *
+     * @param resource classpath resource name
+     * @return parsed snapshot
+     */
+    public static GameSnapshot load(String resource) throws IOException {
+        InputStream in = GameSnapshot.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("snapshot not found: " + resource);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return read(reader);
+        }
+    }
+
+    public static GameSnapshot read(BufferedReader reader) throws IOException {
+        GameSnapshot snapshot = new GameSnapshot();
+        Frame frame = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] parts = line.split("\\s+");
+            switch (parts[0]) {
+                case "map":
+                    snapshot.mapName = parts[1];
+                    snapshot.width = Integer.parseInt(parts[2]);
+                    snapshot.height = Integer.parseInt(parts[3]);
+                    snapshot.tiles = readTiles(reader, snapshot.width, snapshot.height);
+                    break;
+                case "start":
+                    snapshot.startLocations.add(new TilePosition(Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+                    break;
+                case "race":
+                    snapshot.races.put(Owner.valueOf(parts[1].toUpperCase()), Race.valueOf(parts[2]));
+                    break;
+                case "frame":
+                    frame = new Frame(Integer.parseInt(parts[1]));
+                    snapshot.frames.add(frame);
+                    break;
+                case "unit":
+                    if (frame == null) {
+                        throw new IOException("unit listed before any frame: " + line);
+                    }
+                    frame.units.add(new UnitRecord(
+                            Integer.parseInt(parts[1]),
+                            Owner.valueOf(parts[2].toUpperCase()),
+                            UnitType.valueOf(parts[3]),
+                            Integer.parseInt(parts[4]),
+                            Integer.parseInt(parts[5]),
+                            Integer.parseInt(parts[6]),
+                            Integer.parseInt(parts[7]),
+                            Boolean.parseBoolean(parts[8])));
+                    break;
+                default:
+                    throw new IOException("unknown snapshot directive: " + line);
+            }
+        }
+
+        if (snapshot.tiles == null) {
+            throw new IOException("snapshot has no map");
+        }
+        return snapshot;
+    }
+
+    private static char[][] readTiles(BufferedReader reader, int width, int height) throws IOException {
+        char[][] tiles = new char[height][];
+        for (int y = 0; y < height; y++) {
+            String row = reader.readLine();
+            if (row == null || row.trim().length() != width) {
+                throw new IOException("map row " + y + " does not have " + width + " tiles");
+            }
+            tiles[y] = row.trim().toCharArray();
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,313 @@
+package headless;
+
+import bwapi.BWEventListener;
+import bwapi.Game;
+import bwapi.Player;
+import bwapi.PlayerType;
+import bwapi.Position;
+import bwapi.TilePosition;
+import bwapi.Unit;
+import bwapi.UnitType;
+import bwapi.WalkPosition;
+import bwem.Area;
+import bwem.BWEM;
+import bwem.BWMap;
+import bwem.Base;
+import bwem.Mineral;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-process stand-in for the JBWAPI Game, Player and Unit surface, driven frame by frame from a
+ * GameSnapshot without a Brood War client.
+ *
+ * Units keep their identity across frames, so code holding on to a Unit sees it move, take damage,
+ * hide and reappear as the snapshot is advanced. Anything the snapshot does not model answers with
+ * Mockito defaults.
+ *
+ * A BWEventListener can be played through the snapshot with play, which raises the unit show and hide
+ * events a client would before each onFrame.
+ */
+public class HeadlessGame {
+
+    private static final int BASE_RADIUS = 320;
+
+    private final GameSnapshot snapshot;
+    private final Game game;
+    private final Map<GameSnapshot.Owner, Player> players = new HashMap<>();
+    private final Map<Integer, Unit> units = new HashMap<>();
+    private final Map<Integer, GameSnapshot.UnitRecord> visible = new HashMap<>();
+    private final Map<Integer, GameSnapshot.UnitRecord> lastSeen = new HashMap<>();
+    private BWEM bwem;
+
+    private int frameIndex = -1;
+    private int frameCount = 0;
+
+    public HeadlessGame(GameSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.game = mock(Game.class);
+
+        players.put(GameSnapshot.Owner.SELF, mockPlayer(GameSnapshot.Owner.SELF, PlayerType.Player));
+        players.put(GameSnapshot.Owner.ENEMY, mockPlayer(GameSnapshot.Owner.ENEMY, PlayerType.Player));
+        players.put(GameSnapshot.Owner.NEUTRAL, mockPlayer(GameSnapshot.Owner.NEUTRAL, PlayerType.Neutral));
+        stubGame();
+        advanceFrame();
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * BWEM stand-in with one base per start location, owning the mineral fields visible on the first
+     * frame within BASE_RADIUS of it. There are no areas or chokes, real terrain analysis needs a real map.
+     */
+    public BWEM getBwem() {
+        if (bwem == null) {
+            bwem = mockBwem();
+        }
+        return bwem;
+    }
+
+    public Player getPlayer(GameSnapshot.Owner owner) {
+        return players.get(owner);
+    }
+
+    /**
+     * @return unit with the snapshot id, or null if it has never been listed
+     */
+    public Unit getUnit(int id) {
+        return units.get(id);
+    }
+
+    public boolean hasNextFrame() {
+        return frameIndex + 1 < snapshot.getFrames().size();
+    }
+
+    /**
+     * Applies the next recorded frame.
+     *
+     * @return false once every recorded frame has been played
+     */
+    public boolean advanceFrame() {
+        if (!hasNextFrame()) {
+            return false;
+        }
+        frameIndex += 1;
+        GameSnapshot.Frame frame = snapshot.getFrames().get(frameIndex);
+        frameCount = frame.getFrameCount();
+        visible.clear();
+        for (GameSnapshot.UnitRecord record : frame.getUnits()) {
+            visible.put(record.getId(), record);
+            lastSeen.put(record.getId(), record);
+            units.computeIfAbsent(record.getId(), this::mockUnit);
+        }
+        return true;
+    }
+
+    /**
+     * Applies the next recorded frame, then raises onUnitShow and onUnitHide for units whose visibility
+     * changed, followed by onFrame.
+     *
+     * @return false once every recorded frame has been played
+     */
+    public boolean advanceFrame(BWEventListener listener) {
+        Set<Integer> wasVisible = new HashSet<>(visible.keySet());
+        if (!advanceFrame()) {
+            return false;
+        }
+        for (Integer id : visible.keySet()) {
+            if (!wasVisible.contains(id)) {
+                listener.onUnitShow(units.get(id));
+            }
+        }
+        for (Integer id : wasVisible) {
+            if (!visible.containsKey(id)) {
+                listener.onUnitHide(units.get(id));
+            }
+        }
+        listener.onFrame();
+        return true;
+    }
+
+    /**
+     * Plays the listener through the rest of the snapshot, starting with onStart and the units visible
+     * on the current frame.
+     *
+     * @return number of frames played
+     */
+    public int play(BWEventListener listener) {
+        listener.onStart();
+        for (Unit unit : visibleUnits()) {
+            listener.onUnitShow(unit);
+        }
+        listener.onFrame();
+        int frames = 1;
+        while (advanceFrame(listener)) {
+            frames += 1;
+        }
+        return frames;
+    }
+
+    private void stubGame() {
+        when(game.mapName()).thenReturn(snapshot.getMapName());
+        when(game.mapWidth()).thenReturn(snapshot.getWidth());
+        when(game.mapHeight()).thenReturn(snapshot.getHeight());
+        when(game.getFrameCount()).thenAnswer(inv -> frameCount);
+        when(game.getStartLocations()).thenReturn(snapshot.getStartLocations());
+
+        when(game.isWalkable(anyInt(), anyInt())).thenAnswer(inv ->
+                snapshot.isWalkableTile((int) inv.getArgument(0) / 4, (int) inv.getArgument(1) / 4));
+        when(game.isWalkable(any(WalkPosition.class))).thenAnswer(inv -> {
+            WalkPosition wp = inv.getArgument(0);
+            return snapshot.isWalkableTile(wp.getX() / 4, wp.getY() / 4);
+        });
+        when(game.isBuildable(anyInt(), anyInt())).thenAnswer(inv ->
+                snapshot.isBuildableTile(inv.getArgument(0), inv.getArgument(1)));
+        when(game.isBuildable(any(TilePosition.class))).thenAnswer(inv -> {
+            TilePosition tp = inv.getArgument(0);
+            return snapshot.isBuildableTile(tp.getX(), tp.getY());
+        });
+
+        when(game.self()).thenReturn(players.get(GameSnapshot.Owner.SELF));
+        when(game.enemy()).thenReturn(players.get(GameSnapshot.Owner.ENEMY));
+        when(game.neutral()).thenReturn(players.get(GameSnapshot.Owner.NEUTRAL));
+        when(game.getAllUnits()).thenAnswer(inv -> visibleUnits());
+        when(game.getNeutralUnits()).thenAnswer(inv -> visibleUnits(GameSnapshot.Owner.NEUTRAL));
+        when(game.getStaticNeutralUnits()).thenAnswer(inv -> visibleUnits(GameSnapshot.Owner.NEUTRAL));
+    }
+
+    private BWEM mockBwem() {
+        List<Base> bases = new ArrayList<>();
+        for (TilePosition start : snapshot.getStartLocations()) {
+            bases.add(mockBase(start));
+        }
+        BWMap map = mock(BWMap.class);
+        when(map.getBases()).thenReturn(bases);
+        when(map.getStartingLocations()).thenReturn(snapshot.getStartLocations());
+        when(map.getAreas()).thenReturn(Collections.emptyList());
+        when(map.getChokePoints()).thenReturn(Collections.emptyList());
+
+        BWEM mocked = mock(BWEM.class);
+        when(mocked.getMap()).thenReturn(map);
+        return mocked;
+    }
+
+    private Base mockBase(TilePosition location) {
+        Position center = new Position(location.getX() * 32 + 64, location.getY() * 32 + 48);
+        List<Mineral> minerals = new ArrayList<>();
+        for (GameSnapshot.UnitRecord record : snapshot.getFrames().get(0).getUnits()) {
+            if (record.getType() == UnitType.Resource_Mineral_Field && position(record.getId()).getDistance(center) <= BASE_RADIUS) {
+                minerals.add(mockMineral(units.get(record.getId())));
+            }
+        }
+        Area area = mock(Area.class);
+        Base base = mock(Base.class);
+        when(base.getLocation()).thenReturn(location);
+        when(base.getCenter()).thenReturn(center);
+        when(base.isStartingLocation()).thenReturn(true);
+        when(base.getMinerals()).thenReturn(minerals);
+        when(base.getGeysers()).thenReturn(Collections.emptyList());
+        when(base.getArea()).thenReturn(area);
+        when(area.getBases()).thenReturn(Collections.singletonList(base));
+        when(area.getChokePoints()).thenReturn(Collections.emptyList());
+        return base;
+    }
+
+    private Mineral mockMineral(Unit unit) {
+        TilePosition topLeft = new TilePosition(unit.getLeft() / 32, unit.getTop() / 32);
+        Position center = unit.getPosition();
+        Mineral mineral = mock(Mineral.class);
+        when(mineral.getUnit()).thenReturn(unit);
+        when(mineral.getTopLeft()).thenReturn(topLeft);
+        when(mineral.getBottomRight()).thenReturn(new TilePosition(topLeft.getX() + 1, topLeft.getY()));
+        when(mineral.getCenter()).thenReturn(center);
+        return mineral;
+    }
+
+    private Player mockPlayer(GameSnapshot.Owner owner, PlayerType type) {
+        Player player = mock(Player.class);
+        when(player.getType()).thenReturn(type);
+        when(player.getName()).thenReturn(owner.name().toLowerCase());
+        when(player.getRace()).thenReturn(snapshot.getRace(owner));
+        when(player.getUnits()).thenAnswer(inv -> visibleUnits(owner));
+        when(player.isEnemy(any(Player.class))).thenAnswer(inv -> isEnemy(owner, inv.getArgument(0)));
+        return player;
+    }
+
+    private List<Unit> visibleUnits() {
+        return visible.keySet().stream().map(units::get).collect(Collectors.toList());
+    }
+
+    private List<Unit> visibleUnits(GameSnapshot.Owner owner) {
+        List<Unit> owned = new ArrayList<>();
+        for (GameSnapshot.UnitRecord record : visible.values()) {
+            if (record.getOwner() == owner) {
+                owned.add(units.get(record.getId()));
+            }
+        }
+        return owned;
+    }
+
+    private Unit mockUnit(int id) {
+        Unit unit = mock(Unit.class);
+        when(unit.getID()).thenReturn(id);
+        when(unit.getPlayer()).thenAnswer(inv -> players.get(record(id).getOwner()));
+        when(unit.getType()).thenAnswer(inv -> record(id).getType());
+        when(unit.getInitialType()).thenAnswer(inv -> record(id).getType());
+        when(unit.exists()).thenAnswer(inv -> visible.containsKey(id));
+        when(unit.isVisible()).thenAnswer(inv -> visible.containsKey(id));
+        when(unit.isCompleted()).thenAnswer(inv -> record(id).isCompleted());
+        when(unit.getHitPoints()).thenAnswer(inv -> record(id).getHitPoints());
+        when(unit.getShields()).thenAnswer(inv -> record(id).getShields());
+        when(unit.getX()).thenAnswer(inv -> record(id).getX());
+        when(unit.getY()).thenAnswer(inv -> record(id).getY());
+        when(unit.getPosition()).thenAnswer(inv -> position(id));
+        when(unit.getTilePosition()).thenAnswer(inv -> position(id).toTilePosition());
+        when(unit.getLeft()).thenAnswer(inv -> record(id).getX() - record(id).getType().dimensionLeft());
+        when(unit.getTop()).thenAnswer(inv -> record(id).getY() - record(id).getType().dimensionUp());
+        when(unit.getRight()).thenAnswer(inv -> record(id).getX() + record(id).getType().dimensionRight());
+        when(unit.getBottom()).thenAnswer(inv -> record(id).getY() + record(id).getType().dimensionDown());
+        when(unit.getDistance(any(Position.class))).thenAnswer(inv -> distance(unit, inv.getArgument(0)));
+        return unit;
+    }
+
+    private boolean isEnemy(GameSnapshot.Owner owner, Player other) {
+        if (owner == GameSnapshot.Owner.NEUTRAL || other == players.get(GameSnapshot.Owner.NEUTRAL)) {
+            return false;
+        }
+        return other != players.get(owner);
+    }
+
+    /**
+     * Distance from the edge of the unit's bounds to the point, as Unit.getDistance(Position) measures it.
+     */
+    private static int distance(Unit unit, Position target) {
+        int dx = Math.max(0, Math.max(unit.getLeft() - target.getX(), target.getX() - unit.getRight()));
+        int dy = Math.max(0, Math.max(unit.getTop() - target.getY(), target.getY() - unit.getBottom()));
+        return (int) Math.round(Math.sqrt(dx * dx + dy * dy));
+    }
+
+    private GameSnapshot.UnitRecord record(int id) {
+        return lastSeen.get(id);
+    }
+
+    /**
+     * Hidden units keep reporting where they were last seen, which is what the bot reads in onUnitHide.
+     */
+    private Position position(int id) {
+        return record(id).getPosition();
+    }
+}
@@ -0,0 +1,61 @@
+package info;
+
+import bwapi.Position;
+import bwapi.Unit;
+import headless.GameSnapshot;
+import headless.HeadlessGame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+
+public class FrameUnitCacheTest {
+
+    private HeadlessGame headless;
+    private FrameUnitCache cache;
+    private Unit mineral;
+    private Unit zergling;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        headless = new HeadlessGame(GameSnapshot.load("headless/two_rooms.snapshot"));
+        cache = new FrameUnitCache();
+        cache.refresh(headless.getGame());
+        mineral = headless.getUnit(1);
+        zergling = headless.getUnit(2);
+    }
+
+    @Test
+    void testUnitsAreGroupedByOwner() {
+        assertEquals(Collections.singletonList(zergling), cache.getVisibleEnemies());
+        assertEquals(Collections.singletonList(mineral), cache.getNeutralUnits());
+        assertTrue(cache.getOwnUnits().isEmpty());
+    }
+
+    @Test
+    void testRadiusIsMeasuredFromUnitEdge() {
+        assertTrue(cache.enemiesInRadius(new Position(160, 100), 40).isEmpty());
+        assertEquals(Collections.singletonList(zergling), cache.enemiesInRadius(new Position(160, 100), 64));
+        assertEquals(Collections.singletonList(mineral), cache.neutralInRadius(new Position(80, 200), 24));
+        assertTrue(cache.enemiesInRectangle(0, 0, 140, 100).isEmpty());
+        assertEquals(Collections.singletonList(zergling), cache.enemiesInRectangle(150, 0, 200, 32));
+    }
+
+    @Test
+    void testRefreshFollowsUnits() {
+        headless.advanceFrame();
+        cache.refresh(headless.getGame());
+
+        assertTrue(cache.enemiesInRadius(new Position(160, 40), 16).isEmpty());
+        assertEquals(Collections.singletonList(zergling), cache.enemiesInRadius(new Position(160, 120), 16));
+
+        headless.advanceFrame();
+        cache.refresh(headless.getGame());
+
+        assertTrue(cache.getVisibleEnemies().isEmpty());
+        assertTrue(cache.enemiesInRadius(new Position(160, 120), 16).isEmpty());
+    }
+}
@@ -0,0 +1,48 @@
+package info.map;
+
+import bwapi.Position;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CoverageGridTest {
+
+    @Test
+    void testCoversCellsWithinRange() {
+        CoverageGrid grid = new CoverageGrid(64, 64);
+        grid.add(new Position(128, 128), 64);
+
+        assertTrue(grid.isCovered(new Position(128, 128)));
+        assertTrue(grid.isCovered(new Position(192, 128)));
+        assertTrue(grid.isCovered(new Position(64, 128)));
+        assertFalse(grid.isCovered(new Position(200, 128)));
+        assertFalse(grid.isCovered(new Position(176, 176)));
+    }
+
+    @Test
+    void testDepthCountsOverlaps() {
+        CoverageGrid grid = new CoverageGrid(64, 64);
+        grid.add(new Position(128, 128), 64);
+        grid.add(new Position(160, 128), 64);
+
+        assertEquals(2, grid.depth(new Position(144, 128)));
+        assertEquals(1, grid.depth(new Position(80, 128)));
+        assertEquals(0, grid.depth(new Position(400, 400)));
+    }
+
+    @Test
+    void testRemoveRestoresGrid() {
+        CoverageGrid grid = new CoverageGrid(64, 64);
+        grid.add(new Position(128, 128), 64);
+        grid.add(new Position(4, 4), 96);
+        grid.remove(new Position(128, 128), 64);
+
+        assertFalse(grid.isCovered(new Position(128, 128)));
+        assertTrue(grid.isCovered(new Position(0, 0)));
+        grid.remove(new Position(4, 4), 96);
+
+        assertTrue(grid.isEmpty());
+        assertEquals(0, grid.depth(0, 0));
+    }
+}
@@ -0,0 +1,88 @@
+package info.map;
+
+import bwapi.Game;
+import bwapi.TilePosition;
+import bwem.Base;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class CreepMapTest {
+
+    private final Set<TilePosition> creep = new HashSet<>();
+    private int frame = 0;
+    private int creepReads = 0;
+    private Base base;
+    private CreepMap creepMap;
+
+    @BeforeEach
+    void setUp() {
+        Game game = mock(Game.class);
+        when(game.mapWidth()).thenReturn(64);
+        when(game.mapHeight()).thenReturn(64);
+        when(game.getFrameCount()).thenAnswer(inv -> frame);
+        when(game.hasCreep(anyInt(), anyInt())).thenAnswer(inv -> {
+            creepReads += 1;
+            return creep.contains(new TilePosition(inv.getArgument(0), inv.getArgument(1)));
+        });
+        base = mock(Base.class);
+        when(base.getLocation()).thenReturn(new TilePosition(20, 20));
+        creepMap = new CreepMap(game, b -> Collections.emptySet(), b -> Collections.emptySet());
+        addCreep(18, 18, 28, 27);
+    }
+
+    private void addCreep(int left, int top, int right, int bottom) {
+        for (int x = left; x <= right; x++) {
+            for (int y = top; y <= bottom; y++) {
+                creep.add(new TilePosition(x, y));
+            }
+        }
+    }
+
+    @Test
+    void testCreepIsReadOnceWithoutProducers() {
+        Set<TilePosition> tiles = creepMap.creepTiles(base, false, false);
+        assertEquals(11 * 10, tiles.size());
+        int reads = creepReads;
+
+        addCreep(29, 18, 29, 27);
+        frame += 1000;
+        assertEquals(tiles, creepMap.creepTiles(base, false, false));
+        assertEquals(reads, creepReads);
+    }
+
+    @Test
+    void testProducerRegionIsRescanned() {
+        creepMap.markProducer(new TilePosition(20, 20), new TilePosition(4, 3));
+        assertEquals(11 * 10, creepMap.creepTiles(base, false, false).size());
+
+        addCreep(29, 18, 30, 27);
+        frame += 10;
+        assertEquals(11 * 10, creepMap.creepTiles(base, false, false).size());
+        frame += 24;
+        Set<TilePosition> tiles = creepMap.creepTiles(base, false, false);
+        assertEquals(13 * 10, tiles.size());
+        assertTrue(tiles.contains(new TilePosition(30, 27)));
+    }
+
+    @Test
+    void testFootprintsFitOnCreep() {
+        List<TilePosition> candidates = creepMap.footprints(base, false, false, new TilePosition(2, 2));
+        // A 2x2 footprint also needs creep diagonally past its south east corner
+        assertEquals(9 * 8, candidates.size());
+        assertTrue(candidates.contains(new TilePosition(18, 18)));
+        assertFalse(candidates.contains(new TilePosition(27, 18)));
+        assertSame(candidates, creepMap.footprints(base, false, false, new TilePosition(2, 2)));
+    }
+}
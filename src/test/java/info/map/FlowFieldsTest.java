@@ -0,0 +1,57 @@
+package info.map;
+
+import bwapi.Position;
+import bwapi.TilePosition;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class FlowFieldsTest {
+
+    // 24 x 8 tiles with a wall at x = 10 open only on the bottom row
+    private FlowFields flowFields() {
+        MapTile[][] mapTiles = new MapTile[24][8];
+        for (int x = 0; x < 24; x++) {
+            for (int y = 0; y < 8; y++) {
+                boolean walkable = x != 10 || y == 7;
+                mapTiles[x][y] = new MapTile(new TilePosition(x, y), walkable, walkable, MapTileType.NORMAL);
+            }
+        }
+        return new FlowFields(mapTiles, 24, 8);
+    }
+
+    private static Position tileCenter(int x, int y) {
+        return new Position(x * 32 + 16, y * 32 + 16);
+    }
+
+    @Test
+    void testStepsLeadAroundWall() {
+        FlowField field = flowFields().fieldToward(0, 21, 1);
+        assertNotNull(field);
+        assertEquals(0, field.steps(20, 0));
+        assertEquals(0, field.steps(23, 3));
+        // Down to the gap, through it and back up to the block
+        assertEquals(16, field.steps(9, 1));
+    }
+
+    @Test
+    void testWaypointFollowsField() {
+        FlowFields flowFields = flowFields();
+        FlowField field = flowFields.fieldToward(0, 21, 1);
+        Position waypoint = flowFields.nextWaypoint(0, tileCenter(2, 1), tileCenter(21, 1));
+        assertEquals(field.steps(2, 1) - 8, field.steps(waypoint.getX() / 32, waypoint.getY() / 32));
+        assertNull(flowFields.nextWaypoint(0, tileCenter(18, 1), tileCenter(21, 1)));
+    }
+
+    @Test
+    void testFieldsAreSharedPerBlockAndBuildsAreCapped() {
+        FlowFields flowFields = flowFields();
+        FlowField field = flowFields.fieldToward(0, 21, 1);
+        assertSame(field, flowFields.fieldToward(0, 22, 2));
+        assertNotNull(flowFields.fieldToward(0, 1, 1));
+        assertNull(flowFields.fieldToward(0, 5, 5));
+        assertNotNull(flowFields.fieldToward(1, 5, 5));
+    }
+}
@@ -0,0 +1,101 @@
+package info.map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MapAnalysisCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private WalkGrid grid() {
+        WalkGrid grid = new WalkGrid(10, 7);
+        grid.set(0, 0);
+        grid.set(9, 6);
+        grid.set(3, 4);
+        return grid;
+    }
+
+    private static WalkGrid readGrid(DataInputStream in) throws IOException {
+        return WalkGrid.read(in, 10, 7);
+    }
+
+    @Test
+    void testSectionsSurviveSaveAndLoad() throws IOException {
+        Path read = Files.createDirectory(dir.resolve("read"));
+        Path write = Files.createDirectory(dir.resolve("write"));
+        MapAnalysisCache cache = MapAnalysisCache.load(read, write, "abc123", 128, 96);
+        assertNull(cache.get("grid", MapAnalysisCacheTest::readGrid));
+        cache.put("grid", grid()::write);
+        cache.save();
+
+        MapAnalysisCache reloaded = MapAnalysisCache.load(read, write, "abc123", 128, 96);
+        WalkGrid loaded = reloaded.get("grid", MapAnalysisCacheTest::readGrid);
+        assertEquals(10, loaded.getWidth());
+        assertEquals(7, loaded.getHeight());
+        assertEquals(3, loaded.size());
+        assertTrue(loaded.get(9, 6));
+        assertTrue(loaded.get(3, 4));
+    }
+
+    @Test
+    void testOtherMapIsIgnored() throws IOException {
+        MapAnalysisCache cache = MapAnalysisCache.load(dir, dir, "abc123", 128, 96);
+        cache.put("grid", grid()::write);
+        cache.save();
+
+        assertNull(MapAnalysisCache.load(dir, dir, "def456", 128, 96).get("grid", MapAnalysisCacheTest::readGrid));
+        assertNull(MapAnalysisCache.load(dir, dir, "abc123", 96, 128).get("grid", MapAnalysisCacheTest::readGrid));
+    }
+
+    @Test
+    void testUnreadableSectionIsDropped() throws IOException {
+        MapAnalysisCache cache = MapAnalysisCache.load(dir, dir, "abc123", 128, 96);
+        cache.put("grid", out -> out.writeInt(10));
+        cache.save();
+
+        MapAnalysisCache reloaded = MapAnalysisCache.load(dir, dir, "abc123", 128, 96);
+        assertNull(reloaded.get("grid", MapAnalysisCacheTest::readGrid));
+    }
+
+    @Test
+    void testCorruptSectionLengthIsRejected() throws IOException {
+        MapAnalysisCache cache = MapAnalysisCache.load(dir, dir, "abc123", 128, 96);
+        cache.put("grid", grid()::write);
+        cache.save();
+
+        // Section length follows the header and the "grid" key
+        int lengthOffset = 4 + 2 + (2 + 6) + 4 + 4 + 4 + (2 + 4);
+        for (int length : new int[] {-1, Integer.MAX_VALUE}) {
+            try (RandomAccessFile file = new RandomAccessFile(dir.resolve("map_abc123.cache").toFile(), "rw")) {
+                file.seek(lengthOffset);
+                file.writeInt(length);
+            }
+            assertNull(MapAnalysisCache.load(dir, dir, "abc123", 128, 96).get("grid", MapAnalysisCacheTest::readGrid));
+        }
+    }
+
+    @Test
+    void testCorruptGridDimensionsAreRejected() throws IOException {
+        MapAnalysisCache cache = MapAnalysisCache.load(dir, dir, "abc123", 128, 96);
+        cache.put("other", new WalkGrid(7, 10)::write);
+        cache.put("huge", out -> {
+            out.writeInt(1 << 20);
+            out.writeInt(1 << 20);
+        });
+        cache.save();
+
+        MapAnalysisCache reloaded = MapAnalysisCache.load(dir, dir, "abc123", 128, 96);
+        assertNull(reloaded.get("other", MapAnalysisCacheTest::readGrid));
+        assertNull(reloaded.get("huge", in -> WalkGrid.read(in, 1 << 20, 1 << 20)));
+    }
+}
@@ -0,0 +1,64 @@
+package info.map;
+
+import bwapi.Position;
+import bwapi.TilePosition;
+import info.exception.NoWalkablePathException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+public class ThreatAwarePathfinderTest {
+
+    private static final int WIDTH = 12;
+    private static final int HEIGHT = 9;
+
+    // Open ground, with a full wall at x = 6 when walled
+    private MapTile[][] mapTiles(boolean walled) {
+        MapTile[][] mapTiles = new MapTile[WIDTH][HEIGHT];
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                boolean walkable = !walled || x != 6;
+                mapTiles[x][y] = new MapTile(new TilePosition(x, y), walkable, walkable, MapTileType.NORMAL);
+            }
+        }
+        return mapTiles;
+    }
+
+    @Test
+    void testPathDetoursAroundThreat() throws NoWalkablePathException {
+        MapTile[][] mapTiles = mapTiles(false);
+        ThreatAwarePathfinder pathfinder = new ThreatAwarePathfinder(mapTiles, WIDTH, HEIGHT);
+        ThreatGrid threats = new ThreatGrid(WIDTH, HEIGHT);
+        threats.addCircle(new Position(6 * 32 + 16, 4 * 32 + 16), 96, 20);
+
+        List<MapTile> path = pathfinder.search(mapTiles[0][4], mapTiles[11][4], threats, false).getPath();
+
+        assertEquals(mapTiles[0][4], path.get(0));
+        assertEquals(mapTiles[11][4], path.get(path.size() - 1));
+        for (MapTile tile : path) {
+            assertEquals(0, threats.cost(tile.getX(), tile.getY()));
+        }
+    }
+
+    @Test
+    void testPathIsStraightWithoutThreat() throws NoWalkablePathException {
+        MapTile[][] mapTiles = mapTiles(false);
+        ThreatAwarePathfinder pathfinder = new ThreatAwarePathfinder(mapTiles, WIDTH, HEIGHT);
+
+        List<MapTile> path = pathfinder.search(mapTiles[0][4], mapTiles[11][4], new ThreatGrid(WIDTH, HEIGHT), false).getPath();
+
+        assertEquals(12, path.size());
+    }
+
+    @Test
+    void testOnlyAirCrossesUnwalkableTiles() throws NoWalkablePathException {
+        MapTile[][] mapTiles = mapTiles(true);
+        ThreatAwarePathfinder pathfinder = new ThreatAwarePathfinder(mapTiles, WIDTH, HEIGHT);
+        ThreatGrid threats = new ThreatGrid(WIDTH, HEIGHT);
+
+        assertThrows(NoWalkablePathException.class, () -> pathfinder.search(mapTiles[0][4], mapTiles[11][4], threats, false));
+        assertEquals(12, pathfinder.search(mapTiles[0][4], mapTiles[11][4], threats, true).getPath().size());
+    }
+}
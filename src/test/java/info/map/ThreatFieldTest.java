@@ -0,0 +1,93 @@
+package info.map;
+
+import bwapi.Position;
+import bwapi.TilePosition;
+import bwapi.Unit;
+import bwapi.UnitType;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+public class ThreatFieldTest {
+
+    private static final int CLAWS_RANGE = UnitType.Zerg_Zergling.groundWeapon().maxRange();
+
+    // A wall at x = 4 with a gap at the bottom row
+    private ThreatField field(int width, int height) {
+        MapTile[][] mapTiles = new MapTile[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                boolean walkable = x != 4 || y == height - 1;
+                mapTiles[x][y] = new MapTile(new TilePosition(x, y), walkable, walkable, MapTileType.NORMAL);
+            }
+        }
+        return new ThreatField(mapTiles, width, height);
+    }
+
+    private Unit zerglingAt(int x, int y) {
+        return unitAt(UnitType.Zerg_Zergling, x, y);
+    }
+
+    private Unit unitAt(UnitType type, int x, int y) {
+        Unit unit = mock(Unit.class);
+        when(unit.getType()).thenReturn(type);
+        when(unit.getX()).thenReturn(x);
+        when(unit.getY()).thenReturn(y);
+        return unit;
+    }
+
+    private static Position tileCenter(int x, int y) {
+        return new Position(x * 32 + 16, y * 32 + 16);
+    }
+
+    @Test
+    void testMarginFollowsGroundDistance() {
+        ThreatField field = field(16, 6);
+        field.update(1, Collections.singletonList(zerglingAt(48, 80)));
+
+        assertEquals(-CLAWS_RANGE, field.margin(tileCenter(1, 2)));
+        assertEquals(64 - CLAWS_RANGE, field.margin(tileCenter(3, 2)));
+        // Around the wall through the gap rather than straight through it
+        assertEquals(244 - CLAWS_RANGE, field.margin(tileCenter(5, 2)));
+        assertEquals(ThreatField.SAFE, field.margin(tileCenter(5, 0)));
+    }
+
+    @Test
+    void testRetreatClimbsMargin() {
+        ThreatField field = field(16, 6);
+        field.update(1, Collections.singletonList(zerglingAt(48, 80)));
+
+        Position retreat = field.retreatPosition(tileCenter(3, 2), 64);
+        assertNotNull(retreat);
+        assertTrue(field.margin(retreat) > 64);
+        assertTrue(retreat.getDistance(tileCenter(3, 2)) <= 64);
+        assertNull(field.retreatPosition(tileCenter(12, 0), 64));
+    }
+
+    @Test
+    void testRebuildsOncePerFrame() {
+        ThreatField field = field(16, 6);
+        field.update(1, Collections.singletonList(zerglingAt(48, 80)));
+        field.update(1, Collections.emptyList());
+        assertEquals(-CLAWS_RANGE, field.margin(tileCenter(1, 2)));
+
+        field.update(2, Collections.emptyList());
+        assertEquals(ThreatField.SAFE, field.margin(tileCenter(1, 2)));
+    }
+
+    @Test
+    void testThreatRangeByType() {
+        ThreatField field = field(16, 6);
+        field.update(1, Collections.singletonList(unitAt(UnitType.Zerg_Overlord, 48, 80)));
+        assertEquals(ThreatField.SAFE, field.margin(tileCenter(1, 2)));
+
+        field.update(2, Collections.singletonList(unitAt(UnitType.Protoss_Reaver, 48, 80)));
+        assertEquals(-8 * 32, field.margin(tileCenter(1, 2)));
+    }
+}
@@ -0,0 +1,42 @@
+package info.map;
+
+import bwapi.TilePosition;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TileSumsTest {
+
+    @Test
+    void testCountsSetTilesInRectangle() {
+        WalkGrid grid = new WalkGrid(8, 6);
+        grid.set(1, 1);
+        grid.set(2, 1);
+        grid.set(5, 4);
+        TileSums sums = new TileSums(8, 6);
+        sums.build(grid);
+
+        assertEquals(3, sums.count(0, 0, 8, 6));
+        assertEquals(2, sums.count(1, 1, 2, 1));
+        assertEquals(2, sums.count(2, 0, 4, 5));
+        assertTrue(sums.isClear(new TilePosition(3, 0), new TilePosition(2, 4)));
+        assertFalse(sums.isClear(new TilePosition(4, 3), new TilePosition(2, 2)));
+    }
+
+    @Test
+    void testMergesGridsAndBlocksMapEdge() {
+        WalkGrid reserved = new WalkGrid(8, 6);
+        WalkGrid unbuildable = new WalkGrid(8, 6);
+        reserved.set(0, 0);
+        unbuildable.set(0, 0);
+        unbuildable.set(7, 5);
+        TileSums sums = new TileSums(8, 6);
+        sums.build(reserved, unbuildable);
+
+        assertEquals(2, sums.count(0, 0, 8, 6));
+        assertTrue(sums.isClear(new TilePosition(4, 2), new TilePosition(4, 3)));
+        assertFalse(sums.isClear(new TilePosition(5, 2), new TilePosition(4, 3)));
+        assertFalse(sums.isClear(new TilePosition(-1, 2), new TilePosition(2, 2)));
+    }
+}
@@ -0,0 +1,56 @@
+package info.map;
+
+import bwapi.WalkPosition;
+import headless.GameSnapshot;
+import headless.HeadlessGame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+/**
+ * Runs the accessible walk position flood fill against a headless snapshot.
+ */
+public class WalkPositionFloodFillTest {
+
+    private WalkGrid accessible;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        GameSnapshot snapshot = GameSnapshot.load("headless/two_rooms.snapshot");
+        HeadlessGame headless = new HeadlessGame(snapshot);
+        WalkPositionFloodFill floodFill = new WalkPositionFloodFill(headless.getGame());
+        accessible = floodFill.calculateAccessibleWalkPositions(snapshot.getStartLocations().get(0));
+    }
+
+    @Test
+    void testReachesStartingRoom() {
+        assertTrue(accessible.contains(new WalkPosition(4, 4)));
+        assertTrue(accessible.contains(new WalkPosition(0, 31)));
+        assertTrue(accessible.contains(new WalkPosition(23, 31)));
+    }
+
+    @Test
+    void testStopsAtWall() {
+        assertFalse(accessible.contains(new WalkPosition(24, 4)));
+        assertFalse(accessible.contains(new WalkPosition(30, 4)));
+        assertFalse(accessible.contains(new WalkPosition(47, 31)));
+    }
+
+    @Test
+    void testMineralFieldBlocksItsFootprint() {
+        assertFalse(accessible.contains(new WalkPosition(8, 21)));
+        assertFalse(accessible.contains(new WalkPosition(11, 22)));
+        assertTrue(accessible.contains(new WalkPosition(7, 21)));
+        assertTrue(accessible.contains(new WalkPosition(12, 22)));
+        assertTrue(accessible.contains(new WalkPosition(9, 23)));
+    }
+
+    @Test
+    void testOutOfBoundsIsNotAccessible() {
+        assertFalse(accessible.contains(new WalkPosition(-1, 0)));
+        assertFalse(accessible.contains(new WalkPosition(0, 32)));
+    }
+}
@@ -0,0 +1,86 @@
+package info.tracking;
+
+import bwapi.Position;
+import bwapi.Unit;
+import bwapi.UnitType;
+import headless.GameSnapshot;
+import headless.HeadlessGame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.Time;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+/**
+ * Drives ObservedUnitTracker through a headless snapshot frame by frame.
+ */
+public class ObservedUnitTrackerTest {
+
+    private HeadlessGame headless;
+    private ObservedUnitTracker tracker;
+    private Unit zergling;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        headless = new HeadlessGame(GameSnapshot.load("headless/two_rooms.snapshot"));
+        tracker = new ObservedUnitTracker();
+        zergling = headless.getUnit(2);
+        tracker.onUnitShow(zergling, headless.getGame().getFrameCount(), false);
+        tracker.onFrame(headless.getGame().getFrameCount());
+    }
+
+    @Test
+    void testFollowsVisibleUnit() {
+        assertEquals(1, tracker.getLivingObservedUnitsNear(new Position(160, 40), 16).size());
+
+        headless.advanceFrame();
+        tracker.onFrame(headless.getGame().getFrameCount());
+
+        assertTrue(tracker.getLivingObservedUnitsNear(new Position(160, 40), 16).isEmpty());
+        assertEquals(1, tracker.getLivingObservedUnitsNear(new Position(160, 120), 16).size());
+        assertEquals(new Position(160, 120), tracker.getLastKnownPosition(zergling));
+    }
+
+    @Test
+    void testRemembersHiddenUnit() {
+        headless.advanceFrame();
+        tracker.onFrame(headless.getGame().getFrameCount());
+        headless.advanceFrame();
+        tracker.onUnitHide(zergling, headless.getGame().getFrameCount());
+        tracker.onFrame(headless.getGame().getFrameCount());
+
+        assertEquals(new Position(160, 120), tracker.getLastKnownPosition(zergling));
+        assertEquals(1, tracker.getCountOfLivingUnits(UnitType.Zerg_Zergling));
+        assertTrue(tracker.getVisibleEnemyUnits().isEmpty());
+    }
+
+    @Test
+    void testArchivesDestroyedUnit() {
+        tracker.onUnitDestroy(zergling, headless.getGame().getFrameCount());
+
+        assertEquals(0, tracker.getCountOfLivingUnits(UnitType.Zerg_Zergling));
+        assertEquals(0, tracker.getCountOfAllEnemyUnits());
+        assertEquals(1, tracker.size());
+        assertEquals(1, tracker.getUnitTypeCountBeforeTime(UnitType.Zerg_Zergling, new Time(1)));
+        assertTrue(tracker.getLivingObservedUnitsNear(new Position(160, 40), 16).isEmpty());
+    }
+
+    @Test
+    void testReportsChangedUnitTypes() {
+        assertTrue(tracker.getChangedUnitTypes().contains(UnitType.Zerg_Zergling));
+        tracker.clearChangedUnitTypes();
+
+        tracker.onFrame(headless.getGame().getFrameCount());
+        assertTrue(tracker.getChangedUnitTypes().isEmpty());
+
+        headless.advanceFrame();
+        tracker.onFrame(headless.getGame().getFrameCount());
+        assertTrue(tracker.getChangedUnitTypes().contains(UnitType.Zerg_Zergling));
+        tracker.clearChangedUnitTypes();
+
+        tracker.onUnitDestroy(zergling, headless.getGame().getFrameCount());
+        assertTrue(tracker.getChangedUnitTypes().contains(UnitType.Zerg_Zergling));
+    }
+}
@@ -0,0 +1,63 @@
+package info.tracking;
+
+import bwapi.Position;
+import bwapi.Race;
+import bwapi.Unit;
+import bwapi.UnitType;
+import info.map.ThreatGrid;
+import org.junit.jupiter.api.Test;
+import util.Time;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PathThreatsTest {
+
+    private static final int WIDTH = 32;
+    private static final int HEIGHT = 16;
+
+    private final ThreatGrid ground = new ThreatGrid(WIDTH, HEIGHT);
+    private final ThreatGrid air = new ThreatGrid(WIDTH, HEIGHT);
+    private final PathThreats pathThreats = new PathThreats(ground, air);
+    private final StaticDefenseCoverage coverage = new StaticDefenseCoverage(Race.Protoss, WIDTH, HEIGHT);
+
+    private ObservedUnit observed(UnitType type, int x, int y, int frame) {
+        Unit unit = mock(Unit.class);
+        when(unit.getType()).thenReturn(type);
+        when(unit.getPosition()).thenReturn(new Position(x, y));
+        return new ObservedUnit(unit, new Time(frame), false);
+    }
+
+    private void refresh(int frame, ObservedUnit... units) {
+        ObservedUnitTracker tracker = mock(ObservedUnitTracker.class);
+        when(tracker.getLivingObservedUnits()).thenReturn(Arrays.asList(units));
+        PsiStormTracker storms = mock(PsiStormTracker.class);
+        when(storms.getActiveStormPositions()).thenReturn(Collections.emptySet());
+        pathThreats.onFrame(frame, tracker, coverage, storms);
+    }
+
+    @Test
+    void testReaverAndCarrierArePriced() {
+        refresh(100, observed(UnitType.Protoss_Reaver, 80, 240, 100), observed(UnitType.Protoss_Carrier, 720, 240, 100));
+
+        // Eight tiles of reach plus padding, with no weapon of their own
+        assertTrue(ground.cost(9, 7) > 0);
+        assertEquals(0, air.cost(2, 7));
+        assertTrue(ground.cost(22, 7) > 0);
+        assertTrue(air.cost(22, 7) > 0);
+    }
+
+    @Test
+    void testStaleSightingsAreDropped() {
+        refresh(100, observed(UnitType.Zerg_Hydralisk, 80, 240, 100));
+        assertTrue(ground.cost(2, 7) > 0);
+
+        refresh(1000, observed(UnitType.Zerg_Hydralisk, 80, 240, 100));
+        assertEquals(0, ground.cost(2, 7));
+        assertEquals(0, air.cost(2, 7));
+    }
+}
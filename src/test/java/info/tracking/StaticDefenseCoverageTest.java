@@ -0,0 +1,60 @@
+package info.tracking;
+
+import bwapi.Position;
+import bwapi.Race;
+import bwapi.UnitType;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+public class StaticDefenseCoverageTest {
+
+    private static final int WIDTH = 32;
+    private static final int HEIGHT = 32;
+
+    private static final Position CANNON = new Position(160, 160);
+    private static final Position SUNKEN = new Position(480, 160);
+    private static final Position BUNKER = new Position(160, 480);
+
+    private final ObservedUnitTracker tracker = mock(ObservedUnitTracker.class);
+
+    private StaticDefenseCoverage coverage(Race race) {
+        when(tracker.getLastKnownPositionsOfLivingUnits(UnitType.Protoss_Photon_Cannon)).thenReturn(Collections.singleton(CANNON));
+        when(tracker.getLastKnownPositionsOfLivingUnits(UnitType.Zerg_Sunken_Colony)).thenReturn(Collections.singleton(SUNKEN));
+        when(tracker.getLastKnownPositionsOfLivingUnits(UnitType.Terran_Bunker)).thenReturn(Collections.singleton(BUNKER));
+        return new StaticDefenseCoverage(race, WIDTH, HEIGHT);
+    }
+
+    @Test
+    void testUnknownRaceCoversEveryRace() {
+        StaticDefenseCoverage coverage = coverage(Race.Unknown);
+        coverage.onFrame(tracker);
+
+        assertTrue(coverage.getGround().isCovered(CANNON));
+        assertTrue(coverage.getGround().isCovered(SUNKEN));
+        assertTrue(coverage.getGround().isCovered(BUNKER));
+        assertTrue(coverage.getAir().isCovered(BUNKER));
+    }
+
+    @Test
+    void testUpdatedRaceIsCovered() {
+        StaticDefenseCoverage coverage = coverage(Race.Unknown);
+        coverage.onFrame(tracker);
+
+        coverage.updateRace(Race.Protoss);
+        coverage.onFrame(tracker);
+        assertTrue(coverage.getGround().isCovered(CANNON));
+        assertTrue(coverage.getAir().isCovered(CANNON));
+        assertFalse(coverage.getGround().isCovered(SUNKEN));
+        assertFalse(coverage.getGround().isCovered(BUNKER));
+
+        coverage.updateRace(Race.Zerg);
+        coverage.onFrame(tracker);
+        assertTrue(coverage.getGround().isCovered(SUNKEN));
+        assertFalse(coverage.getGround().isCovered(CANNON));
+    }
+}
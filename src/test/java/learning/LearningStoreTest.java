@@ -0,0 +1,165 @@
+package learning;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LearningStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static GameRecord game(long timestamp, boolean win, String opener, String buildOrder) {
+        return GameRecord.builder()
+            .timestamp(timestamp)
+            .isWinner(win)
+            .numStartingLocations(4)
+            .mapName("(4)Polypoid_1.65.scx")
+            .opponentName("Opponent, Inc")
+            .opponentRace("Protoss")
+            .opener(opener)
+            .buildOrder(buildOrder)
+            .detectedStrategies("2Gate;1Base")
+            .build();
+    }
+
+    private static List<GameRecord> readAll(Path path) throws IOException {
+        List<GameRecord> games = new ArrayList<>();
+        new LearningStore(path, "Opponent, Inc", "Protoss").read(games::add);
+        return games;
+    }
+
+    private static void appendBlockHeader(Path path, int length) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length());
+            file.writeByte(2);
+            file.writeInt(length);
+        }
+    }
+
+    @Test
+    void appendedGamesReadBackInOrder() throws IOException {
+        Path path = dir.resolve("opponent.bin");
+        LearningStore store = new LearningStore(path, "Opponent, Inc", "Protoss");
+        List<GameRecord> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            GameRecord game = game(1000L + i, i % 3 == 0, i % 2 == 0 ? "Overpool" : "12Hatch", "3HatchMuta");
+            store.append(game);
+            expected.add(game);
+        }
+
+        assertEquals(expected, readAll(path));
+    }
+
+    @Test
+    void tornTailIsIgnoredAndTruncatedOnAppend() throws IOException {
+        Path path = dir.resolve("opponent.bin");
+        LearningStore store = new LearningStore(path, "Opponent, Inc", "Protoss");
+        store.append(game(1, true, "Overpool", "Overpool"));
+        store.append(game(2, false, "Overpool", "Overpool"));
+        long size = Files.size(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size - 3);
+        }
+
+        assertEquals(1, readAll(path).size());
+
+        LearningStore reopened = new LearningStore(path, "Opponent, Inc", "Protoss");
+        reopened.append(game(3, true, "12Hatch", "12Hatch"));
+        List<GameRecord> games = readAll(path);
+        assertEquals(2, games.size());
+        assertEquals(3, games.get(1).getTimestamp());
+    }
+
+    @Test
+    void corruptBlockLengthIsNotAllocated() throws IOException {
+        Path path = dir.resolve("opponent.bin");
+        LearningStore store = new LearningStore(path, "Opponent, Inc", "Protoss");
+        store.append(game(1, true, "Overpool", "Overpool"));
+        long size = Files.size(path);
+
+        appendBlockHeader(path, Integer.MAX_VALUE);
+        assertEquals(1, readAll(path).size());
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size);
+        }
+        appendBlockHeader(path, -1);
+        assertThrows(IOException.class, () -> readAll(path));
+    }
+
+    @Test
+    void unknownStringIdIsRejected() throws IOException {
+        Path path = dir.resolve("opponent.bin");
+        LearningStore store = new LearningStore(path, "Opponent, Inc", "Protoss");
+        store.append(game(1, true, "Overpool", "Overpool"));
+
+        appendBlockHeader(path, 17);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length());
+            file.writeLong(2);
+            file.writeBoolean(false);
+            file.writeByte(4);
+            file.writeShort(0);
+            file.writeShort(0);
+            file.writeShort(0);
+            file.writeShort(9999);
+        }
+        assertThrows(IOException.class, () -> readAll(path));
+    }
+
+    @Test
+    void oversizedStringTableIsRejected() throws IOException {
+        Path path = dir.resolve("opponent.bin");
+        List<GameRecord> games = new ArrayList<>();
+        for (int i = 0; i <= LearningStore.MAX_STRINGS / 2; i++) {
+            games.add(game(i, true, "opener" + i, "build" + i));
+        }
+        LearningStore store = new LearningStore(path, "Opponent, Inc", "Protoss");
+        store.append(game(0, true, "Overpool", "Overpool"));
+
+        assertThrows(IOException.class, () -> store.rewrite(games));
+        assertEquals(1, readAll(path).size());
+    }
+
+    @Test
+    void compactionKeepsEveryGame() throws IOException {
+        Path path = dir.resolve("opponent.bin");
+        LearningStore store = new LearningStore(path, "Opponent, Inc", "Protoss");
+        List<GameRecord> expected = new ArrayList<>();
+        for (int i = 0; i < LearningStore.COMPACTION_THRESHOLD + 5; i++) {
+            GameRecord game = game(i, i % 2 == 0, "Overpool", "3HatchMuta");
+            store.append(game);
+            expected.add(game);
+        }
+
+        assertEquals(5, store.getAppendedGames());
+        assertEquals(expected, readAll(path));
+        assertFalse(Files.exists(dir.resolve("opponent.bin.tmp")));
+    }
+
+    @Test
+    void csvRoundTrip() throws IOException {
+        Path path = dir.resolve("opponent.bin");
+        LearningStore store = new LearningStore(path, "Opponent, Inc", "Protoss");
+        List<GameRecord> expected = new ArrayList<>();
+        expected.add(game(1, true, "Overpool", "3HatchMuta"));
+        expected.add(game(2, false, "12Hatch", "12Hatch"));
+        store.rewrite(expected);
+
+        Path csv = dir.resolve("opponent.csv");
+        store.exportCsv(csv);
+        List<GameRecord> imported = new ArrayList<>();
+        assertEquals(2, LearningStore.importCsv(csv, imported::add));
+        assertEquals(expected, imported);
+    }
+}
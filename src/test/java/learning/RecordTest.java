@@ -6,6 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 /**
  * Unit tests for Record D-UCB implementation.
@@ -362,4 +365,55 @@ public class RecordTest {
         double index = recordA.index(100);
         assertTrue(index > 1.0, "All wins should produce high index");
     }
+
+    /**
+     * The running sums must match the README definition, weighting games newest-first by 0.95^age,
+     * both for in order appends and for a history that arrives shuffled.
+     */
+    @Test
+    void testIncrementalMatchesDefinition() {
+        Random random = new Random(7);
+        List<long[]> games = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            games.add(new long[]{baseTime + i * 1000L, random.nextBoolean() ? 1 : 0});
+        }
+
+        double discountedWins = 0;
+        double discountedGames = 0;
+        for (int age = 0; age < games.size(); age++) {
+            long[] game = games.get(games.size() - 1 - age);
+            double weight = Math.pow(0.95, age);
+            discountedGames += weight;
+            if (game[1] == 1) {
+                discountedWins += weight;
+            }
+        }
+        double expected = discountedWins / discountedGames + Math.sqrt(2 * Math.log(500) / discountedGames);
+
+        for (long[] game : games) {
+            addGame(recordA, game);
+        }
+        List<long[]> shuffled = new ArrayList<>(games);
+        Collections.shuffle(shuffled, random);
+        for (long[] game : shuffled) {
+            addGame(recordB, game);
+        }
+
+        assertEquals(expected, recordA.index(500), 1e-9);
+        assertEquals(expected, recordB.index(500), 1e-9);
+
+        recordA.addWinTimestamp(baseTime + 300 * 1000L);
+        double afterWin = (0.95 * discountedWins + 1) / (0.95 * discountedGames + 1);
+        assertEquals(afterWin + Math.sqrt(2 * Math.log(500) / (0.95 * discountedGames + 1)), recordA.index(500), 1e-9);
+    }
+
+    private static void addGame(Record record, long[] game) {
+        if (game[1] == 1) {
+            record.setWins(record.getWins() + 1);
+            record.addWinTimestamp(game[0]);
+        } else {
+            record.setLosses(record.getLosses() + 1);
+            record.addLossTimestamp(game[0]);
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package macro;
+
+import bwapi.UnitType;
+import bwapi.UpgradeType;
+import macro.plan.BuildingPlan;
+import macro.plan.Plan;
+import macro.plan.PlanType;
+import macro.plan.UnitPlan;
+import macro.plan.UpgradePlan;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ProductionQueueTest {
+
+    @Test
+    void testPollsByPriorityThenInsertion() {
+        ProductionQueue queue = new ProductionQueue();
+        Plan drone = new UnitPlan(UnitType.Zerg_Drone, 5);
+        Plan pool = new BuildingPlan(UnitType.Zerg_Spawning_Pool, 1);
+        Plan overlord = new UnitPlan(UnitType.Zerg_Overlord, 5);
+        queue.addAll(Arrays.asList(drone, pool, overlord));
+
+        assertEquals(1, queue.minPriority());
+        assertEquals(Arrays.asList(pool, drone, overlord), queue.toSortedList());
+        assertEquals(pool, queue.poll());
+        assertEquals(drone, queue.poll());
+        assertEquals(overlord, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void testSetPriorityReordersQueuedPlan() {
+        ProductionQueue queue = new ProductionQueue();
+        Plan drone = new UnitPlan(UnitType.Zerg_Drone, 1);
+        Plan hatchery = new BuildingPlan(UnitType.Zerg_Hatchery, 10);
+        queue.add(drone);
+        queue.add(hatchery);
+
+        queue.setPriority(hatchery, 0);
+
+        assertEquals(0, hatchery.getPriority());
+        assertEquals(hatchery, queue.poll());
+        queue.remove(drone);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void testKeyedRemoveOnlyTouchesMatchingPlans() {
+        ProductionQueue queue = new ProductionQueue();
+        Plan droneA = new UnitPlan(UnitType.Zerg_Drone, 1);
+        Plan droneB = new UnitPlan(UnitType.Zerg_Drone, 2);
+        Plan hatchery = new BuildingPlan(UnitType.Zerg_Hatchery, 3);
+        queue.addAll(Arrays.asList(droneA, droneB, hatchery));
+
+        assertEquals(2, queue.countPlanned(PlanType.UNIT, UnitType.Zerg_Drone));
+        assertFalse(queue.isPlanned(PlanType.BUILDING, UnitType.Zerg_Drone));
+
+        List<Plan> removed = new ArrayList<>();
+        queue.removeWhere(PlanType.UNIT, UnitType.Zerg_Drone, p -> p.getPriority() > 1, removed::add);
+
+        assertEquals(Arrays.asList(droneB), removed);
+        assertEquals(Arrays.asList(droneA, hatchery), queue.toSortedList());
+        assertEquals(1, queue.countPlanned(PlanType.UNIT, UnitType.Zerg_Drone));
+    }
+
+    @Test
+    void testUpgradeIndex() {
+        ProductionQueue queue = new ProductionQueue();
+        Plan speed = new UpgradePlan(UpgradeType.Metabolic_Boost, 20);
+        queue.add(new UnitPlan(UnitType.Zerg_Zergling, 10));
+        queue.add(speed);
+
+        assertTrue(queue.isPlanned(UpgradeType.Metabolic_Boost));
+        queue.setPriorityWhere(UpgradeType.Metabolic_Boost, 0);
+        assertEquals(speed, queue.poll());
+        assertFalse(queue.isPlanned(UpgradeType.Metabolic_Boost));
+    }
+}
@@ -0,0 +1,67 @@
+package unit.squad;
+
+import bwapi.Position;
+import bwapi.Unit;
+import bwapi.UnitType;
+import org.junit.jupiter.api.Test;
+import unit.managed.ManagedUnit;
+import unit.managed.UnitRole;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+public class SquadTest {
+
+    private static int nextId = 0;
+
+    private static ManagedUnit zergling(int x, int y) {
+        Unit unit = mock(Unit.class);
+        when(unit.getID()).thenReturn(nextId++);
+        when(unit.getType()).thenReturn(UnitType.Zerg_Zergling);
+        when(unit.getPosition()).thenReturn(new Position(x, y));
+        return new ManagedUnit(null, unit, UnitRole.FIGHT, null);
+    }
+
+    @Test
+    void testStragglersAreOutliers() {
+        Squad squad = new GroundSquad();
+        for (int i = 0; i < 6; i++) {
+            squad.addUnit(zergling(1000 + 20 * i, 1000));
+        }
+        ManagedUnit straggler = zergling(1600, 1000);
+        ManagedUnit otherStraggler = zergling(1000, 1700);
+        squad.addUnit(straggler);
+        squad.addUnit(otherStraggler);
+
+        List<ManagedUnit> outliers = squad.findOutliers(128);
+        assertEquals(new HashSet<>(Arrays.asList(straggler, otherStraggler)), new HashSet<>(outliers));
+    }
+
+    @Test
+    void testChainedColumnStaysTogether() {
+        Squad squad = new GroundSquad();
+        for (int i = 0; i < 12; i++) {
+            squad.addUnit(zergling(500 + 100 * i, 500));
+        }
+
+        assertTrue(squad.findOutliers(128).isEmpty());
+    }
+
+    @Test
+    void testSmallerGroupSplitsFromLargest() {
+        Squad squad = new GroundSquad();
+        for (int i = 0; i < 5; i++) {
+            squad.addUnit(zergling(300 + 16 * i, 300));
+        }
+        for (int i = 0; i < 3; i++) {
+            squad.addUnit(zergling(2000 + 16 * i, 2000));
+        }
+
+        assertEquals(3, squad.findOutliers(128).size());
+    }
+}
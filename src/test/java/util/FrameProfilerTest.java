@@ -0,0 +1,59 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrameProfilerTest {
+
+    @Test
+    void testPercentilesOverWindow() {
+        FrameProfiler.PhaseStats stats = new FrameProfiler.PhaseStats("test");
+        for (int i = 1; i <= 100; i++) {
+            stats.record(i);
+        }
+
+        assertEquals(50, stats.getP50());
+        assertEquals(95, stats.getP95());
+        assertEquals(100, stats.getMax());
+        assertEquals(100, stats.getLast());
+    }
+
+    @Test
+    void testWindowRollsButMaxIsKept() {
+        FrameProfiler.PhaseStats stats = new FrameProfiler.PhaseStats("test");
+        stats.record(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            stats.record(1);
+        }
+
+        assertEquals(1, stats.getP95());
+        assertEquals(1_000, stats.getMax());
+        assertEquals(1_001, stats.getCount());
+    }
+
+    @Test
+    void testDefersOnceBudgetIsSpent() {
+        FrameProfiler profiler = new FrameProfiler();
+        profiler.startFrame();
+        assertTrue(profiler.timeDeferrable("cheap", () -> { }));
+
+        profiler.time("slow", () -> sleep(60));
+        assertFalse(profiler.timeDeferrable("cheap", () -> { }));
+        profiler.endFrame();
+
+        assertEquals(1, profiler.getDeferredThisFrame());
+        assertEquals(1, profiler.getPhases().get("cheap").getDeferred());
+        assertEquals(1, profiler.getFramesOver55ms());
+        assertEquals(0, profiler.getFramesOver1s());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
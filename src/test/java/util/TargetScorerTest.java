@@ -0,0 +1,93 @@
+package util;
+
+import bwapi.Unit;
+import bwapi.UnitType;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TargetScorerTest {
+
+    private int nextId = 0;
+
+    private Unit unit(UnitType type, int hitPoints, int shields) {
+        Unit unit = mock(Unit.class);
+        when(unit.getType()).thenReturn(type);
+        when(unit.getHitPoints()).thenReturn(hitPoints);
+        when(unit.getShields()).thenReturn(shields);
+        when(unit.getID()).thenReturn(nextId++);
+        return unit;
+    }
+
+    private Unit attackerAt(Map<Unit, Integer> distances) {
+        Unit attacker = unit(UnitType.Zerg_Zergling, 35, 0);
+        for (Map.Entry<Unit, Integer> entry : distances.entrySet()) {
+            when(attacker.getDistance(entry.getKey())).thenReturn(entry.getValue());
+        }
+        return attacker;
+    }
+
+    @Test
+    void testPrescoreSumsHitPointsAndShields() {
+        TargetScorer.Candidate candidate = TargetScorer.prescore(unit(UnitType.Protoss_Zealot, 40, 20));
+
+        assertEquals(60, candidate.getHitPoints());
+    }
+
+    @Test
+    void testArmedTargetOutranksCloserWorker() {
+        Unit marine = unit(UnitType.Terran_Marine, 40, 0);
+        Unit scv = unit(UnitType.Terran_SCV, 60, 0);
+        Map<Unit, Integer> distances = new HashMap<>();
+        distances.put(marine, 200);
+        distances.put(scv, 20);
+        Unit attacker = attackerAt(distances);
+
+        List<TargetScorer.Candidate> candidates = Arrays.asList(TargetScorer.prescore(scv), TargetScorer.prescore(marine));
+        TargetScorer.Candidate best = TargetScorer.selectCandidate(attacker, candidates, null, Collections.emptyMap());
+
+        assertSame(marine, best.getUnit());
+    }
+
+    @Test
+    void testCoveredTargetRanksBelowUncovered() {
+        Unit near = unit(UnitType.Terran_Marine, 40, 0);
+        Unit far = unit(UnitType.Terran_Marine, 40, 0);
+        Map<Unit, Integer> distances = new HashMap<>();
+        distances.put(near, 20);
+        distances.put(far, 200);
+        Unit attacker = attackerAt(distances);
+        List<TargetScorer.Candidate> candidates = Arrays.asList(TargetScorer.prescore(near), TargetScorer.prescore(far));
+
+        assertSame(near, TargetScorer.selectCandidate(attacker, candidates, null, Collections.emptyMap()).getUnit());
+
+        Map<Unit, Double> committed = new HashMap<>();
+        committed.put(near, 40.0);
+        assertSame(far, TargetScorer.selectCandidate(attacker, candidates, null, committed).getUnit());
+
+        committed.put(far, 40.0);
+        assertSame(near, TargetScorer.selectCandidate(attacker, candidates, null, committed).getUnit());
+    }
+
+    @Test
+    void testSelectTargetMatchesSelectCandidate() {
+        Unit injured = unit(UnitType.Terran_Marine, 10, 0);
+        Unit healthy = unit(UnitType.Terran_Marine, 40, 0);
+        Map<Unit, Integer> distances = new HashMap<>();
+        distances.put(injured, 100);
+        distances.put(healthy, 100);
+        Unit attacker = attackerAt(distances);
+
+        assertSame(injured, TargetScorer.selectTarget(attacker, Arrays.asList(healthy, injured), null));
+        assertNull(TargetScorer.selectCandidate(attacker, Collections.emptyList(), null, Collections.emptyMap()));
+    }
+}